@@ -0,0 +1,25 @@
+package br.com.rafas.transportes.api.controller;
+
+import br.com.rafas.transportes.api.dto.DadosDisponibilidade;
+import br.com.rafas.transportes.api.service.DisponibilidadeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/disponibilidade")
+@CrossOrigin(origins = "*")
+public class DisponibilidadeController {
+
+    @Autowired
+    private DisponibilidadeService service;
+
+    @GetMapping
+    public ResponseEntity<DadosDisponibilidade> consultar(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return ResponseEntity.ok(service.consultar(inicio, fim));
+    }
+}
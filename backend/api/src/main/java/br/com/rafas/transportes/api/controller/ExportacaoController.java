@@ -0,0 +1,36 @@
+package br.com.rafas.transportes.api.controller;
+
+import br.com.rafas.transportes.api.service.ExportacaoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/export")
+@CrossOrigin(origins = "*")
+public class ExportacaoController {
+
+    @Autowired
+    private ExportacaoService service;
+
+    @GetMapping("/{tipo}")
+    public ResponseEntity<StreamingResponseBody> exportar(@PathVariable String tipo,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                          @RequestParam(defaultValue = "false") boolean gzip) {
+        var corpo = service.exportar(tipo, de, ate, gzip);
+        var arquivo = ContentDisposition.attachment().filename(tipo + (gzip ? ".csv.gz" : ".csv")).build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, arquivo.toString())
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(corpo);
+    }
+}
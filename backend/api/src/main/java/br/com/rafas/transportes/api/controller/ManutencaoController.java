@@ -1,16 +1,26 @@
 package br.com.rafas.transportes.api.controller; // Movi para o pacote controller
 
+import br.com.rafas.transportes.api.domain.custo.DimensaoCustoManutencao;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoManutencao;
+import br.com.rafas.transportes.api.dto.DadosCustoManutencao;
 import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoManutencao;
+import br.com.rafas.transportes.api.dto.DadosManutencoesPendentes;
+import br.com.rafas.transportes.api.dto.DadosPrevisaoManutencao;
+import br.com.rafas.transportes.api.dto.DadosRankingCustoKm;
+import br.com.rafas.transportes.api.service.CustoManutencaoService;
 import br.com.rafas.transportes.api.service.ManutencaoService;
+import br.com.rafas.transportes.api.service.PendenciaManutencaoService;
+import br.com.rafas.transportes.api.service.PrevisaoManutencaoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -21,6 +31,15 @@ public class ManutencaoController {
     @Autowired
     private ManutencaoService manutencaoService;
 
+    @Autowired
+    private PrevisaoManutencaoService previsaoService;
+
+    @Autowired
+    private PendenciaManutencaoService pendenciaService;
+
+    @Autowired
+    private CustoManutencaoService custoService;
+
     @PostMapping
     @Transactional
     public ResponseEntity<DadosDetalhamentoManutencao> cadastrar(@RequestBody @Valid DadosCadastroManutencao dados, UriComponentsBuilder uriBuilder) {
@@ -35,6 +54,39 @@ public class ManutencaoController {
         return ResponseEntity.ok(lista);
     }
 
+    @GetMapping("/previsao")
+    public ResponseEntity<List<DadosPrevisaoManutencao>> previsao() {
+        return ResponseEntity.ok(previsaoService.prever());
+    }
+
+    @GetMapping("/pendentes")
+    public ResponseEntity<DadosManutencoesPendentes> pendentes(@RequestParam(required = false) Integer antecedenciaKm,
+                                                               @RequestParam(required = false) Integer antecedenciaDias) {
+        return ResponseEntity.ok(pendenciaService.listar(antecedenciaKm, antecedenciaDias));
+    }
+
+    @GetMapping("/custos")
+    public ResponseEntity<DadosCustoManutencao> custos(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth de,
+                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth ate,
+                                                       @RequestParam(required = false) List<DimensaoCustoManutencao> agrupar,
+                                                       @RequestParam(required = false) Long veiculoId,
+                                                       @RequestParam(required = false) String type) {
+        return ResponseEntity.ok(custoService.consultar(de, ate, agrupar, veiculoId, type));
+    }
+
+    @GetMapping("/custos/ranking")
+    public ResponseEntity<List<DadosRankingCustoKm>> rankingCustoPorKm(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth de,
+                                                                       @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth ate,
+                                                                       @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(custoService.ranking(de, ate, limite));
+    }
+
+    @PostMapping("/custos/reconstruir")
+    public ResponseEntity<Void> reconstruirCustos() {
+        custoService.reconstruir();
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}")
     @Transactional
     public ResponseEntity<DadosDetalhamentoManutencao> atualizar(@PathVariable Long id, @RequestBody @Valid DadosAtualizacaoManutencao dados) {
@@ -7,14 +7,25 @@ package br.com.rafas.transportes.api.controller;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoMotorista;
 import br.com.rafas.transportes.api.dto.DadosCadastroMotorista;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoMotorista;
+import br.com.rafas.transportes.api.dto.DadosImpactoExclusao;
+import br.com.rafas.transportes.api.dto.DadosRelatorioJornada;
+import br.com.rafas.transportes.api.service.AgendaMotoristaService;
+import br.com.rafas.transportes.api.service.InspetorDependencias;
+import br.com.rafas.transportes.api.service.JornadaMotoristaService;
 import br.com.rafas.transportes.api.service.MotoristaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -25,6 +36,15 @@ public class MotoristaController {
     @Autowired
     private MotoristaService service;
 
+    @Autowired
+    private JornadaMotoristaService jornadaService;
+
+    @Autowired
+    private AgendaMotoristaService agendaService;
+
+    @Autowired
+    private InspetorDependencias inspetorDependencias;
+
     @PostMapping
     @Transactional
     public ResponseEntity cadastrar(@RequestBody @Valid DadosCadastroMotorista dados, UriComponentsBuilder uriBuilder) {
@@ -41,6 +61,31 @@ public class MotoristaController {
         return ResponseEntity.ok(lista);
     }
 
+    @GetMapping("/jornada")
+    public ResponseEntity<DadosRelatorioJornada> jornada(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        var relatorio = jornadaService.gerar(de, ate);
+        return ResponseEntity.ok(relatorio);
+    }
+
+    @GetMapping("/{id}/agenda.ics")
+    public ResponseEntity<byte[]> agenda(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(agendaService.etag(id))) {
+            return null;
+        }
+        var feed = agendaService.gerar(id);
+        return ResponseEntity.ok()
+                .eTag(feed.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                .body(feed.corpo());
+    }
+
+    @GetMapping("/{id}/impacto")
+    public ResponseEntity<DadosImpactoExclusao> impacto(@PathVariable Long id) {
+        return ResponseEntity.ok(inspetorDependencias.impacto(InspetorDependencias.Recurso.MOTORISTA, id));
+    }
+
     @PutMapping("/{id}")
     @Transactional
     public ResponseEntity atualizar(@PathVariable Long id, @RequestBody @Valid DadosAtualizacaoMotorista dados) {
@@ -4,12 +4,20 @@
 
 package br.com.rafas.transportes.api.controller;
 
-import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import br.com.rafas.transportes.api.domain.veiculo.log.GranularidadeQuilometragem;
+import br.com.rafas.transportes.api.dto.DadosArquivoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosPaginaQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosSerieQuilometragem;
+import br.com.rafas.transportes.api.service.ArquivoQuilometragemService;
 import br.com.rafas.transportes.api.service.QuilometragemLogService;
+import br.com.rafas.transportes.api.service.QuilometragemSerieService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,10 +27,39 @@ public class QuilometragemLogController {
   @Autowired
   private QuilometragemLogService quilometragemLogService;
 
+  @Autowired
+  private QuilometragemSerieService quilometragemSerieService;
+
+  @Autowired
+  private ArquivoQuilometragemService arquivoQuilometragemService;
+
   @GetMapping
-  public ResponseEntity<List<DadosDetalhamentoQuilometragemLog>> listarLogsPorVeiculo(@RequestParam Long veiculoId) {
-    List<DadosDetalhamentoQuilometragemLog> logs = quilometragemLogService.listarLogsPorVeiculo(veiculoId);
-    return ResponseEntity.ok(logs);
+  public ResponseEntity<DadosPaginaQuilometragemLog> listarLogsPorVeiculo(@RequestParam Long veiculoId,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime aposDataHora,
+                                                                          @RequestParam(required = false) Long aposId,
+                                                                          @RequestParam(required = false) Integer tamanho) {
+    var pagina = quilometragemLogService.listarLogsPorVeiculo(veiculoId, de, ate, aposDataHora, aposId, tamanho);
+    return ResponseEntity.ok(pagina);
+  }
+
+  @GetMapping("/serie")
+  public ResponseEntity<DadosSerieQuilometragem> serie(@RequestParam Long veiculoId,
+                                                       @RequestParam(required = false) GranularidadeQuilometragem granularidade,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+    return ResponseEntity.ok(quilometragemSerieService.serie(veiculoId, granularidade, de, ate));
+  }
+
+  @GetMapping("/arquivos")
+  public ResponseEntity<List<DadosArquivoQuilometragemLog>> listarArquivos() {
+    return ResponseEntity.ok(arquivoQuilometragemService.listarArquivos());
+  }
+
+  @PostMapping("/arquivos")
+  public ResponseEntity<List<DadosArquivoQuilometragemLog>> arquivar() {
+    return ResponseEntity.ok(arquivoQuilometragemService.arquivar());
   }
 
   @DeleteMapping("/{veiculoId}")
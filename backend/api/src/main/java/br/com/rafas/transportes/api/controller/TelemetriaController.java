@@ -0,0 +1,42 @@
+package br.com.rafas.transportes.api.controller;
+
+import br.com.rafas.transportes.api.dto.DadosLeituraKm;
+import br.com.rafas.transportes.api.dto.DadosMetricasTelemetria;
+import br.com.rafas.transportes.api.dto.DadosResultadoTelemetria;
+import br.com.rafas.transportes.api.service.TelemetriaKmService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/telemetria")
+public class TelemetriaController {
+
+  @Autowired
+  private TelemetriaKmService telemetriaKmService;
+
+  /**
+   * 202 quando todas as leituras válidas entraram no buffer; 429 com {@code Retry-After} quando alguma foi
+   * recusada por buffer cheio, para o rastreador reenviar só essas depois.
+   */
+  @PostMapping("/km")
+  public ResponseEntity<DadosResultadoTelemetria> receberKm(@RequestBody List<DadosLeituraKm> leituras) {
+    var resultado = telemetriaKmService.receber(leituras);
+    if (resultado.rejeitadasBufferCheio() > 0) {
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+              .header(HttpHeaders.RETRY_AFTER, "1")
+              .body(resultado);
+    }
+    return ResponseEntity.accepted().body(resultado);
+  }
+
+  @GetMapping("/km/metricas")
+  public ResponseEntity<DadosMetricasTelemetria> metricas() {
+    return ResponseEntity.ok(telemetriaKmService.metricas());
+  }
+
+}
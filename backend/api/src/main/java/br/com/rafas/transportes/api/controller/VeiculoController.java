@@ -3,7 +3,11 @@ package br.com.rafas.transportes.api.controller;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoVeiculo;
 import br.com.rafas.transportes.api.dto.DadosCadastroVeiculo;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoVeiculo;
+import br.com.rafas.transportes.api.dto.DadosImpactoExclusao;
+import br.com.rafas.transportes.api.dto.DadosPainelFrota;
 import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import br.com.rafas.transportes.api.service.InspetorDependencias;
+import br.com.rafas.transportes.api.service.PainelVeiculoService;
 import br.com.rafas.transportes.api.service.VeiculoService;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
@@ -29,12 +33,28 @@ public class VeiculoController {
     @Autowired
     private ManutencaoRepository manutencaoRepository;
 
+    @Autowired
+    private PainelVeiculoService painelService;
+
+    @Autowired
+    private InspetorDependencias inspetorDependencias;
+
     @GetMapping
     public ResponseEntity<List<DadosDetalhamentoVeiculo>> listar() {
         var listaDTO = repository.findAll().stream().map(DadosDetalhamentoVeiculo::new).toList();
         return ResponseEntity.ok(listaDTO);
     }
 
+    @GetMapping("/painel")
+    public ResponseEntity<DadosPainelFrota> painel() {
+        return ResponseEntity.ok(painelService.gerar());
+    }
+
+    @GetMapping("/{id}/impacto")
+    public ResponseEntity<DadosImpactoExclusao> impacto(@PathVariable Long id) {
+        return ResponseEntity.ok(inspetorDependencias.impacto(InspetorDependencias.Recurso.VEICULO, id));
+    }
+
     @PostMapping
     @Transactional
     public ResponseEntity cadastrar(@RequestBody @Valid DadosCadastroVeiculo dados, UriComponentsBuilder uriBuilder) {
@@ -1,17 +1,38 @@
 package br.com.rafas.transportes.api.controller;
 
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.receita.DimensaoReceita;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosBuscaViagem;
+import br.com.rafas.transportes.api.dto.DadosCalendarioMes;
 import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoViagem;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosPaginaViagem;
+import br.com.rafas.transportes.api.dto.DadosPedidoAtribuicao;
+import br.com.rafas.transportes.api.dto.DadosReceita;
+import br.com.rafas.transportes.api.dto.DadosResultadoAtribuicao;
+import br.com.rafas.transportes.api.dto.DadosRestricaoSobreposicao;
+import br.com.rafas.transportes.api.dto.DadosResultadoLoteViagem;
+import br.com.rafas.transportes.api.infra.RestricoesSobreposicaoViagem;
+import br.com.rafas.transportes.api.service.AtribuicaoViagemService;
+import br.com.rafas.transportes.api.service.CalendarioViagemService;
+import br.com.rafas.transportes.api.service.ReceitaViagemService;
+import br.com.rafas.transportes.api.service.ViagemLoteService;
 import br.com.rafas.transportes.api.service.ViagemService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/viagens")
@@ -21,6 +42,21 @@ public class ViagemController {
     @Autowired
     private ViagemService service;
 
+    @Autowired
+    private ViagemLoteService loteService;
+
+    @Autowired
+    private CalendarioViagemService calendarioService;
+
+    @Autowired
+    private AtribuicaoViagemService atribuicaoService;
+
+    @Autowired
+    private ReceitaViagemService receitaService;
+
+    @Autowired
+    private RestricoesSobreposicaoViagem restricoesSobreposicao;
+
     @PostMapping
     @Transactional
     public ResponseEntity<DadosDetalhamentoViagem> cadastrar(@RequestBody @Valid DadosCadastroViagem dados, UriComponentsBuilder uriBuilder) {
@@ -34,10 +70,85 @@ public class ViagemController {
         return ResponseEntity.created(uri).body(viagemDetalhada);
     }
 
+    @PostMapping("/lote")
+    @Transactional
+    public ResponseEntity<DadosResultadoLoteViagem> cadastrarEmLote(@RequestBody List<DadosCadastroViagem> dados) {
+        var resultado = loteService.cadastrarEmLote(dados);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping("/atribuicao/simulacao")
+    public ResponseEntity<DadosResultadoAtribuicao> simularAtribuicao(@RequestBody DadosPedidoAtribuicao dados) {
+        var resultado = atribuicaoService.simular(dados);
+        return ResponseEntity.ok(resultado);
+    }
+
+    /**
+     * Viagens do período [de, ate], paginadas por (startDate, id). A lista completa, sem janela, só sai com
+     * {@code todas=true} explícito.
+     */
     @GetMapping
-    public ResponseEntity<List<DadosDetalhamentoViagem>> listar() {
-        var lista = service.listarTodas();
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<?> listar(@RequestParam(defaultValue = "false") boolean todas,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+                                    @RequestParam(required = false) StatusViagem status,
+                                    @RequestParam(required = false) Long veiculoId,
+                                    @RequestParam(required = false) Long motoristaId,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aposData,
+                                    @RequestParam(required = false) Long aposId,
+                                    @RequestParam(required = false) Integer tamanho) {
+        if (todas) {
+            List<DadosDetalhamentoViagem> lista = service.listarTodas();
+            return ResponseEntity.ok(lista);
+        }
+        DadosPaginaViagem pagina = service.listarPorPeriodo(de, ate, status, veiculoId, motoristaId, aposData, aposId, tamanho);
+        return ResponseEntity.ok(pagina);
+    }
+
+    @GetMapping("/busca")
+    public ResponseEntity<DadosBuscaViagem> buscar(@RequestParam(required = false) String q,
+                                                   @RequestParam(required = false) Integer pagina,
+                                                   @RequestParam(required = false) Integer tamanho) {
+        var resultado = service.buscar(q, pagina, tamanho);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping("/calendario")
+    public ResponseEntity<DadosCalendarioMes> calendario(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        var calendario = calendarioService.consultar(mes);
+        return ResponseEntity.ok(calendario);
+    }
+
+    @GetMapping("/receita")
+    public ResponseEntity<DadosReceita> receita(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth de,
+                                                @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth ate,
+                                                @RequestParam(required = false) List<DimensaoReceita> agrupar,
+                                                @RequestParam(required = false) Set<StatusViagem> status,
+                                                @RequestParam(required = false) Long veiculoId,
+                                                @RequestParam(required = false) Long motoristaId,
+                                                @RequestParam(required = false) TipoViagem tipoViagem) {
+        var receita = receitaService.consultar(de, ate, agrupar, status, veiculoId, motoristaId, tipoViagem);
+        return ResponseEntity.ok(receita);
+    }
+
+    @PostMapping("/receita/reconstruir")
+    public ResponseEntity<Void> reconstruirReceita() {
+        receitaService.reconstruir();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/restricoes-sobreposicao")
+    public ResponseEntity<List<DadosRestricaoSobreposicao>> aplicarRestricoesSobreposicao() {
+        var restricoes = restricoesSobreposicao.aplicarRestricoes();
+        return ResponseEntity.ok(restricoes);
+    }
+
+    @GetMapping("/{id}/ocorrencias")
+    public ResponseEntity<List<DadosIntervaloViagem>> listarOcorrencias(@PathVariable Long id,
+                                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+                                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        var ocorrencias = service.listarOcorrencias(id, de, ate);
+        return ResponseEntity.ok(ocorrencias);
     }
 
     @PutMapping("/{id}")
@@ -12,7 +12,10 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
-@Table(name = "ferias")
+@Table(name = "ferias", indexes = {
+        @Index(name = "idx_ferias_periodo", columnList = "dataInicio, dataFim"),
+        @Index(name = "idx_ferias_motorista", columnList = "motorista_id")
+})
 @Entity(name = "Ferias")
 @Getter
 @NoArgsConstructor
@@ -18,7 +18,11 @@ import lombok.Setter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
-@Table(name = "manutencoes")
+@Table(name = "manutencoes", indexes = {
+        @Index(name = "idx_manutencoes_date", columnList = "date"),
+        @Index(name = "idx_manutencoes_veiculo", columnList = "veiculo_id"),
+        @Index(name = "idx_manutencoes_status", columnList = "status")
+})
 @Entity(name = "Manutencao")
 @Getter
 @Setter
@@ -43,8 +47,9 @@ public class Manutencao {
   @Column(nullable = false)
   private BigDecimal cost;
 
+  @Enumerated(EnumType.STRING)
   @Column(nullable = false)
-  private String status;
+  private StatusManutencao status;
 
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "veiculo_id", nullable = false)
@@ -64,7 +69,7 @@ public class Manutencao {
     this.type = dados.type();
     this.date = dados.date();
     this.cost = dados.cost();
-    this.status = dados.status();
+    this.status = StatusManutencao.de(dados.status());
     this.veiculo = veiculo;
     this.currentKm = dados.currentKm();
     this.proximaKm = dados.proximaKm();
@@ -85,7 +90,7 @@ public class Manutencao {
       this.cost = dados.cost();
     }
     if (dados.status() != null) {
-      this.status = dados.status();
+      this.status = StatusManutencao.de(dados.status());
     }
     if (veiculoAtualizado != null) {
       this.veiculo = veiculoAtualizado;
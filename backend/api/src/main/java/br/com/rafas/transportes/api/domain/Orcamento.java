@@ -9,7 +9,7 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
-@Table(name = "orcamentos")
+@Table(name = "orcamentos", indexes = @Index(name = "idx_orcamentos_data_id", columnList = "dataDoOrcamento, id"))
 @Entity(name = "Orcamento")
 @Getter
 @Setter
@@ -1,7 +1,25 @@
 package br.com.rafas.transportes.api.domain;
 
+/**
+ * Gravado no banco pelo nome; a API continua recebendo e devolvendo a descrição ("Agendada",
+ * "Realizada"), em qualquer caixa na entrada.
+ */
 public enum StatusManutencao {
-    AGENDADA,
-    REALIZADA,
-    CANCELADA;
+    AGENDADA("Agendada"),
+    REALIZADA("Realizada"),
+    CANCELADA("Cancelada");
+
+    private final String descricao;
+
+    StatusManutencao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public static StatusManutencao de(String valor) {
+        return valueOf(valor.trim().toUpperCase());
+    }
 }
@@ -5,5 +5,6 @@ public enum TipoViagem {
     IDA_E_VOLTA_MG,
     SOMENTE_IDA_MG,
     IDA_E_VOLTA_FORA_MG,
-    SOMENTE_IDA_FORA_MG
+    SOMENTE_IDA_FORA_MG,
+    ROTA_COLABORADORES
 }
\ No newline at end of file
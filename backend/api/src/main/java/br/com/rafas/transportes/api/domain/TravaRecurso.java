@@ -0,0 +1,48 @@
+package br.com.rafas.transportes.api.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Linha de trava de um veículo ou motorista para as gravações de viagem. Fica separada de {@code veiculos} e
+ * {@code motoristas} para que a trava não dispute a linha com quem atualiza o próprio cadastro, como o avanço
+ * do hodômetro. Criada sob demanda por {@code TravaRecursosViagem}.
+ */
+@Table(name = "travas_recurso_viagem")
+@Entity(name = "TravaRecurso")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "chave")
+public class TravaRecurso {
+
+    @EmbeddedId
+    private Chave chave;
+
+    public enum Tipo {
+        VEICULO,
+        MOTORISTA
+    }
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 10)
+        private Tipo tipo;
+
+        @Column(name = "recurso_id", nullable = false)
+        private Long recursoId;
+    }
+}
@@ -1,4 +1,6 @@
 package br.com.rafas.transportes.api.domain;
+import br.com.rafas.transportes.api.domain.rota.HorarioRota;
+import br.com.rafas.transportes.api.domain.rota.ItemRota;
 import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
 import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
@@ -7,16 +9,33 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 @Entity
-@Table(name = "viagens")
+@Table(name = "viagens", indexes = {
+        @Index(name = "idx_viagens_start_date_id", columnList = "startDate, id"),
+        @Index(name = "idx_viagens_vehicle_start_date", columnList = "vehicle_id, startDate"),
+        @Index(name = "idx_viagens_driver_start_date", columnList = "driver_id, startDate"),
+        @Index(name = "idx_viagens_status_start_date", columnList = "status, startDate"),
+        @Index(name = "idx_viagens_vehicle_start_at", columnList = "vehicle_id, startAt"),
+        @Index(name = "idx_viagens_driver_start_at", columnList = "driver_id, startAt"),
+        @Index(name = "idx_viagens_status_start_at", columnList = "status, startAt"),
+        @Index(name = "idx_viagens_status_end_at", columnList = "status, endAt"),
+        @Index(name = "idx_viagens_ciclo_status", columnList = "ciclo_status")
+})
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(of = "id")
 public class Viagem {
+    public static final String RESTRICAO_SOBREPOSICAO_VEICULO = "viagens_veiculo_sem_sobreposicao";
+    public static final String RESTRICAO_SOBREPOSICAO_MOTORISTA = "viagens_motorista_sem_sobreposicao";
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -31,9 +50,16 @@ public class Viagem {
     private LocalTime startTime;
     private LocalDate endDate;
     private LocalTime endTime;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private StatusViagem status;
+    /**
+     * Execução do {@code CicloStatusViagemService} que avançou o status pela última vez.
+     */
+    @Column(name = "ciclo_status", length = 36)
+    private String cicloStatus;
     private String clientName;
     private String telefone;
     private BigDecimal valor;
@@ -44,6 +70,9 @@ public class Viagem {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TipoViagem tipoViagem;
+    @OneToMany(mappedBy = "viagem", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    private List<ItemRota> itensRota = new ArrayList<>();
     public Viagem(DadosCadastroViagem dados, Veiculo veiculo, Motorista motorista) {
         this.title = dados.title();
         this.clientName = dados.clientName();
@@ -104,4 +133,33 @@ public class Viagem {
             this.motorista = motoristaAtualizado;
         }
     }
+    /**
+     * Substitui os itens de uma rota de colaboradores. A viagem passa a cobrir o período de todos os
+     * horários, sem veículo, motorista ou horário próprios: a ocupação fica nas regras dos itens.
+     */
+    public void definirItensRota(List<ItemRota> itens) {
+        this.itensRota.clear();
+        this.itensRota.addAll(itens);
+        this.veiculo = null;
+        this.motorista = null;
+        this.startTime = null;
+        this.endTime = null;
+        List<HorarioRota> horarios = itens.stream().flatMap(i -> i.getHorarios().stream()).toList();
+        this.startDate = horarios.stream().map(HorarioRota::getDataInicio).min(Comparator.naturalOrder()).orElse(this.startDate);
+        this.endDate = horarios.stream().map(HorarioRota::getDataFim).max(Comparator.naturalOrder()).orElse(this.endDate);
+    }
+    /**
+     * Início e fim como instantes, derivados das datas e horas; são eles que as restrições de exclusão
+     * do PostgreSQL comparam. Ficam nulos quando falta alguma parte ou o fim é anterior ao início.
+     */
+    @PrePersist
+    @PreUpdate
+    void atualizarPeriodo() {
+        this.startAt = instante(startDate, startTime);
+        LocalDateTime fim = instante(endDate, endTime);
+        this.endAt = startAt != null && fim != null && !fim.isBefore(startAt) ? fim : null;
+    }
+    public static LocalDateTime instante(LocalDate data, LocalTime hora) {
+        return data != null && hora != null ? LocalDateTime.of(data, hora) : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package br.com.rafas.transportes.api.domain.calendario;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Quantas viagens usam o veículo no dia; o veículo está em uso enquanto a contagem for positiva.
+ */
+@Table(name = "calendario_veiculos_dia")
+@Entity(name = "VeiculoDia")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "chave")
+public class VeiculoDia {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(nullable = false)
+    private Integer viagens;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(nullable = false)
+        private LocalDate dia;
+
+        @Column(name = "veiculo_id", nullable = false)
+        private Long veiculoId;
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.rafas.transportes.api.domain.calendario;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Quantas viagens de um status ocupam o dia e quanto valor elas somam. Uma viagem de vários dias conta
+ * em cada um deles, mas seu valor entra só no dia de início. Mantida por {@code CalendarioViagemService}.
+ */
+@Table(name = "calendario_viagens_dia")
+@Entity(name = "ViagensDia")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "chave")
+public class ViagensDia {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(nullable = false)
+    private Integer viagens;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(nullable = false)
+        private LocalDate dia;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false)
+        private StatusViagem status;
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.rafas.transportes.api.domain.custo;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Manutenções realizadas e custo somados por mês, veículo e tipo. O mês é guardado como o seu primeiro dia.
+ * Mantida por {@code CustoManutencaoService}.
+ */
+@Table(name = "custo_manutencoes_mes")
+@Entity(name = "CustoManutencaoMes")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "chave")
+public class CustoManutencaoMes {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(nullable = false)
+    private Integer manutencoes;
+
+    @Column(name = "custo_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal custoTotal;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(nullable = false)
+        private LocalDate mes;
+
+        @Column(name = "veiculo_id", nullable = false)
+        private Long veiculoId;
+
+        @Column(nullable = false)
+        private String type;
+    }
+}
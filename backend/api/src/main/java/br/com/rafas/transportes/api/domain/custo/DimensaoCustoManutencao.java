@@ -0,0 +1,7 @@
+package br.com.rafas.transportes.api.domain.custo;
+
+public enum DimensaoCustoManutencao {
+    MES,
+    VEICULO,
+    TIPO;
+}
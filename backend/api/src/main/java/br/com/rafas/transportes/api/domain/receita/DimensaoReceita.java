@@ -0,0 +1,9 @@
+package br.com.rafas.transportes.api.domain.receita;
+
+public enum DimensaoReceita {
+    MES,
+    VEICULO,
+    MOTORISTA,
+    TIPO_VIAGEM,
+    STATUS;
+}
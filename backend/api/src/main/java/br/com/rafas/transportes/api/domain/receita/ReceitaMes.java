@@ -0,0 +1,63 @@
+package br.com.rafas.transportes.api.domain.receita;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Viagens e valor somados por mês de início, veículo, motorista, tipo e status. O mês é guardado como o seu
+ * primeiro dia e a ausência de veículo ou motorista (rotas de colaboradores) como id 0.
+ * Mantida por {@code ReceitaViagemService}.
+ */
+@Table(name = "receita_viagens_mes")
+@Entity(name = "ReceitaMes")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "chave")
+public class ReceitaMes {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(nullable = false)
+    private Integer viagens;
+
+    @Column(name = "valor_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(nullable = false)
+        private LocalDate mes;
+
+        @Column(name = "veiculo_id", nullable = false)
+        private Long veiculoId;
+
+        @Column(name = "motorista_id", nullable = false)
+        private Long motoristaId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "tipo_viagem", nullable = false)
+        private TipoViagem tipoViagem;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false)
+        private StatusViagem status;
+    }
+}
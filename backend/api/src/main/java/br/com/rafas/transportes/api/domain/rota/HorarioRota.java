@@ -0,0 +1,64 @@
+package br.com.rafas.transportes.api.domain.rota;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Regra de recorrência de um item de rota: um turno diário de {@code inicio} a {@code fim}
+ * em cada dia de {@code dataInicio} a {@code dataFim} cujo dia da semana esteja em {@code diasSemana}.
+ * Quando {@code fim} não é posterior a {@code inicio}, o turno termina no dia seguinte.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorarioRota {
+
+    public static final int TODOS_OS_DIAS = 0b1111111;
+
+    @Column(name = "data_inicio", nullable = false)
+    private LocalDate dataInicio;
+
+    @Column(name = "data_fim", nullable = false)
+    private LocalDate dataFim;
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime inicio;
+
+    @Column(name = "hora_fim", nullable = false)
+    private LocalTime fim;
+
+    @Column(name = "dias_semana", nullable = false)
+    private Integer diasSemana;
+
+    public static int mascaraDe(Collection<DayOfWeek> dias) {
+        if (dias == null || dias.isEmpty()) {
+            return TODOS_OS_DIAS;
+        }
+        int mascara = 0;
+        for (DayOfWeek dia : dias) {
+            mascara |= 1 << (dia.getValue() - 1);
+        }
+        return mascara;
+    }
+
+    public static Set<DayOfWeek> diasDe(int mascara) {
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            if ((mascara & (1 << (dia.getValue() - 1))) != 0) {
+                dias.add(dia);
+            }
+        }
+        return dias;
+    }
+}
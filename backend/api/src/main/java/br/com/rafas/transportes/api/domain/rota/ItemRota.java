@@ -0,0 +1,52 @@
+package br.com.rafas.transportes.api.domain.rota;
+
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Table(name = "itens_rota", indexes = {
+        @Index(name = "idx_itens_rota_veiculo", columnList = "veiculo_id"),
+        @Index(name = "idx_itens_rota_motorista", columnList = "motorista_id")
+})
+@Entity(name = "ItemRota")
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class ItemRota {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "viagem_id", nullable = false)
+    private Viagem viagem;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "veiculo_id", nullable = false)
+    private Veiculo veiculo;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "motorista_id", nullable = false)
+    private Motorista motorista;
+
+    @ElementCollection
+    @CollectionTable(name = "itens_rota_horarios", joinColumns = @JoinColumn(name = "item_rota_id"))
+    @BatchSize(size = 100)
+    private List<HorarioRota> horarios = new ArrayList<>();
+
+    public ItemRota(Viagem viagem, Veiculo veiculo, Motorista motorista, List<HorarioRota> horarios) {
+        this.viagem = viagem;
+        this.veiculo = veiculo;
+        this.motorista = motorista;
+        this.horarios.addAll(horarios);
+    }
+}
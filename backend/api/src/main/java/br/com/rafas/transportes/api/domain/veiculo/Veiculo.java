@@ -24,7 +24,8 @@ public class Veiculo {
     @Enumerated(EnumType.STRING)
     private StatusVeiculo status;
 
-    @Column(name = "current_km")
+    // só avança por HodometroService, que grava a coluna direto e registra a quilometragem
+    @Column(name = "current_km", updatable = false)
     private Integer currentKm;
 
     public Veiculo(DadosCadastroVeiculo dados) {
@@ -44,8 +45,5 @@ public class Veiculo {
         if (dados.status() != null) {
             this.status = dados.status();
         }
-        if (dados.currentKm() != null) {
-            this.currentKm = dados.currentKm();
-        }
     }
 }
\ No newline at end of file
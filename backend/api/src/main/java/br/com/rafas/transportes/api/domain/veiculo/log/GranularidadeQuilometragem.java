@@ -0,0 +1,37 @@
+package br.com.rafas.transportes.api.domain.veiculo.log;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Resoluções do resumo de quilometragem. Cada período é identificado pelo seu primeiro dia; a semana começa
+ * na segunda-feira.
+ */
+public enum GranularidadeQuilometragem {
+    DIA(ChronoUnit.DAYS),
+    SEMANA(ChronoUnit.WEEKS),
+    MES(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unidade;
+
+    GranularidadeQuilometragem(ChronoUnit unidade) {
+        this.unidade = unidade;
+    }
+
+    public LocalDate inicio(LocalDate dia) {
+        return switch (this) {
+            case DIA -> dia;
+            case SEMANA -> dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> dia.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Quantos períodos cobrem [de, ate], contando os dois extremos.
+     */
+    public long periodos(LocalDate de, LocalDate ate) {
+        return unidade.between(inicio(de), inicio(ate)) + 1;
+    }
+}
@@ -14,7 +14,8 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 
-@Table(name = "quilometragem_log")
+@Table(name = "quilometragem_log", indexes = @Index(name = "idx_quilometragem_log_veiculo_data",
+        columnList = "veiculo_id, data_hora_registro"))
 @Entity(name = "QuilometragemLog")
 @Getter
 @Setter
@@ -45,4 +46,8 @@ public class QuilometragemLog {
 
   @Column(name = "id_referencia_origem")
   private Long idReferenciaOrigem;
+
+  // data da leitura quando ela chegou atrasada e foi registrada com a data do último registro do veículo
+  @Column(name = "data_hora_original")
+  private LocalDateTime dataHoraOriginal;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package br.com.rafas.transportes.api.domain.veiculo.log;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Um mês de {@code quilometragem_log} que saiu do banco para um arquivo CSV compactado. O mês é guardado
+ * como o seu primeiro dia. Mantida por {@code ArquivoQuilometragemService}.
+ */
+@Table(name = "quilometragem_log_arquivo")
+@Entity(name = "QuilometragemLogArquivo")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "mes")
+public class QuilometragemLogArquivo {
+
+    @Id
+    private LocalDate mes;
+
+    @Column(nullable = false)
+    private String arquivo;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private Long registros;
+
+    @Column(name = "arquivado_em", nullable = false)
+    private LocalDateTime arquivadoEm;
+}
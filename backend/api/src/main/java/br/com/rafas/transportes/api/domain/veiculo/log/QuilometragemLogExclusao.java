@@ -0,0 +1,30 @@
+package br.com.rafas.transportes.api.domain.veiculo.log;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Última limpeza do histórico de quilometragem de um veículo. Os arquivos de meses arquivados não são
+ * reescritos: os registros do veículo em arquivos gerados antes de {@code excluidoEm} deixam de ser lidos.
+ * Mantida por {@code ArquivoQuilometragemService}.
+ */
+@Table(name = "quilometragem_log_exclusao")
+@Entity(name = "QuilometragemLogExclusao")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "veiculoId")
+public class QuilometragemLogExclusao {
+
+    @Id
+    @Column(name = "veiculo_id")
+    private Long veiculoId;
+
+    @Column(name = "excluido_em", nullable = false)
+    private LocalDateTime excluidoEm;
+}
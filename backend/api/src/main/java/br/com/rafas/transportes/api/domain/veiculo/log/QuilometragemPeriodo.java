@@ -0,0 +1,58 @@
+package br.com.rafas.transportes.api.domain.veiculo.log;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Km rodados pelo veículo num dia, semana ou mês, somados dos registros de quilometragem. O período é
+ * guardado como o seu primeiro dia. Mantida por {@code QuilometragemSerieService}.
+ */
+@Table(name = "quilometragem_periodo", indexes = {
+        @Index(name = "idx_quilometragem_periodo_veiculo", columnList = "veiculo_id, granularidade, inicio"),
+        @Index(name = "idx_quilometragem_periodo_inicio", columnList = "granularidade, inicio")
+})
+@Entity(name = "QuilometragemPeriodo")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "chave")
+public class QuilometragemPeriodo {
+
+    @EmbeddedId
+    private Chave chave;
+
+    @Column(name = "km_rodados", nullable = false)
+    private Long kmRodados;
+
+    @Column(name = "km_final", nullable = false)
+    private Integer kmFinal;
+
+    @Column(nullable = false)
+    private Integer registros;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Chave implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Column(name = "veiculo_id", nullable = false)
+        private Long veiculoId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false)
+        private GranularidadeQuilometragem granularidade;
+
+        @Column(nullable = false)
+        private LocalDate inicio;
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.rafas.transportes.api.domain.veiculo.log;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ritmo de uso do veículo: média exponencial dos km rodados por dia, atualizada a cada registro de
+ * quilometragem. {@code media} acumula sem a correção de partida e {@code peso} é quanto da janela já foi
+ * observado; o ritmo é {@code media / peso}. Mantida por {@code RitmoQuilometragemService}.
+ */
+@Table(name = "quilometragem_ritmo")
+@Entity(name = "QuilometragemRitmo")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "veiculoId")
+public class QuilometragemRitmo {
+
+    @Id
+    @Column(name = "veiculo_id")
+    private Long veiculoId;
+
+    @Column(nullable = false)
+    private Double media;
+
+    @Column(nullable = false)
+    private Double peso;
+
+    @Column(name = "ultimo_km", nullable = false)
+    private Integer ultimoKm;
+
+    @Column(name = "ultimo_registro", nullable = false)
+    private LocalDateTime ultimoRegistro;
+
+    @Column(nullable = false)
+    private Long registros;
+
+    public double kmPorDia() {
+        return peso > 0 ? media / peso : 0;
+    }
+}
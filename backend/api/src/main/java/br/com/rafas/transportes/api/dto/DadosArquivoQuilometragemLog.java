@@ -0,0 +1,19 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLogArquivo;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+public record DadosArquivoQuilometragemLog(
+        YearMonth mes,
+        String arquivo,
+        String sha256,
+        Long registros,
+        LocalDateTime arquivadoEm
+) {
+    public DadosArquivoQuilometragemLog(QuilometragemLogArquivo arquivo) {
+        this(YearMonth.from(arquivo.getMes()), arquivo.getArquivo(), arquivo.getSha256(), arquivo.getRegistros(),
+                arquivo.getArquivadoEm());
+    }
+}
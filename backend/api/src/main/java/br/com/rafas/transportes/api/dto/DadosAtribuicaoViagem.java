@@ -0,0 +1,8 @@
+package br.com.rafas.transportes.api.dto;
+
+public record DadosAtribuicaoViagem(
+        int indice,
+        Long veiculoId,
+        Long motoristaId,
+        String motivo
+) {}
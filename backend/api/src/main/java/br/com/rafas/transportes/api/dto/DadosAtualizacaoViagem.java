@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 public record DadosAtualizacaoViagem(
         String title,
         String clientName,
@@ -20,5 +21,6 @@ public record DadosAtualizacaoViagem(
         LocalDate endDate,
         LocalTime endTime,
         StatusViagem status,
-        TipoViagem tipoViagem
+        TipoViagem tipoViagem,
+        List<DadosItemRota> itensRota
 ) {}
\ No newline at end of file
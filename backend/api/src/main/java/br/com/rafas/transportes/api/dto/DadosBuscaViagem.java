@@ -0,0 +1,12 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.util.List;
+
+public record DadosBuscaViagem(
+        String termo,
+        List<DadosDetalhamentoViagem> viagens,
+        int pagina,
+        int tamanho,
+        boolean temProxima
+) {
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 public record DadosCadastroViagem(
         @NotBlank
         String title,
@@ -18,18 +19,15 @@ public record DadosCadastroViagem(
         @NotBlank
         String startLocation,
         String endLocation,
-        @NotNull
         Long veiculoId,
-        @NotNull
         Long motoristaId,
-        @NotNull
         LocalDate startDate,
-        @NotNull
         LocalTime startTime,
         LocalDate endDate,
         LocalTime endTime,
         @NotNull
         StatusViagem status,
         @NotNull
-        TipoViagem tipoViagem
+        TipoViagem tipoViagem,
+        List<DadosItemRota> itensRota
 ) {}
\ No newline at end of file
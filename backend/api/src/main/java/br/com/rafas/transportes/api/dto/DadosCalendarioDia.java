@@ -0,0 +1,17 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public record DadosCalendarioDia(
+        LocalDate dia,
+        int viagens,
+        Map<StatusViagem, Integer> viagensPorStatus,
+        int veiculosEmUso,
+        List<Long> veiculoIds,
+        BigDecimal valorTotal
+) {}
@@ -0,0 +1,9 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public record DadosCalendarioMes(
+        YearMonth mes,
+        List<DadosCalendarioDia> dias
+) {}
@@ -0,0 +1,19 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.custo.DimensaoCustoManutencao;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+public record DadosCustoManutencao(
+        YearMonth de,
+        YearMonth ate,
+        List<DimensaoCustoManutencao> agrupamento,
+        List<DadosLinhaCustoManutencao> linhas,
+        long manutencoes,
+        BigDecimal custoTotal,
+        long kmRodados,
+        BigDecimal custoPorKm
+) {
+}
@@ -0,0 +1,8 @@
+package br.com.rafas.transportes.api.dto;
+
+public record DadosDependenciaExclusao(
+        String tabela,
+        long quantidade,
+        String exemplo
+) {
+}
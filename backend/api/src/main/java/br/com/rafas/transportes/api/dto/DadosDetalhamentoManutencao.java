@@ -27,7 +27,7 @@ public record DadosDetalhamentoManutencao(
                 manutencao.getType(),
                 manutencao.getDate(),
                 manutencao.getCost(),
-                manutencao.getStatus(),
+                manutencao.getStatus().getDescricao(),
                 manutencao.getVeiculo().getId(),
                 manutencao.getVeiculo().getModel() + " - " + manutencao.getVeiculo().getPlate(),
                 manutencao.getCurrentKm(), // Obtém o KM atual da manutenção
@@ -15,7 +15,8 @@ public record DadosDetalhamentoQuilometragemLog(
         Integer quilometragemAnterior,
         Integer quilometragemAtual,
         String origemAlteracao,
-        Long idReferenciaOrigem
+        Long idReferenciaOrigem,
+        LocalDateTime dataHoraOriginal
 ) {
     public DadosDetalhamentoQuilometragemLog(QuilometragemLog log) {
         this(log.getId(),
@@ -24,6 +25,7 @@ public record DadosDetalhamentoQuilometragemLog(
                 log.getQuilometragemAnterior(),
                 log.getQuilometragemAtual(),
                 log.getOrigemAlteracao(),
-                log.getIdReferenciaOrigem());
+                log.getIdReferenciaOrigem(),
+                log.getDataHoraOriginal());
     }
 }
\ No newline at end of file
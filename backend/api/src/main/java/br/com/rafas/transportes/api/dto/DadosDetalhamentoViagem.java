@@ -5,6 +5,7 @@ import br.com.rafas.transportes.api.domain.Viagem;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 public record DadosDetalhamentoViagem(
         Long id,
         String title,
@@ -22,7 +23,8 @@ public record DadosDetalhamentoViagem(
         LocalDate endDate,
         LocalTime endTime,
         StatusViagem status,
-        TipoViagem tipoViagem
+        TipoViagem tipoViagem,
+        List<DadosItemRota> itensRota
 ) {
     public DadosDetalhamentoViagem(Viagem viagem) {
         this(
@@ -42,7 +44,10 @@ public record DadosDetalhamentoViagem(
                 viagem.getEndDate(),
                 viagem.getEndTime(),
                 viagem.getStatus(),
-                viagem.getTipoViagem()
+                viagem.getTipoViagem(),
+                viagem.getTipoViagem() == TipoViagem.ROTA_COLABORADORES
+                        ? viagem.getItensRota().stream().map(DadosItemRota::new).toList()
+                        : List.of()
         );
     }
 }
\ No newline at end of file
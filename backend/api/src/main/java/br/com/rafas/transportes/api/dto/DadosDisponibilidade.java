@@ -0,0 +1,12 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DadosDisponibilidade(
+        LocalDateTime inicio,
+        LocalDateTime fim,
+        List<DadosDetalhamentoVeiculo> veiculos,
+        List<DadosDetalhamentoMotorista> motoristas
+) {
+}
@@ -0,0 +1,7 @@
+package br.com.rafas.transportes.api.dto;
+
+public record DadosErroLoteViagem(
+        int indice,
+        String mensagem
+) {
+}
@@ -0,0 +1,26 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.rota.HorarioRota;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+public record DadosHorarioItemRota(
+        LocalDate dataInicio,
+        LocalTime inicio,
+        LocalDate dataFim,
+        LocalTime fim,
+        Set<DayOfWeek> diasSemana
+) {
+    public DadosHorarioItemRota(HorarioRota horario) {
+        this(
+                horario.getDataInicio(),
+                horario.getInicio(),
+                horario.getDataFim(),
+                horario.getFim(),
+                HorarioRota.diasDe(horario.getDiasSemana())
+        );
+    }
+}
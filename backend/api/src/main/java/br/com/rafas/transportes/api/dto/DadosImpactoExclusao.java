@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.util.List;
+
+public record DadosImpactoExclusao(
+        String recurso,
+        Long id,
+        boolean podeExcluir,
+        List<DadosDependenciaExclusao> dependencias
+) {
+}
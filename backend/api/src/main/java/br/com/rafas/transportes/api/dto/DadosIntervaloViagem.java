@@ -0,0 +1,15 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record DadosIntervaloViagem(
+        Long id,
+        Long veiculoId,
+        Long motoristaId,
+        LocalDate startDate,
+        LocalTime startTime,
+        LocalDate endDate,
+        LocalTime endTime
+) {
+}
@@ -0,0 +1,21 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.rota.ItemRota;
+
+import java.util.List;
+
+public record DadosItemRota(
+        Long id,
+        Long veiculoId,
+        Long motoristaId,
+        List<DadosHorarioItemRota> horarios
+) {
+    public DadosItemRota(ItemRota item) {
+        this(
+                item.getId(),
+                item.getVeiculo().getId(),
+                item.getMotorista().getId(),
+                item.getHorarios().stream().map(DadosHorarioItemRota::new).toList()
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DadosJornadaMotorista(
+        Long motoristaId,
+        String nome,
+        int viagens,
+        long minutosTrabalhados,
+        int diasTrabalhados,
+        long minutosHoraExtra,
+        List<LocalDate> diasComHoraExtra,
+        long maiorJornadaContinuaMinutos,
+        LocalDateTime inicioMaiorJornada
+) {
+}
@@ -0,0 +1,10 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+
+public record DadosKmMes(
+        Long veiculoId,
+        LocalDate mes,
+        Long kmRodados
+) {
+}
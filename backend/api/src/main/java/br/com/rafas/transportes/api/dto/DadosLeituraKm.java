@@ -0,0 +1,10 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDateTime;
+
+public record DadosLeituraKm(
+        Long veiculoId,
+        Integer km,
+        LocalDateTime dataHora
+) {
+}
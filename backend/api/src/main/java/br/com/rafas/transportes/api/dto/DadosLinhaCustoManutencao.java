@@ -0,0 +1,15 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+public record DadosLinhaCustoManutencao(
+        YearMonth mes,
+        Long veiculoId,
+        String type,
+        long manutencoes,
+        BigDecimal custoTotal,
+        long kmRodados,
+        BigDecimal custoPorKm
+) {
+}
@@ -0,0 +1,18 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+public record DadosLinhaReceita(
+        YearMonth mes,
+        Long veiculoId,
+        Long motoristaId,
+        TipoViagem tipoViagem,
+        StatusViagem status,
+        long viagens,
+        BigDecimal valorTotal
+) {
+}
@@ -0,0 +1,17 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+
+public record DadosManutencaoPendente(
+        Long id,
+        Long veiculoId,
+        String veiculoDescricao,
+        String title,
+        String type,
+        LocalDate date,
+        Integer kmPrevisto,
+        Integer kmVeiculo,
+        Integer kmRestantes,
+        String situacao
+) {
+}
@@ -0,0 +1,16 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosManutencoesPendentes(
+        LocalDate referencia,
+        int antecedenciaKm,
+        int antecedenciaDias,
+        int toleranciaKm,
+        int toleranciaDias,
+        List<DadosManutencaoPendente> atrasadas,
+        List<DadosManutencaoPendente> vencidas,
+        List<DadosManutencaoPendente> proximas
+) {
+}
@@ -0,0 +1,23 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDateTime;
+
+public record DadosMetricasTelemetria(
+        int pendentes,
+        int capacidade,
+        int maiorPendencia,
+        long recebidas,
+        long aceitas,
+        long coalescidas,
+        long invalidas,
+        long descartadasRegressao,
+        long rejeitadasBufferCheio,
+        long descartadasNaGravacao,
+        long gravadas,
+        long gravacoes,
+        long falhas,
+        LocalDateTime ultimaGravacaoEm,
+        long ultimaGravacaoMs,
+        int ultimaGravacaoLinhas
+) {
+}
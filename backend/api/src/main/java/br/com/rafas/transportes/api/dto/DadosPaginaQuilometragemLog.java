@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DadosPaginaQuilometragemLog(
+        List<DadosDetalhamentoQuilometragemLog> logs,
+        LocalDateTime proximaAposDataHora,
+        Long proximoAposId
+) {
+}
@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosPaginaViagem(
+        List<DadosDetalhamentoViagem> viagens,
+        LocalDate proximaAposData,
+        Long proximoAposId
+) {
+}
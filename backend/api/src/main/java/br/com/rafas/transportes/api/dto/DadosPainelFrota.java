@@ -0,0 +1,9 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.util.List;
+
+public record DadosPainelFrota(
+        List<DadosPainelVeiculo> veiculos,
+        long duracaoMs
+) {
+}
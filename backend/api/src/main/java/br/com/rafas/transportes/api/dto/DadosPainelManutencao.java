@@ -0,0 +1,14 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+
+public record DadosPainelManutencao(
+        Long id,
+        Long veiculoId,
+        String title,
+        String type,
+        LocalDate date,
+        Integer kmPrevisto,
+        Integer kmRestantes
+) {
+}
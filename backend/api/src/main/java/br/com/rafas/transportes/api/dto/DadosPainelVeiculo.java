@@ -0,0 +1,15 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
+
+public record DadosPainelVeiculo(
+        Long id,
+        String model,
+        String plate,
+        StatusVeiculo status,
+        Integer currentKm,
+        DadosPainelManutencao proximaManutencao,
+        DadosPainelViagem proximaViagem,
+        DadosDetalhamentoQuilometragemLog ultimoLog
+) {
+}
@@ -0,0 +1,15 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDateTime;
+
+public record DadosPainelViagem(
+        Long veiculoId,
+        Long id,
+        String title,
+        LocalDateTime inicio,
+        LocalDateTime fim,
+        String clientName,
+        Long motoristaId,
+        String motoristaNome
+) {
+}
@@ -0,0 +1,10 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosPedidoAtribuicao(
+        LocalDate de,
+        LocalDate ate,
+        List<DadosCadastroViagem> viagens
+) {}
@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+
+public record DadosPontoQuilometragem(
+        LocalDate inicio,
+        Long kmRodados,
+        Integer kmFinal,
+        Integer registros
+) {
+}
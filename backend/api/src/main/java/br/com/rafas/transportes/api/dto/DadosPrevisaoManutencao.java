@@ -0,0 +1,19 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record DadosPrevisaoManutencao(
+        Long id,
+        Long veiculoId,
+        String title,
+        String type,
+        LocalDate date,
+        Integer kmPrevisto,
+        Integer kmRestantes,
+        Double kmPorDia,
+        LocalDateTime ritmoAtualizadoEm,
+        LocalDate dataPrevista,
+        LocalDate dataLimite
+) {
+}
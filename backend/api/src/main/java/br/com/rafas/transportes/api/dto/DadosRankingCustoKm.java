@@ -0,0 +1,14 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.math.BigDecimal;
+
+public record DadosRankingCustoKm(
+        int posicao,
+        Long veiculoId,
+        String veiculoDescricao,
+        long manutencoes,
+        BigDecimal custoTotal,
+        long kmRodados,
+        BigDecimal custoPorKm
+) {
+}
@@ -0,0 +1,20 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.receita.DimensaoReceita;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+public record DadosReceita(
+        YearMonth de,
+        YearMonth ate,
+        List<DimensaoReceita> agrupamento,
+        Set<StatusViagem> status,
+        List<DadosLinhaReceita> linhas,
+        long viagens,
+        BigDecimal valorTotal
+) {
+}
@@ -0,0 +1,45 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public record DadosRegraRota(
+        Long viagemId,
+        Long veiculoId,
+        Long motoristaId,
+        LocalDate dataInicio,
+        LocalDate dataFim,
+        LocalTime inicio,
+        LocalTime fim,
+        Integer diasSemana
+) {
+    public boolean viraDia() {
+        return !fim.isAfter(inicio);
+    }
+
+    public LocalDate ultimoDiaOcupado() {
+        return viraDia() ? dataFim.plusDays(1) : dataFim;
+    }
+
+    /**
+     * Ocorrências da regra que tocam o período [de, ate]. Só os dias da janela são gerados,
+     * nunca o contrato inteiro.
+     */
+    public List<DadosIntervaloViagem> ocorrencias(LocalDate de, LocalDate ate) {
+        List<DadosIntervaloViagem> ocorrencias = new ArrayList<>();
+        LocalDate primeiro = viraDia() ? de.minusDays(1) : de;
+        if (primeiro.isBefore(dataInicio)) {
+            primeiro = dataInicio;
+        }
+        LocalDate ultimo = ate.isAfter(dataFim) ? dataFim : ate;
+        for (LocalDate dia = primeiro; !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+            if ((diasSemana & (1 << (dia.getDayOfWeek().getValue() - 1))) != 0) {
+                ocorrencias.add(new DadosIntervaloViagem(viagemId, veiculoId, motoristaId,
+                        dia, inicio, viraDia() ? dia.plusDays(1) : dia, fim));
+            }
+        }
+        return ocorrencias;
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosRelatorioJornada(
+        LocalDate de,
+        LocalDate ate,
+        int minutosDiariosLimite,
+        int pausaMinimaMinutos,
+        List<DadosJornadaMotorista> motoristas,
+        long duracaoMs
+) {
+}
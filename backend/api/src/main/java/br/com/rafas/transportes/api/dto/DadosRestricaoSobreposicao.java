@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.util.List;
+
+public record DadosRestricaoSobreposicao(
+        String restricao,
+        boolean ativa,
+        long paresSobrepostos,
+        List<Long> viagensSobrepostas
+) {
+}
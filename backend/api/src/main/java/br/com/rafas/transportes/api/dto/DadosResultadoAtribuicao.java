@@ -0,0 +1,13 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosResultadoAtribuicao(
+        LocalDate de,
+        LocalDate ate,
+        int recebidas,
+        int atribuidas,
+        List<DadosAtribuicaoViagem> atribuicoes,
+        long duracaoMs
+) {}
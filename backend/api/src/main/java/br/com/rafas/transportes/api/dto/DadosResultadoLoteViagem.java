@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.util.List;
+
+public record DadosResultadoLoteViagem(
+        int recebidas,
+        int cadastradas,
+        List<DadosDetalhamentoViagem> viagens,
+        List<DadosErroLoteViagem> erros
+) {
+}
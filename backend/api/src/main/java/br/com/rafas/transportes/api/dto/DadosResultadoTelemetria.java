@@ -0,0 +1,11 @@
+package br.com.rafas.transportes.api.dto;
+
+public record DadosResultadoTelemetria(
+        int recebidas,
+        int aceitas,
+        int invalidas,
+        int descartadasRegressao,
+        int rejeitadasBufferCheio,
+        int pendentes
+) {
+}
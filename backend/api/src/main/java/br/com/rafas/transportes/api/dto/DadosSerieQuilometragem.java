@@ -0,0 +1,15 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.GranularidadeQuilometragem;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record DadosSerieQuilometragem(
+        Long veiculoId,
+        GranularidadeQuilometragem granularidade,
+        LocalDate de,
+        LocalDate ate,
+        List<DadosPontoQuilometragem> pontos
+) {
+}
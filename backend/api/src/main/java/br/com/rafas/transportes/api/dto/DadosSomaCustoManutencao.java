@@ -0,0 +1,13 @@
+package br.com.rafas.transportes.api.dto;
+
+import java.math.BigDecimal;
+
+public record DadosSomaCustoManutencao(
+        Integer ano,
+        Integer mes,
+        Long veiculoId,
+        String type,
+        Long manutencoes,
+        BigDecimal custoTotal
+) {
+}
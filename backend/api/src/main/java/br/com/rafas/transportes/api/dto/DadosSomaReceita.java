@@ -0,0 +1,18 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+
+import java.math.BigDecimal;
+
+public record DadosSomaReceita(
+        Integer ano,
+        Integer mes,
+        Long veiculoId,
+        Long motoristaId,
+        TipoViagem tipoViagem,
+        StatusViagem status,
+        Long viagens,
+        BigDecimal valorTotal
+) {
+}
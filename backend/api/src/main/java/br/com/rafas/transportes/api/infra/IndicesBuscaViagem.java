@@ -0,0 +1,57 @@
+package br.com.rafas.transportes.api.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * No PostgreSQL, habilita o {@code pg_trgm} e cria um índice GIN de trigramas por coluna pesquisada em
+ * {@code GET /viagens/busca}. Enquanto os índices não existirem (H2 local, ou falta de permissão para
+ * criar a extensão) a busca usa a consulta com {@code LIKE}, que não depende deles.
+ */
+@Component
+public class IndicesBuscaViagem implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicesBuscaViagem.class);
+
+    private static final List<String> COLUNAS = List.of("title", "client_name", "telefone", "start_location", "end_location");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean disponivel = false;
+
+    @Override
+    public void run(String... args) {
+        if (!ehPostgres()) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            for (String coluna : COLUNAS) {
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_viagens_" + coluna + "_trgm ON viagens USING gin ("
+                        + coluna + " gin_trgm_ops)");
+            }
+            disponivel = true;
+        } catch (DataAccessException e) {
+            log.warn("Não foi possível criar os índices de busca de viagens; a busca segue sem eles: {}",
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+
+    private boolean ehPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                "PostgreSQL".equals(con.getMetaData().getDatabaseProductName())));
+    }
+}
@@ -0,0 +1,30 @@
+package br.com.rafas.transportes.api.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code manutencoes.status} guardava a descrição digitada ("Agendada", "Realizada") e passou a guardar o
+ * nome de {@link br.com.rafas.transportes.api.domain.StatusManutencao}. Converte as linhas antigas na
+ * subida; depois da primeira vez o {@code UPDATE} não encontra nada.
+ */
+@Component
+public class NormalizacaoStatusManutencao implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(NormalizacaoStatusManutencao.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        int convertidas = jdbcTemplate.update("UPDATE manutencoes SET status = UPPER(TRIM(status)) WHERE status <> UPPER(TRIM(status))");
+        if (convertidas > 0) {
+            log.info("Status de {} manutenções convertido para o nome do enum.", convertidas);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package br.com.rafas.transportes.api.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * No PostgreSQL, transforma {@code quilometragem_log} numa tabela particionada por mês de
+ * {@code data_hora_registro} e mantém criadas as partições dos próximos meses. Registros fora de qualquer
+ * partição (leituras atrasadas de meses já arquivados, datas muito à frente) caem na partição padrão, para
+ * a gravação da telemetria nunca falhar por falta de partição.
+ * <p>
+ * A conversão roda uma vez, na primeira subida com a tabela comum criada pelo Hibernate: a tabela é
+ * renomeada, a particionada é criada com a mesma estrutura e os registros são copiados. A chave primária
+ * passa a ser (id, data_hora_registro), como o PostgreSQL exige. Em outros bancos (H2 local) nada muda e
+ * o arquivamento remove os meses com {@code DELETE}.
+ * <p>
+ * Se a conversão ou a criação das partições falhar, a inicialização é interrompida: sem a tabela
+ * particionada o arquivamento apagaria os meses linha a linha numa tabela que só cresce.
+ */
+@Component
+public class ParticionamentoQuilometragemLog implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionamentoQuilometragemLog.class);
+
+    private static final String TABELA = "quilometragem_log";
+    private static final String LEGADO = "quilometragem_log_legado";
+    private static final String PADRAO = "quilometragem_log_padrao";
+    private static final String INDICE = "idx_quilometragem_log_veiculo_data";
+    private static final DateTimeFormatter SUFIXO = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Value("${quilometragem.particoes.meses-adiante:3}")
+    private int mesesAdiante;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile boolean particionada = false;
+
+    @Override
+    public void run(String... args) {
+        if (!ehPostgres()) {
+            return;
+        }
+        try {
+            if (!"p".equals(tipoTabela(TABELA))) {
+                converter();
+            }
+            particionada = true;
+            garantirParticoes();
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("Não foi possível particionar quilometragem_log ou criar as partições"
+                    + " dos próximos meses.", e);
+        }
+    }
+
+    public boolean isParticionada() {
+        return particionada;
+    }
+
+    /**
+     * Cria as partições do mês corrente até {@code quilometragem.particoes.meses-adiante} meses à frente.
+     */
+    public void garantirParticoes() {
+        if (!particionada) {
+            return;
+        }
+        YearMonth atual = YearMonth.now();
+        for (int i = 0; i <= mesesAdiante; i++) {
+            YearMonth mes = atual.plusMonths(i);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> criarParticao(mes));
+        }
+    }
+
+    /**
+     * Desanexa e apaga a partição do mês, se existir. Chamado pelo arquivamento, na mesma transação que
+     * conferiu a exportação; devolve {@code false} quando não há partição própria para o mês.
+     */
+    public boolean removerParticao(YearMonth mes) {
+        String particao = particao(mes);
+        if (!particionada || tipoTabela(particao) == null) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " DETACH PARTITION " + particao);
+        jdbcTemplate.execute("DROP TABLE " + particao);
+        return true;
+    }
+
+    /**
+     * Impede inserções no mês enquanto ele é exportado. Sem partição própria não há o que travar.
+     */
+    public void travarParticao(YearMonth mes) {
+        String particao = particao(mes);
+        if (particionada && tipoTabela(particao) != null) {
+            jdbcTemplate.execute("LOCK TABLE " + particao + " IN SHARE MODE");
+        }
+    }
+
+    private void converter() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long inicio = System.currentTimeMillis();
+            jdbcTemplate.execute("LOCK TABLE " + TABELA + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " RENAME TO " + LEGADO);
+            jdbcTemplate.execute("ALTER TABLE " + LEGADO + " RENAME CONSTRAINT " + TABELA + "_pkey TO " + LEGADO + "_pkey");
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS " + INDICE + " RENAME TO idx_" + LEGADO + "_veiculo_data");
+            jdbcTemplate.execute("CREATE TABLE " + TABELA + " (LIKE " + LEGADO + " INCLUDING DEFAULTS INCLUDING IDENTITY)"
+                    + " PARTITION BY RANGE (data_hora_registro)");
+            jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT " + TABELA + "_pkey PRIMARY KEY (id, data_hora_registro)");
+            jdbcTemplate.execute("CREATE INDEX " + INDICE + " ON " + TABELA + " (veiculo_id, data_hora_registro)");
+            List<String[]> chavesEstrangeiras = jdbcTemplate.query("""
+                    SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint
+                    WHERE conrelid = CAST(? AS regclass) AND contype = 'f'
+                    """, (rs, i) -> new String[]{rs.getString(1), rs.getString(2)}, LEGADO);
+            for (String[] chave : chavesEstrangeiras) {
+                jdbcTemplate.execute("ALTER TABLE " + LEGADO + " DROP CONSTRAINT " + chave[0]);
+                jdbcTemplate.execute("ALTER TABLE " + TABELA + " ADD CONSTRAINT " + chave[0] + " " + chave[1]);
+            }
+            jdbcTemplate.execute("CREATE TABLE " + PADRAO + " PARTITION OF " + TABELA + " DEFAULT");
+            Timestamp primeiro = jdbcTemplate.queryForObject("SELECT MIN(data_hora_registro) FROM " + LEGADO, Timestamp.class);
+            YearMonth mes = primeiro != null ? YearMonth.from(primeiro.toLocalDateTime()) : YearMonth.now();
+            for (; !mes.isAfter(YearMonth.now()); mes = mes.plusMonths(1)) {
+                criarParticao(mes);
+            }
+            int copiados = jdbcTemplate.update("INSERT INTO " + TABELA + " OVERRIDING SYSTEM VALUE SELECT * FROM " + LEGADO);
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + TABELA + "', 'id'), "
+                    + "COALESCE((SELECT MAX(id) FROM " + TABELA + "), 0) + 1, false)");
+            jdbcTemplate.execute("DROP TABLE " + LEGADO);
+            log.info("quilometragem_log particionada por mês: {} registros copiados em {} ms.", copiados,
+                    System.currentTimeMillis() - inicio);
+        });
+    }
+
+    /**
+     * A partição é criada solta e anexada depois, com os registros do mês que estavam na partição padrão já
+     * movidos para ela; anexar direto falharia se a padrão tivesse linhas no intervalo.
+     */
+    private void criarParticao(YearMonth mes) {
+        String particao = particao(mes);
+        if (tipoTabela(particao) != null) {
+            return;
+        }
+        Timestamp de = Timestamp.valueOf(mes.atDay(1).atStartOfDay());
+        Timestamp ate = Timestamp.valueOf(mes.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("CREATE TABLE " + particao + " (LIKE " + TABELA + " INCLUDING DEFAULTS)");
+        if (tipoTabela(PADRAO) != null) {
+            jdbcTemplate.update("WITH movidos AS (DELETE FROM " + PADRAO
+                    + " WHERE data_hora_registro >= ? AND data_hora_registro < ? RETURNING *)"
+                    + " INSERT INTO " + particao + " SELECT * FROM movidos", de, ate);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABELA + " ATTACH PARTITION " + particao
+                + " FOR VALUES FROM ('" + de + "') TO ('" + ate + "')");
+    }
+
+    private String tipoTabela(String tabela) {
+        List<String> tipo = jdbcTemplate.queryForList(
+                "SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass(?)", String.class, tabela);
+        return tipo.isEmpty() ? null : tipo.get(0);
+    }
+
+    private static String particao(YearMonth mes) {
+        return TABELA + "_p" + mes.format(SUFIXO);
+    }
+
+    private boolean ehPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                "PostgreSQL".equals(con.getMetaData().getDatabaseProductName())));
+    }
+}
@@ -0,0 +1,167 @@
+package br.com.rafas.transportes.api.infra;
+
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.dto.DadosRestricaoSobreposicao;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Preenche {@code start_at}/{@code end_at} das viagens gravadas antes dessas colunas existirem e, no
+ * PostgreSQL, cria as restrições de exclusão que impedem duas viagens não canceladas sobrepostas para o
+ * mesmo veículo ou motorista. Em outros bancos (H2 local) só o preenchimento é feito.
+ * <p>
+ * Se já houver sobreposição gravada, a restrição daquele recurso não é criada e a aplicação sobe assim mesmo,
+ * com a verificação de conflito do {@code ViagemService} barrando novas sobreposições; o log aponta as viagens
+ * envolvidas. Depois de corrigi-las, {@link #aplicarRestricoes()} (exposto em
+ * {@code POST /viagens/restricoes-sobreposicao}) cria o que falta.
+ */
+@Component
+public class RestricoesSobreposicaoViagem implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RestricoesSobreposicaoViagem.class);
+
+    private static final String RESTRICAO = """
+            ALTER TABLE viagens ADD CONSTRAINT %s
+            EXCLUDE USING gist (%s WITH =, tsrange(start_at, end_at, '[]') WITH &&)
+            WHERE (%s IS NOT NULL AND start_at IS NOT NULL AND end_at IS NOT NULL AND status <> 'CANCELADA')
+            """;
+
+    private static final String SOBREPOSTAS = """
+            FROM viagens a
+            JOIN viagens b ON b.%1$s = a.%1$s AND b.id > a.id
+            WHERE a.start_at IS NOT NULL AND a.end_at IS NOT NULL AND a.status <> 'CANCELADA'
+              AND b.start_at IS NOT NULL AND b.end_at IS NOT NULL AND b.status <> 'CANCELADA'
+              AND tsrange(a.start_at, a.end_at, '[]') && tsrange(b.start_at, b.end_at, '[]')
+            """;
+
+    private static final int PARES_LISTADOS = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        preencherPeriodos();
+        if (!ehPostgres()) {
+            return;
+        }
+        for (DadosRestricaoSobreposicao restricao : criarRestricoes()) {
+            if (!restricao.ativa()) {
+                log.warn("Restrição {} não criada: {} pares de viagens sobrepostas, entre elas as viagens {}. "
+                                + "A verificação da aplicação continua barrando novas sobreposições; corrija-as e chame "
+                                + "POST /viagens/restricoes-sobreposicao.",
+                        restricao.restricao(), restricao.paresSobrepostos(), restricao.viagensSobrepostas());
+            }
+        }
+    }
+
+    /**
+     * Passo explícito para depois de corrigir as sobreposições: cria as restrições que ainda faltam e devolve,
+     * para cada uma, se ficou ativa ou quais viagens ainda a impedem.
+     */
+    public List<DadosRestricaoSobreposicao> aplicarRestricoes() {
+        if (!ehPostgres()) {
+            throw new ValidationException("As restrições de sobreposição de viagens só existem no PostgreSQL.");
+        }
+        return criarRestricoes();
+    }
+
+    private List<DadosRestricaoSobreposicao> criarRestricoes() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        return List.of(
+                criarRestricao(Viagem.RESTRICAO_SOBREPOSICAO_VEICULO, "vehicle_id"),
+                criarRestricao(Viagem.RESTRICAO_SOBREPOSICAO_MOTORISTA, "driver_id"));
+    }
+
+    private void preencherPeriodos() {
+        List<Object[]> periodos = jdbcTemplate.query("""
+                SELECT id, start_date, start_time, end_date, end_time FROM viagens
+                WHERE start_at IS NULL AND start_date IS NOT NULL AND start_time IS NOT NULL
+                """, (rs, i) -> {
+            LocalDateTime inicio = Viagem.instante(rs.getObject(2, Date.class).toLocalDate(), rs.getObject(3, Time.class).toLocalTime());
+            Date dataFim = rs.getObject(4, Date.class);
+            Time horaFim = rs.getObject(5, Time.class);
+            LocalDateTime fim = dataFim != null && horaFim != null ? Viagem.instante(dataFim.toLocalDate(), horaFim.toLocalTime()) : null;
+            return new Object[]{inicio, fim != null && !fim.isBefore(inicio) ? fim : null, rs.getLong(1)};
+        });
+        if (!periodos.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE viagens SET start_at = ?, end_at = ? WHERE id = ?", periodos);
+            log.info("Período preenchido em {} viagens.", periodos.size());
+        }
+    }
+
+    /**
+     * Cria a restrição, ou a recria quando a existente é de antes de as viagens canceladas ficarem de fora.
+     * A troca é uma transação só: se a nova não puder ser criada, a antiga continua valendo. Com sobreposição
+     * gravada nada é alterado e as viagens envolvidas voltam no resultado.
+     */
+    private DadosRestricaoSobreposicao criarRestricao(String nome, String coluna) {
+        List<String> definicoes = jdbcTemplate.queryForList(
+                "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ?", String.class, nome);
+        if (!definicoes.isEmpty() && definicoes.get(0).contains("CANCELADA")) {
+            return new DadosRestricaoSobreposicao(nome, true, 0, List.of());
+        }
+        var sobrepostas = sobrepostas(nome, coluna);
+        if (sobrepostas != null) {
+            return sobrepostas;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!definicoes.isEmpty()) {
+                    jdbcTemplate.execute("ALTER TABLE viagens DROP CONSTRAINT " + nome);
+                }
+                jdbcTemplate.execute(String.format(RESTRICAO, nome, coluna, coluna));
+            });
+        } catch (DataAccessException e) {
+            // uma sobreposição gravada entre a conferência e o ALTER
+            sobrepostas = sobrepostas(nome, coluna);
+            if (sobrepostas == null) {
+                throw e;
+            }
+            return sobrepostas;
+        }
+        log.info("Restrição {} criada.", nome);
+        return new DadosRestricaoSobreposicao(nome, true, 0, List.of());
+    }
+
+    /**
+     * Quantos pares de viagens impedem a restrição e os ids dos primeiros deles; {@code null} se nenhum.
+     */
+    private DadosRestricaoSobreposicao sobrepostas(String nome, String coluna) {
+        String sobrepostas = String.format(SOBREPOSTAS, coluna);
+        Long pares = jdbcTemplate.queryForObject("SELECT COUNT(*) " + sobrepostas, Long.class);
+        if (pares == null || pares == 0) {
+            return null;
+        }
+        Set<Long> viagens = new TreeSet<>();
+        jdbcTemplate.query("SELECT a.id, b.id " + sobrepostas + " ORDER BY a.id, b.id LIMIT " + PARES_LISTADOS, rs -> {
+            viagens.add(rs.getLong(1));
+            viagens.add(rs.getLong(2));
+        });
+        return new DadosRestricaoSobreposicao(nome, false, pares, List.copyOf(viagens));
+    }
+
+    private boolean ehPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con ->
+                "PostgreSQL".equals(con.getMetaData().getDatabaseProductName())));
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.calendario.VeiculoDia;
+import br.com.rafas.transportes.api.domain.calendario.ViagensDia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CalendarioViagemRepository extends JpaRepository<ViagensDia, ViagensDia.Chave> {
+
+    @Query("SELECT v FROM ViagensDia v WHERE v.chave.dia BETWEEN :inicio AND :fim AND v.viagens > 0")
+    List<ViagensDia> listarViagensNoPeriodo(LocalDate inicio, LocalDate fim);
+
+    @Query("SELECT v FROM VeiculoDia v WHERE v.chave.dia BETWEEN :inicio AND :fim AND v.viagens > 0 ORDER BY v.chave.veiculoId")
+    List<VeiculoDia> listarVeiculosNoPeriodo(LocalDate inicio, LocalDate fim);
+}
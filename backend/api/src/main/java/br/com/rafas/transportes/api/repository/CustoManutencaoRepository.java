@@ -0,0 +1,14 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.custo.CustoManutencaoMes;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CustoManutencaoRepository extends JpaRepository<CustoManutencaoMes, CustoManutencaoMes.Chave> {
+
+    @Query("SELECT c FROM CustoManutencaoMes c WHERE c.chave.mes BETWEEN :inicio AND :fim AND c.manutencoes > 0")
+    List<CustoManutencaoMes> listarNoPeriodo(LocalDate inicio, LocalDate fim);
+}
@@ -26,6 +26,9 @@ public interface FeriasRepository extends JpaRepository<Ferias, Long> {
             "AND (:dataHoje BETWEEN f.dataInicio AND f.dataFim)")
     boolean existeFeriasEmPeriodo(@Param("motoristaId") Long motoristaId, @Param("dataHoje") LocalDate dataHoje, @Param("dataFim") LocalDate dataFim);
 
+    @Query("SELECT f FROM Ferias f WHERE f.dataInicio <= :dataFim AND f.dataFim >= :dataInicio")
+    List<Ferias> findNoPeriodo(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+
     List<Ferias> findByDataInicio(LocalDate dataInicio);
     List<Ferias> findByDataFim(LocalDate dataFim);
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.rota.ItemRota;
+import br.com.rafas.transportes.api.dto.DadosRegraRota;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemRotaRepository extends JpaRepository<ItemRota, Long> {
+
+    String SELECT_REGRA = """
+            SELECT new br.com.rafas.transportes.api.dto.DadosRegraRota(
+                i.viagem.id, i.veiculo.id, i.motorista.id, h.dataInicio, h.dataFim, h.inicio, h.fim, h.diasSemana)
+            FROM ItemRota i
+            JOIN i.horarios h
+            """;
+
+    /**
+     * Rotas canceladas não ocupam recurso, como as viagens canceladas nas consultas de ocupação de
+     * {@code ViagemRepository}.
+     */
+    String ATIVA = " AND i.viagem.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA";
+
+    @Query(SELECT_REGRA + "WHERE 1 = 1" + ATIVA)
+    List<DadosRegraRota> listarRegras();
+
+    @Query(SELECT_REGRA + "WHERE h.dataInicio <= :fim AND h.dataFim >= :inicio" + ATIVA)
+    List<DadosRegraRota> listarRegrasNoPeriodo(LocalDate inicio, LocalDate fim);
+
+    @Query(SELECT_REGRA + "WHERE h.dataInicio <= :fim AND h.dataFim >= :inicio AND i.viagem.status <> :statusIgnorado")
+    List<DadosRegraRota> listarRegrasNoPeriodoExcetoStatus(LocalDate inicio, LocalDate fim, StatusViagem statusIgnorado);
+
+    @Query(SELECT_REGRA + "WHERE i.veiculo.id = :veiculoId AND h.dataInicio <= :fim AND h.dataFim >= :inicio" + ATIVA)
+    List<DadosRegraRota> listarRegrasAtivasPorVeiculoNoPeriodo(Long veiculoId, LocalDate inicio, LocalDate fim);
+
+    @Query(SELECT_REGRA + "WHERE i.motorista.id = :motoristaId AND h.dataInicio <= :fim AND h.dataFim >= :inicio")
+    List<DadosRegraRota> listarRegrasPorMotoristaNoPeriodo(Long motoristaId, LocalDate inicio, LocalDate fim);
+
+    @Query(SELECT_REGRA + "WHERE i.motorista.id = :motoristaId AND h.dataInicio <= :fim AND h.dataFim >= :inicio" + ATIVA)
+    List<DadosRegraRota> listarRegrasAtivasPorMotoristaNoPeriodo(Long motoristaId, LocalDate inicio, LocalDate fim);
+
+    @Query(SELECT_REGRA + "WHERE i.viagem.id = :viagemId")
+    List<DadosRegraRota> listarRegrasPorViagem(Long viagemId);
+
+    @Query(SELECT_REGRA + """
+            WHERE h.dataInicio <= :fim
+              AND h.dataFim >= :inicio
+              AND (i.veiculo.id IN :veiculoIds OR i.motorista.id IN :motoristaIds)
+            """ + ATIVA)
+    List<DadosRegraRota> listarRegrasPorRecursosNoPeriodo(LocalDate inicio, LocalDate fim,
+                                                           Collection<Long> veiculoIds,
+                                                           Collection<Long> motoristaIds);
+}
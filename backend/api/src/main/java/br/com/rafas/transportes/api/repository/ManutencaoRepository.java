@@ -1,9 +1,14 @@
 package br.com.rafas.transportes.api.repository;
 
 import br.com.rafas.transportes.api.domain.Manutencao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
+import br.com.rafas.transportes.api.dto.DadosManutencaoPendente;
+import br.com.rafas.transportes.api.dto.DadosPainelManutencao;
+import br.com.rafas.transportes.api.dto.DadosSomaCustoManutencao;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.util.Optional;
 
 import java.util.List;
@@ -11,11 +16,55 @@ import java.util.List;
 @Repository
 public interface ManutencaoRepository extends JpaRepository<Manutencao, Long> {
 
-    @Query("select m from Manutencao m where m.veiculo.id = :veiculoId")
-    List<Manutencao> findByVeiculoId(Long veiculoId);
-
     boolean existsByVeiculoIdAndTitleAndTypeAndStatusAndCurrentKm(
-            Long veiculoId, String title, String type, String status, Integer currentKm);
+            Long veiculoId, String title, String type, StatusManutencao status, Integer currentKm);
+
+    Optional<Manutencao> findByParentMaintenanceIdAndStatus(Long parentMaintenanceId, StatusManutencao status);
+
+    /**
+     * Manutenções agendadas de toda a frota, a mais próxima de cada veículo primeiro. Na agendada,
+     * {@code currentKm} guarda a quilometragem em que ela vence.
+     */
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosPainelManutencao(
+                m.id, ve.id, m.title, m.type, m.date, m.currentKm, m.currentKm - ve.currentKm)
+            FROM Manutencao m
+            JOIN m.veiculo ve
+            WHERE m.status = br.com.rafas.transportes.api.domain.StatusManutencao.AGENDADA
+            ORDER BY ve.id, m.currentKm NULLS LAST, m.date NULLS LAST, m.id
+            """)
+    List<DadosPainelManutencao> listarAgendadasParaPainel();
+
+    /**
+     * Agendadas que já passaram, chegaram ou estão perto do km ou da data em que vencem, com a situação
+     * calculada no banco. Atrasada quando passou do km além de {@code kmAtraso} ou da data antes de
+     * {@code dataAtraso}; vencida quando chegou ao km ou à data; próxima quando falta até {@code kmProximo}
+     * km ou a data é até {@code dataProxima}. A mais atrasada primeiro.
+     */
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosManutencaoPendente(
+                m.id, ve.id, concat(ve.model, ' - ', ve.plate), m.title, m.type, m.date, m.currentKm, ve.currentKm,
+                m.currentKm - ve.currentKm,
+                CASE
+                    WHEN m.currentKm - ve.currentKm < :kmAtraso OR m.date < :dataAtraso THEN 'ATRASADA'
+                    WHEN m.currentKm - ve.currentKm <= 0 OR m.date <= :hoje THEN 'VENCIDA'
+                    ELSE 'PROXIMA'
+                END)
+            FROM Manutencao m
+            JOIN m.veiculo ve
+            WHERE m.status = br.com.rafas.transportes.api.domain.StatusManutencao.AGENDADA
+              AND (m.currentKm - ve.currentKm <= :kmProximo OR m.date <= :dataProxima)
+            ORDER BY m.currentKm - ve.currentKm NULLS LAST, m.date NULLS LAST, m.id
+            """)
+    List<DadosManutencaoPendente> listarPendentes(LocalDate hoje, int kmAtraso, LocalDate dataAtraso,
+                                                  int kmProximo, LocalDate dataProxima);
 
-    Optional<Manutencao> findByParentMaintenanceIdAndStatus(Long parentMaintenanceId, String status);
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosSomaCustoManutencao(
+                YEAR(m.date), MONTH(m.date), m.veiculo.id, m.type, COUNT(m), SUM(m.cost))
+            FROM Manutencao m
+            WHERE m.status = br.com.rafas.transportes.api.domain.StatusManutencao.REALIZADA AND m.date IS NOT NULL
+            GROUP BY YEAR(m.date), MONTH(m.date), m.veiculo.id, m.type
+            """)
+    List<DadosSomaCustoManutencao> somarCustos();
 }
\ No newline at end of file
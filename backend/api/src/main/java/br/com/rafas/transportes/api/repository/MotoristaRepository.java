@@ -1,7 +1,13 @@
 package br.com.rafas.transportes.api.repository;
 
 import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusMotorista;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface MotoristaRepository extends JpaRepository<Motorista, Long> {
 
@@ -10,4 +16,25 @@ public interface MotoristaRepository extends JpaRepository<Motorista, Long> {
 
     boolean existsByTelefoneAndIdNot(String telefone, Long id);
 
+    List<Motorista> findByStatus(StatusMotorista status);
+
+    /**
+     * Motoristas no status pedido sem viagem não cancelada sobreposta a [inicio, fim] nem férias no período.
+     * A sobreposição é a mesma de {@code findMotoristaConflitosByTime}; {@code inicioMinimo} é o início mais antigo
+     * que ainda alcança a janela e limita a busca a um trecho do índice (driver_id, startAt).
+     */
+    @Query("""
+            SELECT m FROM Motorista m
+            WHERE m.status = :status
+              AND NOT EXISTS (
+                  SELECT 1 FROM Viagem v
+                  WHERE v.motorista = m AND v.startAt >= :inicioMinimo AND v.startAt <= :fim AND v.endAt >= :inicio
+                    AND v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA)
+              AND NOT EXISTS (
+                  SELECT 1 FROM Ferias f
+                  WHERE f.motorista = m AND f.dataInicio <= :dataFim AND f.dataFim >= :dataInicio)
+            ORDER BY m.id
+            """)
+    List<Motorista> listarLivres(StatusMotorista status, LocalDateTime inicioMinimo, LocalDateTime inicio, LocalDateTime fim, LocalDate dataInicio, LocalDate dataFim);
+
 }
\ No newline at end of file
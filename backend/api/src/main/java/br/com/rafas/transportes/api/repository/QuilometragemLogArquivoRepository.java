@@ -0,0 +1,12 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLogArquivo;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface QuilometragemLogArquivoRepository extends JpaRepository<QuilometragemLogArquivo, LocalDate> {
+
+    List<QuilometragemLogArquivo> findAllByOrderByMesAsc();
+}
@@ -0,0 +1,7 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLogExclusao;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface QuilometragemLogExclusaoRepository extends JpaRepository<QuilometragemLogExclusao, Long> {
+}
@@ -1,16 +1,46 @@
 package br.com.rafas.transportes.api.repository;
 
 import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface QuilometragemLogRepository extends JpaRepository<QuilometragemLog, Long> {
 
-    List<QuilometragemLog> findByVeiculoIdOrderByDataHoraRegistroAsc(Long veiculoId);
+    /**
+     * Registros do veículo em [de, ate), em ordem de (dataHoraRegistro, id) a partir do cursor, pelo índice
+     * (veiculo_id, data_hora_registro). A projeção não toca em {@code Veiculo}.
+     */
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog(
+                l.id, l.veiculo.id, l.dataHoraRegistro, l.quilometragemAnterior, l.quilometragemAtual,
+                l.origemAlteracao, l.idReferenciaOrigem, l.dataHoraOriginal)
+            FROM QuilometragemLog l
+            WHERE l.veiculo.id = :veiculoId
+              AND l.dataHoraRegistro >= :de
+              AND l.dataHoraRegistro < :ate
+              AND (l.dataHoraRegistro > :aposDataHora OR (l.dataHoraRegistro = :aposDataHora AND l.id > :aposId))
+            ORDER BY l.dataHoraRegistro, l.id
+            """)
+    List<DadosDetalhamentoQuilometragemLog> listarPorVeiculo(Long veiculoId, LocalDateTime de, LocalDateTime ate,
+                                                              LocalDateTime aposDataHora, Long aposId, Limit limite);
 
     void deleteAllByVeiculoId(Long veiculoId);
 
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog(
+                l.id, l.veiculo.id, l.dataHoraRegistro, l.quilometragemAnterior, l.quilometragemAtual,
+                l.origemAlteracao, l.idReferenciaOrigem, l.dataHoraOriginal)
+            FROM QuilometragemLog l
+            WHERE l.dataHoraRegistro = (
+                SELECT MAX(l2.dataHoraRegistro) FROM QuilometragemLog l2 WHERE l2.veiculo = l.veiculo)
+            """)
+    List<DadosDetalhamentoQuilometragemLog> listarUltimosPorVeiculo();
+
 }
\ No newline at end of file
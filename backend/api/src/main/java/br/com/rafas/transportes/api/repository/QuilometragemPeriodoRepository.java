@@ -0,0 +1,38 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.GranularidadeQuilometragem;
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemPeriodo;
+import br.com.rafas.transportes.api.dto.DadosKmMes;
+import br.com.rafas.transportes.api.dto.DadosPontoQuilometragem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface QuilometragemPeriodoRepository extends JpaRepository<QuilometragemPeriodo, QuilometragemPeriodo.Chave> {
+
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosPontoQuilometragem(p.chave.inicio, p.kmRodados, p.kmFinal, p.registros)
+            FROM QuilometragemPeriodo p
+            WHERE p.chave.veiculoId = :veiculoId AND p.chave.granularidade = :granularidade
+              AND p.chave.inicio BETWEEN :inicio AND :fim
+            ORDER BY p.chave.inicio
+            """)
+    List<DadosPontoQuilometragem> listarSerie(Long veiculoId, GranularidadeQuilometragem granularidade,
+                                              LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            SELECT MIN(p.chave.inicio) FROM QuilometragemPeriodo p
+            WHERE p.chave.veiculoId = :veiculoId AND p.chave.granularidade = :granularidade
+            """)
+    LocalDate primeiroInicio(Long veiculoId, GranularidadeQuilometragem granularidade);
+
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosKmMes(p.chave.veiculoId, p.chave.inicio, p.kmRodados)
+            FROM QuilometragemPeriodo p
+            WHERE p.chave.granularidade = br.com.rafas.transportes.api.domain.veiculo.log.GranularidadeQuilometragem.MES
+              AND p.chave.inicio BETWEEN :inicio AND :fim AND p.kmRodados > 0
+            """)
+    List<DadosKmMes> listarKmPorMes(LocalDate inicio, LocalDate fim);
+}
\ No newline at end of file
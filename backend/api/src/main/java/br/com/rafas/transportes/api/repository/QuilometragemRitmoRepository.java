@@ -0,0 +1,7 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemRitmo;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface QuilometragemRitmoRepository extends JpaRepository<QuilometragemRitmo, Long> {
+}
@@ -0,0 +1,14 @@
+package br.com.rafas.transportes.api.repository;
+
+import br.com.rafas.transportes.api.domain.receita.ReceitaMes;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReceitaViagemRepository extends JpaRepository<ReceitaMes, ReceitaMes.Chave> {
+
+    @Query("SELECT r FROM ReceitaMes r WHERE r.chave.mes BETWEEN :inicio AND :fim AND r.viagens > 0")
+    List<ReceitaMes> listarNoPeriodo(LocalDate inicio, LocalDate fim);
+}
@@ -1,10 +1,38 @@
 package br.com.rafas.transportes.api.repository;
 
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
 import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface VeiculoRepository extends JpaRepository<Veiculo, Long> {
 
     boolean existsByPlate(String plate);
     boolean existsByPlateAndIdNot(String plate, Long id);
+
+    List<Veiculo> findByStatus(StatusVeiculo status);
+
+    /**
+     * Veículos no status pedido sem viagem não cancelada sobreposta a [inicio, fim] nem manutenção datada no período.
+     * A sobreposição é a mesma de {@code findVeiculoConflitosByTime}; {@code inicioMinimo} é o início mais antigo
+     * que ainda alcança a janela e limita a busca a um trecho do índice (vehicle_id, startAt).
+     */
+    @Query("""
+            SELECT ve FROM Veiculo ve
+            WHERE ve.status = :status
+              AND NOT EXISTS (
+                  SELECT 1 FROM Viagem v
+                  WHERE v.veiculo = ve AND v.startAt >= :inicioMinimo AND v.startAt <= :fim AND v.endAt >= :inicio
+                    AND v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA)
+              AND NOT EXISTS (
+                  SELECT 1 FROM Manutencao m
+                  WHERE m.veiculo = ve AND m.date BETWEEN :dataInicio AND :dataFim
+                    AND m.status <> br.com.rafas.transportes.api.domain.StatusManutencao.CANCELADA)
+            ORDER BY ve.id
+            """)
+    List<Veiculo> listarLivres(StatusVeiculo status, LocalDateTime inicioMinimo, LocalDateTime inicio, LocalDateTime fim, LocalDate dataInicio, LocalDate dataFim);
 }
\ No newline at end of file
@@ -1,19 +1,29 @@
 package br.com.rafas.transportes.api.repository;
+import br.com.rafas.transportes.api.domain.StatusViagem;
 import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosPainelViagem;
+import br.com.rafas.transportes.api.dto.DadosSomaReceita;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 public interface ViagemRepository extends JpaRepository<Viagem, Long> {
     Optional<Viagem> findFirstByMotoristaId(Long motoristaId);
     Optional<Viagem> findFirstByMotoristaIdAndEndDateGreaterThanOrderByEndDateAsc(Long motoristaId, LocalDate endDate);
-    List<Viagem> findByMotoristaId(Long motoristaId);
-    @Query("select v from Viagem v where v.veiculo.id = :veiculoId")
-    List<Viagem> findByVeiculoId(Long veiculoId);
     @Query("""
             select v from Viagem v
             where
@@ -30,46 +40,195 @@ public interface ViagemRepository extends JpaRepository<Viagem, Long> {
             and v.startDate <= :endDate
             """)
     List<Viagem> findVeiculoConflitos(Long veiculoId, LocalDate startDate, LocalDate endDate);
+    /**
+     * Viagens que ocupam o veículo em [inicio, fim]. Viagem cancelada não ocupa recurso, como na restrição de
+     * exclusão do PostgreSQL e no {@code IndiceConflitosViagem}; o mesmo vale para as demais consultas de ocupação.
+     */
     @Query("""
             SELECT v FROM Viagem v
-            WHERE
-                (v.veiculo.id = :veiculoId OR :veiculoId IS NULL)
-                AND v.startDate <= :endDate
-                AND v.endDate >= :startDate
-                AND (
-                    (v.startTime <= :endTime AND v.endTime >= :startTime)
-                    OR (v.startDate < :endDate AND v.endDate > :startDate)
-                )
-                AND v.id != :viagemIdToExclude
-            """)
-    List<Viagem> findVeiculoConflitosByTime(
-            Long veiculoId,
-            LocalDate startDate,
-            LocalTime startTime,
-            LocalDate endDate,
-            LocalTime endTime,
-            Long viagemIdToExclude
-    );
-    @Query("""
-        SELECT v FROM Viagem v
-        WHERE
-            (v.motorista.id = :motoristaId OR :motoristaId IS NULL)
-            AND v.startDate <= :endDate
-            AND v.endDate >= :startDate
-            AND (
-                (v.startTime <= :endTime AND v.endTime >= :startTime)
-                OR (v.startDate < :endDate AND v.endDate > :startDate)
-            )
-            AND v.id != :viagemIdToExclude
-        """)
-    List<Viagem> findMotoristaConflitosByTime(
-            Long motoristaId,
-            LocalDate startDate,
-            LocalTime startTime,
-            LocalDate endDate,
-            LocalTime endTime,
-            Long viagemIdToExclude
-    );
+            WHERE v.veiculo.id = :veiculoId
+              AND v.startAt <= :fim
+              AND v.endAt >= :inicio
+              AND v.id != :viagemIdToExclude
+              AND v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA
+            """)
+    List<Viagem> findVeiculoConflitosByTime(Long veiculoId, LocalDateTime inicio, LocalDateTime fim, Long viagemIdToExclude);
+    @Query("""
+            SELECT v FROM Viagem v
+            WHERE v.motorista.id = :motoristaId
+              AND v.startAt <= :fim
+              AND v.endAt >= :inicio
+              AND v.id != :viagemIdToExclude
+              AND v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA
+            """)
+    List<Viagem> findMotoristaConflitosByTime(Long motoristaId, LocalDateTime inicio, LocalDateTime fim, Long viagemIdToExclude);
+
+    @Query("""
+            SELECT v FROM Viagem v
+            LEFT JOIN FETCH v.veiculo
+            LEFT JOIN FETCH v.motorista
+            """)
+    List<Viagem> listarTodasComRecursos();
+
+    @Query("""
+            SELECT v FROM Viagem v
+            LEFT JOIN FETCH v.veiculo
+            LEFT JOIN FETCH v.motorista
+            WHERE v.id IN :ids
+            """)
+    List<Viagem> listarPorIdsComRecursos(Collection<Long> ids);
+
+    /**
+     * Próxima viagem de cada veículo a partir de {@code agora}, pelo índice (vehicle_id, startAt).
+     */
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosPainelViagem(
+                ve.id, v.id, v.title, v.startAt, v.endAt, v.clientName, m.id, m.nome)
+            FROM Viagem v
+            JOIN v.veiculo ve
+            LEFT JOIN v.motorista m
+            WHERE v.status <> :statusIgnorado
+              AND v.startAt >= :agora
+              AND v.startAt = (
+                  SELECT MIN(v2.startAt) FROM Viagem v2
+                  WHERE v2.veiculo = v.veiculo AND v2.status <> :statusIgnorado AND v2.startAt >= :agora)
+            """)
+    List<DadosPainelViagem> listarProximasPorVeiculo(LocalDateTime agora, StatusViagem statusIgnorado);
+
+    /**
+     * Busca servida pelos índices GIN {@code gin_trgm_ops} do PostgreSQL: trecho exato ({@code ILIKE}) ou
+     * palavra parecida ({@code <%}) em qualquer das colunas, ordenado pela maior {@code word_similarity}.
+     */
+    @Query(value = """
+            SELECT v.id FROM viagens v
+            WHERE v.title ILIKE :padrao OR v.client_name ILIKE :padrao OR v.telefone ILIKE :padrao
+               OR v.start_location ILIKE :padrao OR v.end_location ILIKE :padrao
+               OR :termo <% v.title OR :termo <% v.client_name
+               OR :termo <% v.start_location OR :termo <% v.end_location
+            ORDER BY GREATEST(
+                         word_similarity(:termo, COALESCE(v.title, '')),
+                         word_similarity(:termo, COALESCE(v.client_name, '')),
+                         word_similarity(:termo, COALESCE(v.telefone, '')),
+                         word_similarity(:termo, COALESCE(v.start_location, '')),
+                         word_similarity(:termo, COALESCE(v.end_location, ''))) DESC,
+                     v.start_date DESC NULLS LAST, v.id DESC
+            """, nativeQuery = true)
+    Slice<Long> buscarIdsPorTrigramas(String termo, String padrao, Pageable pagina);
+
+    @Query("""
+            SELECT v.id FROM Viagem v
+            WHERE LOWER(v.title) LIKE :padrao ESCAPE '\\' OR LOWER(v.clientName) LIKE :padrao ESCAPE '\\'
+               OR LOWER(v.telefone) LIKE :padrao ESCAPE '\\' OR LOWER(v.startLocation) LIKE :padrao ESCAPE '\\'
+               OR LOWER(v.endLocation) LIKE :padrao ESCAPE '\\'
+            ORDER BY CASE WHEN LOWER(v.title) LIKE :prefixo ESCAPE '\\' OR LOWER(v.clientName) LIKE :prefixo ESCAPE '\\'
+                            OR LOWER(v.telefone) LIKE :prefixo ESCAPE '\\' OR LOWER(v.startLocation) LIKE :prefixo ESCAPE '\\'
+                            OR LOWER(v.endLocation) LIKE :prefixo ESCAPE '\\' THEN 0 ELSE 1 END,
+                     v.startDate DESC, v.id DESC
+            """)
+    Slice<Long> buscarIds(String padrao, String prefixo, Pageable pagina);
+
+    @Query("""
+            SELECT v FROM Viagem v
+            LEFT JOIN FETCH v.veiculo ve
+            LEFT JOIN FETCH v.motorista m
+            WHERE v.startDate <= :ate
+              AND COALESCE(v.endDate, v.startDate) >= :de
+              AND (v.startDate > :aposData OR (v.startDate = :aposData AND v.id > :aposId))
+              AND (:status IS NULL OR v.status = :status)
+              AND (:veiculoId IS NULL OR ve.id = :veiculoId)
+              AND (:motoristaId IS NULL OR m.id = :motoristaId)
+            ORDER BY v.startDate, v.id
+            """)
+    List<Viagem> listarPorPeriodo(LocalDate de, LocalDate ate, LocalDate aposData, Long aposId,
+                                  StatusViagem status, Long veiculoId, Long motoristaId, Limit limite);
+
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosIntervaloViagem(
+                v.id, ve.id, m.id, v.startDate, v.startTime, v.endDate, v.endTime)
+            FROM Viagem v
+            LEFT JOIN v.veiculo ve
+            LEFT JOIN v.motorista m
+            WHERE v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA
+            """)
+    List<DadosIntervaloViagem> listarIntervalos();
+
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosIntervaloViagem(
+                v.id, ve.id, m.id, v.startDate, v.startTime, v.endDate, v.endTime)
+            FROM Viagem v
+            LEFT JOIN v.veiculo ve
+            LEFT JOIN v.motorista m
+            WHERE v.startDate <= :fim
+              AND v.endDate >= :inicio
+              AND v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA
+            """)
+    List<DadosIntervaloViagem> listarIntervalosNoPeriodo(LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosSomaReceita(
+                YEAR(v.startDate), MONTH(v.startDate), ve.id, m.id, v.tipoViagem, v.status, COUNT(v), SUM(v.valor))
+            FROM Viagem v
+            LEFT JOIN v.veiculo ve
+            LEFT JOIN v.motorista m
+            WHERE v.startDate IS NOT NULL
+            GROUP BY YEAR(v.startDate), MONTH(v.startDate), ve.id, m.id, v.tipoViagem, v.status
+            """)
+    List<DadosSomaReceita> somarReceita();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosIntervaloViagem(
+                v.id, ve.id, m.id, v.startDate, v.startTime, v.endDate, v.endTime)
+            FROM Viagem v
+            LEFT JOIN v.veiculo ve
+            JOIN v.motorista m
+            WHERE v.startDate <= :fim
+              AND COALESCE(v.endDate, v.startDate) >= :inicio
+              AND v.status <> :statusIgnorado
+            """)
+    Stream<DadosIntervaloViagem> streamIntervalosComMotoristaNoPeriodo(LocalDate inicio, LocalDate fim, StatusViagem statusIgnorado);
+
+    @Query("""
+            SELECT new br.com.rafas.transportes.api.dto.DadosIntervaloViagem(
+                v.id, ve.id, m.id, v.startDate, v.startTime, v.endDate, v.endTime)
+            FROM Viagem v
+            LEFT JOIN v.veiculo ve
+            LEFT JOIN v.motorista m
+            WHERE v.startDate <= :fim
+              AND v.endDate >= :inicio
+              AND (ve.id IN :veiculoIds OR m.id IN :motoristaIds)
+              AND v.status <> br.com.rafas.transportes.api.domain.StatusViagem.CANCELADA
+            """)
+    List<DadosIntervaloViagem> listarIntervalosPorRecursosNoPeriodo(LocalDate inicio, LocalDate fim,
+                                                                    Collection<Long> veiculoIds,
+                                                                    Collection<Long> motoristaIds);
+
+    /**
+     * Passa de {@code anterior} para {@code novoStatus} as {@code limite} viagens de menor id cujo início já
+     * chegou, marcando-as com {@code ciclo} para que {@link #listarDoCiclo} leia exatamente as linhas alteradas.
+     * O status é conferido de novo fora da subconsulta, para não avançar uma linha que outra transação já moveu.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Viagem v SET v.status = :novoStatus, v.cicloStatus = :ciclo
+            WHERE v.status = :anterior AND v.id IN (
+                SELECT c.id FROM Viagem c WHERE c.status = :anterior AND c.startAt <= :agora ORDER BY c.id LIMIT :limite)
+            """)
+    int avancarComInicioAtingido(StatusViagem anterior, StatusViagem novoStatus, LocalDateTime agora, String ciclo, int limite);
+
+    /**
+     * Como {@link #avancarComInicioAtingido}, para as viagens cujo fim já chegou.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Viagem v SET v.status = :novoStatus, v.cicloStatus = :ciclo
+            WHERE v.status = :anterior AND v.id IN (
+                SELECT c.id FROM Viagem c WHERE c.status = :anterior AND c.endAt <= :agora ORDER BY c.id LIMIT :limite)
+            """)
+    int avancarComFimAtingido(StatusViagem anterior, StatusViagem novoStatus, LocalDateTime agora, String ciclo, int limite);
+
+    @Query("SELECT v FROM Viagem v WHERE v.cicloStatus = :ciclo AND v.id > :aposId ORDER BY v.id")
+    List<Viagem> listarDoCiclo(String ciclo, Long aposId, Limit limite);
 
     @Query("SELECT COUNT(v) > 0 FROM Viagem v WHERE v.motorista.id = :motoristaId " +
             "AND ((v.startDate BETWEEN :dataInicio AND :dataFim) OR " +
@@ -0,0 +1,425 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Ferias;
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.rota.HorarioRota;
+import br.com.rafas.transportes.api.domain.rota.ItemRota;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosRegraRota;
+import br.com.rafas.transportes.api.repository.FeriasRepository;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.MotoristaRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Agenda de cada motorista em iCalendar (RFC 5545), para assinatura no calendário do celular: viagens que ainda
+ * não terminaram, regras de rotas de colaboradores (uma recorrência semanal por horário) e férias.
+ * <p>
+ * A agenda fica em memória por motorista como blocos de eventos por origem (uma viagem ou um período de férias),
+ * junto de um número de versão. Cada gravação de viagem ou férias soma um à versão e, depois do commit, troca só
+ * os blocos da origem alterada, sem nova consulta. A ETag sai da versão e do dia, então um {@code If-None-Match}
+ * igual é respondido sem consultar o banco nem montar o arquivo. Na virada do dia a agenda é remontada do banco.
+ */
+@Service
+public class AgendaMotoristaService {
+
+    private static final int DIAS_HORIZONTE = 366;
+    private static final int TAMANHO_PAGINA = 1000;
+    private static final int OCTETOS_POR_LINHA = 75;
+    private static final LocalDate INICIO_CURSOR = LocalDate.of(1900, 1, 1);
+    private static final String DOMINIO_UID = "@rafas-transportes";
+    private static final DateTimeFormatter DATA = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final String[] DIAS_SEMANA = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private final long inicializacao = System.currentTimeMillis();
+    private final Map<Long, Estado> estados = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private FeriasRepository feriasRepository;
+
+    public record Feed(String etag, byte[] corpo) {
+    }
+
+    /**
+     * Origem dos eventos de um bloco. Viagens vêm antes das férias e, dentro de cada tipo, por id.
+     */
+    private record Origem(boolean ferias, long id) implements Comparable<Origem> {
+        private static final Comparator<Origem> ORDEM = Comparator.comparing(Origem::ferias).thenComparingLong(Origem::id);
+
+        @Override
+        public int compareTo(Origem outra) {
+            return ORDEM.compare(this, outra);
+        }
+    }
+
+    /**
+     * Agenda montada para o dia {@code dia}. O corpo é remontado a partir dos blocos a cada troca.
+     */
+    private record Agenda(LocalDate dia, String nome, TreeMap<Origem, String> blocos, byte[] corpo) {
+
+        Agenda(LocalDate dia, String nome, TreeMap<Origem, String> blocos) {
+            this(dia, nome, blocos, montar(nome, blocos));
+        }
+
+        Agenda trocar(Origem origem, String bloco) {
+            TreeMap<Origem, String> novos = new TreeMap<>(blocos);
+            if (bloco.isEmpty()) {
+                novos.remove(origem);
+            } else {
+                novos.put(origem, bloco);
+            }
+            return new Agenda(dia, nome, novos);
+        }
+    }
+
+    /**
+     * Versão atual da agenda do motorista e a última agenda montada nessa versão, se houver.
+     */
+    private record Estado(long versao, Agenda agenda) {
+    }
+
+    public String etag(Long motoristaId) {
+        Estado estado = estados.get(motoristaId);
+        return etag(motoristaId, estado != null ? estado.versao() : 0L, LocalDate.now());
+    }
+
+    @Transactional(readOnly = true)
+    public Feed gerar(Long motoristaId) {
+        LocalDate hoje = LocalDate.now();
+        Estado estado = estados.get(motoristaId);
+        long versao = estado != null ? estado.versao() : 0L;
+        if (estado != null && estado.agenda() != null && estado.agenda().dia().equals(hoje)) {
+            return new Feed(etag(motoristaId, versao, hoje), estado.agenda().corpo());
+        }
+
+        Motorista motorista = motoristaRepository.findById(motoristaId)
+                .orElseThrow(() -> new EntityNotFoundException("Motorista não encontrado"));
+        LocalDate horizonte = hoje.plusDays(DIAS_HORIZONTE);
+        List<Viagem> viagens = new ArrayList<>();
+        LocalDate aposData = INICIO_CURSOR;
+        long aposId = 0L;
+        // todas as viagens do horizonte, em páginas por (startDate, id): a agenda não pode sair cortada
+        while (true) {
+            List<Viagem> pagina = viagemRepository.listarPorPeriodo(hoje, horizonte, aposData, aposId,
+                    null, null, motoristaId, Limit.of(TAMANHO_PAGINA));
+            viagens.addAll(pagina);
+            if (pagina.size() < TAMANHO_PAGINA) {
+                break;
+            }
+            Viagem ultima = pagina.get(pagina.size() - 1);
+            aposData = ultima.getStartDate();
+            aposId = ultima.getId();
+        }
+        Set<Long> rotaIds = itemRotaRepository.listarRegrasPorMotoristaNoPeriodo(motoristaId, hoje.minusDays(1), horizonte)
+                .stream().map(DadosRegraRota::viagemId).collect(Collectors.toCollection(TreeSet::new));
+        if (!rotaIds.isEmpty()) {
+            viagens.addAll(viagemRepository.listarPorIdsComRecursos(rotaIds));
+        }
+        TreeMap<Origem, String> blocos = new TreeMap<>();
+        for (Viagem viagem : viagens) {
+            guardar(blocos, new Origem(false, viagem.getId()), blocoViagem(viagem, motoristaId, hoje));
+        }
+        for (Ferias ferias : feriasRepository.findByMotoristaId(motoristaId)) {
+            guardar(blocos, new Origem(true, ferias.getId()), blocoFerias(ferias, hoje));
+        }
+        Agenda agenda = new Agenda(hoje, motorista.getNome(), blocos);
+
+        // Se alguma gravação confirmou enquanto a agenda era montada, a versão já mudou e a montagem é descartada.
+        estados.compute(motoristaId, (id, atual) -> (atual != null ? atual.versao() : 0L) == versao
+                ? new Estado(versao, agenda) : atual);
+        return new Feed(etag(motoristaId, versao, hoje), agenda.corpo());
+    }
+
+    /**
+     * Motoristas que aparecem numa viagem: o principal ou, nas rotas de colaboradores, os de cada item.
+     */
+    public static Set<Long> motoristasDe(Viagem viagem) {
+        Set<Long> motoristas = new TreeSet<>();
+        if (viagem.getMotorista() != null) {
+            motoristas.add(viagem.getMotorista().getId());
+        }
+        for (ItemRota item : viagem.getItensRota()) {
+            motoristas.add(item.getMotorista().getId());
+        }
+        return motoristas;
+    }
+
+    /**
+     * Monta agora, dentro da transação, os blocos da viagem para os motoristas atuais e para os que deixaram
+     * a viagem, e aplica depois do commit.
+     */
+    public void registrar(Collection<Long> motoristasAnteriores, Viagem viagem) {
+        LocalDate hoje = LocalDate.now();
+        Map<Long, String> blocos = new HashMap<>();
+        motoristasAnteriores.forEach(id -> blocos.put(id, ""));
+        motoristasDe(viagem).forEach(id -> blocos.put(id, blocoViagem(viagem, id, hoje)));
+        aplicarNoCommit(new Origem(false, viagem.getId()), blocos, hoje);
+    }
+
+    public void remover(Viagem viagem) {
+        Map<Long, String> blocos = new HashMap<>();
+        motoristasDe(viagem).forEach(id -> blocos.put(id, ""));
+        aplicarNoCommit(new Origem(false, viagem.getId()), blocos, LocalDate.now());
+    }
+
+    public void registrar(Ferias ferias) {
+        LocalDate hoje = LocalDate.now();
+        aplicarNoCommit(new Origem(true, ferias.getId()),
+                Map.of(ferias.getMotorista().getId(), blocoFerias(ferias, hoje)), hoje);
+    }
+
+    public void remover(Ferias ferias) {
+        aplicarNoCommit(new Origem(true, ferias.getId()), Map.of(ferias.getMotorista().getId(), ""), LocalDate.now());
+    }
+
+    /**
+     * Para gravações que não têm a entidade em mãos (lote via JDBC, dados do motorista): só a versão muda
+     * e a agenda é remontada do banco no próximo pedido.
+     */
+    public void invalidar(Collection<Long> motoristaIds) {
+        Set<Long> ids = Set.copyOf(motoristaIds);
+        depoisDoCommit(() -> ids.forEach(id -> estados.compute(id, (chave, atual) ->
+                new Estado(atual != null ? atual.versao() + 1 : 1L, null))));
+    }
+
+    private void aplicarNoCommit(Origem origem, Map<Long, String> blocos, LocalDate dia) {
+        depoisDoCommit(() -> blocos.forEach((motoristaId, bloco) -> estados.compute(motoristaId, (id, atual) -> {
+            if (atual == null) {
+                return new Estado(1L, null);
+            }
+            Agenda agenda = atual.agenda();
+            return new Estado(atual.versao() + 1,
+                    agenda != null && agenda.dia().equals(dia) ? agenda.trocar(origem, bloco) : null);
+        })));
+    }
+
+    private static void depoisDoCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private String etag(Long motoristaId, long versao, LocalDate dia) {
+        return "\"" + Long.toString(inicializacao, 36) + "-" + motoristaId + "-" + versao + "-" + dia.format(DATA) + "\"";
+    }
+
+    private static void guardar(TreeMap<Origem, String> blocos, Origem origem, String bloco) {
+        if (!bloco.isEmpty()) {
+            blocos.put(origem, bloco);
+        }
+    }
+
+    private static byte[] montar(String nome, TreeMap<Origem, String> blocos) {
+        StringBuilder ics = new StringBuilder(256 + blocos.size() * 512);
+        linha(ics, "BEGIN:VCALENDAR");
+        linha(ics, "VERSION:2.0");
+        linha(ics, "PRODID:-//Rafa's Transportes//Agenda do motorista//PT-BR");
+        linha(ics, "CALSCALE:GREGORIAN");
+        linha(ics, "METHOD:PUBLISH");
+        linha(ics, "X-WR-CALNAME:" + texto("Agenda - " + nome));
+        linha(ics, "REFRESH-INTERVAL;VALUE=DURATION:PT15M");
+        linha(ics, "X-PUBLISHED-TTL:PT15M");
+        blocos.values().forEach(ics::append);
+        linha(ics, "END:VCALENDAR");
+        return ics.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Eventos da viagem para um motorista, ou vazio se ele não está nela ou se ela está fora da janela
+     * [hoje, hoje + horizonte]. Horários são "flutuantes" (hora local, sem fuso), como são gravados.
+     */
+    private static String blocoViagem(Viagem viagem, Long motoristaId, LocalDate hoje) {
+        LocalDate horizonte = hoje.plusDays(DIAS_HORIZONTE);
+        StringBuilder bloco = new StringBuilder();
+        String status = viagem.getStatus() == StatusViagem.CANCELADA ? "CANCELLED" : "CONFIRMED";
+        if (viagem.getTipoViagem() == TipoViagem.ROTA_COLABORADORES) {
+            int sequencia = 0;
+            for (ItemRota item : viagem.getItensRota()) {
+                if (!item.getMotorista().getId().equals(motoristaId)) {
+                    continue;
+                }
+                for (HorarioRota horario : item.getHorarios()) {
+                    sequencia++;
+                    if (horario.getDataInicio().isAfter(horizonte) || horario.getDataFim().isBefore(hoje.minusDays(1))) {
+                        continue;
+                    }
+                    var regra = new DadosRegraRota(viagem.getId(), item.getVeiculo().getId(), motoristaId,
+                            horario.getDataInicio(), horario.getDataFim(), horario.getInicio(), horario.getFim(), horario.getDiasSemana());
+                    List<DadosIntervaloViagem> primeiraSemana = regra.ocorrencias(regra.dataInicio(), regra.dataInicio().plusDays(6));
+                    if (primeiraSemana.isEmpty()) {
+                        continue;
+                    }
+                    DadosIntervaloViagem primeira = primeiraSemana.get(0);
+                    inicioEvento(bloco, "viagem-" + viagem.getId() + "-" + sequencia, status);
+                    linha(bloco, "DTSTART:" + Viagem.instante(primeira.startDate(), primeira.startTime()).format(DATA_HORA));
+                    linha(bloco, "DTEND:" + Viagem.instante(primeira.endDate(), primeira.endTime()).format(DATA_HORA));
+                    linha(bloco, "RRULE:FREQ=WEEKLY;BYDAY=" + diasSemana(regra.diasSemana()) + ";UNTIL="
+                            + regra.dataFim().atTime(regra.inicio()).format(DATA_HORA));
+                    linha(bloco, "SUMMARY:" + texto(viagem.getTitle() != null ? viagem.getTitle() : "Rota de colaboradores"));
+                    propriedadesViagem(bloco, viagem);
+                    linha(bloco, "END:VEVENT");
+                }
+            }
+            return bloco.toString();
+        }
+
+        if (viagem.getMotorista() == null || !viagem.getMotorista().getId().equals(motoristaId) || viagem.getStartDate() == null) {
+            return "";
+        }
+        LocalDate ultimoDia = viagem.getEndDate() != null && viagem.getEndDate().isAfter(viagem.getStartDate())
+                ? viagem.getEndDate() : viagem.getStartDate();
+        if (viagem.getStartDate().isAfter(horizonte) || ultimoDia.isBefore(hoje)) {
+            return "";
+        }
+        inicioEvento(bloco, "viagem-" + viagem.getId(), status);
+        if (viagem.getStartTime() != null) {
+            linha(bloco, "DTSTART:" + Viagem.instante(viagem.getStartDate(), viagem.getStartTime()).format(DATA_HORA));
+            LocalDateTime fim = Viagem.instante(viagem.getEndDate(), viagem.getEndTime());
+            if (fim != null) {
+                linha(bloco, "DTEND:" + fim.format(DATA_HORA));
+            }
+        } else {
+            linha(bloco, "DTSTART;VALUE=DATE:" + viagem.getStartDate().format(DATA));
+            linha(bloco, "DTEND;VALUE=DATE:" + ultimoDia.plusDays(1).format(DATA));
+        }
+        linha(bloco, "SUMMARY:" + texto(viagem.getTitle() != null ? viagem.getTitle() : "Viagem"));
+        propriedadesViagem(bloco, viagem);
+        linha(bloco, "END:VEVENT");
+        return bloco.toString();
+    }
+
+    private static void propriedadesViagem(StringBuilder bloco, Viagem viagem) {
+        if (viagem.getStartLocation() != null) {
+            linha(bloco, "LOCATION:" + texto(viagem.getStartLocation()));
+        }
+        List<String> descricao = new ArrayList<>();
+        if (viagem.getClientName() != null) {
+            descricao.add("Cliente: " + viagem.getClientName());
+        }
+        if (viagem.getTelefone() != null) {
+            descricao.add("Telefone: " + viagem.getTelefone());
+        }
+        if (viagem.getEndLocation() != null) {
+            descricao.add("Destino: " + viagem.getEndLocation());
+        }
+        descricao.add("Status: " + viagem.getStatus());
+        linha(bloco, "DESCRIPTION:" + texto(String.join("\n", descricao)));
+    }
+
+    /**
+     * Férias como evento de dia inteiro; o DTEND de datas é exclusivo, por isso o dia seguinte ao fim.
+     */
+    private static String blocoFerias(Ferias ferias, LocalDate hoje) {
+        if (ferias.getDataFim().isBefore(hoje) || ferias.getDataInicio().isAfter(hoje.plusDays(DIAS_HORIZONTE))) {
+            return "";
+        }
+        StringBuilder bloco = new StringBuilder();
+        inicioEvento(bloco, "ferias-" + ferias.getId(), "CONFIRMED");
+        linha(bloco, "DTSTART;VALUE=DATE:" + ferias.getDataInicio().format(DATA));
+        linha(bloco, "DTEND;VALUE=DATE:" + ferias.getDataFim().plusDays(1).format(DATA));
+        linha(bloco, "SUMMARY:Férias");
+        linha(bloco, "TRANSP:OPAQUE");
+        linha(bloco, "END:VEVENT");
+        return bloco.toString();
+    }
+
+    private static void inicioEvento(StringBuilder bloco, String uid, String status) {
+        linha(bloco, "BEGIN:VEVENT");
+        linha(bloco, "UID:" + uid + DOMINIO_UID);
+        linha(bloco, "DTSTAMP:" + LocalDateTime.now(ZoneOffset.UTC).format(DATA_HORA) + "Z");
+        linha(bloco, "STATUS:" + status);
+    }
+
+    private static String diasSemana(int mascara) {
+        List<String> dias = new ArrayList<>();
+        for (DayOfWeek dia : HorarioRota.diasDe(mascara)) {
+            dias.add(DIAS_SEMANA[dia.getValue() - 1]);
+        }
+        return String.join(",", dias);
+    }
+
+    /**
+     * Escapa um valor TEXT (RFC 5545, 3.3.11).
+     */
+    private static String texto(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length() + 8);
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '\\' -> escapado.append("\\\\");
+                case ';' -> escapado.append("\\;");
+                case ',' -> escapado.append("\\,");
+                case '\n' -> escapado.append("\\n");
+                case '\r' -> {
+                }
+                default -> escapado.append(c);
+            }
+        }
+        return escapado.toString();
+    }
+
+    /**
+     * Acrescenta a linha terminada em CRLF, dobrada a cada 75 octetos UTF-8 (RFC 5545, 3.1) sem partir
+     * caracteres; as linhas de continuação começam com um espaço.
+     */
+    private static void linha(StringBuilder destino, String conteudo) {
+        int octetos = 0;
+        for (int i = 0; i < conteudo.length(); ) {
+            int ponto = conteudo.codePointAt(i);
+            int tamanho = ponto < 0x80 ? 1 : ponto < 0x800 ? 2 : ponto < 0x10000 ? 3 : 4;
+            if (octetos + tamanho > OCTETOS_POR_LINHA) {
+                destino.append("\r\n ");
+                octetos = 1;
+            }
+            destino.appendCodePoint(ponto);
+            octetos += tamanho;
+            i += Character.charCount(ponto);
+        }
+        destino.append("\r\n");
+    }
+}
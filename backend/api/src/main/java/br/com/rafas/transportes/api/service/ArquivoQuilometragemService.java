@@ -0,0 +1,357 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLogArquivo;
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLogExclusao;
+import br.com.rafas.transportes.api.dto.DadosArquivoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import br.com.rafas.transportes.api.infra.ParticionamentoQuilometragemLog;
+import br.com.rafas.transportes.api.repository.QuilometragemLogArquivoRepository;
+import br.com.rafas.transportes.api.repository.QuilometragemLogExclusaoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retenção de {@code quilometragem_log}: os meses mais antigos que {@code quilometragem.retencao.meses} são
+ * exportados para um CSV compactado com gzip em {@code quilometragem.arquivo.diretorio}, acompanhado do
+ * SHA-256 do arquivo, e só então saem do banco (no PostgreSQL a partição do mês é desanexada e apagada).
+ * O catálogo {@code quilometragem_log_arquivo} guarda o arquivo, o checksum e a contagem de cada mês. Como
+ * os arquivos passam a ser a única cópia desses meses, o diretório não tem valor padrão: a aplicação não sobe
+ * sem um caminho absoluto, que deve estar num volume persistente.
+ * <p>
+ * O histórico paginado continua enxergando os meses arquivados: {@link #listar} lê os arquivos do intervalo
+ * pedido e {@code QuilometragemLogService} intercala o resultado com o banco. Consultas que não alcançam um
+ * mês arquivado não abrem arquivo nenhum. O resumo por período ({@code quilometragem_periodo}) não é
+ * arquivado, então as séries dos gráficos seguem cobrindo todo o histórico.
+ * <p>
+ * Os arquivos não mudam depois de gravados. Limpar o histórico de um veículo registra a data da limpeza em
+ * {@code quilometragem_log_exclusao}, e os registros dele em arquivos gerados antes dessa data deixam de ser
+ * lidos; o que foi gravado depois da limpeza e arquivado mais tarde continua aparecendo.
+ */
+@Service
+public class ArquivoQuilometragemService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivoQuilometragemService.class);
+
+    private static final int TAMANHO_BUSCA = 1000;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final String CABECALHO = "id;veiculo_id;data_hora_registro;quilometragem_anterior;quilometragem_atual;"
+            + "origem_alteracao;id_referencia_origem;data_hora_original";
+    private static final DateTimeFormatter SUFIXO = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String FILTRO_MES = "data_hora_registro >= ? AND data_hora_registro < ?";
+
+    @Value("${quilometragem.retencao.meses:24}")
+    private int mesesRetencao;
+
+    @Value("${quilometragem.arquivo.diretorio:}")
+    private String diretorioConfigurado;
+
+    @Autowired
+    private QuilometragemLogArquivoRepository arquivoRepository;
+
+    @Autowired
+    private QuilometragemLogExclusaoRepository exclusaoRepository;
+
+    @Autowired
+    private ParticionamentoQuilometragemLog particionamento;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Path diretorio;
+    private volatile TreeMap<LocalDate, QuilometragemLogArquivo> catalogo;
+    private final Set<LocalDate> conferidos = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void prepararDiretorio() throws IOException {
+        if (diretorioConfigurado == null || diretorioConfigurado.isBlank()) {
+            throw new IllegalStateException("Configure quilometragem.arquivo.diretorio com um diretório persistente:"
+                    + " os meses arquivados de quilometragem_log só existem nesses arquivos.");
+        }
+        Path configurado = Path.of(diretorioConfigurado);
+        if (!configurado.isAbsolute()) {
+            throw new IllegalStateException("quilometragem.arquivo.diretorio deve ser um caminho absoluto num volume"
+                    + " persistente, não relativo ao diretório de trabalho: " + diretorioConfigurado);
+        }
+        Files.createDirectories(configurado);
+        if (!Files.isWritable(configurado)) {
+            throw new IllegalStateException("Sem permissão de escrita em quilometragem.arquivo.diretorio: " + configurado);
+        }
+        diretorio = configurado;
+    }
+
+    @Scheduled(cron = "${quilometragem.arquivo.cron:0 30 3 * * *}")
+    public void manter() {
+        particionamento.garantirParticoes();
+        arquivar();
+    }
+
+    /**
+     * Arquiva, um mês por transação, todos os meses anteriores ao limite de retenção que ainda têm registros
+     * no banco e não estão no catálogo. Leituras atrasadas de um mês já arquivado ficam no banco e continuam
+     * aparecendo no histórico normalmente.
+     */
+    public synchronized List<DadosArquivoQuilometragemLog> arquivar() {
+        YearMonth limite = YearMonth.now().minusMonths(mesesRetencao);
+        Timestamp primeiro = jdbcTemplate.queryForObject(
+                "SELECT MIN(data_hora_registro) FROM quilometragem_log WHERE data_hora_registro < ?",
+                Timestamp.class, Timestamp.valueOf(limite.atDay(1).atStartOfDay()));
+        List<DadosArquivoQuilometragemLog> arquivados = new ArrayList<>();
+        if (primeiro == null) {
+            return arquivados;
+        }
+        var transacao = new TransactionTemplate(transactionManager);
+        for (YearMonth mes = YearMonth.from(primeiro.toLocalDateTime()); mes.isBefore(limite); mes = mes.plusMonths(1)) {
+            if (catalogo().containsKey(mes.atDay(1))) {
+                continue;
+            }
+            YearMonth alvo = mes;
+            QuilometragemLogArquivo arquivo = transacao.execute(status -> arquivarMes(alvo));
+            if (arquivo != null) {
+                arquivados.add(new DadosArquivoQuilometragemLog(arquivo));
+            }
+        }
+        catalogo = null;
+        return arquivados;
+    }
+
+    private QuilometragemLogArquivo arquivarMes(YearMonth mes) {
+        long inicio = System.currentTimeMillis();
+        Timestamp de = Timestamp.valueOf(mes.atDay(1).atStartOfDay());
+        Timestamp ate = Timestamp.valueOf(mes.plusMonths(1).atDay(1).atStartOfDay());
+        particionamento.travarParticao(mes);
+        Long noBanco = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log WHERE " + FILTRO_MES, Long.class, de, ate);
+        if (noBanco == null || noBanco == 0) {
+            return null;
+        }
+
+        Path destino = diretorio.resolve("quilometragem_log_" + mes.format(SUFIXO) + ".csv.gz");
+        Path parcial = diretorio.resolve(destino.getFileName() + ".parcial");
+        long[] exportados = {0};
+        String sha256;
+        try {
+            Files.createDirectories(diretorio);
+            MessageDigest digest = sha256();
+            try (var arquivo = new FileOutputStream(parcial.toFile());
+                 var comDigest = new DigestOutputStream(arquivo, digest);
+                 var compactado = new GZIPOutputStream(comDigest, TAMANHO_BUFFER);
+                 Writer escritor = new BufferedWriter(new OutputStreamWriter(compactado, StandardCharsets.UTF_8), TAMANHO_BUFFER)) {
+                escritor.write(CABECALHO);
+                escritor.write('\n');
+                jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement("""
+                            SELECT id, veiculo_id, data_hora_registro, quilometragem_anterior, quilometragem_atual,
+                                   origem_alteracao, id_referencia_origem, data_hora_original
+                            FROM quilometragem_log WHERE %s
+                            ORDER BY veiculo_id, data_hora_registro, id
+                            """.formatted(FILTRO_MES));
+                    ps.setFetchSize(TAMANHO_BUSCA);
+                    ps.setTimestamp(1, de);
+                    ps.setTimestamp(2, ate);
+                    return ps;
+                }, (RowCallbackHandler) rs -> {
+                    Long referencia = rs.getObject(7, Long.class);
+                    Timestamp original = rs.getTimestamp(8);
+                    escrever(escritor, rs.getLong(1) + ";" + rs.getLong(2) + ";" + rs.getTimestamp(3).toLocalDateTime() + ";"
+                            + rs.getInt(4) + ";" + rs.getInt(5) + ";" + rs.getString(6) + ";" + (referencia != null ? referencia : "")
+                            + ";" + (original != null ? original.toLocalDateTime() : ""));
+                    exportados[0]++;
+                });
+                escritor.flush();
+                compactado.finish();
+                comDigest.flush();
+                arquivo.getFD().sync();
+            }
+            sha256 = HexFormat.of().formatHex(digest.digest());
+            if (exportados[0] != noBanco) {
+                throw new IllegalStateException("Exportação de " + mes + " escreveu " + exportados[0]
+                        + " registros, mas o banco tem " + noBanco + ".");
+            }
+            Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.writeString(diretorio.resolve(destino.getFileName() + ".sha256"),
+                    sha256 + "  " + destino.getFileName() + "\n", StandardCharsets.UTF_8);
+            conferir(destino, sha256, noBanco);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao exportar quilometragem_log de " + mes, e);
+        }
+
+        particionamento.removerParticao(mes);
+        jdbcTemplate.update("DELETE FROM quilometragem_log WHERE " + FILTRO_MES, de, ate);
+        var registro = new QuilometragemLogArquivo(mes.atDay(1), destino.toString(), sha256, noBanco, LocalDateTime.now());
+        arquivoRepository.save(registro);
+        conferidos.add(registro.getMes());
+        log.info("quilometragem_log de {} arquivado em {}: {} registros em {} ms.", mes, destino, noBanco,
+                System.currentTimeMillis() - inicio);
+        return registro;
+    }
+
+    /**
+     * Marca a limpeza do histórico do veículo; chamada na mesma transação que apaga os registros do banco.
+     */
+    public void registrarExclusao(Long veiculoId) {
+        exclusaoRepository.save(new QuilometragemLogExclusao(veiculoId, LocalDateTime.now()));
+    }
+
+    public List<DadosArquivoQuilometragemLog> listarArquivos() {
+        return catalogo().values().stream().map(DadosArquivoQuilometragemLog::new).toList();
+    }
+
+    /**
+     * Registros do veículo nos meses arquivados, em [de, ate) e depois do cursor, na mesma ordem de
+     * (dataHoraRegistro, id) do banco, até {@code limite} registros. Cada arquivo está ordenado por veículo,
+     * então a leitura de um mês para quando passa do veículo pedido. Arquivos gerados antes da última limpeza
+     * do histórico do veículo são pulados.
+     */
+    public List<DadosDetalhamentoQuilometragemLog> listar(Long veiculoId, LocalDateTime de, LocalDateTime ate,
+                                                          LocalDateTime aposDataHora, long aposId, int limite) {
+        TreeMap<LocalDate, QuilometragemLogArquivo> meses = catalogo();
+        List<DadosDetalhamentoQuilometragemLog> encontrados = new ArrayList<>();
+        if (meses.isEmpty()) {
+            return encontrados;
+        }
+        LocalDateTime inicio = de.isAfter(aposDataHora) ? de : aposDataHora;
+        LocalDateTime excluidoEm = null;
+        for (QuilometragemLogArquivo arquivo : meses.tailMap(inicio.toLocalDate().withDayOfMonth(1), true).values()) {
+            if (!arquivo.getMes().atStartOfDay().isBefore(ate) || encontrados.size() >= limite) {
+                break;
+            }
+            if (excluidoEm == null) {
+                excluidoEm = exclusaoRepository.findById(veiculoId).map(QuilometragemLogExclusao::getExcluidoEm)
+                        .orElse(LocalDateTime.MIN);
+            }
+            if (arquivo.getArquivadoEm().isBefore(excluidoEm)) {
+                continue;
+            }
+            lerMes(arquivo, veiculoId, de, ate, aposDataHora, aposId, limite, encontrados);
+        }
+        return encontrados;
+    }
+
+    private void lerMes(QuilometragemLogArquivo arquivo, Long veiculoId, LocalDateTime de, LocalDateTime ate,
+                        LocalDateTime aposDataHora, long aposId, int limite, List<DadosDetalhamentoQuilometragemLog> encontrados) {
+        Path caminho = Path.of(arquivo.getArquivo());
+        if (!conferidos.contains(arquivo.getMes())) {
+            conferir(caminho, arquivo.getSha256(), arquivo.getRegistros());
+            conferidos.add(arquivo.getMes());
+        }
+        try (var leitor = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(caminho), TAMANHO_BUFFER), StandardCharsets.UTF_8), TAMANHO_BUFFER)) {
+            leitor.readLine();
+            String linha;
+            while ((linha = leitor.readLine()) != null && encontrados.size() < limite) {
+                String[] campos = linha.split(";", -1);
+                long veiculo = Long.parseLong(campos[1]);
+                if (veiculo < veiculoId) {
+                    continue;
+                }
+                if (veiculo > veiculoId) {
+                    break;
+                }
+                LocalDateTime dataHora = LocalDateTime.parse(campos[2]);
+                long id = Long.parseLong(campos[0]);
+                boolean aposCursor = dataHora.isAfter(aposDataHora) || (dataHora.equals(aposDataHora) && id > aposId);
+                if (dataHora.isBefore(de) || !dataHora.isBefore(ate) || !aposCursor) {
+                    continue;
+                }
+                // arquivos anteriores à coluna data_hora_original têm sete campos
+                LocalDateTime original = campos.length > 7 && !campos[7].isEmpty() ? LocalDateTime.parse(campos[7]) : null;
+                encontrados.add(new DadosDetalhamentoQuilometragemLog(id, veiculo, dataHora, Integer.parseInt(campos[3]),
+                        Integer.parseInt(campos[4]), campos[5], campos[6].isEmpty() ? null : Long.parseLong(campos[6]), original));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o arquivo de quilometragem " + caminho, e);
+        }
+    }
+
+    /**
+     * Confere checksum e contagem do arquivo antes de ele valer como cópia do mês.
+     */
+    private static void conferir(Path caminho, String sha256, long registros) {
+        MessageDigest digest = sha256();
+        long linhas = 0;
+        try (InputStream entrada = new DigestInputStream(Files.newInputStream(caminho), digest);
+             var leitor = new BufferedReader(new InputStreamReader(new GZIPInputStream(entrada, TAMANHO_BUFFER), StandardCharsets.UTF_8))) {
+            while (leitor.readLine() != null) {
+                linhas++;
+            }
+            entrada.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao conferir o arquivo de quilometragem " + caminho, e);
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equals(sha256) || linhas - 1 != registros) {
+            throw new IllegalStateException("Arquivo de quilometragem corrompido ou incompleto: " + caminho);
+        }
+    }
+
+    private TreeMap<LocalDate, QuilometragemLogArquivo> catalogo() {
+        TreeMap<LocalDate, QuilometragemLogArquivo> atual = catalogo;
+        if (atual == null) {
+            atual = new TreeMap<>();
+            for (QuilometragemLogArquivo arquivo : arquivoRepository.findAllByOrderByMesAsc()) {
+                atual.put(arquivo.getMes(), arquivo);
+            }
+            catalogo = atual;
+        }
+        return atual;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void escrever(Writer escritor, String linha) {
+        try {
+            escritor.write(linha);
+            escritor.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Ferias;
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusMotorista;
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import br.com.rafas.transportes.api.dto.DadosAtribuicaoViagem;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosPedidoAtribuicao;
+import br.com.rafas.transportes.api.dto.DadosResultadoAtribuicao;
+import br.com.rafas.transportes.api.repository.FeriasRepository;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.MotoristaRepository;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Propõe veículo e motorista para viagens ainda não atribuídas, sem gravar nada.
+ * <p>
+ * As viagens são agrupadas em blocos de dias ligados entre si por viagens de vários dias. Como o critério
+ * de conflito só compara viagens cujas datas se sobrepõem, blocos diferentes nunca disputam o mesmo
+ * recurso e são resolvidos em paralelo (fork-join). Dentro do bloco é a coloração gulosa de grafo de
+ * intervalos: viagens em ordem de início, cada uma recebe o recurso livre que ficou ocioso por menos tempo,
+ * deixando os recursos ainda sem uso para as viagens seguintes.
+ */
+@Service
+public class AtribuicaoViagemService {
+
+    private static final int MAXIMO_VIAGENS = 5000;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    @Autowired
+    private FeriasRepository feriasRepository;
+
+    private record Pedido(int indice, DadosIntervaloViagem intervalo, Long veiculoId, Long motoristaId) {
+    }
+
+    /**
+     * Ocupação conhecida antes da simulação: viagens e rotas já gravadas, férias e recursos elegíveis.
+     */
+    private record Contexto(List<Long> veiculoIds,
+                            List<Long> motoristaIds,
+                            Map<Long, Motorista> motoristas,
+                            Map<Long, List<DadosIntervaloViagem>> ocupacaoVeiculos,
+                            Map<Long, List<DadosIntervaloViagem>> ocupacaoMotoristas,
+                            Map<Long, List<Ferias>> feriasPorMotorista) {
+    }
+
+    @Transactional(readOnly = true)
+    public DadosResultadoAtribuicao simular(DadosPedidoAtribuicao dados) {
+        long inicioSimulacao = System.currentTimeMillis();
+        if (dados.viagens() == null || dados.viagens().isEmpty()) {
+            throw new ValidationException("Informe ao menos uma viagem para a atribuição.");
+        }
+        if (dados.viagens().size() > MAXIMO_VIAGENS) {
+            throw new ValidationException("A atribuição aceita no máximo " + MAXIMO_VIAGENS + " viagens por vez.");
+        }
+        if (dados.de() != null && dados.ate() != null && dados.de().isAfter(dados.ate())) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+
+        List<DadosAtribuicaoViagem> resultado = new ArrayList<>();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < dados.viagens().size(); i++) {
+            DadosCadastroViagem item = dados.viagens().get(i);
+            String erro = validarItem(item, dados.de(), dados.ate());
+            if (erro != null) {
+                resultado.add(new DadosAtribuicaoViagem(i, null, null, erro));
+                continue;
+            }
+            pedidos.add(new Pedido(i, intervaloDe(i, item), item.veiculoId(), item.motoristaId()));
+        }
+        if (pedidos.isEmpty()) {
+            return new DadosResultadoAtribuicao(dados.de(), dados.ate(), dados.viagens().size(), 0, resultado,
+                    System.currentTimeMillis() - inicioSimulacao);
+        }
+
+        LocalDate de = dados.de() != null ? dados.de()
+                : pedidos.stream().map(p -> p.intervalo().startDate()).min(Comparator.naturalOrder()).get();
+        LocalDate ate = dados.ate() != null ? dados.ate()
+                : pedidos.stream().map(p -> p.intervalo().endDate()).max(Comparator.naturalOrder()).get();
+        Contexto contexto = carregarContexto(de, ate);
+
+        resultado.addAll(separarEmBlocos(pedidos).parallelStream()
+                .flatMap(bloco -> atribuirBloco(bloco, contexto).stream())
+                .toList());
+        resultado.sort(Comparator.comparingInt(DadosAtribuicaoViagem::indice));
+        int atribuidas = (int) resultado.stream().filter(a -> a.motivo() == null).count();
+        return new DadosResultadoAtribuicao(de, ate, dados.viagens().size(), atribuidas, resultado,
+                System.currentTimeMillis() - inicioSimulacao);
+    }
+
+    private static String validarItem(DadosCadastroViagem item, LocalDate de, LocalDate ate) {
+        if (item == null) {
+            return "Item vazio.";
+        }
+        if (item.startDate() == null || item.startTime() == null) {
+            return "Data e hora de início são obrigatórias para a atribuição.";
+        }
+        LocalDate fim = item.endDate() != null ? item.endDate() : item.startDate();
+        if (fim.isBefore(item.startDate()) || (fim.isEqual(item.startDate()) && item.endTime() != null
+                && item.endTime().isBefore(item.startTime()))) {
+            return "O fim da viagem não pode ser anterior ao início.";
+        }
+        if ((de != null && fim.isBefore(de)) || (ate != null && item.startDate().isAfter(ate))) {
+            return "A viagem está fora do período informado.";
+        }
+        return null;
+    }
+
+    /**
+     * Viagem sem retorno informado ocupa o recurso até o fim do dia de chegada.
+     */
+    private static DadosIntervaloViagem intervaloDe(int indice, DadosCadastroViagem item) {
+        return new DadosIntervaloViagem(
+                (long) -(indice + 1),
+                item.veiculoId(),
+                item.motoristaId(),
+                item.startDate(),
+                item.startTime(),
+                item.endDate() != null ? item.endDate() : item.startDate(),
+                item.endTime() != null ? item.endTime() : LocalTime.MAX
+        );
+    }
+
+    private Contexto carregarContexto(LocalDate de, LocalDate ate) {
+        List<DadosIntervaloViagem> ocupacao = new ArrayList<>(viagemRepository.listarIntervalosNoPeriodo(de, ate));
+        itemRotaRepository.listarRegrasNoPeriodo(de.minusDays(1), ate)
+                .forEach(regra -> ocupacao.addAll(regra.ocorrencias(de, ate)));
+
+        List<Long> veiculoIds = veiculoRepository.findByStatus(StatusVeiculo.ATIVO).stream()
+                .map(Veiculo::getId)
+                .sorted()
+                .toList();
+        Map<Long, Motorista> motoristas = Stream.concat(
+                        motoristaRepository.findByStatus(StatusMotorista.ATIVO).stream(),
+                        motoristaRepository.findByStatus(StatusMotorista.DE_FERIAS).stream())
+                .sorted(Comparator.comparing(Motorista::getId))
+                .collect(Collectors.toMap(Motorista::getId, m -> m, (a, b) -> a, LinkedHashMap::new));
+
+        return new Contexto(
+                veiculoIds,
+                List.copyOf(motoristas.keySet()),
+                motoristas,
+                ocupacao.stream().filter(o -> o.veiculoId() != null).collect(Collectors.groupingBy(DadosIntervaloViagem::veiculoId)),
+                ocupacao.stream().filter(o -> o.motoristaId() != null).collect(Collectors.groupingBy(DadosIntervaloViagem::motoristaId)),
+                feriasRepository.findNoPeriodo(de, ate).stream().collect(Collectors.groupingBy(f -> f.getMotorista().getId()))
+        );
+    }
+
+    private static List<List<Pedido>> separarEmBlocos(List<Pedido> pedidos) {
+        List<Pedido> ordenados = pedidos.stream()
+                .sorted(Comparator.comparing((Pedido p) -> p.intervalo().startDate())
+                        .thenComparing(p -> p.intervalo().startTime())
+                        .thenComparingInt(Pedido::indice))
+                .toList();
+        List<List<Pedido>> blocos = new ArrayList<>();
+        List<Pedido> atual = new ArrayList<>();
+        LocalDate fimBloco = null;
+        for (Pedido pedido : ordenados) {
+            if (fimBloco != null && pedido.intervalo().startDate().isAfter(fimBloco)) {
+                blocos.add(atual);
+                atual = new ArrayList<>();
+                fimBloco = null;
+            }
+            atual.add(pedido);
+            if (fimBloco == null || pedido.intervalo().endDate().isAfter(fimBloco)) {
+                fimBloco = pedido.intervalo().endDate();
+            }
+        }
+        blocos.add(atual);
+        return blocos;
+    }
+
+    private static List<DadosAtribuicaoViagem> atribuirBloco(List<Pedido> bloco, Contexto contexto) {
+        Map<Long, List<DadosIntervaloViagem>> usoVeiculos = new HashMap<>();
+        Map<Long, List<DadosIntervaloViagem>> usoMotoristas = new HashMap<>();
+        List<DadosAtribuicaoViagem> atribuicoes = new ArrayList<>();
+        for (Pedido pedido : bloco) {
+            DadosIntervaloViagem intervalo = pedido.intervalo();
+            Long veiculoId = escolher(pedido.veiculoId(), contexto.veiculoIds(), intervalo,
+                    contexto.ocupacaoVeiculos(), usoVeiculos, id -> true);
+            Long motoristaId = escolher(pedido.motoristaId(), contexto.motoristaIds(), intervalo,
+                    contexto.ocupacaoMotoristas(), usoMotoristas, id -> motoristaElegivel(contexto, id, intervalo));
+            if (veiculoId == null || motoristaId == null) {
+                atribuicoes.add(new DadosAtribuicaoViagem(pedido.indice(), null, null, motivo(pedido, veiculoId, motoristaId)));
+                continue;
+            }
+            usoVeiculos.computeIfAbsent(veiculoId, id -> new ArrayList<>()).add(intervalo);
+            usoMotoristas.computeIfAbsent(motoristaId, id -> new ArrayList<>()).add(intervalo);
+            atribuicoes.add(new DadosAtribuicaoViagem(pedido.indice(), veiculoId, motoristaId, null));
+        }
+        return atribuicoes;
+    }
+
+    private static String motivo(Pedido pedido, Long veiculoId, Long motoristaId) {
+        if (veiculoId == null) {
+            return pedido.veiculoId() != null
+                    ? "O veículo informado não está ativo ou livre neste período."
+                    : "Nenhum veículo ativo livre neste período.";
+        }
+        return pedido.motoristaId() != null
+                ? "O motorista informado não está livre, está de férias ou com a CNH vencida neste período."
+                : "Nenhum motorista livre, fora de férias e com CNH válida neste período.";
+    }
+
+    /**
+     * Com recurso fixado no pedido, só confere se ele está livre; senão escolhe, entre os livres, o que
+     * terminou a última ocupação mais perto do início da viagem. Recursos ainda sem ocupação vêm por último.
+     */
+    private static Long escolher(Long fixo, List<Long> candidatos, DadosIntervaloViagem intervalo,
+                                 Map<Long, List<DadosIntervaloViagem>> ocupacao, Map<Long, List<DadosIntervaloViagem>> uso,
+                                 Predicate<Long> elegivel) {
+        if (fixo != null) {
+            return candidatos.contains(fixo) && elegivel.test(fixo) && livre(fixo, intervalo, ocupacao, uso) ? fixo : null;
+        }
+        LocalDateTime inicio = LocalDateTime.of(intervalo.startDate(), intervalo.startTime());
+        Long melhor = null;
+        Duration menorOciosidade = null;
+        for (Long candidato : candidatos) {
+            if (!elegivel.test(candidato) || !livre(candidato, intervalo, ocupacao, uso)) {
+                continue;
+            }
+            Duration ociosidade = Stream.concat(
+                            ocupacao.getOrDefault(candidato, List.of()).stream(),
+                            uso.getOrDefault(candidato, List.of()).stream())
+                    .map(o -> LocalDateTime.of(o.endDate(), o.endTime() != null ? o.endTime() : LocalTime.MAX))
+                    .filter(fim -> !fim.isAfter(inicio))
+                    .map(fim -> Duration.between(fim, inicio))
+                    .min(Comparator.naturalOrder())
+                    .orElse(null);
+            if (melhor == null || (ociosidade != null && (menorOciosidade == null || ociosidade.compareTo(menorOciosidade) < 0))) {
+                melhor = candidato;
+                menorOciosidade = ociosidade;
+            }
+        }
+        return melhor;
+    }
+
+    private static boolean livre(Long recursoId, DadosIntervaloViagem intervalo,
+                                 Map<Long, List<DadosIntervaloViagem>> ocupacao, Map<Long, List<DadosIntervaloViagem>> uso) {
+        return Stream.concat(ocupacao.getOrDefault(recursoId, List.of()).stream(), uso.getOrDefault(recursoId, List.of()).stream())
+                .noneMatch(o -> IndiceConflitosViagem.conflita(o, intervalo.startDate(), intervalo.startTime(),
+                        intervalo.endDate(), intervalo.endTime()));
+    }
+
+    private static boolean motoristaElegivel(Contexto contexto, Long motoristaId, DadosIntervaloViagem intervalo) {
+        Motorista motorista = contexto.motoristas().get(motoristaId);
+        if (motorista == null || motorista.getValidadeCnh() == null || motorista.getValidadeCnh().isBefore(intervalo.endDate())) {
+            return false;
+        }
+        return contexto.feriasPorMotorista().getOrDefault(motoristaId, List.of()).stream()
+                .noneMatch(f -> !f.getDataInicio().isAfter(intervalo.endDate()) && !f.getDataFim().isBefore(intervalo.startDate()));
+    }
+}
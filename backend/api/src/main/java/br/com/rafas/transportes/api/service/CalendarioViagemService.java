@@ -0,0 +1,232 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.calendario.VeiculoDia;
+import br.com.rafas.transportes.api.domain.calendario.ViagensDia;
+import br.com.rafas.transportes.api.domain.rota.HorarioRota;
+import br.com.rafas.transportes.api.domain.rota.ItemRota;
+import br.com.rafas.transportes.api.dto.DadosCalendarioDia;
+import br.com.rafas.transportes.api.dto.DadosCalendarioMes;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosRegraRota;
+import br.com.rafas.transportes.api.repository.CalendarioViagemRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Resumo diário das viagens para a visão de calendário, guardado em tabelas por dia
+ * ({@code calendario_viagens_dia} e {@code calendario_veiculos_dia}) e mantido por incrementos a cada
+ * gravação de viagem. Ler um mês custa duas consultas pelo intervalo de dias, independente do histórico.
+ */
+@Service
+public class CalendarioViagemService {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarioViagemService.class);
+
+    private static final String GARANTIR_VIAGENS_DIA =
+            "INSERT INTO calendario_viagens_dia (dia, status, viagens, valor_total) VALUES (?, ?, 0, 0) ON CONFLICT DO NOTHING";
+    private static final String SOMAR_VIAGENS_DIA =
+            "UPDATE calendario_viagens_dia SET viagens = viagens + ?, valor_total = valor_total + ? WHERE dia = ? AND status = ?";
+    private static final String GARANTIR_VEICULO_DIA =
+            "INSERT INTO calendario_veiculos_dia (dia, veiculo_id, viagens) VALUES (?, ?, 0) ON CONFLICT DO NOTHING";
+    private static final String SOMAR_VEICULO_DIA =
+            "UPDATE calendario_veiculos_dia SET viagens = viagens + ? WHERE dia = ? AND veiculo_id = ?";
+
+    @Autowired
+    private CalendarioViagemRepository calendarioRepository;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Dias ocupados por uma viagem, com os veículos usados em cada um. O valor conta só no primeiro dia.
+     */
+    public record Pegada(StatusViagem status, BigDecimal valor, NavigableMap<LocalDate, Set<Long>> veiculosPorDia) {
+        public static final Pegada VAZIA = new Pegada(null, null, new TreeMap<>());
+
+        public Pegada comStatus(StatusViagem novoStatus) {
+            return new Pegada(novoStatus, valor, veiculosPorDia);
+        }
+    }
+
+    private record DiaStatus(LocalDate dia, StatusViagem status) {
+    }
+
+    private record DiaVeiculo(LocalDate dia, Long veiculoId) {
+    }
+
+    private record Soma(int viagens, BigDecimal valor) {
+        Soma somar(Soma outra) {
+            return new Soma(viagens + outra.viagens, valor.add(outra.valor));
+        }
+    }
+
+    public static Pegada pegada(StatusViagem status, BigDecimal valor, LocalDate startDate, LocalDate endDate, Long veiculoId) {
+        NavigableMap<LocalDate, Set<Long>> dias = new TreeMap<>();
+        if (startDate != null) {
+            LocalDate ultimo = endDate != null && endDate.isAfter(startDate) ? endDate : startDate;
+            for (LocalDate dia = startDate; !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+                dias.put(dia, veiculoId != null ? Set.of(veiculoId) : Set.of());
+            }
+        }
+        return new Pegada(status, valor, dias);
+    }
+
+    /**
+     * Rotas de colaboradores ocupam os dias em que suas regras têm ocorrência (o turno noturno ocupa também
+     * o dia seguinte); as demais viagens ocupam cada dia de {@code startDate} a {@code endDate}.
+     */
+    public static Pegada pegada(Viagem viagem) {
+        if (viagem.getTipoViagem() != TipoViagem.ROTA_COLABORADORES) {
+            return pegada(viagem.getStatus(), viagem.getValor(), viagem.getStartDate(), viagem.getEndDate(),
+                    viagem.getVeiculo() != null ? viagem.getVeiculo().getId() : null);
+        }
+        NavigableMap<LocalDate, Set<Long>> dias = new TreeMap<>();
+        for (ItemRota item : viagem.getItensRota()) {
+            for (HorarioRota h : item.getHorarios()) {
+                var regra = new DadosRegraRota(viagem.getId(), item.getVeiculo().getId(), item.getMotorista().getId(),
+                        h.getDataInicio(), h.getDataFim(), h.getInicio(), h.getFim(), h.getDiasSemana());
+                for (DadosIntervaloViagem ocorrencia : regra.ocorrencias(regra.dataInicio(), regra.dataFim())) {
+                    dias.computeIfAbsent(ocorrencia.startDate(), d -> new TreeSet<>()).add(regra.veiculoId());
+                    dias.computeIfAbsent(ocorrencia.endDate(), d -> new TreeSet<>()).add(regra.veiculoId());
+                }
+            }
+        }
+        return new Pegada(viagem.getStatus(), viagem.getValor(), dias);
+    }
+
+    public void registrar(Pegada anterior, Pegada atual) {
+        aplicar(List.of(anterior), List.of(atual));
+    }
+
+    /**
+     * Soma as pegadas incluídas e subtrai as removidas numa única passada, na mesma transação da gravação.
+     * As linhas são tocadas em ordem de dia para que gravações concorrentes travem na mesma sequência.
+     */
+    public void aplicar(Collection<Pegada> removidas, Collection<Pegada> incluidas) {
+        Map<DiaStatus, Soma> viagens = new TreeMap<>(Comparator.comparing(DiaStatus::dia).thenComparing(DiaStatus::status));
+        Map<DiaVeiculo, Integer> veiculos = new TreeMap<>(Comparator.comparing(DiaVeiculo::dia).thenComparing(DiaVeiculo::veiculoId));
+        removidas.forEach(p -> acumular(p, -1, viagens, veiculos));
+        incluidas.forEach(p -> acumular(p, 1, viagens, veiculos));
+        viagens.values().removeIf(s -> s.viagens() == 0 && s.valor().signum() == 0);
+        veiculos.values().removeIf(v -> v == 0);
+
+        if (!viagens.isEmpty()) {
+            jdbcTemplate.batchUpdate(GARANTIR_VIAGENS_DIA, viagens.keySet().stream()
+                    .map(k -> new Object[]{k.dia(), k.status().name()})
+                    .toList());
+            jdbcTemplate.batchUpdate(SOMAR_VIAGENS_DIA, viagens.entrySet().stream()
+                    .map(e -> new Object[]{e.getValue().viagens(), e.getValue().valor(), e.getKey().dia(), e.getKey().status().name()})
+                    .toList());
+        }
+        if (!veiculos.isEmpty()) {
+            jdbcTemplate.batchUpdate(GARANTIR_VEICULO_DIA, veiculos.keySet().stream()
+                    .map(k -> new Object[]{k.dia(), k.veiculoId()})
+                    .toList());
+            jdbcTemplate.batchUpdate(SOMAR_VEICULO_DIA, veiculos.entrySet().stream()
+                    .map(e -> new Object[]{e.getValue(), e.getKey().dia(), e.getKey().veiculoId()})
+                    .toList());
+        }
+    }
+
+    private static void acumular(Pegada pegada, int sinal, Map<DiaStatus, Soma> viagens, Map<DiaVeiculo, Integer> veiculos) {
+        if (pegada.veiculosPorDia().isEmpty()) {
+            return;
+        }
+        LocalDate primeiroDia = pegada.veiculosPorDia().firstKey();
+        BigDecimal valor = pegada.valor() != null ? pegada.valor().multiply(BigDecimal.valueOf(sinal)) : BigDecimal.ZERO;
+        pegada.veiculosPorDia().forEach((dia, veiculoIds) -> {
+            viagens.merge(new DiaStatus(dia, pegada.status()),
+                    new Soma(sinal, dia.equals(primeiroDia) ? valor : BigDecimal.ZERO), Soma::somar);
+            for (Long veiculoId : veiculoIds) {
+                veiculos.merge(new DiaVeiculo(dia, veiculoId), sinal, Integer::sum);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public DadosCalendarioMes consultar(YearMonth mes) {
+        LocalDate inicio = mes.atDay(1);
+        LocalDate fim = mes.atEndOfMonth();
+        Map<LocalDate, List<ViagensDia>> viagensPorDia = new HashMap<>();
+        for (ViagensDia v : calendarioRepository.listarViagensNoPeriodo(inicio, fim)) {
+            viagensPorDia.computeIfAbsent(v.getChave().getDia(), d -> new ArrayList<>()).add(v);
+        }
+        Map<LocalDate, List<Long>> veiculosPorDia = new HashMap<>();
+        for (VeiculoDia v : calendarioRepository.listarVeiculosNoPeriodo(inicio, fim)) {
+            veiculosPorDia.computeIfAbsent(v.getChave().getDia(), d -> new ArrayList<>()).add(v.getChave().getVeiculoId());
+        }
+
+        List<DadosCalendarioDia> dias = new ArrayList<>();
+        for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+            Map<StatusViagem, Integer> porStatus = new EnumMap<>(StatusViagem.class);
+            BigDecimal valorTotal = BigDecimal.ZERO;
+            for (ViagensDia v : viagensPorDia.getOrDefault(dia, List.of())) {
+                porStatus.put(v.getChave().getStatus(), v.getViagens());
+                valorTotal = valorTotal.add(v.getValorTotal());
+            }
+            List<Long> veiculoIds = veiculosPorDia.getOrDefault(dia, List.of());
+            dias.add(new DadosCalendarioDia(
+                    dia,
+                    porStatus.values().stream().mapToInt(Integer::intValue).sum(),
+                    porStatus,
+                    veiculoIds.size(),
+                    veiculoIds,
+                    valorTotal
+            ));
+        }
+        return new DadosCalendarioMes(mes, dias);
+    }
+
+    /**
+     * Na primeira subida com as tabelas de calendário vazias, preenche o histórico a partir das viagens.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherSeVazio() {
+        if (calendarioRepository.count() > 0 || viagemRepository.count() == 0) {
+            return;
+        }
+        reconstruir();
+    }
+
+    @Transactional
+    public void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM calendario_viagens_dia");
+        jdbcTemplate.update("DELETE FROM calendario_veiculos_dia");
+        List<Pegada> pegadas = viagemRepository.listarTodasComRecursos().stream()
+                .map(CalendarioViagemService::pegada)
+                .toList();
+        aplicar(List.of(), pegadas);
+        log.info("Calendário de viagens reconstruído com {} viagens em {} ms.", pegadas.size(),
+                System.currentTimeMillis() - inicio);
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Avança o status das viagens pelo relógio: AGENDADA para EM_CURSO quando o início ({@code startAt}) já
+ * chegou, depois EM_CURSO para FINALIZADA quando o fim ({@code endAt}) já chegou; uma viagem agendada que
+ * já terminou passa pelas duas transições no mesmo ciclo. Cada transição anda em lotes das viagens de menor
+ * id, um UPDATE pelo critério de horário por lote, cada lote na sua transação: um atraso longo não vira uma
+ * transação única travando milhares de linhas. O calendário, a receita e a agenda dos motoristas são
+ * ajustados no mesmo lote, lendo de volta só as linhas que aquele UPDATE alterou. O critério depende só do
+ * horário atual, então rodar de novo não muda nada e uma execução após um período fora do ar alcança tudo
+ * o que ficou para trás.
+ */
+@Service
+public class CicloStatusViagemService {
+
+    private static final Logger log = LoggerFactory.getLogger(CicloStatusViagemService.class);
+    private static final int TAMANHO_PAGINA_LEITURA = 500;
+
+    @Value("${viagens.status.lote:500}")
+    private int tamanhoLote;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private CalendarioViagemService calendario;
+
+    @Autowired
+    private ReceitaViagemService receita;
+
+    @Autowired
+    private AgendaMotoristaService agenda;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record ResultadoCiclo(int finalizadas, int iniciadas, long duracaoMs) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void atualizarAoIniciar() {
+        atualizarStatusViagens();
+    }
+
+    @Scheduled(cron = "${viagens.status.cron:0 */5 * * * *}")
+    public ResultadoCiclo atualizarStatusViagens() {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime agora = LocalDateTime.now();
+
+        int iniciadas = transicionar(StatusViagem.AGENDADA, StatusViagem.EM_CURSO,
+                ciclo -> viagemRepository.avancarComInicioAtingido(StatusViagem.AGENDADA, StatusViagem.EM_CURSO, agora, ciclo, tamanhoLote));
+        int finalizadas = transicionar(StatusViagem.EM_CURSO, StatusViagem.FINALIZADA,
+                ciclo -> viagemRepository.avancarComFimAtingido(StatusViagem.EM_CURSO, StatusViagem.FINALIZADA, agora, ciclo, tamanhoLote));
+
+        var resultado = new ResultadoCiclo(finalizadas, iniciadas, System.currentTimeMillis() - inicio);
+        if (finalizadas > 0 || iniciadas > 0) {
+            log.info("Status de viagens atualizado: {} finalizadas, {} em curso, em {} ms.", finalizadas, iniciadas,
+                    resultado.duracaoMs());
+        }
+        return resultado;
+    }
+
+    /**
+     * Aplica o UPDATE de um lote, marcado com um ciclo novo, e, na mesma transação, percorre as viagens desse
+     * ciclo por id para mover calendário e receita de {@code anterior} para {@code novoStatus}. As linhas lidas
+     * são as que o UPDATE acabou de alterar e continuam travadas por ele até o commit do lote. Um lote menor
+     * que o tamanho pedido é o último.
+     */
+    private int transicionar(StatusViagem anterior, StatusViagem novoStatus, ToIntFunction<String> avancar) {
+        var transacao = new TransactionTemplate(transactionManager);
+        int total = 0;
+        while (true) {
+            String ciclo = UUID.randomUUID().toString();
+            Integer alteradas = transacao.execute(status -> {
+                int lote = avancar.applyAsInt(ciclo);
+                long aposId = 0L;
+                Set<Long> motoristas = new HashSet<>();
+                for (int lidas = 0; lidas < lote; ) {
+                    List<Viagem> viagens = viagemRepository.listarDoCiclo(ciclo, aposId, Limit.of(TAMANHO_PAGINA_LEITURA));
+                    if (viagens.isEmpty()) {
+                        break;
+                    }
+                    List<CalendarioViagemService.Pegada> atuais = viagens.stream().map(CalendarioViagemService::pegada).toList();
+                    calendario.aplicar(atuais.stream().map(p -> p.comStatus(anterior)).toList(), atuais);
+                    List<ReceitaViagemService.Lancamento> lancamentos = viagens.stream().map(ReceitaViagemService::lancamento).toList();
+                    receita.aplicar(lancamentos.stream().map(l -> l.comStatus(anterior)).toList(), lancamentos);
+                    viagens.forEach(v -> motoristas.addAll(AgendaMotoristaService.motoristasDe(v)));
+                    lidas += viagens.size();
+                    aposId = viagens.get(viagens.size() - 1).getId();
+                    // as viagens da página já foram usadas; não há por que mantê-las no contexto até o commit
+                    entityManager.clear();
+                }
+                // o STATUS das viagens aparece na agenda: a versão muda para a ETag não responder 304 com o antigo
+                agenda.invalidar(motoristas);
+                return lote;
+            });
+            int lote = alteradas != null ? alteradas : 0;
+            total += lote;
+            if (lote < tamanhoLote) {
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Manutencao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
+import br.com.rafas.transportes.api.domain.custo.CustoManutencaoMes;
+import br.com.rafas.transportes.api.domain.custo.DimensaoCustoManutencao;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import br.com.rafas.transportes.api.dto.DadosCustoManutencao;
+import br.com.rafas.transportes.api.dto.DadosKmMes;
+import br.com.rafas.transportes.api.dto.DadosLinhaCustoManutencao;
+import br.com.rafas.transportes.api.dto.DadosRankingCustoKm;
+import br.com.rafas.transportes.api.dto.DadosSomaCustoManutencao;
+import br.com.rafas.transportes.api.repository.CustoManutencaoRepository;
+import br.com.rafas.transportes.api.repository.ManutencaoRepository;
+import br.com.rafas.transportes.api.repository.QuilometragemPeriodoRepository;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Custo das manutenções realizadas ({@code Manutencao.cost}) somado por mês, veículo e tipo na tabela
+ * {@code custo_manutencoes_mes}, mantida por incrementos nas gravações de manutenção. Os km rodados de cada
+ * veículo no mês vêm do resumo mensal de {@code quilometragem_periodo}, mantido a partir dos registros de
+ * quilometragem. Consultas e ranking de custo por km leem só esses dois resumos no intervalo de meses pedido,
+ * sem passar pelas manutenções nem pelo histórico de quilometragem.
+ */
+@Service
+public class CustoManutencaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustoManutencaoService.class);
+
+    private static final String GARANTIR_CUSTO = """
+            INSERT INTO custo_manutencoes_mes (mes, veiculo_id, type, manutencoes, custo_total)
+            VALUES (?, ?, ?, 0, 0) ON CONFLICT DO NOTHING
+            """;
+    private static final String SOMAR_CUSTO = """
+            UPDATE custo_manutencoes_mes SET manutencoes = manutencoes + ?, custo_total = custo_total + ?
+            WHERE mes = ? AND veiculo_id = ? AND type = ?
+            """;
+    private static final String INSERIR_CUSTO = """
+            INSERT INTO custo_manutencoes_mes (mes, veiculo_id, type, manutencoes, custo_total)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final int MESES_MAXIMOS = 120;
+    private static final int ESCALA_CUSTO_POR_KM = 4;
+
+    @Autowired
+    private CustoManutencaoRepository custoRepository;
+
+    @Autowired
+    private ManutencaoRepository manutencaoRepository;
+
+    @Autowired
+    private QuilometragemPeriodoRepository periodoRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A parte de uma manutenção no resumo de custo: uma manutenção e o seu custo na chave (mês, veículo, tipo).
+     * Só as realizadas contam.
+     */
+    public record Lancamento(Chave chave, BigDecimal custo) {
+        public static final Lancamento NENHUM = new Lancamento(null, null);
+    }
+
+    private record Chave(LocalDate mes, long veiculoId, String type) {
+    }
+
+    private record Grupo(YearMonth mes, Long veiculoId, String type) {
+    }
+
+    private record Soma(long manutencoes, BigDecimal custo) {
+        static final Soma ZERO = new Soma(0, BigDecimal.ZERO);
+
+        Soma somar(Soma outra) {
+            return new Soma(manutencoes + outra.manutencoes, custo.add(outra.custo));
+        }
+    }
+
+    private static final Comparator<Chave> ORDEM_CHAVE = Comparator.comparing(Chave::mes)
+            .thenComparingLong(Chave::veiculoId)
+            .thenComparing(Chave::type);
+
+    private static final Comparator<Grupo> ORDEM_GRUPO = Comparator.comparing(Grupo::mes, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Grupo::veiculoId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Grupo::type, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public static Lancamento lancamento(Manutencao manutencao) {
+        if (manutencao.getStatus() != StatusManutencao.REALIZADA || manutencao.getDate() == null
+                || manutencao.getVeiculo() == null || manutencao.getType() == null) {
+            return Lancamento.NENHUM;
+        }
+        return new Lancamento(new Chave(manutencao.getDate().withDayOfMonth(1), manutencao.getVeiculo().getId(),
+                manutencao.getType()), manutencao.getCost() != null ? manutencao.getCost() : BigDecimal.ZERO);
+    }
+
+    /**
+     * Subtrai o lançamento anterior e soma o atual na mesma transação da gravação, tocando as linhas sempre na
+     * mesma ordem de chave.
+     */
+    public void registrar(Lancamento anterior, Lancamento atual) {
+        Map<Chave, Soma> somas = new TreeMap<>(ORDEM_CHAVE);
+        acumular(anterior, -1, somas);
+        acumular(atual, 1, somas);
+        somas.values().removeIf(s -> s.manutencoes() == 0 && s.custo().signum() == 0);
+        if (somas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(GARANTIR_CUSTO, somas.keySet().stream()
+                .map(k -> new Object[]{k.mes(), k.veiculoId(), k.type()})
+                .toList());
+        jdbcTemplate.batchUpdate(SOMAR_CUSTO, somas.entrySet().stream()
+                .map(e -> new Object[]{e.getValue().manutencoes(), e.getValue().custo(), e.getKey().mes(),
+                        e.getKey().veiculoId(), e.getKey().type()})
+                .toList());
+    }
+
+    private static void acumular(Lancamento lancamento, int sinal, Map<Chave, Soma> somas) {
+        if (lancamento.chave() == null) {
+            return;
+        }
+        somas.merge(lancamento.chave(), new Soma(sinal, lancamento.custo().multiply(BigDecimal.valueOf(sinal))), Soma::somar);
+    }
+
+    /**
+     * Custo de [de, ate] agrupado pelas dimensões pedidas; as dimensões fora do agrupamento saem nulas. Cada
+     * linha traz os km rodados no seu mês e veículo (a frota inteira quando não agrupa por veículo), então com
+     * agrupamento por tipo o custo por km é o daquele tipo sobre todo o km rodado. Sem agrupar ou filtrar por
+     * tipo, meses e veículos que rodaram sem custo também aparecem, com custo zero.
+     */
+    @Transactional(readOnly = true)
+    public DadosCustoManutencao consultar(YearMonth de, YearMonth ate, List<DimensaoCustoManutencao> agrupar,
+                                          Long veiculoId, String type) {
+        validarPeriodo(de, ate);
+        Set<DimensaoCustoManutencao> dimensoes = agrupar == null || agrupar.isEmpty()
+                ? EnumSet.of(DimensaoCustoManutencao.MES) : EnumSet.copyOf(agrupar);
+        boolean porMes = dimensoes.contains(DimensaoCustoManutencao.MES);
+        boolean porVeiculo = dimensoes.contains(DimensaoCustoManutencao.VEICULO);
+        boolean porTipo = dimensoes.contains(DimensaoCustoManutencao.TIPO);
+
+        Map<Grupo, Soma> grupos = new HashMap<>();
+        for (CustoManutencaoMes linha : custoRepository.listarNoPeriodo(de.atDay(1), ate.atDay(1))) {
+            CustoManutencaoMes.Chave chave = linha.getChave();
+            if ((veiculoId != null && !veiculoId.equals(chave.getVeiculoId()))
+                    || (type != null && !type.equalsIgnoreCase(chave.getType()))) {
+                continue;
+            }
+            var grupo = new Grupo(porMes ? YearMonth.from(chave.getMes()) : null, porVeiculo ? chave.getVeiculoId() : null,
+                    porTipo ? chave.getType() : null);
+            grupos.merge(grupo, new Soma(linha.getManutencoes(), linha.getCustoTotal()), Soma::somar);
+        }
+
+        // km por (mês, veículo) da linha, sem o tipo
+        Map<Grupo, Long> km = new HashMap<>();
+        long kmTotal = 0;
+        for (DadosKmMes linha : periodoRepository.listarKmPorMes(de.atDay(1), ate.atDay(1))) {
+            if (veiculoId != null && !veiculoId.equals(linha.veiculoId())) {
+                continue;
+            }
+            km.merge(new Grupo(porMes ? YearMonth.from(linha.mes()) : null, porVeiculo ? linha.veiculoId() : null, null),
+                    linha.kmRodados(), Long::sum);
+            kmTotal += linha.kmRodados();
+        }
+        if (!porTipo && type == null) {
+            km.keySet().forEach(g -> grupos.putIfAbsent(g, Soma.ZERO));
+        }
+
+        List<DadosLinhaCustoManutencao> linhas = grupos.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ORDEM_GRUPO))
+                .map(e -> {
+                    Grupo g = e.getKey();
+                    long kmGrupo = km.getOrDefault(new Grupo(g.mes(), g.veiculoId(), null), 0L);
+                    return new DadosLinhaCustoManutencao(g.mes(), g.veiculoId(), g.type(), e.getValue().manutencoes(),
+                            e.getValue().custo(), kmGrupo, custoPorKm(e.getValue().custo(), kmGrupo));
+                })
+                .toList();
+        BigDecimal custoTotal = linhas.stream().map(DadosLinhaCustoManutencao::custoTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new DadosCustoManutencao(de, ate, List.copyOf(dimensoes), linhas,
+                linhas.stream().mapToLong(DadosLinhaCustoManutencao::manutencoes).sum(), custoTotal, kmTotal,
+                custoPorKm(custoTotal, kmTotal));
+    }
+
+    /**
+     * Veículos da frota em ordem decrescente de custo de manutenção por km rodado em [de, ate]. Veículos que
+     * não rodaram no período ficam no fim, sem custo por km.
+     */
+    @Transactional(readOnly = true)
+    public List<DadosRankingCustoKm> ranking(YearMonth de, YearMonth ate, Integer limite) {
+        validarPeriodo(de, ate);
+        if (limite != null && limite < 1) {
+            throw new ValidationException("O limite do ranking deve ser positivo.");
+        }
+        Map<Long, Soma> custos = new HashMap<>();
+        for (CustoManutencaoMes linha : custoRepository.listarNoPeriodo(de.atDay(1), ate.atDay(1))) {
+            custos.merge(linha.getChave().getVeiculoId(), new Soma(linha.getManutencoes(), linha.getCustoTotal()), Soma::somar);
+        }
+        Map<Long, Long> km = periodoRepository.listarKmPorMes(de.atDay(1), ate.atDay(1)).stream()
+                .collect(Collectors.toMap(DadosKmMes::veiculoId, DadosKmMes::kmRodados, Long::sum));
+        Set<Long> ids = new HashSet<>(custos.keySet());
+        ids.addAll(km.keySet());
+        Map<Long, Veiculo> veiculos = veiculoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Veiculo::getId, Function.identity()));
+
+        record Item(Long veiculoId, Soma soma, long km, BigDecimal custoPorKm) {
+        }
+        List<Item> itens = new ArrayList<>();
+        for (Long id : ids) {
+            Soma soma = custos.getOrDefault(id, Soma.ZERO);
+            long kmVeiculo = km.getOrDefault(id, 0L);
+            itens.add(new Item(id, soma, kmVeiculo, custoPorKm(soma.custo(), kmVeiculo)));
+        }
+        itens.sort(Comparator.comparing(Item::custoPorKm, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(i -> i.soma().custo(), Comparator.reverseOrder())
+                .thenComparing(Item::veiculoId));
+
+        List<DadosRankingCustoKm> ranking = new ArrayList<>();
+        for (Item item : itens.subList(0, limite != null ? Math.min(limite, itens.size()) : itens.size())) {
+            Veiculo veiculo = veiculos.get(item.veiculoId());
+            ranking.add(new DadosRankingCustoKm(ranking.size() + 1, item.veiculoId(),
+                    veiculo != null ? veiculo.getModel() + " - " + veiculo.getPlate() : null,
+                    item.soma().manutencoes(), item.soma().custo(), item.km(), item.custoPorKm()));
+        }
+        return ranking;
+    }
+
+    private static BigDecimal custoPorKm(BigDecimal custo, long km) {
+        return km > 0 ? custo.divide(BigDecimal.valueOf(km), ESCALA_CUSTO_POR_KM, RoundingMode.HALF_UP) : null;
+    }
+
+    private static void validarPeriodo(YearMonth de, YearMonth ate) {
+        if (de == null || ate == null) {
+            throw new ValidationException("Informe o período (de/ate) dos custos.");
+        }
+        if (de.isAfter(ate)) {
+            throw new ValidationException("O mês inicial não pode ser posterior ao mês final.");
+        }
+        if (ChronoUnit.MONTHS.between(de, ate) >= MESES_MAXIMOS) {
+            throw new ValidationException("O período dos custos não pode passar de " + MESES_MAXIMOS + " meses.");
+        }
+    }
+
+    /**
+     * Na primeira subida com o resumo de custos vazio, preenche o histórico a partir das manutenções.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherSeVazio() {
+        if (custoRepository.count() > 0 || manutencaoRepository.count() == 0) {
+            return;
+        }
+        reconstruir();
+    }
+
+    /**
+     * Refaz o resumo inteiro com um único GROUP BY sobre as manutenções realizadas.
+     */
+    @Transactional
+    public int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM custo_manutencoes_mes");
+        List<DadosSomaCustoManutencao> somas = manutencaoRepository.somarCustos();
+        jdbcTemplate.batchUpdate(INSERIR_CUSTO, somas.stream()
+                .map(s -> new Object[]{LocalDate.of(s.ano(), s.mes(), 1), s.veiculoId(), s.type(), s.manutencoes(),
+                        s.custoTotal() != null ? s.custoTotal() : BigDecimal.ZERO})
+                .toList());
+        log.info("Custos de manutenção reconstruídos com {} linhas em {} ms.", somas.size(),
+                System.currentTimeMillis() - inicio);
+        return somas.size();
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.StatusMotorista;
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoMotorista;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoVeiculo;
+import br.com.rafas.transportes.api.dto.DadosDisponibilidade;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.MotoristaRepository;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Responde quais veículos e motoristas ATIVOS estão livres numa janela, considerando viagens,
+ * manutenções com data e férias. As viagens usam o mesmo critério de conflito do cadastro,
+ * então um recurso listado aqui é aceito por {@code POST /viagens} na mesma janela.
+ * <p>
+ * Viagens, manutenções e férias saem de uma consulta por tipo de recurso; as rotas de colaboradores,
+ * que não têm linhas por ocorrência, são expandidas só na janela e descontadas em memória. A maior duração
+ * de viagem conhecida pelo {@link IndiceConflitosViagem} limita até quando, antes da janela, a consulta
+ * procura viagens; antes da carga do índice a busca não tem esse limite.
+ */
+@Service
+public class DisponibilidadeService {
+
+    private static final LocalDateTime SEM_LIMITE = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private IndiceConflitosViagem indiceConflitos;
+
+    @Transactional(readOnly = true)
+    public DadosDisponibilidade consultar(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio == null || fim == null) {
+            throw new ValidationException("Informe o início e o fim do período.");
+        }
+        if (inicio.isAfter(fim)) {
+            throw new ValidationException("O início do período não pode ser posterior ao fim.");
+        }
+        LocalDate dataInicio = inicio.toLocalDate();
+        LocalTime horaInicio = inicio.toLocalTime();
+        LocalDate dataFim = fim.toLocalDate();
+        LocalTime horaFim = fim.toLocalTime();
+        LocalDateTime inicioMinimo = indiceConflitos.isCarregado()
+                ? dataInicio.minusDays(indiceConflitos.maiorDuracaoDias()).atStartOfDay()
+                : SEM_LIMITE;
+
+        Set<Long> veiculosEmRota = new HashSet<>();
+        Set<Long> motoristasEmRota = new HashSet<>();
+        itemRotaRepository.listarRegrasNoPeriodo(dataInicio.minusDays(1), dataFim).forEach(regra -> {
+            for (DadosIntervaloViagem ocorrencia : regra.ocorrencias(dataInicio, dataFim)) {
+                if (IndiceConflitosViagem.conflita(ocorrencia, dataInicio, horaInicio, dataFim, horaFim)) {
+                    veiculosEmRota.add(ocorrencia.veiculoId());
+                    motoristasEmRota.add(ocorrencia.motoristaId());
+                }
+            }
+        });
+
+        var veiculos = veiculoRepository.listarLivres(StatusVeiculo.ATIVO, inicioMinimo, inicio, fim, dataInicio, dataFim).stream()
+                .filter(v -> !veiculosEmRota.contains(v.getId()))
+                .map(DadosDetalhamentoVeiculo::new)
+                .toList();
+        var motoristas = motoristaRepository.listarLivres(StatusMotorista.ATIVO, inicioMinimo, inicio, fim, dataInicio, dataFim).stream()
+                .filter(m -> !motoristasEmRota.contains(m.getId()))
+                .map(DadosDetalhamentoMotorista::new)
+                .toList();
+        return new DadosDisponibilidade(inicio, fim, veiculos, motoristas);
+    }
+}
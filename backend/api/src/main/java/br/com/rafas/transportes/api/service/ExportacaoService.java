@@ -0,0 +1,173 @@
+package br.com.rafas.transportes.api.service;
+
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação em CSV para a contabilidade. As linhas saem de um cursor JDBC somente-avanço, com tamanho de
+ * busca fixo, direto para a resposta: a memória usada não depende de quantas linhas o período tem.
+ * <p>
+ * O arquivo segue o padrão do Excel em português: separador {@code ;}, decimais com vírgula e BOM UTF-8.
+ * Datas e horas saem no formato ISO. Textos que começam como fórmula ({@code = + - @}) saem entre aspas e
+ * precedidos de apóstrofo, para a planilha não executá-los.
+ */
+@Service
+public class ExportacaoService {
+
+    private static final int TAMANHO_BUSCA = 1000;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final char SEPARADOR = ';';
+    private static final String INICIO_DE_FORMULA = "=+-@\t\r";
+
+    private record Definicao(String consulta, String colunaData, String ordem, List<String> cabecalho) {
+    }
+
+    private static final Map<String, Definicao> DEFINICOES = Map.of(
+            "viagens", new Definicao("""
+                    SELECT v.id, v.title, v.client_name, v.telefone, v.valor, v.start_location, v.end_location,
+                           ve.plate, m.nome, v.start_date, v.start_time, v.end_date, v.end_time, v.status, v.tipo_viagem
+                    FROM viagens v
+                    LEFT JOIN veiculos ve ON ve.id = v.vehicle_id
+                    LEFT JOIN motoristas m ON m.id = v.driver_id
+                    """, "v.start_date", "v.start_date, v.id",
+                    List.of("id", "titulo", "cliente", "telefone", "valor", "origem", "destino", "placa", "motorista",
+                            "data_inicio", "hora_inicio", "data_fim", "hora_fim", "status", "tipo_viagem")),
+            "manutencoes", new Definicao("""
+                    SELECT ma.id, ma.title, ma.type, ma.date, ma.cost, ma.status, ve.plate, ma.current_km, ma.proxima_km
+                    FROM manutencoes ma
+                    JOIN veiculos ve ON ve.id = ma.veiculo_id
+                    """, "ma.date", "ma.date, ma.id",
+                    List.of("id", "titulo", "tipo", "data", "custo", "status", "placa", "km_atual", "proxima_km")),
+            "orcamentos", new Definicao("""
+                    SELECT o.id, o.nome_cliente, o.telefone, o.data_do_orcamento, o.origem, o.destino, o.distancia,
+                           o.valor_total, o.paradas, o.tipo_viagem_orcamento
+                    FROM orcamentos o
+                    """, "o.data_do_orcamento", "o.data_do_orcamento, o.id",
+                    List.of("id", "cliente", "telefone", "data", "origem", "destino", "distancia", "valor_total",
+                            "paradas", "tipo_viagem"))
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Valida o pedido já na requisição e devolve o corpo que escreve o arquivo. O cursor só é aberto quando a
+     * resposta começa a ser escrita, numa transação somente-leitura própria (o PostgreSQL só respeita o
+     * tamanho de busca fora do modo autocommit).
+     */
+    public StreamingResponseBody exportar(String tipo, LocalDate de, LocalDate ate, boolean gzip) {
+        Definicao definicao = DEFINICOES.get(tipo);
+        if (definicao == null) {
+            throw new ValidationException("Exportação desconhecida: " + tipo + ". Use viagens, manutencoes ou orcamentos.");
+        }
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+        StringBuilder sql = new StringBuilder(definicao.consulta());
+        List<Object> parametros = new ArrayList<>();
+        if (de != null) {
+            sql.append("WHERE ").append(definicao.colunaData()).append(" >= ?\n");
+            parametros.add(de);
+        }
+        if (ate != null) {
+            sql.append(de != null ? "AND " : "WHERE ").append(definicao.colunaData()).append(" <= ?\n");
+            parametros.add(ate);
+        }
+        sql.append("ORDER BY ").append(definicao.ordem());
+
+        return saida -> {
+            OutputStream destino = gzip ? new GZIPOutputStream(saida, TAMANHO_BUFFER) : saida;
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+            escritor.write('\uFEFF');
+            escreverLinha(escritor, definicao.cabecalho().toArray());
+            var transacao = new TransactionTemplate(transactionManager);
+            transacao.setReadOnly(true);
+            transacao.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(TAMANHO_BUSCA);
+                for (int i = 0; i < parametros.size(); i++) {
+                    ps.setObject(i + 1, parametros.get(i));
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> escreverLinha(escritor, valores(rs, definicao.cabecalho().size()))));
+            escritor.flush();
+            if (destino instanceof GZIPOutputStream compactado) {
+                compactado.finish();
+            }
+        };
+    }
+
+    private static Object[] valores(ResultSet rs, int colunas) throws SQLException {
+        Object[] valores = new Object[colunas];
+        for (int i = 0; i < colunas; i++) {
+            valores[i] = rs.getObject(i + 1);
+        }
+        return valores;
+    }
+
+    private static void escreverLinha(Writer escritor, Object[] valores) {
+        try {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    escritor.write(SEPARADOR);
+                }
+                escritor.write(formatar(valores[i]));
+            }
+            escritor.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String formatar(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return decimal.toPlainString().replace('.', ',');
+        }
+        if (valor instanceof Date data) {
+            return data.toLocalDate().toString();
+        }
+        if (valor instanceof Time hora) {
+            return hora.toLocalTime().toString();
+        }
+        String texto = valor.toString();
+        if (valor instanceof String && !texto.isEmpty() && INICIO_DE_FORMULA.indexOf(texto.charAt(0)) >= 0) {
+            // texto livre que o Excel leria como fórmula: o apóstrofo o mantém como texto
+            return "\"'" + texto.replace("\"", "\"\"") + '"';
+        }
+        if (texto.indexOf(SEPARADOR) >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
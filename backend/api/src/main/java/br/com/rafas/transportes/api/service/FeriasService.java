@@ -28,6 +28,9 @@ public class FeriasService {
   @Autowired
   private ViagemRepository viagemRepository;
 
+  @Autowired
+  private AgendaMotoristaService agenda;
+
   @Transactional
   public Ferias cadastrar(DadosCadastroFerias dados) {
     Motorista motorista = motoristaRepository.findById(dados.motoristaId())
@@ -55,6 +58,7 @@ public class FeriasService {
 
     Ferias novaFerias = new Ferias(motorista, dados.dataInicio(), dados.dataFim());
     feriasRepository.save(novaFerias);
+    agenda.registrar(novaFerias);
 
     if (dados.dataInicio().isEqual(LocalDate.now())) {
       motorista.setStatus(StatusMotorista.DE_FERIAS);
@@ -76,6 +80,7 @@ public class FeriasService {
     Motorista motorista = feriasParaExcluir.getMotorista();
 
     feriasRepository.deleteById(id);
+    agenda.remover(feriasParaExcluir);
 
     if (motorista.getStatus() == StatusMotorista.DE_FERIAS) {
       LocalDate hoje = LocalDate.now();
@@ -0,0 +1,174 @@
+package br.com.rafas.transportes.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Único caminho para mudar {@code veiculos.current_km} depois do cadastro (a coluna não é atualizável pela
+ * entidade). O hodômetro só avança: as linhas dos veículos são lidas com {@code SELECT ... FOR UPDATE}, por
+ * id crescente e numa única consulta, e o {@code UPDATE} só grava km maior que o atual. Duas gravações
+ * concorrentes do mesmo veículo esperam uma pela outra em vez de se sobrescreverem, e a que chega depois vê
+ * o km já gravado, desistindo sem erro se o pedido não for maior que ele. Como todos travam na mesma ordem,
+ * lotes com vários veículos nunca esperam um pelo outro em ciclo (o mesmo cuidado de
+ * {@link TravaRecursosViagem}).
+ * <p>
+ * O registro de quilometragem sai no mesmo lote, com {@code anterior} igual ao valor que o {@code UPDATE}
+ * substituiu. Como a linha do veículo fica travada até o fim da transação, os registros de um veículo
+ * formam uma cadeia sem buracos nem inversões, também em ordem de data. O resumo por período e o ritmo de uso são atualizados junto.
+ * <p>
+ * Um {@code UPDATE ... WHERE current_km < ? RETURNING} sozinho não basta: o {@code RETURNING} do PostgreSQL
+ * devolve só o valor novo, e o registro precisa do substituído, que teria de ser lido à parte e sem trava; o H2
+ * dos testes e do ambiente local nem tem {@code UPDATE ... RETURNING}; e UPDATEs de vários veículos na ordem
+ * em que as leituras chegam podem travar em ciclo com outro lote.
+ */
+@Service
+public class HodometroService {
+
+    private static final int TAMANHO_IN = 1000;
+
+    private static final String TRAVAR_KM = "SELECT id, COALESCE(current_km, 0) FROM veiculos WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    private static final String AVANCAR_KM = "UPDATE veiculos SET current_km = ? WHERE id = ? AND COALESCE(current_km, 0) < ?";
+    private static final String INSERIR_LOG = """
+            INSERT INTO quilometragem_log (veiculo_id, data_hora_registro, quilometragem_anterior, quilometragem_atual,
+                                           origem_alteracao, id_referencia_origem, data_hora_original)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QuilometragemSerieService serieService;
+
+    @Autowired
+    private RitmoQuilometragemService ritmoService;
+
+    /**
+     * {@code dataHora} nula registra o momento em que o avanço de fato acontece, depois de eventuais esperas
+     * pela linha do veículo, para que a ordem dos registros no tempo acompanhe a ordem dos avanços.
+     */
+    public record Leitura(long veiculoId, int km, LocalDateTime dataHora) {
+    }
+
+    /**
+     * {@code dataHoraOriginal} só é preenchida quando a leitura chegou atrasada e {@code dataHora} foi
+     * trazida para a data do último registro do veículo.
+     */
+    public record Avanco(long veiculoId, int anterior, int atual, LocalDateTime dataHora, LocalDateTime dataHoraOriginal) {
+    }
+
+    /**
+     * Avança o hodômetro de um veículo para {@code novoKm} agora. Vazio quando o veículo já está nesse km ou
+     * além dele.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Avanco> avancar(Long veiculoId, int novoKm, String origem, Long idReferenciaOrigem) {
+        List<Avanco> avancos = avancar(List.of(new Leitura(veiculoId, novoKm, null)), origem, idReferenciaOrigem);
+        return avancos.stream().findFirst();
+    }
+
+    /**
+     * Avança vários veículos de uma vez, com uma leitura travada, um {@code UPDATE} e um {@code INSERT} em lote.
+     * Leituras repetidas de um veículo valem pela de maior km; veículos inexistentes ou que já estão à frente
+     * ficam de fora do resultado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Avanco> avancar(Collection<Leitura> leituras, String origem, Long idReferenciaOrigem) {
+        Map<Long, Leitura> pedidas = new TreeMap<>();
+        leituras.forEach(l -> pedidas.merge(l.veiculoId(), l, (a, b) -> b.km() > a.km() ? b : a));
+        if (pedidas.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> lidos = travarKm(pedidas.keySet());
+        List<Leitura> candidatas = pedidas.values().stream()
+                .filter(l -> lidos.containsKey(l.veiculoId()) && l.km() > lidos.get(l.veiculoId()))
+                .toList();
+        if (candidatas.isEmpty()) {
+            return List.of();
+        }
+        int[][] alterados = jdbcTemplate.batchUpdate(AVANCAR_KM, candidatas, candidatas.size(), (ps, l) -> {
+            ps.setInt(1, l.km());
+            ps.setLong(2, l.veiculoId());
+            ps.setInt(3, l.km());
+        });
+        LocalDateTime agora = LocalDateTime.now();
+        List<Avanco> avancos = new ArrayList<>();
+        for (int i = 0; i < candidatas.size(); i++) {
+            Leitura leitura = candidatas.get(i);
+            if (alterados[0][i] == 1) {
+                avancos.add(new Avanco(leitura.veiculoId(), lidos.get(leitura.veiculoId()), leitura.km(),
+                        leitura.dataHora() != null ? leitura.dataHora() : agora, null));
+            }
+        }
+        avancos = naoAnterioresAoUltimoRegistro(avancos);
+        registrar(avancos, origem, idReferenciaOrigem);
+        return avancos;
+    }
+
+    /**
+     * Uma leitura com data própria (a telemetria marca a hora do recebimento) pode chegar ao banco depois de
+     * um avanço registrado com data posterior. Como ela só avança o hodômetro agora, o registro sai com a data
+     * do último registro do veículo, para o histórico em ordem de data seguir a ordem dos avanços. A data da
+     * leitura fica em {@code data_hora_original}.
+     */
+    private List<Avanco> naoAnterioresAoUltimoRegistro(List<Avanco> avancos) {
+        if (avancos.isEmpty()) {
+            return avancos;
+        }
+        Map<Long, LocalDateTime> ultimos = ritmoService.ultimosRegistros(avancos.stream().map(Avanco::veiculoId).toList());
+        return avancos.stream()
+                .map(a -> {
+                    LocalDateTime ultimo = ultimos.get(a.veiculoId());
+                    return ultimo != null && a.dataHora().isBefore(ultimo)
+                            ? new Avanco(a.veiculoId(), a.anterior(), a.atual(), ultimo, a.dataHora())
+                            : a;
+                })
+                .toList();
+    }
+
+    private Map<Long, Integer> travarKm(Collection<Long> veiculoIds) {
+        List<Long> ids = new ArrayList<>(veiculoIds);
+        Map<Long, Integer> lidos = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += TAMANHO_IN) {
+            List<Long> parte = ids.subList(i, Math.min(i + TAMANHO_IN, ids.size()));
+            jdbcTemplate.query(String.format(TRAVAR_KM, String.join(",", Collections.nCopies(parte.size(), "?"))),
+                    (RowCallbackHandler) rs -> lidos.put(rs.getLong(1), rs.getInt(2)), parte.toArray());
+        }
+        return lidos;
+    }
+
+    private void registrar(List<Avanco> avancos, String origem, Long idReferenciaOrigem) {
+        if (avancos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERIR_LOG, avancos, avancos.size(), (ps, a) -> {
+            ps.setLong(1, a.veiculoId());
+            ps.setTimestamp(2, Timestamp.valueOf(a.dataHora()));
+            ps.setInt(3, a.anterior());
+            ps.setInt(4, a.atual());
+            ps.setString(5, origem);
+            ps.setObject(6, idReferenciaOrigem);
+            ps.setTimestamp(7, a.dataHoraOriginal() != null ? Timestamp.valueOf(a.dataHoraOriginal()) : null);
+        });
+        List<QuilometragemSerieService.Registro> registros = avancos.stream()
+                .map(a -> new QuilometragemSerieService.Registro(a.veiculoId(), a.dataHora(), a.anterior(), a.atual(), origem))
+                .toList();
+        serieService.registrar(registros);
+        ritmoService.registrar(registros);
+    }
+}
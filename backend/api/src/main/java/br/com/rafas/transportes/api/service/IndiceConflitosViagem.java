@@ -0,0 +1,353 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosRegraRota;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória dos intervalos de viagem por veículo e por motorista.
+ * Responde às verificações de conflito de {@link ViagemService} sem varrer a tabela de viagens,
+ * aplicando exatamente o mesmo critério de {@code findVeiculoConflitosByTime}/{@code findMotoristaConflitosByTime}.
+ * As rotas de colaboradores entram como regras de recorrência, expandidas só na janela consultada.
+ * Viagens canceladas não ocupam recurso e não entram no índice.
+ * <p>
+ * O índice só enxerga o que esta instância gravou. O que ele não vê — outra instância, ou uma gravação
+ * concorrente à carga — é barrado pelas restrições de exclusão de {@code viagens} no PostgreSQL.
+ */
+@Component
+public class IndiceConflitosViagem {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceConflitosViagem.class);
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, DadosIntervaloViagem> intervalosPorId = new HashMap<>();
+    private final Map<Long, List<DadosRegraRota>> regrasPorViagem = new HashMap<>();
+    private final Map<Long, AgendaRecurso> agendasPorVeiculo = new HashMap<>();
+    private final Map<Long, AgendaRecurso> agendasPorMotorista = new HashMap<>();
+    private final Set<Long> removidosDuranteCarga = new HashSet<>();
+    private final TreeMap<Long, Integer> duracoesDias = new TreeMap<>();
+    private volatile boolean carregado = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        List<DadosIntervaloViagem> intervalos = viagemRepository.listarIntervalos();
+        Map<Long, List<DadosRegraRota>> regras = new HashMap<>();
+        itemRotaRepository.listarRegras().forEach(r -> regras.computeIfAbsent(r.viagemId(), id -> new ArrayList<>()).add(r));
+
+        lock.writeLock().lock();
+        try {
+            for (DadosIntervaloViagem intervalo : intervalos) {
+                if (!intervalosPorId.containsKey(intervalo.id()) && !removidosDuranteCarga.contains(intervalo.id())) {
+                    adicionar(intervalo);
+                }
+            }
+            regras.forEach((viagemId, regrasDaViagem) -> {
+                if (!regrasPorViagem.containsKey(viagemId) && !removidosDuranteCarga.contains(viagemId)) {
+                    adicionarRegras(viagemId, regrasDaViagem);
+                }
+            });
+            removidosDuranteCarga.clear();
+            carregado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de conflitos de viagem carregado com {} viagens em {} ms.", intervalos.size(),
+                System.currentTimeMillis() - inicio);
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    public boolean existeConflitoVeiculo(Long veiculoId, LocalDate startDate, LocalTime startTime,
+                                         LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        return existeConflito(agendasPorVeiculo, veiculoId, startDate, startTime, endDate, endTime, viagemIdToExclude);
+    }
+
+    public boolean existeConflitoMotorista(Long motoristaId, LocalDate startDate, LocalTime startTime,
+                                           LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        return existeConflito(agendasPorMotorista, motoristaId, startDate, startTime, endDate, endTime, viagemIdToExclude);
+    }
+
+    void registrar(DadosIntervaloViagem intervalo) {
+        lock.writeLock().lock();
+        try {
+            removerPorId(intervalo.id());
+            adicionar(intervalo);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica os intervalos ao índice no {@code beforeCommit} da transação corrente, enquanto ela ainda segura as
+     * travas de {@link TravaRecursosViagem}: quem espera pelo mesmo recurso já encontra a viagem no índice.
+     * Se o commit falhar depois disso, o estado anterior dessas viagens é restaurado.
+     */
+    public void registrarNaTransacao(Collection<DadosIntervaloViagem> intervalos) {
+        var copia = List.copyOf(intervalos);
+        aplicarNaTransacao(copia.stream().map(DadosIntervaloViagem::id).toList(), () -> copia.forEach(this::adicionar));
+    }
+
+    public void registrarRotaNaTransacao(Long viagemId, List<DadosRegraRota> regras) {
+        var copia = List.copyOf(regras);
+        aplicarNaTransacao(List.of(viagemId), () -> adicionarRegras(viagemId, copia));
+    }
+
+    /**
+     * Tira a viagem do índice no {@code beforeCommit}, como {@link #registrarNaTransacao}; usado quando ela é
+     * cancelada ou excluída e deixa de ocupar seus recursos. Se a carga ainda estiver em andamento, a viagem
+     * fica marcada para não voltar ao índice pelo retrato que a carga leu antes.
+     */
+    public void removerNaTransacao(Long viagemId) {
+        aplicarNaTransacao(List.of(viagemId), () -> {
+            if (!carregado) {
+                removidosDuranteCarga.add(viagemId);
+            }
+        });
+    }
+
+    private void aplicarNaTransacao(List<Long> viagemIds, Runnable aplicacao) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Map<Long, DadosIntervaloViagem> intervalosAnteriores;
+            private Map<Long, List<DadosRegraRota>> regrasAnteriores;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lock.writeLock().lock();
+                try {
+                    intervalosAnteriores = new HashMap<>();
+                    regrasAnteriores = new HashMap<>();
+                    for (Long id : viagemIds) {
+                        if (intervalosPorId.containsKey(id)) {
+                            intervalosAnteriores.put(id, intervalosPorId.get(id));
+                        }
+                        if (regrasPorViagem.containsKey(id)) {
+                            regrasAnteriores.put(id, regrasPorViagem.get(id));
+                        }
+                        removerPorId(id);
+                    }
+                    aplicacao.run();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED || intervalosAnteriores == null) {
+                    return;
+                }
+                lock.writeLock().lock();
+                try {
+                    viagemIds.forEach(IndiceConflitosViagem.this::removerPorId);
+                    removidosDuranteCarga.removeAll(viagemIds);
+                    intervalosAnteriores.values().forEach(IndiceConflitosViagem.this::adicionar);
+                    regrasAnteriores.forEach(IndiceConflitosViagem.this::adicionarRegras);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+    }
+
+    void remover(Long viagemId) {
+        lock.writeLock().lock();
+        try {
+            removerPorId(viagemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean existeConflito(Map<Long, AgendaRecurso> agendas, Long recursoId, LocalDate startDate, LocalTime startTime,
+                                   LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        lock.readLock().lock();
+        try {
+            AgendaRecurso agenda = agendas.get(recursoId);
+            return agenda != null && agenda.existeConflito(startDate, startTime, endDate, endTime, viagemIdToExclude);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void adicionar(DadosIntervaloViagem intervalo) {
+        intervalosPorId.put(intervalo.id(), intervalo);
+        if (intervalo.startDate() == null || intervalo.endDate() == null) {
+            return;
+        }
+        duracoesDias.merge(AgendaRecurso.duracaoDias(intervalo), 1, Integer::sum);
+        if (intervalo.veiculoId() != null) {
+            agendasPorVeiculo.computeIfAbsent(intervalo.veiculoId(), id -> new AgendaRecurso()).adicionar(intervalo);
+        }
+        if (intervalo.motoristaId() != null) {
+            agendasPorMotorista.computeIfAbsent(intervalo.motoristaId(), id -> new AgendaRecurso()).adicionar(intervalo);
+        }
+    }
+
+    private void adicionarRegras(Long viagemId, List<DadosRegraRota> regras) {
+        regrasPorViagem.put(viagemId, List.copyOf(regras));
+        for (DadosRegraRota regra : regras) {
+            agendasPorVeiculo.computeIfAbsent(regra.veiculoId(), id -> new AgendaRecurso()).regras.add(regra);
+            agendasPorMotorista.computeIfAbsent(regra.motoristaId(), id -> new AgendaRecurso()).regras.add(regra);
+        }
+    }
+
+    private void removerPorId(Long viagemId) {
+        List<DadosRegraRota> regrasAnteriores = regrasPorViagem.remove(viagemId);
+        if (regrasAnteriores != null) {
+            for (DadosRegraRota regra : regrasAnteriores) {
+                agendasPorVeiculo.get(regra.veiculoId()).regras.remove(regra);
+                agendasPorMotorista.get(regra.motoristaId()).regras.remove(regra);
+            }
+        }
+        DadosIntervaloViagem anterior = intervalosPorId.remove(viagemId);
+        if (anterior == null || anterior.startDate() == null || anterior.endDate() == null) {
+            return;
+        }
+        duracoesDias.computeIfPresent(AgendaRecurso.duracaoDias(anterior), (duracao, quantidade) -> quantidade > 1 ? quantidade - 1 : null);
+        if (anterior.veiculoId() != null && agendasPorVeiculo.containsKey(anterior.veiculoId())) {
+            agendasPorVeiculo.get(anterior.veiculoId()).remover(anterior);
+        }
+        if (anterior.motoristaId() != null && agendasPorMotorista.containsKey(anterior.motoristaId())) {
+            agendasPorMotorista.get(anterior.motoristaId()).remover(anterior);
+        }
+    }
+
+    /**
+     * Maior duração, em dias de calendário, entre as viagens do índice. Uma viagem que começou antes de
+     * {@code data - maiorDuracaoDias()} não alcança {@code data}, o que permite às consultas do banco
+     * limitar a busca por sobreposição a um trecho do índice (recurso, startAt).
+     */
+    public long maiorDuracaoDias() {
+        lock.readLock().lock();
+        try {
+            return duracoesDias.isEmpty() ? 0 : duracoesDias.lastKey();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long maiorDuracaoDiasVeiculo(Long veiculoId) {
+        lock.readLock().lock();
+        try {
+            AgendaRecurso agenda = agendasPorVeiculo.get(veiculoId);
+            return agenda == null ? 0 : agenda.maiorDuracaoDias();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intervalos de um único recurso ordenados pela data de início. A maior duração presente limita
+     * quantos dias antes da janela consultada uma viagem pode ter começado e ainda sobrepor a janela;
+     * as durações ficam contadas por valor para que a remoção de uma viagem longa encolha esse limite.
+     */
+    private static class AgendaRecurso {
+
+        private final TreeMap<LocalDate, List<DadosIntervaloViagem>> porDataInicio = new TreeMap<>();
+        private final List<DadosRegraRota> regras = new ArrayList<>();
+        private final TreeMap<Long, Integer> duracoesDias = new TreeMap<>();
+
+        void adicionar(DadosIntervaloViagem intervalo) {
+            porDataInicio.computeIfAbsent(intervalo.startDate(), d -> new ArrayList<>()).add(intervalo);
+            duracoesDias.merge(duracaoDias(intervalo), 1, Integer::sum);
+        }
+
+        void remover(DadosIntervaloViagem intervalo) {
+            List<DadosIntervaloViagem> doDia = porDataInicio.get(intervalo.startDate());
+            if (doDia != null && doDia.removeIf(i -> i.id().equals(intervalo.id()))) {
+                duracoesDias.computeIfPresent(duracaoDias(intervalo), (duracao, quantidade) -> quantidade > 1 ? quantidade - 1 : null);
+                if (doDia.isEmpty()) {
+                    porDataInicio.remove(intervalo.startDate());
+                }
+            }
+        }
+
+        long maiorDuracaoDias() {
+            return duracoesDias.isEmpty() ? 0 : duracoesDias.lastKey();
+        }
+
+        private static long duracaoDias(DadosIntervaloViagem intervalo) {
+            return ChronoUnit.DAYS.between(intervalo.startDate(), intervalo.endDate());
+        }
+
+        boolean existeConflito(LocalDate startDate, LocalTime startTime, LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+            long maiorDuracaoDias = maiorDuracaoDias();
+            if (startDate.minusDays(maiorDuracaoDias).isAfter(endDate)) {
+                return false;
+            }
+            for (DadosRegraRota regra : regras) {
+                if (regra.viagemId().equals(viagemIdToExclude)
+                        || regra.dataInicio().isAfter(endDate) || regra.ultimoDiaOcupado().isBefore(startDate)) {
+                    continue;
+                }
+                for (DadosIntervaloViagem ocorrencia : regra.ocorrencias(startDate, endDate)) {
+                    if (conflita(ocorrencia, startDate, startTime, endDate, endTime)) {
+                        return true;
+                    }
+                }
+            }
+            NavigableMap<LocalDate, List<DadosIntervaloViagem>> candidatas =
+                    porDataInicio.subMap(startDate.minusDays(maiorDuracaoDias), true, endDate, true);
+            for (List<DadosIntervaloViagem> doDia : candidatas.values()) {
+                for (DadosIntervaloViagem v : doDia) {
+                    if (!v.id().equals(viagemIdToExclude) && conflita(v, startDate, startTime, endDate, endTime)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sobreposição dos intervalos fechados [início, fim], a mesma regra das consultas de conflito e das
+     * restrições de exclusão do banco. Intervalo com alguma parte nula não conflita, como no SQL.
+     * Viagem cancelada não chega aqui: ela fica fora do índice, das consultas e das restrições.
+     * A relação é simétrica, então serve tanto para viagens já salvas quanto para comparar itens entre si.
+     */
+    public static boolean conflita(DadosIntervaloViagem v, LocalDate startDate, LocalTime startTime,
+                                   LocalDate endDate, LocalTime endTime) {
+        LocalDateTime inicioExistente = Viagem.instante(v.startDate(), v.startTime());
+        LocalDateTime fimExistente = Viagem.instante(v.endDate(), v.endTime());
+        LocalDateTime inicio = Viagem.instante(startDate, startTime);
+        LocalDateTime fim = Viagem.instante(endDate, endTime);
+        if (inicioExistente == null || fimExistente == null || inicio == null || fim == null) {
+            return false;
+        }
+        return !inicioExistente.isAfter(fim) && !fimExistente.isBefore(inicio);
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.dto.DadosDependenciaExclusao;
+import br.com.rafas.transportes.api.dto.DadosImpactoExclusao;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifica o que impede a exclusão de um veículo ou motorista sem carregar entidades: cada tabela dependente
+ * é consultada com um {@code LIMIT 1} que traz só os campos da mensagem de erro e, no relatório de impacto,
+ * com um {@code COUNT(*)} pela coluna indexada. O exemplo é qualquer linha: sem {@code ORDER BY}, o banco para
+ * na primeira entrada do índice da coluna em vez de ordenar todo o histórico do recurso.
+ */
+@Service
+public class InspetorDependencias {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public enum Recurso {
+        VEICULO("veiculos", "Veículo não encontrado", "Este veículo não pode ser excluído, pois possui pendências:"),
+        MOTORISTA("motoristas", "Motorista não encontrado", "Este motorista não pode ser excluído, pois possui pendências:");
+
+        private final String tabela;
+        private final String naoEncontrado;
+        private final String pendencias;
+
+        Recurso(String tabela, String naoEncontrado, String pendencias) {
+            this.tabela = tabela;
+            this.naoEncontrado = naoEncontrado;
+            this.pendencias = pendencias;
+        }
+    }
+
+    /**
+     * Uma tabela que referencia o recurso. {@code exemplo} traz uma linha já formatada para a mensagem.
+     */
+    private record Dependencia(String tabela, String coluna, String exemplo, RowMapper<String> formato) {
+    }
+
+    private static final Map<Recurso, List<Dependencia>> DEPENDENCIAS = Map.of(
+            Recurso.VEICULO, List.of(
+                    new Dependencia("manutencoes", "veiculo_id",
+                            "SELECT title, date FROM manutencoes WHERE veiculo_id = ? LIMIT 1",
+                            (rs, i) -> String.format(" Manutenção '%s' agendada para %s.", rs.getString(1), data(rs.getDate(2)))),
+                    new Dependencia("viagens", "vehicle_id",
+                            "SELECT title, client_name, start_date FROM viagens WHERE vehicle_id = ? LIMIT 1",
+                            (rs, i) -> String.format(" Viagem '%s' para o cliente %s na data de %s.",
+                                    rs.getString(1), rs.getString(2), data(rs.getDate(3)))),
+                    new Dependencia("itens_rota", "veiculo_id", """
+                            SELECT v.title FROM itens_rota i JOIN viagens v ON v.id = i.viagem_id
+                            WHERE i.veiculo_id = ? LIMIT 1""",
+                            (rs, i) -> String.format(" Rota de colaboradores '%s'.", rs.getString(1))),
+                    new Dependencia("quilometragem_log", "veiculo_id",
+                            "SELECT 1 FROM quilometragem_log WHERE veiculo_id = ? LIMIT 1",
+                            (rs, i) -> " Histórico de quilometragem registrado; limpe o histórico antes de excluir.")),
+            Recurso.MOTORISTA, List.of(
+                    new Dependencia("viagens", "driver_id",
+                            "SELECT title, start_date FROM viagens WHERE driver_id = ? LIMIT 1",
+                            (rs, i) -> String.format(" Viagem '%s' na data de %s.", rs.getString(1), data(rs.getDate(2)))),
+                    new Dependencia("itens_rota", "motorista_id", """
+                            SELECT v.title FROM itens_rota i JOIN viagens v ON v.id = i.viagem_id
+                            WHERE i.motorista_id = ? LIMIT 1""",
+                            (rs, i) -> String.format(" Rota de colaboradores '%s'.", rs.getString(1))),
+                    new Dependencia("ferias", "motorista_id",
+                            "SELECT data_inicio, data_fim FROM ferias WHERE motorista_id = ? LIMIT 1",
+                            (rs, i) -> String.format(" Férias de %s a %s.", data(rs.getDate(1)), data(rs.getDate(2)))))
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lança {@link ValidationException} com um exemplo de cada tabela que ainda referencia o recurso.
+     * Para no primeiro registro de cada tabela, então o custo não depende do tamanho do histórico.
+     */
+    @Transactional(readOnly = true)
+    public void validarExclusao(Recurso recurso, Long id) {
+        StringBuilder erro = new StringBuilder(recurso.pendencias);
+        boolean bloqueado = false;
+        for (Dependencia dependencia : DEPENDENCIAS.get(recurso)) {
+            List<String> exemplo = jdbcTemplate.query(dependencia.exemplo(), dependencia.formato(), id);
+            if (!exemplo.isEmpty()) {
+                erro.append(exemplo.get(0));
+                bloqueado = true;
+            }
+        }
+        if (bloqueado) {
+            throw new ValidationException(erro.toString());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public DadosImpactoExclusao impacto(Recurso recurso, Long id) {
+        if (jdbcTemplate.queryForList("SELECT 1 FROM " + recurso.tabela + " WHERE id = ?", Integer.class, id).isEmpty()) {
+            throw new EntityNotFoundException(recurso.naoEncontrado);
+        }
+        List<DadosDependenciaExclusao> dependencias = new ArrayList<>();
+        for (Dependencia dependencia : DEPENDENCIAS.get(recurso)) {
+            Long quantidade = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + dependencia.tabela() + " WHERE " + dependencia.coluna() + " = ?", Long.class, id);
+            String exemplo = quantidade > 0
+                    ? jdbcTemplate.query(dependencia.exemplo(), dependencia.formato(), id).stream().findFirst().map(String::strip).orElse(null)
+                    : null;
+            dependencias.add(new DadosDependenciaExclusao(dependencia.tabela(), quantidade, exemplo));
+        }
+        boolean podeExcluir = dependencias.stream().allMatch(d -> d.quantidade() == 0);
+        return new DadosImpactoExclusao(recurso.name(), id, podeExcluir, dependencias);
+    }
+
+    private static String data(Date data) {
+        return data != null ? data.toLocalDate().format(FORMATO_DATA) : "data não informada";
+    }
+}
@@ -0,0 +1,193 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosJornadaMotorista;
+import br.com.rafas.transportes.api.dto.DadosRelatorioJornada;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.MotoristaRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Horas e viagens de cada motorista num período, para folha e controle de fadiga.
+ * <p>
+ * As viagens do período são lidas em fluxo (sem montar entidades) e cada uma vira um par de minutos
+ * [início, fim) contados a partir da meia-noite de {@code de}, recortado ao período. Os pares de cada motorista
+ * ficam num {@code long[]} com o início nos bits altos, então ordenar o vetor ordena por início. Depois,
+ * em paralelo por motorista, os trechos sobrepostos são unidos, cortados à meia-noite e somados num
+ * {@code int[]} de minutos por dia.
+ */
+@Service
+public class JornadaMotoristaService {
+
+    private static final int DIAS_MAXIMOS = 366;
+    private static final int MINUTOS_DIA = 24 * 60;
+    private static final int BITS_FIM = 20; // 366 dias têm 527.040 minutos, menos que 2^20
+    private static final long MASCARA_FIM = (1L << BITS_FIM) - 1;
+
+    @Value("${motoristas.jornada.minutos-diarios:480}")
+    private int minutosDiariosLimite;
+
+    @Value("${motoristas.jornada.pausa-minima-minutos:30}")
+    private int pausaMinimaMinutos;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    /**
+     * Trechos de um motorista, ainda fora de ordem. Cada viagem ou ocorrência de rota conta como uma viagem,
+     * mesmo sem horário de retorno; só as que têm início e fim somam horas.
+     */
+    private static class Trechos {
+
+        private long[] intervalos = new long[16];
+        private int tamanho = 0;
+        private int viagens = 0;
+
+        void adicionar(long inicio, long fim) {
+            if (tamanho == intervalos.length) {
+                intervalos = Arrays.copyOf(intervalos, tamanho * 2);
+            }
+            intervalos[tamanho++] = inicio << BITS_FIM | fim;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public DadosRelatorioJornada gerar(LocalDate de, LocalDate ate) {
+        if (de == null || ate == null) {
+            throw new ValidationException("Informe o período (de/ate) do relatório de jornada.");
+        }
+        if (de.isAfter(ate)) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+        if (ChronoUnit.DAYS.between(de, ate) >= DIAS_MAXIMOS) {
+            throw new ValidationException("O período do relatório de jornada não pode passar de " + DIAS_MAXIMOS + " dias.");
+        }
+        long inicio = System.currentTimeMillis();
+        LocalDateTime origem = de.atStartOfDay();
+        int dias = (int) ChronoUnit.DAYS.between(de, ate) + 1;
+
+        Map<Long, Trechos> porMotorista = new HashMap<>();
+        try (Stream<DadosIntervaloViagem> viagens =
+                     viagemRepository.streamIntervalosComMotoristaNoPeriodo(de, ate, StatusViagem.CANCELADA)) {
+            viagens.forEach(v -> acumular(porMotorista, v, origem, dias));
+        }
+        itemRotaRepository.listarRegrasNoPeriodoExcetoStatus(de.minusDays(1), ate, StatusViagem.CANCELADA).stream()
+                .flatMap(regra -> regra.ocorrencias(de, ate).stream())
+                .forEach(ocorrencia -> acumular(porMotorista, ocorrencia, origem, dias));
+
+        List<DadosJornadaMotorista> jornadas = motoristaRepository.findAll().parallelStream()
+                .map(m -> consolidar(m, porMotorista.get(m.getId()), origem, dias))
+                .sorted(Comparator.comparing(DadosJornadaMotorista::nome, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .toList();
+        return new DadosRelatorioJornada(de, ate, minutosDiariosLimite, pausaMinimaMinutos, jornadas,
+                System.currentTimeMillis() - inicio);
+    }
+
+    private static void acumular(Map<Long, Trechos> porMotorista, DadosIntervaloViagem viagem, LocalDateTime origem, int dias) {
+        LocalDateTime inicioViagem = Viagem.instante(viagem.startDate(), viagem.startTime());
+        LocalDateTime fimViagem = Viagem.instante(viagem.endDate(), viagem.endTime());
+        Trechos trechos = porMotorista.computeIfAbsent(viagem.motoristaId(), id -> new Trechos());
+        trechos.viagens++;
+        if (inicioViagem == null || fimViagem == null || fimViagem.isBefore(inicioViagem)) {
+            return;
+        }
+        long limite = (long) dias * MINUTOS_DIA;
+        long inicio = Math.max(0, Math.min(ChronoUnit.MINUTES.between(origem, inicioViagem), limite));
+        long fim = Math.max(0, Math.min(ChronoUnit.MINUTES.between(origem, fimViagem), limite));
+        if (fim > inicio) {
+            trechos.adicionar(inicio, fim);
+        }
+    }
+
+    private DadosJornadaMotorista consolidar(Motorista motorista, Trechos trechos, LocalDateTime origem, int dias) {
+        int[] minutosPorDia = new int[dias];
+        long maiorJornada = 0;
+        long inicioMaiorJornada = -1;
+        if (trechos != null) {
+            long[] intervalos = Arrays.copyOf(trechos.intervalos, trechos.tamanho);
+            Arrays.sort(intervalos);
+            long somadoAte = 0;
+            long inicioJornada = -1;
+            long fimJornada = -1;
+            for (long intervalo : intervalos) {
+                long inicio = intervalo >>> BITS_FIM;
+                long fim = intervalo & MASCARA_FIM;
+                if (fim > Math.max(inicio, somadoAte)) {
+                    distribuirPorDia(minutosPorDia, Math.max(inicio, somadoAte), fim);
+                    somadoAte = fim;
+                }
+                if (inicioJornada < 0 || inicio - fimJornada >= pausaMinimaMinutos) {
+                    inicioJornada = inicio;
+                    fimJornada = fim;
+                } else {
+                    fimJornada = Math.max(fimJornada, fim);
+                }
+                if (fimJornada - inicioJornada > maiorJornada) {
+                    maiorJornada = fimJornada - inicioJornada;
+                    inicioMaiorJornada = inicioJornada;
+                }
+            }
+        }
+
+        long minutosTrabalhados = 0;
+        long minutosHoraExtra = 0;
+        int diasTrabalhados = 0;
+        List<LocalDate> diasComHoraExtra = new ArrayList<>();
+        for (int dia = 0; dia < dias; dia++) {
+            minutosTrabalhados += minutosPorDia[dia];
+            if (minutosPorDia[dia] > 0) {
+                diasTrabalhados++;
+            }
+            if (minutosPorDia[dia] > minutosDiariosLimite) {
+                minutosHoraExtra += minutosPorDia[dia] - minutosDiariosLimite;
+                diasComHoraExtra.add(origem.toLocalDate().plusDays(dia));
+            }
+        }
+        return new DadosJornadaMotorista(
+                motorista.getId(),
+                motorista.getNome(),
+                trechos != null ? trechos.viagens : 0,
+                minutosTrabalhados,
+                diasTrabalhados,
+                minutosHoraExtra,
+                diasComHoraExtra,
+                maiorJornada,
+                inicioMaiorJornada >= 0 ? origem.plusMinutes(inicioMaiorJornada) : null
+        );
+    }
+
+    private static void distribuirPorDia(int[] minutosPorDia, long inicio, long fim) {
+        long minuto = inicio;
+        while (minuto < fim) {
+            int dia = (int) (minuto / MINUTOS_DIA);
+            long fimDoDia = Math.min(fim, (dia + 1L) * MINUTOS_DIA);
+            minutosPorDia[dia] += (int) (fimDoDia - minuto);
+            minuto = fimDoDia;
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package br.com.rafas.transportes.api.service;
 
 import br.com.rafas.transportes.api.domain.Manutencao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
 import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoManutencao;
 import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoManutencao;
-import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
 import br.com.rafas.transportes.api.repository.ManutencaoRepository;
 import br.com.rafas.transportes.api.repository.VeiculoRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -16,7 +16,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,7 +29,10 @@ public class ManutencaoService {
   private VeiculoRepository veiculoRepository;
 
   @Autowired
-  private QuilometragemLogService quilometragemLogService;
+  private HodometroService hodometroService;
+
+  @Autowired
+  private CustoManutencaoService custoService;
 
   @Transactional(readOnly = true)
   public List<DadosDetalhamentoManutencao> listarTodas() {
@@ -44,8 +46,10 @@ public class ManutencaoService {
     var veiculo = veiculoRepository.findById(dados.veiculoId())
             .orElseThrow(() -> new EntityNotFoundException("Veículo não encontrado com o ID: " + dados.veiculoId()));
 
+    var status = lerStatus(dados.status());
+
     // 1. Validações Iniciais baseadas no Status
-    if (dados.status().equalsIgnoreCase("Realizada")) {
+    if (status == StatusManutencao.REALIZADA) {
       // Validações para Manutenção Realizada
       if (dados.cost() == null || dados.cost().compareTo(BigDecimal.ZERO) <= 0) {
         throw new ValidationException("Para manutenção 'Realizada', o custo é obrigatório e deve ser positivo.");
@@ -62,7 +66,7 @@ public class ManutencaoService {
       if (dados.proximaKm() != null && dados.proximaKm() <= dados.currentKm()) {
         throw new ValidationException("A próxima quilometragem deve ser superior à quilometragem atual da manutenção.");
       }
-    } else if (dados.status().equalsIgnoreCase("Agendada")) {
+    } else if (status == StatusManutencao.AGENDADA) {
       // Validações para Manutenção Agendada
       if (dados.date() != null && dados.date().isBefore(LocalDate.now())) {
         throw new ValidationException("Para manutenção 'Agendada', a data deve ser no presente ou futuro.");
@@ -83,29 +87,16 @@ public class ManutencaoService {
     // Para cadastro, parentMaintenanceId é sempre null, a menos que seja uma agendada filha de outra coisa
     novaManutencao.setParentMaintenanceId(null); // Garante que não tenha um ID pai neste momento
     manutencaoRepository.save(novaManutencao); // Salva a manutenção principal para obter seu ID
+    custoService.registrar(CustoManutencaoService.Lancamento.NENHUM, CustoManutencaoService.lancamento(novaManutencao));
 
     // 3. Atualização da KM do Veículo e Registro de Log (APENAS se for Realizada e a KM do veículo for atualizada)
-    if (novaManutencao.getStatus().equalsIgnoreCase("Realizada")) {
-      Integer quilometragemAnteriorVeiculo = veiculo.getCurrentKm() != null ? veiculo.getCurrentKm() : 0;
-
-      if (novaManutencao.getCurrentKm() > quilometragemAnteriorVeiculo) {
-        veiculo.setCurrentKm(novaManutencao.getCurrentKm()); // Atualiza a KM do veículo
-        veiculoRepository.save(veiculo); // Salva o veículo com a nova KM
-
-        // REGISTRAR LOG: Manutenção Realizada atualizou a KM do veículo
-        quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(
-                veiculo.getId(),
-                LocalDateTime.now(),
-                quilometragemAnteriorVeiculo,
-                veiculo.getCurrentKm(),
-                "MANUTENCAO",
-                novaManutencao.getId() // ID da manutenção que causou a atualização
-        ));
-      }
+    if (novaManutencao.getStatus() == StatusManutencao.REALIZADA) {
+      hodometroService.avancar(veiculo.getId(), novaManutencao.getCurrentKm(), "MANUTENCAO", novaManutencao.getId())
+              .ifPresent(avanco -> veiculo.setCurrentKm(avanco.atual()));
     }
 
     // 4. Criação/Associação da Manutenção Agendada "Filha" (se a principal for Realizada e tiver proximaKm)
-    if (novaManutencao.getStatus().equalsIgnoreCase("Realizada") && novaManutencao.getProximaKm() != null) {
+    if (novaManutencao.getStatus() == StatusManutencao.REALIZADA && novaManutencao.getProximaKm() != null) {
       // Para cadastro, sempre criamos uma nova filha, pois não há uma mãe para ser atualizada
       var dadosNovaManutencaoAgendada = new DadosCadastroManutencao(
               novaManutencao.getVeiculo().getId(),
@@ -113,7 +104,7 @@ public class ManutencaoService {
               novaManutencao.getType(),
               null, // Data nula para agendada
               novaManutencao.getCost(), // Custo replicado
-              "Agendada",
+              StatusManutencao.AGENDADA.getDescricao(),
               novaManutencao.getProximaKm(), // KM Ideal da filha é a ProximaKm da mãe
               null
       );
@@ -130,8 +121,11 @@ public class ManutencaoService {
     var manutencaoExistente = manutencaoRepository.findById(id)
             .orElseThrow(() -> new EntityNotFoundException("Manutenção não encontrada com o ID: " + id));
 
-    // Capturar KM anterior do veículo antes de qualquer alteração na manutenção
-    Integer quilometragemAnteriorVeiculo = manutencaoExistente.getVeiculo().getCurrentKm() != null ? manutencaoExistente.getVeiculo().getCurrentKm() : 0;
+    if (dados.status() != null) {
+      lerStatus(dados.status());
+    }
+
+    var lancamentoAnterior = CustoManutencaoService.lancamento(manutencaoExistente);
 
     // Atualiza as informações da entidade de manutenção existente com os novos dados
     manutencaoExistente.atualizarInformacoes(dados, manutencaoExistente.getVeiculo()); // Passa o veículo atual se não mudou
@@ -147,7 +141,7 @@ public class ManutencaoService {
 
 
     // 1. Validações baseadas no Status e nos novos dados
-    if (manutencaoExistente.getStatus().equalsIgnoreCase("Realizada")) {
+    if (manutencaoExistente.getStatus() == StatusManutencao.REALIZADA) {
       // Validações para Manutenção Realizada
       if (manutencaoExistente.getCost() == null || manutencaoExistente.getCost().compareTo(BigDecimal.ZERO) <= 0) {
         throw new ValidationException("Para manutenção 'Realizada', o custo é obrigatório e deve ser positivo.");
@@ -164,7 +158,7 @@ public class ManutencaoService {
       if (manutencaoExistente.getProximaKm() != null && manutencaoExistente.getProximaKm() <= manutencaoExistente.getCurrentKm()) {
         throw new ValidationException("A próxima quilometragem deve ser superior à quilometragem atual da manutenção.");
       }
-    } else if (manutencaoExistente.getStatus().equalsIgnoreCase("Agendada")) {
+    } else if (manutencaoExistente.getStatus() == StatusManutencao.AGENDADA) {
       // Validações para Manutenção Agendada
       if (manutencaoExistente.getDate() != null && manutencaoExistente.getDate().isBefore(LocalDate.now())) {
         throw new ValidationException("Para manutenção 'Agendada', a data deve ser no presente ou futuro.");
@@ -182,35 +176,19 @@ public class ManutencaoService {
 
     // 2. Salvamento da Manutenção Principal (com os dados já atualizados na entidade)
     manutencaoRepository.save(manutencaoExistente);
+    custoService.registrar(lancamentoAnterior, CustoManutencaoService.lancamento(manutencaoExistente));
 
     // 3. Atualização da KM do Veículo e Registro de Log (APENAS se for Realizada e a KM do veículo for atualizada)
-    if (manutencaoExistente.getStatus().equalsIgnoreCase("Realizada")) {
-      Integer kmAtualVeiculo = manutencaoExistente.getVeiculo().getCurrentKm() != null ? manutencaoExistente.getVeiculo().getCurrentKm() : 0;
-
-      // ATENÇÃO: currentKm da manutenção já foi atualizada na entidade 'manutencaoExistente'
-      if (manutencaoExistente.getCurrentKm() > kmAtualVeiculo) { // Se a KM da manutenção é maior, atualiza o veículo
-        veiculoRepository.findById(manutencaoExistente.getVeiculo().getId())
-                .ifPresent(v -> { // Encontra o veículo novamente para garantir que é a instância gerenciada
-                  v.setCurrentKm(manutencaoExistente.getCurrentKm());
-                  veiculoRepository.save(v);
-
-                  // REGISTRAR LOG: Manutenção Realizada atualizou a KM do veículo
-                  quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(
-                          v.getId(),
-                          LocalDateTime.now(),
-                          quilometragemAnteriorVeiculo, // KM anterior do veículo
-                          v.getCurrentKm(), // Nova KM do veículo
-                          "MANUTENCAO",
-                          manutencaoExistente.getId() // ID da manutenção que causou a atualização
-                  ));
-                });
-      }
+    if (manutencaoExistente.getStatus() == StatusManutencao.REALIZADA) {
+      var veiculo = manutencaoExistente.getVeiculo();
+      hodometroService.avancar(veiculo.getId(), manutencaoExistente.getCurrentKm(), "MANUTENCAO", manutencaoExistente.getId())
+              .ifPresent(avanco -> veiculo.setCurrentKm(avanco.atual()));
     }
 
     // 4. Lógica de Manutenção Agendada "Filha" (Criação/Atualização/Deleção)
     // Revalidar o status da manutenção existente após a atualização, se necessário.
-    if (manutencaoExistente.getStatus().equalsIgnoreCase("Realizada")) {
-      Optional<Manutencao> manutencaoAgendadaFilhaOpt = manutencaoRepository.findByParentMaintenanceIdAndStatus(manutencaoExistente.getId(), "Agendada");
+    if (manutencaoExistente.getStatus() == StatusManutencao.REALIZADA) {
+      Optional<Manutencao> manutencaoAgendadaFilhaOpt = manutencaoRepository.findByParentMaintenanceIdAndStatus(manutencaoExistente.getId(), StatusManutencao.AGENDADA);
 
       if (manutencaoExistente.getProximaKm() != null) { // Se a mãe tem proximaKm
         if (manutencaoAgendadaFilhaOpt.isPresent()) {
@@ -229,7 +207,7 @@ public class ManutencaoService {
                   manutencaoExistente.getType(),
                   null,
                   manutencaoExistente.getCost(),
-                  "Agendada",
+                  StatusManutencao.AGENDADA.getDescricao(),
                   manutencaoExistente.getProximaKm(),
                   null
           );
@@ -244,7 +222,7 @@ public class ManutencaoService {
         }
       }
     } else { // Se o status da mãe NÃO é "Realizada" (ex: mudou para Agendada ou outro)
-      Optional<Manutencao> manutencaoAgendadaFilhaOpt = manutencaoRepository.findByParentMaintenanceIdAndStatus(id, "Agendada");
+      Optional<Manutencao> manutencaoAgendadaFilhaOpt = manutencaoRepository.findByParentMaintenanceIdAndStatus(id, StatusManutencao.AGENDADA);
       if (manutencaoAgendadaFilhaOpt.isPresent()) {
         manutencaoRepository.delete(manutencaoAgendadaFilhaOpt.get());
       }
@@ -255,14 +233,22 @@ public class ManutencaoService {
 
   @Transactional
   public void excluir(Long id) {
-    if (!manutencaoRepository.existsById(id)) {
-      throw new EntityNotFoundException("Manutenção não encontrada com o ID: " + id);
-    }
+    var manutencao = manutencaoRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Manutenção não encontrada com o ID: " + id));
     // Lógica para excluir manutenção agendada "filha" se a "mãe" for excluída
-    Optional<Manutencao> manutencaoAgendadaFilhaOpt = manutencaoRepository.findByParentMaintenanceIdAndStatus(id, "Agendada");
+    Optional<Manutencao> manutencaoAgendadaFilhaOpt = manutencaoRepository.findByParentMaintenanceIdAndStatus(id, StatusManutencao.AGENDADA);
     if (manutencaoAgendadaFilhaOpt.isPresent()) {
       manutencaoRepository.delete(manutencaoAgendadaFilhaOpt.get());
     }
-    manutencaoRepository.deleteById(id);
+    custoService.registrar(CustoManutencaoService.lancamento(manutencao), CustoManutencaoService.Lancamento.NENHUM);
+    manutencaoRepository.delete(manutencao);
+  }
+
+  private static StatusManutencao lerStatus(String valor) {
+    try {
+      return StatusManutencao.de(valor);
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Status de manutenção inválido: " + valor);
+    }
   }
 }
\ No newline at end of file
@@ -26,6 +26,12 @@ public class MotoristaService {
   @Autowired
   private ViagemRepository viagemRepository;
 
+  @Autowired
+  private AgendaMotoristaService agenda;
+
+  @Autowired
+  private InspetorDependencias inspetorDependencias;
+
   @Transactional
   public Motorista cadastrar(DadosCadastroMotorista dados) {
     if (repository.existsByNome(dados.nome())) {
@@ -78,6 +84,7 @@ public class MotoristaService {
     }
 
     motorista.atualizarInformacoes(dados);
+    agenda.invalidar(List.of(id));
 
     return motorista;
   }
@@ -88,22 +95,9 @@ public class MotoristaService {
       throw new EntityNotFoundException("Motorista não encontrado");
     }
 
-    List<Viagem> viagensAssociadas = viagemRepository.findByMotoristaId(id);
-
-    if (!viagensAssociadas.isEmpty()) {
-      Viagem viagemExemplo = viagensAssociadas.get(0);
-      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-      LocalDate dataViagem = viagemExemplo.getStartDate();
-
-      String mensagemDeErro = String.format(
-              "Este motorista não pode ser excluído. Ele está associado à viagem '%s' na data de %s (e possivelmente outras).",
-              viagemExemplo.getTitle(),
-              dataViagem.format(formatter)
-      );
-
-      throw new ValidationException(mensagemDeErro);
-    }
+    inspetorDependencias.validarExclusao(InspetorDependencias.Recurso.MOTORISTA, id);
 
     repository.deleteById(id);
+    agenda.invalidar(List.of(id));
   }
 }
\ No newline at end of file
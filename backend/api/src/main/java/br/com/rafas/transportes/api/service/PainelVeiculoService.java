@@ -0,0 +1,148 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosPainelFrota;
+import br.com.rafas.transportes.api.dto.DadosPainelManutencao;
+import br.com.rafas.transportes.api.dto.DadosPainelVeiculo;
+import br.com.rafas.transportes.api.dto.DadosPainelViagem;
+import br.com.rafas.transportes.api.dto.DadosRegraRota;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.ManutencaoRepository;
+import br.com.rafas.transportes.api.repository.MotoristaRepository;
+import br.com.rafas.transportes.api.repository.QuilometragemLogRepository;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Painel da frota: um cartão por veículo com km atual, próxima manutenção agendada, próxima viagem e último
+ * registro de quilometragem. Cada informação vem de uma consulta única para a frota inteira, e o casamento
+ * com os veículos é feito em memória, então o número de consultas não cresce com o número de veículos.
+ * As rotas de colaboradores somam até duas consultas, só quando há regras ativas.
+ */
+@Service
+public class PainelVeiculoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PainelVeiculoService.class);
+
+    private static final int DIAS_BUSCA_ROTAS = 366;
+
+    @Value("${veiculos.painel.orcamento-ms:300}")
+    private long orcamentoMs;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private ManutencaoRepository manutencaoRepository;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    @Autowired
+    private QuilometragemLogRepository quilometragemLogRepository;
+
+    @Transactional(readOnly = true)
+    public DadosPainelFrota gerar() {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime agora = LocalDateTime.now();
+
+        List<Veiculo> veiculos = veiculoRepository.findAll();
+        Map<Long, DadosPainelManutencao> manutencoes = new HashMap<>();
+        manutencaoRepository.listarAgendadasParaPainel().forEach(m -> manutencoes.putIfAbsent(m.veiculoId(), m));
+        Map<Long, DadosPainelViagem> viagens = new HashMap<>();
+        viagemRepository.listarProximasPorVeiculo(agora, StatusViagem.CANCELADA).forEach(v -> manterPrimeira(viagens, v));
+        proximasOcorrenciasDeRotas(agora).forEach(v -> manterPrimeira(viagens, v));
+        Map<Long, DadosDetalhamentoQuilometragemLog> logs = quilometragemLogRepository.listarUltimosPorVeiculo().stream()
+                .collect(Collectors.toMap(DadosDetalhamentoQuilometragemLog::veiculoId, Function.identity(),
+                        (a, b) -> a.id() > b.id() ? a : b));
+
+        List<DadosPainelVeiculo> painel = veiculos.stream()
+                .sorted(Comparator.comparing(Veiculo::getPlate, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .map(v -> new DadosPainelVeiculo(v.getId(), v.getModel(), v.getPlate(), v.getStatus(), v.getCurrentKm(),
+                        manutencoes.get(v.getId()), viagens.get(v.getId()), logs.get(v.getId())))
+                .toList();
+        long duracao = System.currentTimeMillis() - inicio;
+        if (duracao > orcamentoMs) {
+            log.warn("Painel da frota acima do orçamento: {} ms para {} veículos (orçamento {} ms).",
+                    duracao, veiculos.size(), orcamentoMs);
+        }
+        return new DadosPainelFrota(painel, duracao);
+    }
+
+    /**
+     * Primeira ocorrência futura de cada regra de rota ativa, já com título da rota e nome do motorista.
+     */
+    private List<DadosPainelViagem> proximasOcorrenciasDeRotas(LocalDateTime agora) {
+        LocalDate hoje = agora.toLocalDate();
+        List<DadosRegraRota> regras = itemRotaRepository.listarRegrasNoPeriodoExcetoStatus(
+                hoje.minusDays(1), hoje.plusDays(DIAS_BUSCA_ROTAS), StatusViagem.CANCELADA);
+        if (regras.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> viagemIds = regras.stream().map(DadosRegraRota::viagemId).collect(Collectors.toSet());
+        Set<Long> motoristaIds = regras.stream().map(DadosRegraRota::motoristaId).collect(Collectors.toSet());
+        Map<Long, Viagem> rotas = viagemRepository.findAllById(viagemIds).stream()
+                .collect(Collectors.toMap(Viagem::getId, Function.identity()));
+        Map<Long, String> nomes = motoristaRepository.findAllById(motoristaIds).stream()
+                .collect(Collectors.toMap(Motorista::getId, Motorista::getNome));
+        return regras.stream()
+                .map(regra -> primeiraOcorrenciaApos(regra, agora))
+                .filter(ocorrencia -> ocorrencia != null)
+                .map(ocorrencia -> {
+                    Viagem rota = rotas.get(ocorrencia.id());
+                    return new DadosPainelViagem(ocorrencia.veiculoId(), ocorrencia.id(), rota.getTitle(),
+                            Viagem.instante(ocorrencia.startDate(), ocorrencia.startTime()),
+                            Viagem.instante(ocorrencia.endDate(), ocorrencia.endTime()),
+                            rota.getClientName(), ocorrencia.motoristaId(), nomes.get(ocorrencia.motoristaId()));
+                })
+                .toList();
+    }
+
+    /**
+     * Toda regra ativa tem ocorrência a cada semana, então basta olhar de semana em semana até achar uma
+     * que comece depois de {@code agora}.
+     */
+    private static DadosIntervaloViagem primeiraOcorrenciaApos(DadosRegraRota regra, LocalDateTime agora) {
+        LocalDate dia = agora.toLocalDate().isAfter(regra.dataInicio()) ? agora.toLocalDate() : regra.dataInicio();
+        while (!dia.isAfter(regra.dataFim())) {
+            for (DadosIntervaloViagem ocorrencia : regra.ocorrencias(dia, dia.plusDays(7))) {
+                if (!Viagem.instante(ocorrencia.startDate(), ocorrencia.startTime()).isBefore(agora)) {
+                    return ocorrencia;
+                }
+            }
+            dia = dia.plusDays(8);
+        }
+        return null;
+    }
+
+    private static void manterPrimeira(Map<Long, DadosPainelViagem> viagens, DadosPainelViagem viagem) {
+        viagens.merge(viagem.veiculoId(), viagem, (atual, nova) -> nova.inicio().isBefore(atual.inicio()) ? nova : atual);
+    }
+}
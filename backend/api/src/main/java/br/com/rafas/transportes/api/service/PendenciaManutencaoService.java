@@ -0,0 +1,63 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.dto.DadosManutencaoPendente;
+import br.com.rafas.transportes.api.dto.DadosManutencoesPendentes;
+import br.com.rafas.transportes.api.repository.ManutencaoRepository;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Manutenções agendadas que pedem atenção, separadas em atrasadas, vencidas e próximas. A comparação com o
+ * km atual de cada veículo e a classificação saem de uma consulta só, pelo índice de status; a antecedência
+ * padrão vem de {@code manutencoes.pendentes.antecedencia-km} e {@code manutencoes.pendentes.antecedencia-dias},
+ * e a folga antes de uma vencida virar atrasada de {@code manutencoes.pendentes.tolerancia-km} e
+ * {@code manutencoes.pendentes.tolerancia-dias}.
+ */
+@Service
+public class PendenciaManutencaoService {
+
+    private static final String ATRASADA = "ATRASADA";
+    private static final String VENCIDA = "VENCIDA";
+    private static final String PROXIMA = "PROXIMA";
+
+    @Value("${manutencoes.pendentes.antecedencia-km:1000}")
+    private int antecedenciaKmPadrao;
+
+    @Value("${manutencoes.pendentes.antecedencia-dias:15}")
+    private int antecedenciaDiasPadrao;
+
+    @Value("${manutencoes.pendentes.tolerancia-km:500}")
+    private int toleranciaKm;
+
+    @Value("${manutencoes.pendentes.tolerancia-dias:7}")
+    private int toleranciaDias;
+
+    @Autowired
+    private ManutencaoRepository manutencaoRepository;
+
+    @Transactional(readOnly = true)
+    public DadosManutencoesPendentes listar(Integer antecedenciaKm, Integer antecedenciaDias) {
+        int km = antecedenciaKm != null ? antecedenciaKm : antecedenciaKmPadrao;
+        int dias = antecedenciaDias != null ? antecedenciaDias : antecedenciaDiasPadrao;
+        if (km < 0 || dias < 0) {
+            throw new ValidationException("A antecedência em km e em dias não pode ser negativa.");
+        }
+        LocalDate hoje = LocalDate.now();
+        Map<String, List<DadosManutencaoPendente>> porSituacao = manutencaoRepository
+                .listarPendentes(hoje, -toleranciaKm, hoje.minusDays(toleranciaDias), km, hoje.plusDays(dias))
+                .stream()
+                .collect(Collectors.groupingBy(DadosManutencaoPendente::situacao));
+        return new DadosManutencoesPendentes(hoje, km, dias, toleranciaKm, toleranciaDias,
+                porSituacao.getOrDefault(ATRASADA, List.of()),
+                porSituacao.getOrDefault(VENCIDA, List.of()),
+                porSituacao.getOrDefault(PROXIMA, List.of()));
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemRitmo;
+import br.com.rafas.transportes.api.dto.DadosPainelManutencao;
+import br.com.rafas.transportes.api.dto.DadosPrevisaoManutencao;
+import br.com.rafas.transportes.api.repository.ManutencaoRepository;
+import br.com.rafas.transportes.api.repository.QuilometragemRitmoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Data prevista de cada manutenção agendada, a partir do km em que ela vence e do ritmo de uso do veículo
+ * mantido por {@link RitmoQuilometragemService}. A resposta sai de duas consultas (agendadas e ritmos),
+ * sem ler o histórico de quilometragem.
+ */
+@Service
+public class PrevisaoManutencaoService {
+
+    private static final double RITMO_MINIMO = 0.1;
+    private static final long DIAS_MAXIMOS = 3650;
+
+    @Autowired
+    private ManutencaoRepository manutencaoRepository;
+
+    @Autowired
+    private QuilometragemRitmoRepository ritmoRepository;
+
+    /**
+     * Ordenada por urgência: primeiro a data limite (a menor entre a data agendada e a prevista pelo km),
+     * depois os km restantes. Sem ritmo conhecido, ou com o veículo praticamente parado, não há data prevista.
+     */
+    @Transactional(readOnly = true)
+    public List<DadosPrevisaoManutencao> prever() {
+        LocalDate hoje = LocalDate.now();
+        Map<Long, QuilometragemRitmo> ritmos = ritmoRepository.findAll().stream()
+                .collect(Collectors.toMap(QuilometragemRitmo::getVeiculoId, Function.identity()));
+        return manutencaoRepository.listarAgendadasParaPainel().stream()
+                .map(m -> prever(m, ritmos.get(m.veiculoId()), hoje))
+                .sorted(Comparator.comparing(DadosPrevisaoManutencao::dataLimite, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(DadosPrevisaoManutencao::kmRestantes, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(DadosPrevisaoManutencao::id))
+                .toList();
+    }
+
+    private static DadosPrevisaoManutencao prever(DadosPainelManutencao manutencao, QuilometragemRitmo ritmo, LocalDate hoje) {
+        Double kmPorDia = ritmo != null ? Math.round(ritmo.kmPorDia() * 10) / 10.0 : null;
+        LocalDate dataPrevista = null;
+        if (manutencao.kmRestantes() != null && manutencao.kmRestantes() <= 0) {
+            dataPrevista = hoje;
+        } else if (manutencao.kmRestantes() != null && ritmo != null && ritmo.kmPorDia() >= RITMO_MINIMO) {
+            long dias = (long) Math.ceil(manutencao.kmRestantes() / ritmo.kmPorDia());
+            if (dias <= DIAS_MAXIMOS) {
+                LocalDate base = ritmo.getUltimoRegistro().toLocalDate();
+                dataPrevista = base.plusDays(dias).isBefore(hoje) ? hoje : base.plusDays(dias);
+            }
+        }
+        LocalDate dataLimite = manutencao.date() == null ? dataPrevista
+                : dataPrevista == null || manutencao.date().isBefore(dataPrevista) ? manutencao.date() : dataPrevista;
+        return new DadosPrevisaoManutencao(manutencao.id(), manutencao.veiculoId(), manutencao.title(), manutencao.type(),
+                manutencao.date(), manutencao.kmPrevisto(), manutencao.kmRestantes(), kmPorDia,
+                ritmo != null ? ritmo.getUltimoRegistro() : null, dataPrevista, dataLimite);
+    }
+}
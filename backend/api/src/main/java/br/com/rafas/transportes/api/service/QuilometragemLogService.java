@@ -8,26 +8,45 @@ import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemLog;
 import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
 import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosPaginaQuilometragemLog;
 import br.com.rafas.transportes.api.repository.QuilometragemLogRepository;
 import br.com.rafas.transportes.api.repository.VeiculoRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class QuilometragemLogService {
 
+    private static final int TAMANHO_PAGINA_PADRAO = 200;
+    private static final int TAMANHO_PAGINA_MAXIMO = 1000;
+    private static final LocalDateTime INICIO = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime FIM = LocalDateTime.of(3000, 1, 1, 0, 0);
+
     @Autowired
     private QuilometragemLogRepository quilometragemLogRepository;
 
     @Autowired
     private VeiculoRepository veiculoRepository;
 
+    @Autowired
+    private QuilometragemSerieService serieService;
+
+    @Autowired
+    private ArquivoQuilometragemService arquivoService;
+
+    @Autowired
+    private RitmoQuilometragemService ritmoService;
+
     @Transactional
     public DadosDetalhamentoQuilometragemLog registrarLog(DadosCadastroQuilometragemLog dados) {
         Veiculo veiculo = veiculoRepository.findById(dados.veiculoId())
@@ -40,29 +59,59 @@ public class QuilometragemLogService {
                 dados.quilometragemAnterior(),
                 dados.quilometragemAtual(),
                 dados.origemAlteracao(),
-                dados.idReferenciaOrigem()
+                dados.idReferenciaOrigem(),
+                null
         );
 
         quilometragemLogRepository.save(log);
+        var registro = new QuilometragemSerieService.Registro(veiculo.getId(), log.getDataHoraRegistro(),
+                log.getQuilometragemAnterior(), log.getQuilometragemAtual(), log.getOrigemAlteracao());
+        serieService.registrar(registro);
+        ritmoService.registrar(List.of(registro));
         return new DadosDetalhamentoQuilometragemLog(log);
     }
 
+    /**
+     * Registros do veículo entre {@code de} e {@code ate} (inclusive, ambos opcionais), do mais antigo ao mais
+     * recente. A próxima página é pedida repassando {@code proximaAposDataHora}/{@code proximoAposId}.
+     * Meses já arquivados vêm dos arquivos e são intercalados com o banco na mesma ordem.
+     */
     @Transactional(readOnly = true)
-    public List<DadosDetalhamentoQuilometragemLog> listarLogsPorVeiculo(Long veiculoId) {
+    public DadosPaginaQuilometragemLog listarLogsPorVeiculo(Long veiculoId, LocalDate de, LocalDate ate,
+                                                            LocalDateTime aposDataHora, Long aposId, Integer tamanho) {
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+        if ((aposDataHora == null) != (aposId == null)) {
+            throw new ValidationException("Os parâmetros aposDataHora e aposId devem ser informados juntos.");
+        }
         if (!veiculoRepository.existsById(veiculoId)) {
             throw new EntityNotFoundException("Veículo não encontrado para listar logs de quilometragem com o ID: " + veiculoId);
         }
-
-        List<QuilometragemLog> logs = quilometragemLogRepository.findAll().stream()
-                .filter(log -> log.getVeiculo().getId().equals(veiculoId))
-                .collect(Collectors.toList());
-
-        logs.sort((log1, log2) -> log1.getDataHoraRegistro().compareTo(log2.getDataHoraRegistro()));
-
-
-        return logs.stream()
-                .map(DadosDetalhamentoQuilometragemLog::new)
-                .collect(Collectors.toList());
+        int tamanhoPagina = tamanho == null ? TAMANHO_PAGINA_PADRAO : Math.max(1, Math.min(tamanho, TAMANHO_PAGINA_MAXIMO));
+        LocalDateTime inicio = de != null ? de.atStartOfDay() : INICIO;
+        LocalDateTime fim = ate != null ? ate.plusDays(1).atStartOfDay() : FIM;
+        LocalDateTime cursorDataHora = aposDataHora != null ? aposDataHora : INICIO;
+        long cursorId = aposId != null ? aposId : 0L;
+        List<DadosDetalhamentoQuilometragemLog> logs = quilometragemLogRepository.listarPorVeiculo(
+                veiculoId, inicio, fim, cursorDataHora, cursorId, Limit.of(tamanhoPagina + 1));
+        List<DadosDetalhamentoQuilometragemLog> arquivados = arquivoService.listar(
+                veiculoId, inicio, fim, cursorDataHora, cursorId, tamanhoPagina + 1);
+        if (!arquivados.isEmpty()) {
+            logs = Stream.concat(arquivados.stream(), logs.stream())
+                    .sorted(Comparator.comparing(DadosDetalhamentoQuilometragemLog::dataHoraRegistro)
+                            .thenComparing(DadosDetalhamentoQuilometragemLog::id))
+                    .limit(tamanhoPagina + 1)
+                    .toList();
+        }
+        boolean temProxima = logs.size() > tamanhoPagina;
+        List<DadosDetalhamentoQuilometragemLog> pagina = temProxima ? logs.subList(0, tamanhoPagina) : logs;
+        DadosDetalhamentoQuilometragemLog ultimo = temProxima ? pagina.get(pagina.size() - 1) : null;
+        return new DadosPaginaQuilometragemLog(
+                pagina,
+                ultimo != null ? ultimo.dataHoraRegistro() : null,
+                ultimo != null ? ultimo.id() : null
+        );
     }
 
     @Transactional
@@ -71,5 +120,8 @@ public class QuilometragemLogService {
             throw new ValidationException("Veículo não encontrado.");
         }
         quilometragemLogRepository.deleteAllByVeiculoId(veiculoId);
+        arquivoService.registrarExclusao(veiculoId);
+        serieService.excluirPorVeiculo(veiculoId);
+        ritmoService.excluirPorVeiculo(veiculoId);
     }
 }
\ No newline at end of file
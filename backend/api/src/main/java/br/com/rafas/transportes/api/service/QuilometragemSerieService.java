@@ -0,0 +1,200 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.veiculo.log.GranularidadeQuilometragem;
+import br.com.rafas.transportes.api.dto.DadosPontoQuilometragem;
+import br.com.rafas.transportes.api.dto.DadosSerieQuilometragem;
+import br.com.rafas.transportes.api.repository.QuilometragemLogRepository;
+import br.com.rafas.transportes.api.repository.QuilometragemPeriodoRepository;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Km rodados por veículo em dias, semanas e meses na tabela {@code quilometragem_periodo}, mantida por
+ * incrementos na mesma transação que grava o registro de quilometragem (cadastro manual ou gravação da
+ * telemetria). A série para gráficos lê só os períodos do intervalo pedido, na resolução mais fina que cabe
+ * em {@link #MAXIMO_PONTOS} pontos, então o custo não depende de quantos registros o veículo acumulou.
+ * <p>
+ * Cada registro soma {@code atual - anterior} ao período da sua data; o registro do cadastro do veículo só
+ * marca o km final, porque a leitura inicial do hodômetro não foi rodada pela frota.
+ */
+@Service
+public class QuilometragemSerieService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuilometragemSerieService.class);
+
+    static final int MAXIMO_PONTOS = 400;
+    private static final String ORIGEM_CADASTRO = "CADASTRO_INICIAL";
+
+    private static final String GARANTIR_PERIODO = """
+            INSERT INTO quilometragem_periodo (veiculo_id, granularidade, inicio, km_rodados, km_final, registros)
+            VALUES (?, ?, ?, 0, 0, 0) ON CONFLICT DO NOTHING
+            """;
+    private static final String SOMAR_PERIODO = """
+            UPDATE quilometragem_periodo
+            SET km_rodados = km_rodados + ?, km_final = GREATEST(km_final, ?), registros = registros + ?
+            WHERE veiculo_id = ? AND granularidade = ? AND inicio = ?
+            """;
+    private static final String INSERIR_PERIODO = """
+            INSERT INTO quilometragem_periodo (veiculo_id, granularidade, inicio, km_rodados, km_final, registros)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    @Autowired
+    private QuilometragemPeriodoRepository periodoRepository;
+
+    @Autowired
+    private QuilometragemLogRepository quilometragemLogRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Um registro de quilometragem, só com o que o resumo usa.
+     */
+    public record Registro(long veiculoId, LocalDateTime dataHora, int anterior, int atual, String origem) {
+        long kmRodados() {
+            return ORIGEM_CADASTRO.equals(origem) ? 0 : Math.max(0, atual - anterior);
+        }
+    }
+
+    private record Chave(long veiculoId, GranularidadeQuilometragem granularidade, LocalDate inicio) {
+    }
+
+    private record Soma(long kmRodados, int kmFinal, int registros) {
+        Soma somar(Soma outra) {
+            return new Soma(kmRodados + outra.kmRodados, Math.max(kmFinal, outra.kmFinal), registros + outra.registros);
+        }
+    }
+
+    private static final Comparator<Chave> ORDEM_CHAVE = Comparator.comparingLong(Chave::veiculoId)
+            .thenComparing(Chave::granularidade)
+            .thenComparing(Chave::inicio);
+
+    public void registrar(Registro registro) {
+        registrar(List.of(registro));
+    }
+
+    /**
+     * Soma os registros aos seus dias, semanas e meses. As linhas são tocadas em ordem de veículo e período,
+     * depois da linha do veículo, como nas demais gravações de quilometragem.
+     */
+    public void registrar(Collection<Registro> registros) {
+        Map<Chave, Soma> somas = new TreeMap<>(ORDEM_CHAVE);
+        registros.forEach(r -> acumular(r, somas));
+        if (somas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(GARANTIR_PERIODO, somas.keySet().stream()
+                .map(k -> new Object[]{k.veiculoId(), k.granularidade().name(), k.inicio()})
+                .toList());
+        jdbcTemplate.batchUpdate(SOMAR_PERIODO, somas.entrySet().stream()
+                .map(e -> new Object[]{e.getValue().kmRodados(), e.getValue().kmFinal(), e.getValue().registros(),
+                        e.getKey().veiculoId(), e.getKey().granularidade().name(), e.getKey().inicio()})
+                .toList());
+    }
+
+    private static void acumular(Registro registro, Map<Chave, Soma> somas) {
+        LocalDate dia = registro.dataHora().toLocalDate();
+        var soma = new Soma(registro.kmRodados(), registro.atual(), 1);
+        for (GranularidadeQuilometragem granularidade : GranularidadeQuilometragem.values()) {
+            somas.merge(new Chave(registro.veiculoId(), granularidade, granularidade.inicio(dia)), soma, Soma::somar);
+        }
+    }
+
+    public void excluirPorVeiculo(Long veiculoId) {
+        jdbcTemplate.update("DELETE FROM quilometragem_periodo WHERE veiculo_id = ?", veiculoId);
+    }
+
+    /**
+     * Série de km rodados do veículo em [de, ate]. Sem granularidade, usa a mais fina que cabe em
+     * {@link #MAXIMO_PONTOS} pontos; sem {@code de}, começa no primeiro registro do veículo. Períodos sem
+     * registros não aparecem.
+     */
+    @Transactional(readOnly = true)
+    public DadosSerieQuilometragem serie(Long veiculoId, GranularidadeQuilometragem granularidade, LocalDate de, LocalDate ate) {
+        if (!veiculoRepository.existsById(veiculoId)) {
+            throw new EntityNotFoundException("Veículo não encontrado para montar a série de quilometragem com o ID: " + veiculoId);
+        }
+        LocalDate fim = ate != null ? ate : LocalDate.now();
+        LocalDate inicio = de;
+        if (inicio == null) {
+            LocalDate primeiro = periodoRepository.primeiroInicio(veiculoId, GranularidadeQuilometragem.DIA);
+            inicio = primeiro != null && primeiro.isBefore(fim) ? primeiro : fim;
+        }
+        if (inicio.isAfter(fim)) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+        GranularidadeQuilometragem resolucao = granularidade != null ? granularidade : escolher(inicio, fim);
+        if (resolucao.periodos(inicio, fim) > MAXIMO_PONTOS) {
+            throw new ValidationException("O período pedido passa de " + MAXIMO_PONTOS + " pontos na granularidade "
+                    + resolucao + ". Use uma granularidade maior ou um período menor.");
+        }
+        List<DadosPontoQuilometragem> pontos = periodoRepository.listarSerie(veiculoId, resolucao,
+                resolucao.inicio(inicio), resolucao.inicio(fim));
+        return new DadosSerieQuilometragem(veiculoId, resolucao, inicio, fim, pontos);
+    }
+
+    private static GranularidadeQuilometragem escolher(LocalDate de, LocalDate ate) {
+        for (GranularidadeQuilometragem granularidade : GranularidadeQuilometragem.values()) {
+            if (granularidade.periodos(de, ate) <= MAXIMO_PONTOS) {
+                return granularidade;
+            }
+        }
+        return GranularidadeQuilometragem.MES;
+    }
+
+    /**
+     * Na primeira subida com o resumo vazio, preenche o histórico a partir dos registros de quilometragem.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherSeVazio() {
+        if (periodoRepository.count() > 0 || quilometragemLogRepository.count() == 0) {
+            return;
+        }
+        reconstruir();
+    }
+
+    /**
+     * Refaz o resumo inteiro numa passada pelos registros. Só os períodos ficam em memória.
+     */
+    @Transactional
+    public int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM quilometragem_periodo");
+        Map<Chave, Soma> somas = new TreeMap<>(ORDEM_CHAVE);
+        jdbcTemplate.query("""
+                SELECT veiculo_id, data_hora_registro, quilometragem_anterior, quilometragem_atual, origem_alteracao
+                FROM quilometragem_log
+                """, (RowCallbackHandler) rs -> acumular(new Registro(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                rs.getInt(3), rs.getInt(4), rs.getString(5)), somas));
+        jdbcTemplate.batchUpdate(INSERIR_PERIODO, somas.entrySet().stream()
+                .map(e -> new Object[]{e.getKey().veiculoId(), e.getKey().granularidade().name(), e.getKey().inicio(),
+                        e.getValue().kmRodados(), e.getValue().kmFinal(), e.getValue().registros()})
+                .toList());
+        log.info("Resumo de quilometragem reconstruído com {} linhas em {} ms.", somas.size(),
+                System.currentTimeMillis() - inicio);
+        return somas.size();
+    }
+}
@@ -0,0 +1,242 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.receita.DimensaoReceita;
+import br.com.rafas.transportes.api.domain.receita.ReceitaMes;
+import br.com.rafas.transportes.api.dto.DadosLinhaReceita;
+import br.com.rafas.transportes.api.dto.DadosReceita;
+import br.com.rafas.transportes.api.dto.DadosSomaReceita;
+import br.com.rafas.transportes.api.repository.ReceitaViagemRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Receita das viagens ({@code Viagem.valor}) somada por mês de início, veículo, motorista, tipo e status na
+ * tabela {@code receita_viagens_mes}, mantida por incrementos nas mesmas gravações que atualizam o calendário.
+ * A consulta agrupa só as linhas do resumo no intervalo de meses pedido, então o custo não cresce com o
+ * histórico de viagens.
+ */
+@Service
+public class ReceitaViagemService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceitaViagemService.class);
+
+    private static final String GARANTIR_RECEITA = """
+            INSERT INTO receita_viagens_mes (mes, veiculo_id, motorista_id, tipo_viagem, status, viagens, valor_total)
+            VALUES (?, ?, ?, ?, ?, 0, 0) ON CONFLICT DO NOTHING
+            """;
+    private static final String SOMAR_RECEITA = """
+            UPDATE receita_viagens_mes SET viagens = viagens + ?, valor_total = valor_total + ?
+            WHERE mes = ? AND veiculo_id = ? AND motorista_id = ? AND tipo_viagem = ? AND status = ?
+            """;
+    private static final String INSERIR_RECEITA = """
+            INSERT INTO receita_viagens_mes (mes, veiculo_id, motorista_id, tipo_viagem, status, viagens, valor_total)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final long SEM_RECURSO = 0L;
+    private static final int MESES_MAXIMOS = 120;
+
+    @Autowired
+    private ReceitaViagemRepository receitaRepository;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A parte de uma viagem no resumo de receita: uma viagem e o seu valor na chave (mês, veículo, motorista, tipo, status).
+     */
+    public record Lancamento(Chave chave, BigDecimal valor) {
+        public static final Lancamento NENHUM = new Lancamento(null, null);
+
+        public Lancamento comStatus(StatusViagem novoStatus) {
+            if (chave == null) {
+                return this;
+            }
+            return new Lancamento(new Chave(chave.mes(), chave.veiculoId(), chave.motoristaId(), chave.tipoViagem(), novoStatus), valor);
+        }
+    }
+
+    private record Chave(LocalDate mes, long veiculoId, long motoristaId, TipoViagem tipoViagem, StatusViagem status) {
+    }
+
+    private record Grupo(YearMonth mes, Long veiculoId, Long motoristaId, TipoViagem tipoViagem, StatusViagem status) {
+    }
+
+    private record Soma(long viagens, BigDecimal valor) {
+        Soma somar(Soma outra) {
+            return new Soma(viagens + outra.viagens, valor.add(outra.valor));
+        }
+    }
+
+    private static final Comparator<Chave> ORDEM_CHAVE = Comparator.comparing(Chave::mes)
+            .thenComparingLong(Chave::veiculoId)
+            .thenComparingLong(Chave::motoristaId)
+            .thenComparing(Chave::tipoViagem)
+            .thenComparing(Chave::status);
+
+    private static final Comparator<Grupo> ORDEM_GRUPO = Comparator.comparing(Grupo::mes, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Grupo::veiculoId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Grupo::motoristaId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Grupo::tipoViagem, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Grupo::status, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    public static Lancamento lancamento(StatusViagem status, BigDecimal valor, LocalDate startDate, TipoViagem tipoViagem,
+                                        Long veiculoId, Long motoristaId) {
+        if (startDate == null || tipoViagem == null || status == null) {
+            return Lancamento.NENHUM;
+        }
+        return new Lancamento(new Chave(startDate.withDayOfMonth(1),
+                veiculoId != null ? veiculoId : SEM_RECURSO,
+                motoristaId != null ? motoristaId : SEM_RECURSO,
+                tipoViagem, status), valor != null ? valor : BigDecimal.ZERO);
+    }
+
+    public static Lancamento lancamento(Viagem viagem) {
+        return lancamento(viagem.getStatus(), viagem.getValor(), viagem.getStartDate(), viagem.getTipoViagem(),
+                viagem.getVeiculo() != null ? viagem.getVeiculo().getId() : null,
+                viagem.getMotorista() != null ? viagem.getMotorista().getId() : null);
+    }
+
+    public void registrar(Lancamento anterior, Lancamento atual) {
+        aplicar(List.of(anterior), List.of(atual));
+    }
+
+    /**
+     * Soma os lançamentos incluídos e subtrai os removidos numa única passada, na mesma transação da gravação.
+     * As linhas são tocadas sempre na mesma ordem de chave, como no calendário.
+     */
+    public void aplicar(Collection<Lancamento> removidos, Collection<Lancamento> incluidos) {
+        Map<Chave, Soma> somas = new TreeMap<>(ORDEM_CHAVE);
+        removidos.forEach(l -> acumular(l, -1, somas));
+        incluidos.forEach(l -> acumular(l, 1, somas));
+        somas.values().removeIf(s -> s.viagens() == 0 && s.valor().signum() == 0);
+        if (somas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(GARANTIR_RECEITA, somas.keySet().stream()
+                .map(k -> new Object[]{k.mes(), k.veiculoId(), k.motoristaId(), k.tipoViagem().name(), k.status().name()})
+                .toList());
+        jdbcTemplate.batchUpdate(SOMAR_RECEITA, somas.entrySet().stream()
+                .map(e -> new Object[]{e.getValue().viagens(), e.getValue().valor(), e.getKey().mes(), e.getKey().veiculoId(),
+                        e.getKey().motoristaId(), e.getKey().tipoViagem().name(), e.getKey().status().name()})
+                .toList());
+    }
+
+    private static void acumular(Lancamento lancamento, int sinal, Map<Chave, Soma> somas) {
+        if (lancamento.chave() == null) {
+            return;
+        }
+        somas.merge(lancamento.chave(), new Soma(sinal, lancamento.valor().multiply(BigDecimal.valueOf(sinal))), Soma::somar);
+    }
+
+    /**
+     * Receita de [de, ate] agrupada pelas dimensões pedidas; as dimensões fora do agrupamento saem nulas.
+     * Sem status informado, as viagens canceladas ficam de fora. Veículo ou motorista nulo num agrupamento
+     * que os inclui são as rotas de colaboradores, que não têm recurso próprio.
+     */
+    @Transactional(readOnly = true)
+    public DadosReceita consultar(YearMonth de, YearMonth ate, List<DimensaoReceita> agrupar, Set<StatusViagem> status,
+                                  Long veiculoId, Long motoristaId, TipoViagem tipoViagem) {
+        if (de == null || ate == null) {
+            throw new ValidationException("Informe o período (de/ate) da receita.");
+        }
+        if (de.isAfter(ate)) {
+            throw new ValidationException("O mês inicial não pode ser posterior ao mês final.");
+        }
+        if (ChronoUnit.MONTHS.between(de, ate) >= MESES_MAXIMOS) {
+            throw new ValidationException("O período da receita não pode passar de " + MESES_MAXIMOS + " meses.");
+        }
+        Set<DimensaoReceita> dimensoes = agrupar == null || agrupar.isEmpty()
+                ? EnumSet.of(DimensaoReceita.MES) : EnumSet.copyOf(agrupar);
+        Set<StatusViagem> statusIncluidos = status == null || status.isEmpty()
+                ? EnumSet.complementOf(EnumSet.of(StatusViagem.CANCELADA)) : EnumSet.copyOf(status);
+
+        Map<Grupo, Soma> grupos = new HashMap<>();
+        for (ReceitaMes linha : receitaRepository.listarNoPeriodo(de.atDay(1), ate.atDay(1))) {
+            ReceitaMes.Chave chave = linha.getChave();
+            if (!statusIncluidos.contains(chave.getStatus())
+                    || (veiculoId != null && !veiculoId.equals(chave.getVeiculoId()))
+                    || (motoristaId != null && !motoristaId.equals(chave.getMotoristaId()))
+                    || (tipoViagem != null && tipoViagem != chave.getTipoViagem())) {
+                continue;
+            }
+            var grupo = new Grupo(
+                    dimensoes.contains(DimensaoReceita.MES) ? YearMonth.from(chave.getMes()) : null,
+                    dimensoes.contains(DimensaoReceita.VEICULO) ? recurso(chave.getVeiculoId()) : null,
+                    dimensoes.contains(DimensaoReceita.MOTORISTA) ? recurso(chave.getMotoristaId()) : null,
+                    dimensoes.contains(DimensaoReceita.TIPO_VIAGEM) ? chave.getTipoViagem() : null,
+                    dimensoes.contains(DimensaoReceita.STATUS) ? chave.getStatus() : null);
+            grupos.merge(grupo, new Soma(linha.getViagens(), linha.getValorTotal()), Soma::somar);
+        }
+
+        List<DadosLinhaReceita> linhas = grupos.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ORDEM_GRUPO))
+                .map(e -> new DadosLinhaReceita(e.getKey().mes(), e.getKey().veiculoId(), e.getKey().motoristaId(),
+                        e.getKey().tipoViagem(), e.getKey().status(), e.getValue().viagens(), e.getValue().valor()))
+                .toList();
+        return new DadosReceita(de, ate, List.copyOf(dimensoes), statusIncluidos, linhas,
+                linhas.stream().mapToLong(DadosLinhaReceita::viagens).sum(),
+                linhas.stream().map(DadosLinhaReceita::valorTotal).reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    private static Long recurso(Long id) {
+        return id == SEM_RECURSO ? null : id;
+    }
+
+    /**
+     * Na primeira subida com o resumo de receita vazio, preenche o histórico a partir das viagens.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherSeVazio() {
+        if (receitaRepository.count() > 0 || viagemRepository.count() == 0) {
+            return;
+        }
+        reconstruir();
+    }
+
+    /**
+     * Refaz o resumo inteiro com um único GROUP BY sobre as viagens.
+     */
+    @Transactional
+    public int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM receita_viagens_mes");
+        List<DadosSomaReceita> somas = viagemRepository.somarReceita();
+        jdbcTemplate.batchUpdate(INSERIR_RECEITA, somas.stream()
+                .map(s -> new Object[]{LocalDate.of(s.ano(), s.mes(), 1),
+                        s.veiculoId() != null ? s.veiculoId() : SEM_RECURSO,
+                        s.motoristaId() != null ? s.motoristaId() : SEM_RECURSO,
+                        s.tipoViagem().name(), s.status().name(), s.viagens(),
+                        s.valorTotal() != null ? s.valorTotal() : BigDecimal.ZERO})
+                .toList());
+        log.info("Receita de viagens reconstruída com {} linhas em {} ms.", somas.size(), System.currentTimeMillis() - inicio);
+        return somas.size();
+    }
+}
@@ -0,0 +1,189 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.repository.QuilometragemLogRepository;
+import br.com.rafas.transportes.api.repository.QuilometragemRitmoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantém em {@code quilometragem_ritmo} os km rodados por dia de cada veículo, como média exponencial no
+ * tempo: cada registro entra com peso {@code 1 - e^(-Δt/τ)}, onde Δt é o tempo desde o registro anterior e
+ * τ é {@code manutencoes.previsao.constante-dias}. Leituras frequentes da telemetria e lançamentos manuais
+ * esparsos contribuem na proporção do tempo que cobrem, e o ritmo reflete aproximadamente os últimos τ dias.
+ * <p>
+ * A atualização roda na mesma transação do registro de quilometragem e lê só a linha do próprio veículo,
+ * sem revisitar o histórico.
+ */
+@Service
+public class RitmoQuilometragemService {
+
+    private static final Logger log = LoggerFactory.getLogger(RitmoQuilometragemService.class);
+
+    private static final double SEGUNDOS_POR_DIA = 86_400;
+    private static final int TAMANHO_IN = 1000;
+
+    private static final String CARREGAR = """
+            SELECT veiculo_id, media, peso, ultimo_km, ultimo_registro, registros FROM quilometragem_ritmo
+            WHERE veiculo_id IN (%s)
+            """;
+    private static final String ULTIMOS_REGISTROS = "SELECT veiculo_id, ultimo_registro FROM quilometragem_ritmo WHERE veiculo_id IN (%s)";
+    private static final String GARANTIR_RITMO = """
+            INSERT INTO quilometragem_ritmo (veiculo_id, media, peso, ultimo_km, ultimo_registro, registros)
+            VALUES (?, 0, 0, 0, ?, 0) ON CONFLICT DO NOTHING
+            """;
+    private static final String GRAVAR_RITMO = """
+            UPDATE quilometragem_ritmo SET media = ?, peso = ?, ultimo_km = ?, ultimo_registro = ?, registros = ?
+            WHERE veiculo_id = ?
+            """;
+
+    @Value("${manutencoes.previsao.constante-dias:14}")
+    private double constanteDias;
+
+    @Autowired
+    private QuilometragemRitmoRepository ritmoRepository;
+
+    @Autowired
+    private QuilometragemLogRepository quilometragemLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final class Estado {
+        final long veiculoId;
+        double media;
+        double peso;
+        int ultimoKm;
+        LocalDateTime ultimoRegistro;
+        long registros;
+
+        Estado(long veiculoId) {
+            this.veiculoId = veiculoId;
+        }
+    }
+
+    /**
+     * Incorpora os registros ao ritmo dos seus veículos, cada veículo em ordem de data. O primeiro registro
+     * de um veículo só marca o ponto de partida. Um registro com data anterior à do último já incorporado
+     * conta como simultâneo a ele.
+     */
+    public void registrar(Collection<QuilometragemSerieService.Registro> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+        Map<Long, Estado> estados = new TreeMap<>();
+        List<Long> ids = registros.stream().map(QuilometragemSerieService.Registro::veiculoId).distinct().sorted().toList();
+        for (int i = 0; i < ids.size(); i += TAMANHO_IN) {
+            List<Long> parte = ids.subList(i, Math.min(i + TAMANHO_IN, ids.size()));
+            jdbcTemplate.query(String.format(CARREGAR, String.join(",", Collections.nCopies(parte.size(), "?"))),
+                    (RowCallbackHandler) rs -> {
+                        var estado = new Estado(rs.getLong(1));
+                        estado.media = rs.getDouble(2);
+                        estado.peso = rs.getDouble(3);
+                        estado.ultimoKm = rs.getInt(4);
+                        estado.ultimoRegistro = rs.getTimestamp(5).toLocalDateTime();
+                        estado.registros = rs.getLong(6);
+                        estados.put(estado.veiculoId, estado);
+                    }, parte.toArray());
+        }
+        registros.stream()
+                .sorted(Comparator.comparing(QuilometragemSerieService.Registro::dataHora))
+                .forEach(r -> incorporar(estados.computeIfAbsent(r.veiculoId(), Estado::new), r));
+        gravar(estados.values());
+    }
+
+    private void incorporar(Estado estado, QuilometragemSerieService.Registro registro) {
+        estado.registros++;
+        if (estado.ultimoRegistro == null) {
+            estado.ultimoKm = registro.atual();
+            estado.ultimoRegistro = registro.dataHora();
+            return;
+        }
+        double dias = Math.max(0, Duration.between(estado.ultimoRegistro, registro.dataHora()).getSeconds() / SEGUNDOS_POR_DIA);
+        double km = Math.max(0, registro.atual() - estado.ultimoKm);
+        double alfa = 1 - Math.exp(-dias / constanteDias);
+        // alfa / dias tende a 1 / τ quando os registros são simultâneos
+        double fator = dias > 0 ? alfa / dias : 1 / constanteDias;
+        estado.media = estado.media * (1 - alfa) + fator * km;
+        estado.peso = estado.peso * (1 - alfa) + alfa;
+        estado.ultimoKm = Math.max(estado.ultimoKm, registro.atual());
+        if (registro.dataHora().isAfter(estado.ultimoRegistro)) {
+            estado.ultimoRegistro = registro.dataHora();
+        }
+    }
+
+    private void gravar(Collection<Estado> estados) {
+        jdbcTemplate.batchUpdate(GARANTIR_RITMO, estados.stream()
+                .map(e -> new Object[]{e.veiculoId, Timestamp.valueOf(e.ultimoRegistro)})
+                .toList());
+        jdbcTemplate.batchUpdate(GRAVAR_RITMO, estados.stream()
+                .map(e -> new Object[]{e.media, e.peso, e.ultimoKm, Timestamp.valueOf(e.ultimoRegistro), e.registros, e.veiculoId})
+                .toList());
+    }
+
+    /**
+     * Data do registro mais recente já incorporado de cada veículo; veículos sem ritmo ficam de fora.
+     */
+    public Map<Long, LocalDateTime> ultimosRegistros(Collection<Long> veiculoIds) {
+        Map<Long, LocalDateTime> ultimos = new HashMap<>();
+        List<Long> ids = new ArrayList<>(veiculoIds);
+        for (int i = 0; i < ids.size(); i += TAMANHO_IN) {
+            List<Long> parte = ids.subList(i, Math.min(i + TAMANHO_IN, ids.size()));
+            jdbcTemplate.query(String.format(ULTIMOS_REGISTROS, String.join(",", Collections.nCopies(parte.size(), "?"))),
+                    (RowCallbackHandler) rs -> ultimos.put(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()),
+                    parte.toArray());
+        }
+        return ultimos;
+    }
+
+    public void excluirPorVeiculo(Long veiculoId) {
+        jdbcTemplate.update("DELETE FROM quilometragem_ritmo WHERE veiculo_id = ?", veiculoId);
+    }
+
+    /**
+     * Na primeira subida com a tabela vazia, calcula o ritmo repassando os registros em ordem, um veículo
+     * por vez.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherSeVazio() {
+        if (ritmoRepository.count() > 0 || quilometragemLogRepository.count() == 0) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        List<Estado> estados = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT veiculo_id, data_hora_registro, quilometragem_anterior, quilometragem_atual, origem_alteracao
+                FROM quilometragem_log ORDER BY veiculo_id, data_hora_registro, id
+                """, (RowCallbackHandler) rs -> {
+            long veiculoId = rs.getLong(1);
+            if (estados.isEmpty() || estados.get(estados.size() - 1).veiculoId != veiculoId) {
+                estados.add(new Estado(veiculoId));
+            }
+            incorporar(estados.get(estados.size() - 1), new QuilometragemSerieService.Registro(veiculoId,
+                    rs.getTimestamp(2).toLocalDateTime(), rs.getInt(3), rs.getInt(4), rs.getString(5)));
+        });
+        gravar(estados);
+        log.info("Ritmo de quilometragem calculado para {} veículos em {} ms.", estados.size(),
+                System.currentTimeMillis() - inicio);
+    }
+}
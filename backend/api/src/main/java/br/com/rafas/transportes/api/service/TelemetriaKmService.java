@@ -0,0 +1,255 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.dto.DadosLeituraKm;
+import br.com.rafas.transportes.api.dto.DadosMetricasTelemetria;
+import br.com.rafas.transportes.api.dto.DadosResultadoTelemetria;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recebe leituras de hodômetro dos rastreadores em lote e grava com atraso. As leituras ficam num buffer em
+ * memória com uma entrada por veículo: uma leitura nova substitui a pendente se tiver km maior e é descartada
+ * se tiver km menor. Leituras com data além de agora mais {@code telemetria.km.tolerancia-relogio-s} são
+ * recusadas como inválidas; dentro da tolerância valem como agora, porque uma data futura no histórico
+ * prenderia os registros seguintes do veículo a ela. O buffer é gravado quando junta {@code telemetria.km.lote}
+ * veículos, por uma thread própria para o pedido HTTP não esperar o banco, ou a cada
+ * {@code telemetria.km.intervalo-ms}, numa transação que avança o hodômetro de todos os veículos do buffer
+ * de uma vez por {@link HodometroService}: um {@code UPDATE} e um registro de quilometragem por veículo em
+ * lote, só quando o km avança em relação ao banco.
+ * <p>
+ * O buffer tem capacidade em veículos. Cheio, leituras de veículos que ainda não estão nele são recusadas
+ * (o controller responde 429) até a próxima gravação; veículos já no buffer continuam sendo aceitos, porque
+ * só trocam a entrada existente. Se a gravação falhar, as leituras voltam para o buffer.
+ */
+@Service
+public class TelemetriaKmService {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetriaKmService.class);
+
+    static final String ORIGEM = "TELEMETRIA";
+    private static final int MAXIMO_LEITURAS_POR_PEDIDO = 10_000;
+
+    @Value("${telemetria.km.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${telemetria.km.lote:500}")
+    private int lote;
+
+    @Value("${telemetria.km.tolerancia-relogio-s:300}")
+    private long toleranciaRelogioSegundos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HodometroService hodometroService;
+
+    private record Leitura(int km, LocalDateTime dataHora) {
+    }
+
+    private final Map<Long, Leitura> pendentes = new ConcurrentHashMap<>();
+    private final ReentrantLock gravacao = new ReentrantLock();
+    private final AtomicBoolean gravacaoSinalizada = new AtomicBoolean();
+    private final ExecutorService gravador = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "telemetria-km-gravacao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder recebidas = new LongAdder();
+    private final LongAdder aceitas = new LongAdder();
+    private final LongAdder coalescidas = new LongAdder();
+    private final LongAdder invalidas = new LongAdder();
+    private final LongAdder descartadasRegressao = new LongAdder();
+    private final LongAdder rejeitadasBufferCheio = new LongAdder();
+    private final LongAdder descartadasNaGravacao = new LongAdder();
+    private final LongAdder gravadas = new LongAdder();
+    private final LongAdder gravacoes = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final AtomicInteger maiorPendencia = new AtomicInteger();
+    private volatile LocalDateTime ultimaGravacaoEm;
+    private volatile long ultimaGravacaoMs;
+    private volatile int ultimaGravacaoLinhas;
+
+    public DadosResultadoTelemetria receber(List<DadosLeituraKm> leituras) {
+        if (leituras == null || leituras.isEmpty()) {
+            throw new ValidationException("Informe ao menos uma leitura de quilometragem.");
+        }
+        if (leituras.size() > MAXIMO_LEITURAS_POR_PEDIDO) {
+            throw new ValidationException("Envie no máximo " + MAXIMO_LEITURAS_POR_PEDIDO + " leituras por pedido.");
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime limite = agora.plusSeconds(toleranciaRelogioSegundos);
+        int[] contagem = new int[4]; // aceitas, inválidas, regressões, recusadas por buffer cheio
+        int[] substituidas = new int[1];
+        for (DadosLeituraKm dados : leituras) {
+            if (dados == null || dados.veiculoId() == null || dados.km() == null || dados.km() < 0
+                    || (dados.dataHora() != null && dados.dataHora().isAfter(limite))) {
+                contagem[1]++;
+                continue;
+            }
+            Leitura leitura = new Leitura(dados.km(),
+                    dados.dataHora() != null && !dados.dataHora().isAfter(agora) ? dados.dataHora() : agora);
+            pendentes.compute(dados.veiculoId(), (id, atual) -> {
+                if (atual == null) {
+                    if (pendentes.size() >= capacidade) {
+                        contagem[3]++;
+                        return null;
+                    }
+                    contagem[0]++;
+                    return leitura;
+                }
+                if (leitura.km() < atual.km()) {
+                    contagem[2]++;
+                    return atual;
+                }
+                contagem[0]++;
+                substituidas[0]++;
+                return leitura.km() > atual.km() || leitura.dataHora().isAfter(atual.dataHora()) ? leitura : atual;
+            });
+        }
+        recebidas.add(leituras.size());
+        aceitas.add(contagem[0]);
+        invalidas.add(contagem[1]);
+        descartadasRegressao.add(contagem[2]);
+        rejeitadasBufferCheio.add(contagem[3]);
+        coalescidas.add(substituidas[0]);
+        int tamanho = pendentes.size();
+        maiorPendencia.accumulateAndGet(tamanho, Math::max);
+        if (tamanho >= lote) {
+            sinalizarGravacao();
+        }
+        return new DadosResultadoTelemetria(leituras.size(), contagem[0], contagem[1], contagem[2], contagem[3],
+                pendentes.size());
+    }
+
+    @Scheduled(fixedDelayString = "${telemetria.km.intervalo-ms:5000}")
+    public void gravarPendentes() {
+        gravar(false);
+    }
+
+    @PreDestroy
+    public void gravarAoEncerrar() throws InterruptedException {
+        gravador.shutdown();
+        gravador.awaitTermination(30, TimeUnit.SECONDS);
+        gravar(true);
+    }
+
+    /**
+     * Pede uma gravação à thread própria. Vários pedidos enquanto um está na fila viram um só; a thread espera
+     * a gravação em andamento e repete enquanto o buffer continuar com um lote inteiro, até uma falha, que
+     * fica para a gravação agendada. Depois do encerramento o buffer é gravado por {@link #gravarAoEncerrar()}.
+     */
+    private void sinalizarGravacao() {
+        if (!gravacaoSinalizada.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            gravador.execute(() -> {
+                gravacaoSinalizada.set(false);
+                boolean gravou;
+                do {
+                    gravou = gravar(true);
+                } while (gravou && pendentes.size() >= lote);
+            });
+        } catch (RejectedExecutionException e) {
+            gravacaoSinalizada.set(false);
+        }
+    }
+
+    /**
+     * Esvazia o buffer numa transação. Só uma gravação roda por vez; sem {@code esperar}, quem chega com outra
+     * em andamento sai na hora, porque o que entrou no buffer vai na próxima. Falso se a gravação falhou.
+     */
+    private boolean gravar(boolean esperar) {
+        if (esperar) {
+            gravacao.lock();
+        } else if (!gravacao.tryLock()) {
+            return true;
+        }
+        try {
+            TreeMap<Long, Leitura> retiradas = new TreeMap<>();
+            for (Long veiculoId : pendentes.keySet()) {
+                Leitura leitura = pendentes.remove(veiculoId);
+                if (leitura != null) {
+                    retiradas.put(veiculoId, leitura);
+                }
+            }
+            if (retiradas.isEmpty()) {
+                return true;
+            }
+            long inicio = System.currentTimeMillis();
+            try {
+                var transacao = new TransactionTemplate(transactionManager);
+                Integer linhas = transacao.execute(status -> gravarLote(retiradas));
+                gravadas.add(linhas);
+                gravacoes.increment();
+                ultimaGravacaoLinhas = linhas;
+                ultimaGravacaoMs = System.currentTimeMillis() - inicio;
+                ultimaGravacaoEm = LocalDateTime.now();
+                return true;
+            } catch (RuntimeException e) {
+                falhas.increment();
+                retiradas.forEach((veiculoId, leitura) -> pendentes.merge(veiculoId, leitura,
+                        (atual, devolvida) -> devolvida.km() > atual.km() ? devolvida : atual));
+                log.error("Falha ao gravar telemetria de km ({} veículos voltaram ao buffer).", retiradas.size(), e);
+                return false;
+            }
+        } finally {
+            gravacao.unlock();
+        }
+    }
+
+    private int gravarLote(TreeMap<Long, Leitura> retiradas) {
+        List<HodometroService.Leitura> leituras = new ArrayList<>();
+        retiradas.forEach((veiculoId, leitura) -> leituras.add(
+                new HodometroService.Leitura(veiculoId, leitura.km(), leitura.dataHora())));
+        int avancos = hodometroService.avancar(leituras, ORIGEM, null).size();
+        descartadasNaGravacao.add(retiradas.size() - avancos);
+        return avancos;
+    }
+
+    public DadosMetricasTelemetria metricas() {
+        return new DadosMetricasTelemetria(
+                pendentes.size(),
+                capacidade,
+                maiorPendencia.get(),
+                recebidas.sum(),
+                aceitas.sum(),
+                coalescidas.sum(),
+                invalidas.sum(),
+                descartadasRegressao.sum(),
+                rejeitadasBufferCheio.sum(),
+                descartadasNaGravacao.sum(),
+                gravadas.sum(),
+                gravacoes.sum(),
+                falhas.sum(),
+                ultimaGravacaoEm,
+                ultimaGravacaoMs,
+                ultimaGravacaoLinhas
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.TravaRecurso;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Trava, até o fim da transação corrente, os veículos e motoristas que uma gravação de viagem vai ocupar
+ * ({@code SELECT ... FOR UPDATE} em {@code travas_recurso_viagem}). Duas gravações só esperam uma pela outra
+ * quando disputam o mesmo veículo ou motorista; as demais seguem em paralelo. As linhas de
+ * {@code veiculos} e {@code motoristas} não são travadas, então o avanço do hodômetro não espera por uma
+ * gravação de viagem do mesmo veículo.
+ * <p>
+ * A ordem é sempre a mesma — motoristas por id crescente e depois veículos por id crescente — para que
+ * duas transações nunca fiquem esperando uma pela outra em ciclo. Cada transação deve travar todos os
+ * seus recursos numa única chamada, antes de verificar conflitos.
+ */
+@Component
+public class TravaRecursosViagem {
+
+    private static final String GARANTIR =
+            "INSERT INTO travas_recurso_viagem (tipo, recurso_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final String TRAVAR = """
+            SELECT tipo, recurso_id FROM travas_recurso_viagem
+            WHERE (tipo = 'MOTORISTA' AND recurso_id IN (%s)) OR (tipo = 'VEICULO' AND recurso_id IN (%s))
+            ORDER BY tipo, recurso_id
+            FOR UPDATE
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void travar(Collection<Long> veiculoIds, Collection<Long> motoristaIds) {
+        var veiculos = ordenados(veiculoIds);
+        var motoristas = ordenados(motoristaIds);
+        if (veiculos.isEmpty() && motoristas.isEmpty()) {
+            return;
+        }
+        List<Object[]> chaves = new ArrayList<>();
+        motoristas.forEach(id -> chaves.add(new Object[]{TravaRecurso.Tipo.MOTORISTA.name(), id}));
+        veiculos.forEach(id -> chaves.add(new Object[]{TravaRecurso.Tipo.VEICULO.name(), id}));
+        jdbcTemplate.batchUpdate(GARANTIR, chaves);
+
+        List<Object> parametros = new ArrayList<>(motoristas);
+        parametros.addAll(veiculos);
+        jdbcTemplate.query(String.format(TRAVAR, marcadores(motoristas.size()), marcadores(veiculos.size())),
+                rs -> {
+                }, parametros.toArray());
+    }
+
+    /**
+     * {@code IN} vazio não é SQL válido; {@code NULL} não casa com nenhum id.
+     */
+    private static String marcadores(int quantidade) {
+        return quantidade == 0 ? "NULL" : String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    private static TreeSet<Long> ordenados(Collection<Long> ids) {
+        var ordenados = new TreeSet<Long>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(ordenados::add);
+        }
+        return ordenados;
+    }
+}
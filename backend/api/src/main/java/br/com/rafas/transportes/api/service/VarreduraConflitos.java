@@ -0,0 +1,73 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Varredura por data de início que confronta intervalos novos com os já existentes e entre si,
+ * recurso a recurso, mantendo abertos apenas os intervalos que ainda alcançam o dia corrente.
+ * Em empate de data, os existentes entram primeiro e os novos seguem a ordem recebida; quando dois
+ * novos conflitam, o que vem depois é o rejeitado e não bloqueia os seguintes.
+ */
+final class VarreduraConflitos {
+
+    private VarreduraConflitos() {
+    }
+
+    private record Evento(DadosIntervaloViagem intervalo, boolean novo, int ordem) {
+    }
+
+    /**
+     * @return para cada intervalo novo rejeitado, o primeiro intervalo com que ele conflita
+     */
+    static Map<DadosIntervaloViagem, DadosIntervaloViagem> varrer(List<DadosIntervaloViagem> existentes,
+                                                                   List<DadosIntervaloViagem> novos,
+                                                                   Function<DadosIntervaloViagem, Long> recurso) {
+        List<Evento> eventos = new ArrayList<>();
+        for (DadosIntervaloViagem existente : existentes) {
+            if (recurso.apply(existente) != null && existente.startDate() != null && existente.endDate() != null) {
+                eventos.add(new Evento(existente, false, 0));
+            }
+        }
+        for (int i = 0; i < novos.size(); i++) {
+            if (recurso.apply(novos.get(i)) != null) {
+                eventos.add(new Evento(novos.get(i), true, i));
+            }
+        }
+        eventos.sort(Comparator.comparing((Evento e) -> e.intervalo().startDate())
+                .thenComparing(Evento::novo)
+                .thenComparingInt(Evento::ordem));
+
+        Map<DadosIntervaloViagem, DadosIntervaloViagem> conflitos = new IdentityHashMap<>();
+        Map<Long, List<DadosIntervaloViagem>> abertosPorRecurso = new HashMap<>();
+        for (Evento evento : eventos) {
+            DadosIntervaloViagem atual = evento.intervalo();
+            List<DadosIntervaloViagem> abertos = abertosPorRecurso.computeIfAbsent(recurso.apply(atual), r -> new ArrayList<>());
+            abertos.removeIf(aberto -> aberto.endDate().isBefore(atual.startDate()));
+            if (!evento.novo()) {
+                abertos.add(atual);
+                continue;
+            }
+            DadosIntervaloViagem conflitante = null;
+            for (DadosIntervaloViagem aberto : abertos) {
+                if (IndiceConflitosViagem.conflita(aberto, atual.startDate(), atual.startTime(), atual.endDate(), atual.endTime())) {
+                    conflitante = aberto;
+                    break;
+                }
+            }
+            if (conflitante == null) {
+                abertos.add(atual);
+            } else {
+                conflitos.put(atual, conflitante);
+            }
+        }
+        return conflitos;
+    }
+}
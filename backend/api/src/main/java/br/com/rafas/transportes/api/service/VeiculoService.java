@@ -1,14 +1,10 @@
 package br.com.rafas.transportes.api.service;
 
-import br.com.rafas.transportes.api.domain.Manutencao;
-import br.com.rafas.transportes.api.domain.Viagem;
 import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoVeiculo;
 import br.com.rafas.transportes.api.dto.DadosCadastroVeiculo;
 import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
-import br.com.rafas.transportes.api.repository.ManutencaoRepository;
 import br.com.rafas.transportes.api.repository.VeiculoRepository;
-import br.com.rafas.transportes.api.repository.ViagemRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,8 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Service
 public class VeiculoService {
@@ -26,13 +20,13 @@ public class VeiculoService {
     private VeiculoRepository repository;
 
     @Autowired
-    private ManutencaoRepository manutencaoRepository;
+    private InspetorDependencias inspetorDependencias;
 
     @Autowired
-    private ViagemRepository viagemRepository;
+    private QuilometragemLogService quilometragemLogService;
 
     @Autowired
-    private QuilometragemLogService quilometragemLogService;
+    private HodometroService hodometroService;
 
     @Transactional
     public Veiculo cadastrar(DadosCadastroVeiculo dados) {
@@ -66,20 +60,19 @@ public class VeiculoService {
             }
         }
 
-        Integer quilometragemAnterior = veiculo.getCurrentKm();
+        Integer kmAtual = veiculo.getCurrentKm();
+        if (dados.currentKm() != null && kmAtual != null && dados.currentKm() < kmAtual) {
+            throw new ValidationException("A quilometragem informada (" + dados.currentKm()
+                    + " km) não pode ser menor que a atual do veículo (" + kmAtual + " km).");
+        }
 
         veiculo.atualizarInformacoes(dados);
         repository.save(veiculo);
 
-        if (dados.currentKm() != null && !dados.currentKm().equals(quilometragemAnterior) && dados.currentKm() > quilometragemAnterior) {
-            quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(
-                    veiculo.getId(),
-                    LocalDateTime.now(),
-                    quilometragemAnterior,
-                    veiculo.getCurrentKm(),
-                    "MANUAL",
-                    null
-            ));
+        // se o veículo avançou além do km pedido desde a leitura acima, o avanço é ignorado
+        if (dados.currentKm() != null) {
+            hodometroService.avancar(id, dados.currentKm(), "MANUAL", null)
+                    .ifPresent(avanco -> veiculo.setCurrentKm(avanco.atual()));
         }
 
         return veiculo;
@@ -91,34 +84,7 @@ public class VeiculoService {
             throw new EntityNotFoundException("Veículo não encontrado");
         }
 
-        List<Manutencao> manutencoes = manutencaoRepository.findByVeiculoId(id);
-        List<Viagem> viagens = viagemRepository.findByVeiculoId(id);
-
-        if (!manutencoes.isEmpty() || !viagens.isEmpty()) {
-            StringBuilder erro = new StringBuilder("Este veículo não pode ser excluído, pois possui pendências:");
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-
-            if (!manutencoes.isEmpty()) {
-                Manutencao manutencao = manutencoes.get(0);
-                erro.append(String.format(
-                        " Manutenção '%s' agendada para %s.",
-                        manutencao.getTitle(),
-                        manutencao.getDate() != null ? manutencao.getDate().format(formatter) : "data não informada"
-                ));
-            }
-
-            if (!viagens.isEmpty()) {
-                Viagem viagem = viagens.get(0);
-                erro.append(String.format(
-                        " Viagem '%s' para o cliente %s na data de %s.",
-                        viagem.getTitle(),
-                        viagem.getClientName(),
-                        viagem.getStartDate() != null ? viagem.getStartDate().format(formatter) : "data não informada"
-                ));
-            }
-
-            throw new ValidationException(erro.toString());
-        }
+        inspetorDependencias.validarExclusao(InspetorDependencias.Recurso.VEICULO, id);
 
         repository.deleteById(id);
     }
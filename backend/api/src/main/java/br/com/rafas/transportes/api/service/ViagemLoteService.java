@@ -0,0 +1,303 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoViagem;
+import br.com.rafas.transportes.api.dto.DadosErroLoteViagem;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosResultadoLoteViagem;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.MotoristaRepository;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro de viagens em lote: valida todos os itens de uma vez (contra o banco e entre si)
+ * e grava os válidos com inserts JDBC em batch, na mesma transação.
+ */
+@Service
+public class ViagemLoteService {
+
+    private static final int TAMANHO_BATCH_JDBC = 500;
+
+    private static final String INSERT_VIAGEM = """
+            INSERT INTO viagens (title, client_name, telefone, valor, start_location, end_location,
+                                 vehicle_id, driver_id, start_date, start_time, end_date, end_time, status, tipo_viagem,
+                                 start_at, end_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private MotoristaRepository motoristaRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private IndiceConflitosViagem indiceConflitos;
+
+    @Autowired
+    private CalendarioViagemService calendario;
+
+    @Autowired
+    private TravaRecursosViagem travaRecursos;
+
+    @Autowired
+    private ReceitaViagemService receita;
+
+    @Autowired
+    private AgendaMotoristaService agenda;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Transactional
+    public DadosResultadoLoteViagem cadastrarEmLote(List<DadosCadastroViagem> itens) {
+        if (itens == null || itens.isEmpty()) {
+            throw new ValidationException("Informe ao menos uma viagem no lote.");
+        }
+
+        Map<Integer, String> erros = new TreeMap<>();
+        for (int i = 0; i < itens.size(); i++) {
+            String erro = validarItem(itens.get(i));
+            if (erro != null) {
+                erros.put(i, erro);
+            }
+        }
+
+        var veiculoIdsValidos = idsValidos(itens, erros, DadosCadastroViagem::veiculoId);
+        var motoristaIdsValidos = idsValidos(itens, erros, DadosCadastroViagem::motoristaId);
+        travaRecursos.travar(veiculoIdsValidos, motoristaIdsValidos);
+        Map<Long, Veiculo> veiculos = veiculoRepository.findAllById(veiculoIdsValidos).stream()
+                .collect(Collectors.toMap(Veiculo::getId, v -> v));
+        Map<Long, Motorista> motoristas = motoristaRepository.findAllById(motoristaIdsValidos).stream()
+                .collect(Collectors.toMap(Motorista::getId, m -> m));
+
+        Map<Integer, DadosIntervaloViagem> candidatos = new HashMap<>();
+        for (int i = 0; i < itens.size(); i++) {
+            if (erros.containsKey(i)) {
+                continue;
+            }
+            DadosCadastroViagem item = itens.get(i);
+            if (!veiculos.containsKey(item.veiculoId())) {
+                erros.put(i, "Veículo não encontrado com o ID: " + item.veiculoId());
+            } else if (!motoristas.containsKey(item.motoristaId())) {
+                erros.put(i, "Motorista não encontrado com o ID: " + item.motoristaId());
+            } else if (item.endDate() != null && item.endTime() != null) {
+                candidatos.put(i, new DadosIntervaloViagem(-(i + 1L), item.veiculoId(), item.motoristaId(),
+                        item.startDate(), item.startTime(), item.endDate(), item.endTime()));
+            }
+        }
+
+        if (!candidatos.isEmpty()) {
+            LocalDate inicio = candidatos.values().stream().map(DadosIntervaloViagem::startDate).min(Comparator.naturalOrder()).get();
+            LocalDate fim = candidatos.values().stream().map(DadosIntervaloViagem::endDate).max(Comparator.naturalOrder()).get();
+            Set<Long> veiculoIds = candidatos.values().stream().map(DadosIntervaloViagem::veiculoId).collect(Collectors.toSet());
+            Set<Long> motoristaIds = candidatos.values().stream().map(DadosIntervaloViagem::motoristaId).collect(Collectors.toSet());
+            List<DadosIntervaloViagem> existentes = new ArrayList<>(
+                    viagemRepository.listarIntervalosPorRecursosNoPeriodo(inicio, fim, veiculoIds, motoristaIds));
+            itemRotaRepository.listarRegrasPorRecursosNoPeriodo(inicio.minusDays(1), fim, veiculoIds, motoristaIds)
+                    .forEach(regra -> existentes.addAll(regra.ocorrencias(inicio, fim)));
+
+            varrerConflitos(existentes, candidatos, erros, DadosIntervaloViagem::veiculoId,
+                    ViagemService.CONFLITO_VEICULO, "Conflito de agendamento: O veículo principal também está no item %d do lote neste período.");
+            varrerConflitos(existentes, candidatos, erros, DadosIntervaloViagem::motoristaId,
+                    ViagemService.CONFLITO_MOTORISTA, "Conflito de agendamento: O motorista principal também está no item %d do lote neste período.");
+        }
+
+        List<Integer> aceitos = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i++) {
+            if (!erros.containsKey(i)) {
+                aceitos.add(i);
+            }
+        }
+        List<Long> ids = inserir(itens, aceitos);
+
+        List<DadosDetalhamentoViagem> viagens = new ArrayList<>();
+        List<DadosIntervaloViagem> intervalos = new ArrayList<>();
+        List<CalendarioViagemService.Pegada> pegadas = new ArrayList<>();
+        List<ReceitaViagemService.Lancamento> lancamentos = new ArrayList<>();
+        for (int j = 0; j < aceitos.size(); j++) {
+            DadosCadastroViagem item = itens.get(aceitos.get(j));
+            Long id = ids.get(j);
+            viagens.add(detalhar(id, item, veiculos.get(item.veiculoId()), motoristas.get(item.motoristaId())));
+            intervalos.add(new DadosIntervaloViagem(id, item.veiculoId(), item.motoristaId(),
+                    item.startDate(), item.startTime(), item.endDate(), item.endTime()));
+            pegadas.add(CalendarioViagemService.pegada(StatusViagem.AGENDADA, item.valor(), item.startDate(), item.endDate(), item.veiculoId()));
+            lancamentos.add(ReceitaViagemService.lancamento(StatusViagem.AGENDADA, item.valor(), item.startDate(), item.tipoViagem(),
+                    item.veiculoId(), item.motoristaId()));
+        }
+        calendario.aplicar(List.of(), pegadas);
+        receita.aplicar(List.of(), lancamentos);
+        agenda.invalidar(aceitos.stream().map(i -> itens.get(i).motoristaId()).toList());
+        indiceConflitos.registrarNaTransacao(intervalos);
+
+        List<DadosErroLoteViagem> listaErros = erros.entrySet().stream()
+                .map(e -> new DadosErroLoteViagem(e.getKey(), e.getValue()))
+                .toList();
+        return new DadosResultadoLoteViagem(itens.size(), viagens.size(), viagens, listaErros);
+    }
+
+    private String validarItem(DadosCadastroViagem item) {
+        if (item == null) {
+            return "Item vazio.";
+        }
+        Set<ConstraintViolation<DadosCadastroViagem>> violacoes = validator.validate(item);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (item.tipoViagem() == TipoViagem.ROTA_COLABORADORES) {
+            return "Rotas de colaboradores não são aceitas no lote; cadastre-as individualmente.";
+        }
+        try {
+            ViagemService.validarCamposObrigatorios(item);
+        } catch (ValidationException e) {
+            return e.getMessage();
+        }
+        if ((item.endDate() == null || item.endTime() == null)
+                && item.tipoViagem() != TipoViagem.SOMENTE_IDA_MG && item.tipoViagem() != TipoViagem.SOMENTE_IDA_FORA_MG) {
+            return "Datas e horários de início/fim são obrigatórios para a validação de conflito para este tipo de viagem.";
+        }
+        return null;
+    }
+
+    private Set<Long> idsValidos(List<DadosCadastroViagem> itens, Map<Integer, String> erros, Function<DadosCadastroViagem, Long> id) {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < itens.size(); i++) {
+            if (!erros.containsKey(i)) {
+                ids.add(id.apply(itens.get(i)));
+            }
+        }
+        return ids;
+    }
+
+    private void varrerConflitos(List<DadosIntervaloViagem> existentes, Map<Integer, DadosIntervaloViagem> candidatos,
+                                 Map<Integer, String> erros, Function<DadosIntervaloViagem, Long> recurso,
+                                 String mensagemConflitoExistente, String mensagemConflitoLote) {
+        List<DadosIntervaloViagem> novos = candidatos.entrySet().stream()
+                .filter(e -> !erros.containsKey(e.getKey()))
+                .sorted(Map.Entry.comparingByKey())
+                .map(Map.Entry::getValue)
+                .toList();
+        VarreduraConflitos.varrer(existentes, novos, recurso).forEach((novo, conflitante) -> {
+            if (conflitante.id() > 0) {
+                erros.put(indiceDoItem(novo), mensagemConflitoExistente);
+            } else {
+                erros.put(indiceDoItem(novo), String.format(mensagemConflitoLote, indiceDoItem(conflitante)));
+            }
+        });
+    }
+
+    private static int indiceDoItem(DadosIntervaloViagem intervalo) {
+        return (int) (-intervalo.id() - 1);
+    }
+
+    private List<Long> inserir(List<DadosCadastroViagem> itens, List<Integer> aceitos) {
+        List<Long> ids = new ArrayList<>(aceitos.size());
+        for (int inicio = 0; inicio < aceitos.size(); inicio += TAMANHO_BATCH_JDBC) {
+            List<Integer> parte = aceitos.subList(inicio, Math.min(inicio + TAMANHO_BATCH_JDBC, aceitos.size()));
+            var chaves = new GeneratedKeyHolder();
+            try {
+                jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_VIAGEM, new String[]{"id"}),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                preencher(ps, itens.get(parte.get(i)));
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return parte.size();
+                            }
+                        }, chaves);
+            } catch (DataIntegrityViolationException e) {
+                throw ViagemService.traduzirSobreposicao(e, ViagemService.CONFLITO_VEICULO, ViagemService.CONFLITO_MOTORISTA);
+            }
+            chaves.getKeyList().forEach(chave -> ids.add(((Number) chave.values().iterator().next()).longValue()));
+        }
+        return ids;
+    }
+
+    private static void preencher(PreparedStatement ps, DadosCadastroViagem item) throws SQLException {
+        ps.setString(1, item.title());
+        ps.setString(2, item.clientName());
+        ps.setString(3, item.telefone());
+        ps.setBigDecimal(4, item.valor());
+        ps.setString(5, item.startLocation());
+        ps.setString(6, item.endLocation());
+        ps.setLong(7, item.veiculoId());
+        ps.setLong(8, item.motoristaId());
+        ps.setObject(9, item.startDate(), Types.DATE);
+        ps.setObject(10, item.startTime(), Types.TIME);
+        ps.setObject(11, item.endDate(), Types.DATE);
+        ps.setObject(12, item.endTime(), Types.TIME);
+        ps.setString(13, StatusViagem.AGENDADA.name());
+        ps.setString(14, item.tipoViagem().name());
+        ps.setObject(15, Viagem.instante(item.startDate(), item.startTime()), Types.TIMESTAMP);
+        ps.setObject(16, Viagem.instante(item.endDate(), item.endTime()), Types.TIMESTAMP);
+    }
+
+    private static DadosDetalhamentoViagem detalhar(Long id, DadosCadastroViagem item, Veiculo veiculo, Motorista motorista) {
+        return new DadosDetalhamentoViagem(
+                id,
+                item.title(),
+                item.clientName(),
+                item.telefone(),
+                item.valor(),
+                item.startLocation(),
+                item.endLocation(),
+                veiculo.getId(),
+                veiculo.getModel() + " (" + veiculo.getPlate() + ")",
+                motorista.getId(),
+                motorista.getNome(),
+                item.startDate(),
+                item.startTime(),
+                item.endDate(),
+                item.endTime(),
+                StatusViagem.AGENDADA,
+                item.tipoViagem(),
+                List.of()
+        );
+    }
+}
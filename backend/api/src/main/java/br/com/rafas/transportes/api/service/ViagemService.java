@@ -2,32 +2,116 @@ package br.com.rafas.transportes.api.service;
 import br.com.rafas.transportes.api.domain.Motorista;
 import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
 import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.StatusViagem;
 import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.rota.HorarioRota;
+import br.com.rafas.transportes.api.domain.rota.ItemRota;
 import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosBuscaViagem;
 import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
 import br.com.rafas.transportes.api.dto.DadosDetalhamentoViagem;
+import br.com.rafas.transportes.api.dto.DadosHorarioItemRota;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosItemRota;
+import br.com.rafas.transportes.api.dto.DadosPaginaViagem;
+import br.com.rafas.transportes.api.dto.DadosRegraRota;
+import br.com.rafas.transportes.api.infra.IndicesBuscaViagem;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
 import br.com.rafas.transportes.api.repository.MotoristaRepository;
 import br.com.rafas.transportes.api.repository.VeiculoRepository;
 import br.com.rafas.transportes.api.repository.ViagemRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 @Service
 public class ViagemService {
+    static final String CONFLITO_VEICULO = "Conflito de agendamento: O veículo principal já está em outra viagem neste período.";
+    static final String CONFLITO_MOTORISTA = "Conflito de agendamento: O motorista principal já está em outra viagem neste período.";
+    static final String CONFLITO_VEICULO_ATUALIZACAO = "Conflito de agendamento: O veículo principal já estará em outra viagem neste período após a atualização.";
+    static final String CONFLITO_MOTORISTA_ATUALIZACAO = "Conflito de agendamento: O motorista principal já estará em outra viagem neste período após a atualização.";
+    private static final int TAMANHO_PAGINA_PADRAO = 200;
+    private static final int TAMANHO_PAGINA_MAXIMO = 1000;
+    private static final LocalDate INICIO_CURSOR = LocalDate.of(1900, 1, 1);
+    private static final int DIAS_MAXIMOS_OCORRENCIAS = 366;
+    private static final int TAMANHO_MINIMO_TERMO_BUSCA = 3;
+    private static final int TAMANHO_PAGINA_BUSCA_PADRAO = 20;
+    private static final int TAMANHO_PAGINA_BUSCA_MAXIMO = 100;
+    private static final String FIM_ANTERIOR_AO_INICIO = "A data e a hora de retorno não podem ser anteriores às de início.";
     @Autowired
     private ViagemRepository viagemRepository;
     @Autowired
     private VeiculoRepository veiculoRepository;
     @Autowired
     private MotoristaRepository motoristaRepository;
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+    @Autowired
+    private IndiceConflitosViagem indiceConflitos;
+    @Autowired
+    private CalendarioViagemService calendario;
+    @Autowired
+    private TravaRecursosViagem travaRecursos;
+    @Autowired
+    private ReceitaViagemService receita;
+    @Autowired
+    private AgendaMotoristaService agenda;
+    @Autowired
+    private IndicesBuscaViagem indicesBusca;
     @Transactional
     public DadosDetalhamentoViagem cadastrar(DadosCadastroViagem dados) {
+        if (dados.tipoViagem() == TipoViagem.ROTA_COLABORADORES) {
+            var viagem = new Viagem(dados, null, null);
+            viagemRepository.save(viagem);
+            definirItensRota(viagem, dados.itensRota());
+            calendario.registrar(CalendarioViagemService.Pegada.VAZIA, CalendarioViagemService.pegada(viagem));
+            receita.registrar(ReceitaViagemService.Lancamento.NENHUM, ReceitaViagemService.lancamento(viagem));
+            agenda.registrar(Set.of(), viagem);
+            return new DadosDetalhamentoViagem(viagem);
+        }
+        validarCamposObrigatorios(dados);
+        travaRecursos.travar(Set.of(dados.veiculoId()), Set.of(dados.motoristaId()));
+        Veiculo veiculoPrincipal = veiculoRepository.findById(dados.veiculoId())
+                .orElseThrow(() -> new EntityNotFoundException("Veículo não encontrado com o ID: " + dados.veiculoId()));
+        Motorista motoristaPrincipal = motoristaRepository.findById(dados.motoristaId())
+                .orElseThrow(() -> new EntityNotFoundException("Motorista não encontrado com o ID: " + dados.motoristaId()));
+        if (dados.startDate() != null && dados.startTime() != null &&
+                dados.endDate() != null && dados.endTime() != null) {
+            if (existeConflitoVeiculo(veiculoPrincipal.getId(), dados.startDate(), dados.startTime(), dados.endDate(), dados.endTime(), 0L)) {
+                throw new ValidationException(CONFLITO_VEICULO);
+            }
+            if (existeConflitoMotorista(motoristaPrincipal.getId(), dados.startDate(), dados.startTime(), dados.endDate(), dados.endTime(), 0L)) {
+                throw new ValidationException(CONFLITO_MOTORISTA);
+            }
+        } else if (dados.tipoViagem() != TipoViagem.SOMENTE_IDA_MG && dados.tipoViagem() != TipoViagem.SOMENTE_IDA_FORA_MG) {
+            throw new ValidationException("Datas e horários de início/fim são obrigatórios para a validação de conflito para este tipo de viagem.");
+        }
+        var viagem = new Viagem(dados, veiculoPrincipal, motoristaPrincipal);
+        gravar(() -> viagemRepository.save(viagem), CONFLITO_VEICULO, CONFLITO_MOTORISTA);
+        calendario.registrar(CalendarioViagemService.Pegada.VAZIA, CalendarioViagemService.pegada(viagem));
+        receita.registrar(ReceitaViagemService.Lancamento.NENHUM, ReceitaViagemService.lancamento(viagem));
+        agenda.registrar(Set.of(), viagem);
+        indiceConflitos.registrarNaTransacao(List.of(intervaloDe(viagem)));
+        return new DadosDetalhamentoViagem(viagem);
+    }
+    static void validarCamposObrigatorios(DadosCadastroViagem dados) {
         if (dados.veiculoId() == null) {
             throw new ValidationException("O ID do veículo é obrigatório para esta viagem.");
         }
@@ -50,52 +134,111 @@ public class ViagemService {
                 throw new ValidationException("A hora de retorno é obrigatória para este tipo de viagem.");
             }
         }
-        Veiculo veiculoPrincipal = veiculoRepository.findById(dados.veiculoId())
-                .orElseThrow(() -> new EntityNotFoundException("Veículo não encontrado com o ID: " + dados.veiculoId()));
-        Motorista motoristaPrincipal = motoristaRepository.findById(dados.motoristaId())
-                .orElseThrow(() -> new EntityNotFoundException("Motorista não encontrado com o ID: " + dados.motoristaId()));
-        if (dados.startDate() != null && dados.startTime() != null &&
-                dados.endDate() != null && dados.endTime() != null) {
-            List<Viagem> conflitosVeiculo = viagemRepository.findVeiculoConflitosByTime(
-                    veiculoPrincipal.getId(),
-                    dados.startDate(),
-                    dados.startTime(),
-                    dados.endDate(),
-                    dados.endTime(),
-                    0L
-            );
-            if (!conflitosVeiculo.isEmpty()) {
-                throw new ValidationException("Conflito de agendamento: O veículo principal já está em outra viagem neste período.");
-            }
-            List<Viagem> conflitosMotorista = viagemRepository.findMotoristaConflitosByTime(
-                    motoristaPrincipal.getId(),
-                    dados.startDate(),
-                    dados.startTime(),
-                    dados.endDate(),
-                    dados.endTime(),
-                    0L
-            );
-            if (!conflitosMotorista.isEmpty()) {
-                throw new ValidationException("Conflito de agendamento: O motorista principal já está em outra viagem neste período.");
-            }
-        } else if (dados.tipoViagem() != TipoViagem.SOMENTE_IDA_MG && dados.tipoViagem() != TipoViagem.SOMENTE_IDA_FORA_MG) {
-            throw new ValidationException("Datas e horários de início/fim são obrigatórios para a validação de conflito para este tipo de viagem.");
+        LocalDateTime fim = Viagem.instante(dados.endDate(), dados.endTime());
+        if (fim != null && fim.isBefore(Viagem.instante(dados.startDate(), dados.startTime()))) {
+            throw new ValidationException(FIM_ANTERIOR_AO_INICIO);
         }
-        var viagem = new Viagem(dados, veiculoPrincipal, motoristaPrincipal);
-        viagemRepository.save(viagem);
-        return new DadosDetalhamentoViagem(viagem);
     }
     @Transactional(readOnly = true)
     public List<DadosDetalhamentoViagem> listarTodas() {
-        return viagemRepository.findAll().stream()
+        return viagemRepository.listarTodasComRecursos().stream()
                 .map(DadosDetalhamentoViagem::new)
                 .collect(Collectors.toList());
     }
+    /**
+     * Viagens que tocam o período [de, ate], ordenadas por (startDate, id). A próxima página é pedida
+     * repassando {@code proximaAposData}/{@code proximoAposId} da página anterior.
+     */
+    @Transactional(readOnly = true)
+    public DadosPaginaViagem listarPorPeriodo(LocalDate de, LocalDate ate, StatusViagem status, Long veiculoId, Long motoristaId,
+                                              LocalDate aposData, Long aposId, Integer tamanho) {
+        if (de == null || ate == null) {
+            throw new ValidationException("Informe o período (de/ate) da listagem.");
+        }
+        if (de.isAfter(ate)) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+        if ((aposData == null) != (aposId == null)) {
+            throw new ValidationException("Os parâmetros aposData e aposId devem ser informados juntos.");
+        }
+        int tamanhoPagina = tamanho == null ? TAMANHO_PAGINA_PADRAO : Math.max(1, Math.min(tamanho, TAMANHO_PAGINA_MAXIMO));
+        List<Viagem> viagens = viagemRepository.listarPorPeriodo(
+                de,
+                ate,
+                aposData != null ? aposData : INICIO_CURSOR,
+                aposId != null ? aposId : 0L,
+                status,
+                veiculoId,
+                motoristaId,
+                Limit.of(tamanhoPagina + 1)
+        );
+        boolean temProxima = viagens.size() > tamanhoPagina;
+        List<Viagem> pagina = temProxima ? viagens.subList(0, tamanhoPagina) : viagens;
+        Viagem ultima = temProxima ? pagina.get(pagina.size() - 1) : null;
+        return new DadosPaginaViagem(
+                pagina.stream().map(DadosDetalhamentoViagem::new).toList(),
+                ultima != null ? ultima.getStartDate() : null,
+                ultima != null ? ultima.getId() : null
+        );
+    }
+    /**
+     * Busca por trecho de cliente, telefone, título ou local. Só a página pedida é lida: os ids vêm
+     * ordenados por relevância (e depois pela viagem mais recente) e as viagens são carregadas numa segunda consulta.
+     */
+    @Transactional(readOnly = true)
+    public DadosBuscaViagem buscar(String q, Integer pagina, Integer tamanho) {
+        String termo = q == null ? "" : q.trim();
+        if (termo.length() < TAMANHO_MINIMO_TERMO_BUSCA) {
+            throw new ValidationException("Informe ao menos " + TAMANHO_MINIMO_TERMO_BUSCA + " caracteres para a busca.");
+        }
+        int numeroPagina = pagina == null ? 0 : Math.max(0, pagina);
+        int tamanhoPagina = tamanho == null ? TAMANHO_PAGINA_BUSCA_PADRAO : Math.max(1, Math.min(tamanho, TAMANHO_PAGINA_BUSCA_MAXIMO));
+        String literal = termo.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        var paginaIds = indicesBusca.isDisponivel()
+                ? viagemRepository.buscarIdsPorTrigramas(termo, "%" + literal + "%", PageRequest.of(numeroPagina, tamanhoPagina))
+                : viagemRepository.buscarIds("%" + literal + "%", literal + "%", PageRequest.of(numeroPagina, tamanhoPagina));
+        List<Long> ids = paginaIds.getContent();
+        Map<Long, Viagem> viagens = viagemRepository.listarPorIdsComRecursos(ids).stream()
+                .collect(Collectors.toMap(Viagem::getId, Function.identity()));
+        return new DadosBuscaViagem(
+                termo,
+                ids.stream().map(viagens::get).filter(Objects::nonNull).map(DadosDetalhamentoViagem::new).toList(),
+                numeroPagina,
+                tamanhoPagina,
+                paginaIds.hasNext()
+        );
+    }
     @Transactional
     public DadosDetalhamentoViagem atualizar(Long id, DadosAtualizacaoViagem dados) {
         var viagem = viagemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Viagem não encontrada com o ID: " + id));
+        var pegadaAnterior = CalendarioViagemService.pegada(viagem);
+        var lancamentoAnterior = ReceitaViagemService.lancamento(viagem);
+        var motoristasAnteriores = AgendaMotoristaService.motoristasDe(viagem);
+        var veiculosAnteriores = veiculosDe(viagem);
         TipoViagem tipoViagemValidar = dados.tipoViagem() != null ? dados.tipoViagem() : viagem.getTipoViagem();
+        if (tipoViagemValidar == TipoViagem.ROTA_COLABORADORES) {
+            boolean jaEraRota = viagem.getTipoViagem() == TipoViagem.ROTA_COLABORADORES;
+            if (!jaEraRota && dados.itensRota() == null) {
+                throw new ValidationException("Informe os itens da rota para transformar a viagem em rota de colaboradores.");
+            }
+            boolean estavaCancelada = viagem.getStatus() == StatusViagem.CANCELADA;
+            viagem.atualizarInformacoes(dados, null, null);
+            if (dados.itensRota() != null) {
+                definirItensRota(viagem, dados.itensRota());
+            } else if (jaEraRota && estavaCancelada != (viagem.getStatus() == StatusViagem.CANCELADA)) {
+                reocuparRota(viagem);
+            }
+            calendario.registrar(pegadaAnterior, CalendarioViagemService.pegada(viagem));
+            receita.registrar(lancamentoAnterior, ReceitaViagemService.lancamento(viagem));
+            agenda.registrar(motoristasAnteriores, viagem);
+            return new DadosDetalhamentoViagem(viagem);
+        }
+        if (viagem.getTipoViagem() == TipoViagem.ROTA_COLABORADORES && (dados.veiculoId() == null || dados.motoristaId() == null
+                || dados.startTime() == null)) {
+            throw new ValidationException("Informe veículo, motorista e horário ao deixar de ser rota de colaboradores.");
+        }
+        viagem.getItensRota().clear();
         Veiculo veiculoAtualizado = null;
         Motorista motoristaAtualizado = null;
         if (dados.veiculoId() != null) {
@@ -114,40 +257,272 @@ public class ViagemService {
         LocalTime horaInicioValidar = dados.startTime() != null ? dados.startTime() : viagem.getStartTime();
         LocalDate dataFimValidar = dados.endDate() != null ? dados.endDate() : viagem.getEndDate();
         LocalTime horaFimValidar = dados.endTime() != null ? dados.endTime() : viagem.getEndTime();
-        if (veiculoAtualizado != null && dataInicioValidar != null && horaInicioValidar != null && dataFimValidar != null && horaFimValidar != null) {
-            List<Viagem> conflitosVeiculo = viagemRepository.findVeiculoConflitosByTime(
-                    veiculoAtualizado.getId(),
-                    dataInicioValidar,
-                    horaInicioValidar,
-                    dataFimValidar,
-                    horaFimValidar,
-                    id
-            );
-            if (!conflitosVeiculo.isEmpty()) {
-                throw new ValidationException("Conflito de agendamento: O veículo principal já estará em outra viagem neste período após a atualização.");
+        LocalDateTime fimValidar = Viagem.instante(dataFimValidar, horaFimValidar);
+        LocalDateTime inicioValidar = Viagem.instante(dataInicioValidar, horaInicioValidar);
+        if (fimValidar != null && inicioValidar != null && fimValidar.isBefore(inicioValidar)) {
+            throw new ValidationException(FIM_ANTERIOR_AO_INICIO);
+        }
+        // os recursos que a viagem deixa também são travados: o índice passa a liberá-los ainda antes do commit
+        Set<Long> veiculosTravados = new HashSet<>(veiculosAnteriores);
+        Set<Long> motoristasTravados = new HashSet<>(motoristasAnteriores);
+        if (veiculoAtualizado != null) {
+            veiculosTravados.add(veiculoAtualizado.getId());
+        }
+        if (motoristaAtualizado != null) {
+            motoristasTravados.add(motoristaAtualizado.getId());
+        }
+        travaRecursos.travar(veiculosTravados, motoristasTravados);
+        boolean ocupaRecursos = (dados.status() != null ? dados.status() : viagem.getStatus()) != StatusViagem.CANCELADA;
+        if (ocupaRecursos && veiculoAtualizado != null && dataInicioValidar != null && horaInicioValidar != null && dataFimValidar != null && horaFimValidar != null) {
+            if (existeConflitoVeiculo(veiculoAtualizado.getId(), dataInicioValidar, horaInicioValidar, dataFimValidar, horaFimValidar, id)) {
+                throw new ValidationException(CONFLITO_VEICULO_ATUALIZACAO);
             }
         }
-        if (motoristaAtualizado != null && dataInicioValidar != null && horaInicioValidar != null && dataFimValidar != null && horaFimValidar != null) {
-            List<Viagem> conflitosMotorista = viagemRepository.findMotoristaConflitosByTime(
-                    motoristaAtualizado.getId(),
-                    dataInicioValidar,
-                    horaInicioValidar,
-                    dataFimValidar,
-                    horaFimValidar,
-                    id
-            );
-            if (!conflitosMotorista.isEmpty()) {
-                throw new ValidationException("Conflito de agendamento: O motorista principal já estará em outra viagem neste período após a atualização.");
+        if (ocupaRecursos && motoristaAtualizado != null && dataInicioValidar != null && horaInicioValidar != null && dataFimValidar != null && horaFimValidar != null) {
+            if (existeConflitoMotorista(motoristaAtualizado.getId(), dataInicioValidar, horaInicioValidar, dataFimValidar, horaFimValidar, id)) {
+                throw new ValidationException(CONFLITO_MOTORISTA_ATUALIZACAO);
             }
         }
         viagem.atualizarInformacoes(dados, veiculoAtualizado, motoristaAtualizado);
+        gravar(viagemRepository::flush, CONFLITO_VEICULO_ATUALIZACAO, CONFLITO_MOTORISTA_ATUALIZACAO);
+        calendario.registrar(pegadaAnterior, CalendarioViagemService.pegada(viagem));
+        receita.registrar(lancamentoAnterior, ReceitaViagemService.lancamento(viagem));
+        agenda.registrar(motoristasAnteriores, viagem);
+        if (ocupaRecursos) {
+            indiceConflitos.registrarNaTransacao(List.of(intervaloDe(viagem)));
+        } else {
+            indiceConflitos.removerNaTransacao(id);
+        }
         return new DadosDetalhamentoViagem(viagem);
     }
+    /**
+     * Ocorrências da viagem dentro de [de, ate]. Para rotas de colaboradores as regras são expandidas
+     * apenas nessa janela; para as demais viagens é o próprio intervalo, se tocar a janela.
+     */
+    @Transactional(readOnly = true)
+    public List<DadosIntervaloViagem> listarOcorrencias(Long id, LocalDate de, LocalDate ate) {
+        if (de == null || ate == null) {
+            throw new ValidationException("Informe o período (de/ate) das ocorrências.");
+        }
+        if (de.isAfter(ate)) {
+            throw new ValidationException("A data inicial do período não pode ser posterior à data final.");
+        }
+        if (ChronoUnit.DAYS.between(de, ate) >= DIAS_MAXIMOS_OCORRENCIAS) {
+            throw new ValidationException("O período das ocorrências não pode passar de " + DIAS_MAXIMOS_OCORRENCIAS + " dias.");
+        }
+        var viagem = viagemRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Viagem não encontrada com o ID: " + id));
+        if (viagem.getTipoViagem() == TipoViagem.ROTA_COLABORADORES) {
+            return itemRotaRepository.listarRegrasPorViagem(id).stream()
+                    .flatMap(regra -> regra.ocorrencias(de, ate).stream())
+                    .sorted(Comparator.comparing(DadosIntervaloViagem::startDate).thenComparing(DadosIntervaloViagem::startTime))
+                    .toList();
+        }
+        var intervalo = intervaloDe(viagem);
+        if (intervalo.startDate() == null || intervalo.startDate().isAfter(ate)
+                || (intervalo.endDate() != null ? intervalo.endDate() : intervalo.startDate()).isBefore(de)) {
+            return List.of();
+        }
+        return List.of(intervalo);
+    }
     @Transactional
     public void excluir(Long id) {
-        if (!viagemRepository.existsById(id)) {
-            throw new EntityNotFoundException("Viagem não encontrada com o ID: " + id);
+        var viagem = viagemRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Viagem não encontrada com o ID: " + id));
+        // como em atualizar: o índice libera os recursos ainda antes do commit, então eles ficam travados até lá
+        travaRecursos.travar(veiculosDe(viagem), AgendaMotoristaService.motoristasDe(viagem));
+        calendario.registrar(CalendarioViagemService.pegada(viagem), CalendarioViagemService.Pegada.VAZIA);
+        receita.registrar(ReceitaViagemService.lancamento(viagem), ReceitaViagemService.Lancamento.NENHUM);
+        agenda.remover(viagem);
+        viagemRepository.delete(viagem);
+        indiceConflitos.removerNaTransacao(id);
+    }
+    private boolean existeConflitoVeiculo(Long veiculoId, LocalDate startDate, LocalTime startTime, LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        if (indiceConflitos.isCarregado()) {
+            return indiceConflitos.existeConflitoVeiculo(veiculoId, startDate, startTime, endDate, endTime, viagemIdToExclude);
+        }
+        return existeConflitoVeiculoNoBanco(veiculoId, startDate, startTime, endDate, endTime, viagemIdToExclude);
+    }
+    private boolean existeConflitoMotorista(Long motoristaId, LocalDate startDate, LocalTime startTime, LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        if (indiceConflitos.isCarregado()) {
+            return indiceConflitos.existeConflitoMotorista(motoristaId, startDate, startTime, endDate, endTime, viagemIdToExclude);
+        }
+        return existeConflitoMotoristaNoBanco(motoristaId, startDate, startTime, endDate, endTime, viagemIdToExclude);
+    }
+    private boolean existeConflitoVeiculoNoBanco(Long veiculoId, LocalDate startDate, LocalTime startTime, LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        return !viagemRepository.findVeiculoConflitosByTime(veiculoId, Viagem.instante(startDate, startTime),
+                Viagem.instante(endDate, endTime), viagemIdToExclude).isEmpty()
+                || conflitaComRotas(itemRotaRepository.listarRegrasAtivasPorVeiculoNoPeriodo(veiculoId, startDate.minusDays(1), endDate),
+                startDate, startTime, endDate, endTime, viagemIdToExclude);
+    }
+    private boolean existeConflitoMotoristaNoBanco(Long motoristaId, LocalDate startDate, LocalTime startTime, LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        return !viagemRepository.findMotoristaConflitosByTime(motoristaId, Viagem.instante(startDate, startTime),
+                Viagem.instante(endDate, endTime), viagemIdToExclude).isEmpty()
+                || conflitaComRotas(itemRotaRepository.listarRegrasAtivasPorMotoristaNoPeriodo(motoristaId, startDate.minusDays(1), endDate),
+                startDate, startTime, endDate, endTime, viagemIdToExclude);
+    }
+    /**
+     * No PostgreSQL as restrições de exclusão de {@code viagens} barram a sobreposição mesmo entre requisições
+     * concorrentes; a violação volta para o cliente com a mesma mensagem da verificação feita antes de gravar.
+     */
+    private static void gravar(Runnable gravacao, String mensagemConflitoVeiculo, String mensagemConflitoMotorista) {
+        try {
+            gravacao.run();
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirSobreposicao(e, mensagemConflitoVeiculo, mensagemConflitoMotorista);
         }
-        viagemRepository.deleteById(id);
+    }
+    static RuntimeException traduzirSobreposicao(DataIntegrityViolationException e, String mensagemConflitoVeiculo,
+                                                 String mensagemConflitoMotorista) {
+        String causa = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (causa.contains(Viagem.RESTRICAO_SOBREPOSICAO_VEICULO)) {
+            return new ValidationException(mensagemConflitoVeiculo);
+        }
+        if (causa.contains(Viagem.RESTRICAO_SOBREPOSICAO_MOTORISTA)) {
+            return new ValidationException(mensagemConflitoMotorista);
+        }
+        return e;
+    }
+    private static boolean conflitaComRotas(List<DadosRegraRota> regras, LocalDate startDate, LocalTime startTime,
+                                            LocalDate endDate, LocalTime endTime, Long viagemIdToExclude) {
+        return regras.stream()
+                .filter(regra -> !regra.viagemId().equals(viagemIdToExclude))
+                .flatMap(regra -> regra.ocorrencias(startDate, endDate).stream())
+                .anyMatch(ocorrencia -> IndiceConflitosViagem.conflita(ocorrencia, startDate, startTime, endDate, endTime));
+    }
+    /**
+     * Grava os itens de uma rota de colaboradores como regras de recorrência e confere a ocupação de
+     * todo o período da rota de uma vez: uma consulta de viagens e uma de regras para os recursos envolvidos,
+     * expandidas e varridas em memória. Nenhuma ocorrência é gravada.
+     */
+    private void definirItensRota(Viagem viagem, List<DadosItemRota> dadosItens) {
+        if (dadosItens == null || dadosItens.isEmpty()) {
+            throw new ValidationException("Informe ao menos um item (veículo, motorista e horários) para a rota de colaboradores.");
+        }
+        for (DadosItemRota item : dadosItens) {
+            if (item == null || item.veiculoId() == null || item.motoristaId() == null) {
+                throw new ValidationException("Cada item da rota exige veículo e motorista.");
+            }
+            if (item.horarios() == null || item.horarios().isEmpty()) {
+                throw new ValidationException("Cada item da rota exige ao menos um horário.");
+            }
+            for (DadosHorarioItemRota horario : item.horarios()) {
+                if (horario == null || horario.dataInicio() == null || horario.dataFim() == null
+                        || horario.inicio() == null || horario.fim() == null) {
+                    throw new ValidationException("Os horários da rota exigem data de início, data de fim, hora de início e hora de fim.");
+                }
+                if (horario.dataFim().isBefore(horario.dataInicio())) {
+                    throw new ValidationException("A data final de um horário da rota não pode ser anterior à data inicial.");
+                }
+                if (horario.inicio().equals(horario.fim())) {
+                    throw new ValidationException("A hora de início e a de fim de um horário da rota não podem ser iguais.");
+                }
+            }
+        }
+        Set<Long> veiculoIds = dadosItens.stream().map(DadosItemRota::veiculoId).collect(Collectors.toSet());
+        Set<Long> motoristaIds = dadosItens.stream().map(DadosItemRota::motoristaId).collect(Collectors.toSet());
+        Set<Long> veiculosTravados = new HashSet<>(veiculoIds);
+        veiculosTravados.addAll(veiculosDe(viagem));
+        Set<Long> motoristasTravados = new HashSet<>(motoristaIds);
+        motoristasTravados.addAll(AgendaMotoristaService.motoristasDe(viagem));
+        travaRecursos.travar(veiculosTravados, motoristasTravados);
+        Map<Long, Veiculo> veiculos = veiculoRepository.findAllById(veiculoIds)
+                .stream().collect(Collectors.toMap(Veiculo::getId, Function.identity()));
+        Map<Long, Motorista> motoristas = motoristaRepository.findAllById(motoristaIds)
+                .stream().collect(Collectors.toMap(Motorista::getId, Function.identity()));
+        List<ItemRota> itens = new ArrayList<>();
+        for (DadosItemRota item : dadosItens) {
+            Veiculo veiculo = veiculos.get(item.veiculoId());
+            if (veiculo == null) {
+                throw new EntityNotFoundException("Veículo não encontrado com o ID: " + item.veiculoId());
+            }
+            Motorista motorista = motoristas.get(item.motoristaId());
+            if (motorista == null) {
+                throw new EntityNotFoundException("Motorista não encontrado com o ID: " + item.motoristaId());
+            }
+            List<HorarioRota> horarios = item.horarios().stream()
+                    .map(h -> new HorarioRota(h.dataInicio(), h.dataFim(), h.inicio(), h.fim(), HorarioRota.mascaraDe(h.diasSemana())))
+                    .toList();
+            itens.add(new ItemRota(viagem, veiculo, motorista, horarios));
+        }
+        viagem.definirItensRota(itens);
+        ocuparRota(viagem);
+    }
+    /**
+     * Rota que sai ou volta do cancelamento sem trocar os itens: os recursos dela são travados e, ao voltar,
+     * a ocupação é conferida de novo, porque o período pode ter sido tomado enquanto estava cancelada.
+     */
+    private void reocuparRota(Viagem viagem) {
+        Set<Long> veiculoIds = veiculosDe(viagem);
+        Set<Long> motoristaIds = AgendaMotoristaService.motoristasDe(viagem);
+        if (veiculoIds.isEmpty() && motoristaIds.isEmpty()) {
+            return;
+        }
+        travaRecursos.travar(veiculoIds, motoristaIds);
+        ocuparRota(viagem);
+    }
+    private void ocuparRota(Viagem viagem) {
+        if (viagem.getStatus() == StatusViagem.CANCELADA) {
+            indiceConflitos.removerNaTransacao(viagem.getId());
+            return;
+        }
+        List<DadosRegraRota> regras = viagem.getItensRota().stream()
+                .flatMap(item -> item.getHorarios().stream().map(h -> new DadosRegraRota(viagem.getId(), item.getVeiculo().getId(),
+                        item.getMotorista().getId(), h.getDataInicio(), h.getDataFim(), h.getInicio(), h.getFim(), h.getDiasSemana())))
+                .toList();
+        verificarConflitosRota(viagem.getId(), regras);
+        indiceConflitos.registrarRotaNaTransacao(viagem.getId(), regras);
+    }
+    private void verificarConflitosRota(Long viagemId, List<DadosRegraRota> regras) {
+        LocalDate inicio = regras.stream().map(DadosRegraRota::dataInicio).min(Comparator.naturalOrder()).get();
+        LocalDate fim = regras.stream().map(DadosRegraRota::ultimoDiaOcupado).max(Comparator.naturalOrder()).get();
+        Set<Long> veiculoIds = regras.stream().map(DadosRegraRota::veiculoId).collect(Collectors.toSet());
+        Set<Long> motoristaIds = regras.stream().map(DadosRegraRota::motoristaId).collect(Collectors.toSet());
+        List<DadosIntervaloViagem> existentes = new ArrayList<>();
+        viagemRepository.listarIntervalosPorRecursosNoPeriodo(inicio, fim, veiculoIds, motoristaIds).stream()
+                .filter(intervalo -> !intervalo.id().equals(viagemId))
+                .forEach(existentes::add);
+        itemRotaRepository.listarRegrasPorRecursosNoPeriodo(inicio.minusDays(1), fim, veiculoIds, motoristaIds).stream()
+                .filter(regra -> !regra.viagemId().equals(viagemId))
+                .forEach(regra -> existentes.addAll(regra.ocorrencias(inicio, fim)));
+        List<DadosIntervaloViagem> novas = regras.stream()
+                .flatMap(regra -> regra.ocorrencias(regra.dataInicio(), regra.dataFim()).stream())
+                .toList();
+        verificarConflitoRota(existentes, novas, DadosIntervaloViagem::veiculoId, "veículo");
+        verificarConflitoRota(existentes, novas, DadosIntervaloViagem::motoristaId, "motorista");
+    }
+    private static void verificarConflitoRota(List<DadosIntervaloViagem> existentes, List<DadosIntervaloViagem> novas,
+                                              Function<DadosIntervaloViagem, Long> recurso, String nomeRecurso) {
+        VarreduraConflitos.varrer(existentes, novas, recurso).entrySet().stream()
+                .min(Map.Entry.comparingByKey(Comparator.comparing(DadosIntervaloViagem::startDate)))
+                .ifPresent(conflito -> {
+                    if (existentes.contains(conflito.getValue())) {
+                        throw new ValidationException(String.format(
+                                "Conflito de agendamento: O %s %d já está em outra viagem em %s.",
+                                nomeRecurso, recurso.apply(conflito.getKey()), conflito.getKey().startDate()));
+                    }
+                    throw new ValidationException(String.format(
+                            "Conflito de agendamento: O %s %d está em dois itens da rota no mesmo horário em %s.",
+                            nomeRecurso, recurso.apply(conflito.getKey()), conflito.getKey().startDate()));
+                });
+    }
+    private static Set<Long> veiculosDe(Viagem viagem) {
+        Set<Long> ids = new HashSet<>();
+        if (viagem.getVeiculo() != null) {
+            ids.add(viagem.getVeiculo().getId());
+        }
+        viagem.getItensRota().forEach(item -> ids.add(item.getVeiculo().getId()));
+        return ids;
+    }
+    private static DadosIntervaloViagem intervaloDe(Viagem viagem) {
+        return new DadosIntervaloViagem(
+                viagem.getId(),
+                viagem.getVeiculo() != null ? viagem.getVeiculo().getId() : null,
+                viagem.getMotorista() != null ? viagem.getMotorista().getId() : null,
+                viagem.getStartDate(),
+                viagem.getStartTime(),
+                viagem.getEndDate(),
+                viagem.getEndTime()
+        );
     }
 }
\ No newline at end of file
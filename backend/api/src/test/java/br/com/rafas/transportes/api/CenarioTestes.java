@@ -0,0 +1,109 @@
+package br.com.rafas.transportes.api;
+
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.StatusMotorista;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import br.com.rafas.transportes.api.dto.DadosCadastroMotorista;
+import br.com.rafas.transportes.api.dto.DadosCadastroVeiculo;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosHorarioItemRota;
+import br.com.rafas.transportes.api.dto.DadosItemRota;
+import br.com.rafas.transportes.api.service.MotoristaService;
+import br.com.rafas.transportes.api.service.VeiculoService;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dados mínimos para os testes de integração. Placas e nomes são únicos porque todas as classes
+ * de teste com o mesmo contexto compartilham o banco em memória.
+ */
+public final class CenarioTestes {
+
+    private CenarioTestes() {
+    }
+
+    public static Veiculo veiculo(VeiculoService veiculoService) {
+        return veiculo(veiculoService, 0);
+    }
+
+    public static Veiculo veiculo(VeiculoService veiculoService, int km) {
+        return veiculoService.cadastrar(new DadosCadastroVeiculo("Sprinter 416", placa(), "ATIVO", km));
+    }
+
+    public static Motorista motorista(MotoristaService motoristaService) {
+        return motorista(motoristaService, LocalDate.now().plusYears(2));
+    }
+
+    public static Motorista motorista(MotoristaService motoristaService, LocalDate validadeCnh) {
+        return motoristaService.cadastrar(new DadosCadastroMotorista("Motorista " + sufixo(),
+                validadeCnh, telefone(), StatusMotorista.ATIVO));
+    }
+
+    public static DadosCadastroViagem viagem(Long veiculoId, Long motoristaId, LocalDateTime inicio, LocalDateTime fim) {
+        return new DadosCadastroViagem("Viagem " + sufixo(), "Cliente " + sufixo(), "(31) 3333-0000", new BigDecimal("100.00"),
+                "Belo Horizonte", "Ouro Preto", veiculoId, motoristaId, inicio.toLocalDate(), inicio.toLocalTime(),
+                fim.toLocalDate(), fim.toLocalTime(), StatusViagem.AGENDADA, TipoViagem.IDA_E_VOLTA_MG, null);
+    }
+
+    public static DadosCadastroViagem rota(Long veiculoId, Long motoristaId, LocalDate dataInicio, LocalDate dataFim,
+                                           LocalTime inicio, LocalTime fim) {
+        var horario = new DadosHorarioItemRota(dataInicio, inicio, dataFim, fim, null);
+        return rota(List.of(new DadosItemRota(null, veiculoId, motoristaId, List.of(horario))));
+    }
+
+    public static DadosCadastroViagem rota(List<DadosItemRota> itens) {
+        return new DadosCadastroViagem("Rota " + sufixo(), "Empresa " + sufixo(), null, new BigDecimal("5000.00"),
+                "Contagem", "Betim", null, null, null, null, null, null, StatusViagem.AGENDADA, TipoViagem.ROTA_COLABORADORES,
+                itens);
+    }
+
+    /**
+     * Insere viagens aleatórias direto por JDBC, em lotes, para os benchmarks. Cada viagem começa em algum
+     * minuto de [base, base + minutosNoPeriodo) e dura de 30 minutos a 2 dias.
+     */
+    public static void inserirViagens(JdbcTemplate jdbcTemplate, int quantidade, List<Long> veiculos, List<Long> motoristas,
+                                      LocalDateTime base, int minutosNoPeriodo, Random aleatorio) {
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            LocalDateTime inicio = base.plusMinutes(aleatorio.nextInt(minutosNoPeriodo));
+            LocalDateTime fim = inicio.plusMinutes(30 + aleatorio.nextInt(48 * 60));
+            lote.add(new Object[]{"Benchmark", veiculos.get(aleatorio.nextInt(veiculos.size())),
+                    motoristas.get(aleatorio.nextInt(motoristas.size())), inicio.toLocalDate(), inicio.toLocalTime(),
+                    fim.toLocalDate(), fim.toLocalTime(), Timestamp.valueOf(inicio), Timestamp.valueOf(fim)});
+            if (lote.size() == 5_000 || i == quantidade - 1) {
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO viagens (title, vehicle_id, driver_id, start_date, start_time, end_date, end_time,
+                                             start_at, end_at, status, client_name, valor, start_location, tipo_viagem)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'AGENDADA', 'Cliente', 100, 'Origem', 'IDA_E_VOLTA_MG')
+                        """, lote);
+                lote.clear();
+            }
+        }
+    }
+
+    public static String placa() {
+        return "T" + sufixo().substring(0, 7).toUpperCase();
+    }
+
+    public static String telefone() {
+        var aleatorio = ThreadLocalRandom.current();
+        return String.format("(%02d) 9%04d-%04d", aleatorio.nextInt(11, 100), aleatorio.nextInt(10_000), aleatorio.nextInt(10_000));
+    }
+
+    private static String sufixo() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
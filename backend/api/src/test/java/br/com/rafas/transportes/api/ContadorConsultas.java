@@ -0,0 +1,93 @@
+package br.com.rafas.transportes.api;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Conta os comandos enviados ao banco pela thread corrente — consultas do Hibernate e do JdbcTemplate.
+ * Um {@code executeBatch} conta uma vez, como a ida ao banco que ele é.
+ * Use com {@code @Import(ContadorConsultas.class)}.
+ */
+@TestConfiguration
+public class ContadorConsultas {
+
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    public record Contagem<T>(T resultado, int comandos) {
+    }
+
+    public static <T> Contagem<T> contar(Supplier<T> execucao) {
+        int[] anterior = CONTAGEM.get();
+        int[] contagem = new int[1];
+        CONTAGEM.set(contagem);
+        try {
+            T resultado = execucao.get();
+            return new Contagem<>(resultado, contagem[0]);
+        } finally {
+            CONTAGEM.set(anterior);
+        }
+    }
+
+    public static int contar(Runnable execucao) {
+        return contar(() -> {
+            execucao.run();
+            return null;
+        }).comandos();
+    }
+
+    @Bean
+    static BeanPostProcessor contadorDeConsultas() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return proxy(DataSource.class, dataSource, (alvo, metodo, args) -> {
+                        Object resultado = metodo.invoke(dataSource, args);
+                        return resultado instanceof Connection conexao ? conexao(conexao) : resultado;
+                    });
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Connection conexao(Connection conexao) {
+        return proxy(Connection.class, conexao, (alvo, metodo, args) -> {
+            Object resultado = metodo.invoke(conexao, args);
+            if (resultado instanceof Statement comando && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                return comando(metodo.getReturnType(), comando);
+            }
+            return resultado;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Statement comando(Class<?> tipo, Statement comando) {
+        return proxy((Class<Statement>) tipo, comando, (alvo, metodo, args) -> {
+            if (metodo.getName().startsWith("execute") && CONTAGEM.get() != null) {
+                CONTAGEM.get()[0]++;
+            }
+            return metodo.invoke(comando, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, T alvo, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ContadorConsultas.class.getClassLoader(), new Class<?>[]{tipo}, (p, metodo, args) -> {
+            try {
+                return handler.invoke(p, metodo, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.rafas.transportes.api;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Contexto completo da aplicação sobre o H2 do perfil {@code teste}. Todas as classes anotadas com ela
+ * compartilham o mesmo contexto (e o mesmo banco), então cada teste cria os próprios veículos e motoristas.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+@Import(ContadorConsultas.class)
+public @interface TesteIntegracao {
+}
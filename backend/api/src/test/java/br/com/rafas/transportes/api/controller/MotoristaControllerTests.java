@@ -0,0 +1,148 @@
+package br.com.rafas.transportes.api.controller;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosCadastroFerias;
+import br.com.rafas.transportes.api.service.AgendaMotoristaService;
+import br.com.rafas.transportes.api.service.CicloStatusViagemService;
+import br.com.rafas.transportes.api.service.FeriasService;
+import br.com.rafas.transportes.api.service.MotoristaService;
+import br.com.rafas.transportes.api.service.VeiculoService;
+import br.com.rafas.transportes.api.service.ViagemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TesteIntegracao
+@WithMockUser
+class MotoristaControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private AgendaMotoristaService agendaService;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private CicloStatusViagemService cicloStatus;
+
+    @Autowired
+    private FeriasService feriasService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void agendaTemViagensEFeriasERespondeNaoModificadoSemConsultar() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime inicio = LocalDate.now().plusDays(10).atTime(8, 0);
+        Long viagem = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(5))).id();
+        LocalDate feriasInicio = LocalDate.now().plusDays(40);
+        feriasService.cadastrar(new DadosCadastroFerias(motorista, feriasInicio, feriasInicio.plusDays(2)));
+
+        MvcResult resposta = mvc.perform(get("/motoristas/{id}/agenda.ics", motorista))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/calendar;charset=UTF-8"))
+                .andReturn();
+        String ics = corpo(resposta);
+        assertThat(ics).startsWith("BEGIN:VCALENDAR\r\n").endsWith("END:VCALENDAR\r\n");
+        assertThat(ics).contains("UID:viagem-" + viagem + "@rafas-transportes",
+                "DTSTART:" + inicio.format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss")),
+                "STATUS:CONFIRMED", "SUMMARY:Férias",
+                "DTSTART;VALUE=DATE:" + feriasInicio.format(DateTimeFormatter.BASIC_ISO_DATE),
+                // DTEND de datas é exclusivo: o dia seguinte ao último dia de férias
+                "DTEND;VALUE=DATE:" + feriasInicio.plusDays(3).format(DateTimeFormatter.BASIC_ISO_DATE));
+        ics.lines().forEach(linha -> assertThat(linha.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(75));
+
+        String etag = resposta.getResponse().getHeader(HttpHeaders.ETAG);
+        int comandos = ContadorConsultas.contar(() -> {
+            try {
+                mvc.perform(get("/motoristas/{id}/agenda.ics", motorista).header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(comandos).isZero();
+    }
+
+    @Test
+    void gravacaoTrocaAEtagEAgendaIncrementalIgualAReconstruida() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime inicio = LocalDate.now().plusDays(20).atTime(14, 0);
+        Long mantida = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(3))).id();
+        Long cancelada = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio.plusDays(1), inicio.plusDays(1).plusHours(3))).id();
+        String etagAntes = agenda(motorista).getResponse().getHeader(HttpHeaders.ETAG);
+
+        viagemService.atualizar(cancelada, new DadosAtualizacaoViagem(null, null, null, null, null, null, null, null,
+                null, null, null, null, StatusViagem.CANCELADA, null, null));
+        Long nova = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio.plusDays(2), inicio.plusDays(2).plusHours(3))).id();
+
+        mvc.perform(get("/motoristas/{id}/agenda.ics", motorista).header(HttpHeaders.IF_NONE_MATCH, etagAntes))
+                .andExpect(status().isOk());
+        MvcResult incremental = agenda(motorista);
+        assertThat(incremental.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etagAntes);
+        String ics = corpo(incremental);
+        assertThat(ics).contains("UID:viagem-" + mantida + "@", "UID:viagem-" + nova + "@", "STATUS:CANCELLED");
+
+        agendaService.invalidar(List.of(motorista));
+        String reconstruida = corpo(agenda(motorista));
+        assertThat(semCarimbo(ics)).isEqualTo(semCarimbo(reconstruida));
+    }
+
+    @Test
+    void cicloDeStatusTrocaAEtag() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime inicio = LocalDateTime.now().minusHours(1);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(3)));
+        MvcResult antes = agenda(motorista);
+        String etagAntes = antes.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(corpo(antes)).contains("Status: AGENDADA");
+
+        cicloStatus.atualizarStatusViagens();
+
+        MvcResult depois = mvc.perform(get("/motoristas/{id}/agenda.ics", motorista).header(HttpHeaders.IF_NONE_MATCH, etagAntes))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(depois.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etagAntes);
+        assertThat(corpo(depois)).contains("Status: EM_CURSO").doesNotContain("Status: AGENDADA");
+    }
+
+    private MvcResult agenda(Long motorista) throws Exception {
+        return mvc.perform(get("/motoristas/{id}/agenda.ics", motorista)).andExpect(status().isOk()).andReturn();
+    }
+
+    private static String corpo(MvcResult resposta) {
+        return new String(resposta.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String semCarimbo(String ics) {
+        return ics.replaceAll("DTSTAMP:[0-9TZ]+\r\n", "");
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.rafas.transportes.api.controller;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoVeiculo;
+import br.com.rafas.transportes.api.service.VeiculoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TesteIntegracao
+@WithMockUser
+class VeiculoControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void kmMenorQueOAtualEhRecusadoSemAlterarOVeiculo() throws Exception {
+        var veiculo = CenarioTestes.veiculo(veiculoService, 50_000);
+
+        mvc.perform(put("/veiculos/{id}", veiculo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DadosAtualizacaoVeiculo("Sprinter 515", null,
+                                StatusVeiculo.ATIVO, 49_000))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("49000 km")))
+                .andExpect(jsonPath("$.message", containsString("50000 km")));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT current_km FROM veiculos WHERE id = ?", Integer.class,
+                veiculo.getId())).isEqualTo(50_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT model FROM veiculos WHERE id = ?", String.class,
+                veiculo.getId())).isEqualTo("Sprinter 416");
+    }
+
+    @Test
+    void kmIgualOuMaiorAtualizaNormalmente() throws Exception {
+        var veiculo = CenarioTestes.veiculo(veiculoService, 50_000);
+
+        mvc.perform(put("/veiculos/{id}", veiculo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DadosAtualizacaoVeiculo(null, null, null, 50_000))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentKm").value(50_000));
+
+        mvc.perform(put("/veiculos/{id}", veiculo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DadosAtualizacaoVeiculo(null, null, null, 50_300))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currentKm").value(50_300));
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.rafas.transportes.api.controller;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.service.MotoristaService;
+import br.com.rafas.transportes.api.service.VeiculoService;
+import br.com.rafas.transportes.api.service.ViagemService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TesteIntegracao
+@WithMockUser
+class ViagemControllerTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2033, 2, 1, 9, 0);
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void listarTodasExigeAFlagExplicita() throws Exception {
+        mvc.perform(get("/viagens").param("todas", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    void listarPaginaPorDataEId() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        List<Long> esperadas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            LocalDateTime inicio = BASE.plusDays(i / 2).plusHours(i % 2 * 6L);
+            esperadas.add(viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(2))).id());
+        }
+
+        List<Long> lidas = new ArrayList<>();
+        String aposData = null;
+        String aposId = null;
+        do {
+            var requisicao = get("/viagens")
+                    .param("de", "2033-02-01").param("ate", "2033-02-28")
+                    .param("veiculoId", veiculo.toString()).param("tamanho", "2");
+            if (aposData != null) {
+                requisicao.param("aposData", aposData).param("aposId", aposId);
+            }
+            String corpo = mvc.perform(requisicao).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            JsonNode pagina = objectMapper.readTree(corpo);
+            pagina.get("viagens").forEach(v -> lidas.add(v.get("id").asLong()));
+            aposData = pagina.get("proximaAposData").isNull() ? null : pagina.get("proximaAposData").asText();
+            aposId = pagina.get("proximoAposId").isNull() ? null : pagina.get("proximoAposId").asText();
+        } while (aposData != null);
+
+        assertThat(lidas).containsExactlyElementsOf(esperadas);
+    }
+
+    @Test
+    void listarSemPeriodoEhErroDeValidacao() throws Exception {
+        mvc.perform(get("/viagens"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Informe o período (de/ate) da listagem."));
+    }
+
+    @Test
+    void restricoesDeSobreposicaoSoExistemNoPostgres() throws Exception {
+        mvc.perform(post("/viagens/restricoes-sobreposicao"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("As restrições de sobreposição de viagens só existem no PostgreSQL."));
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.rafas.transportes.api.dto;
+
+import br.com.rafas.transportes.api.domain.rota.HorarioRota;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DadosRegraRotaTests {
+
+    // 2035-03-05 é uma segunda-feira
+    private static final LocalDate SEGUNDA = LocalDate.of(2035, 3, 5);
+    private static final int DIAS_UTEIS = HorarioRota.mascaraDe(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+
+    @Test
+    void expandeSoOsDiasDaSemanaDaJanela() {
+        var regra = new DadosRegraRota(1L, 10L, 20L, SEGUNDA, SEGUNDA.plusYears(1),
+                LocalTime.of(6, 0), LocalTime.of(8, 0), DIAS_UTEIS);
+
+        var ocorrencias = regra.ocorrencias(SEGUNDA.plusWeeks(10), SEGUNDA.plusWeeks(10).plusDays(6));
+
+        assertThat(ocorrencias).hasSize(5)
+                .extracting(DadosIntervaloViagem::startDate)
+                .allMatch(dia -> dia.getDayOfWeek().getValue() <= 5);
+        assertThat(ocorrencias.get(0)).isEqualTo(new DadosIntervaloViagem(1L, 10L, 20L,
+                SEGUNDA.plusWeeks(10), LocalTime.of(6, 0), SEGUNDA.plusWeeks(10), LocalTime.of(8, 0)));
+    }
+
+    @Test
+    void janelaForaDoContratoNaoGeraOcorrencias() {
+        var regra = new DadosRegraRota(1L, 10L, 20L, SEGUNDA, SEGUNDA.plusDays(4),
+                LocalTime.of(6, 0), LocalTime.of(8, 0), HorarioRota.TODOS_OS_DIAS);
+
+        assertThat(regra.ocorrencias(SEGUNDA.minusDays(10), SEGUNDA.minusDays(1))).isEmpty();
+        assertThat(regra.ocorrencias(SEGUNDA.plusDays(5), SEGUNDA.plusDays(30))).isEmpty();
+        assertThat(regra.ocorrencias(SEGUNDA.plusDays(3), SEGUNDA.plusDays(30))).hasSize(2);
+    }
+
+    @Test
+    void turnoQueViraODiaDaVesperaAlcancaAJanela() {
+        var regra = new DadosRegraRota(1L, 10L, 20L, SEGUNDA, SEGUNDA.plusDays(13),
+                LocalTime.of(22, 0), LocalTime.of(6, 0), HorarioRota.TODOS_OS_DIAS);
+
+        var ocorrencias = regra.ocorrencias(SEGUNDA.plusDays(3), SEGUNDA.plusDays(3));
+
+        assertThat(regra.viraDia()).isTrue();
+        assertThat(regra.ultimoDiaOcupado()).isEqualTo(SEGUNDA.plusDays(14));
+        assertThat(ocorrencias).extracting(DadosIntervaloViagem::startDate)
+                .containsExactly(SEGUNDA.plusDays(2), SEGUNDA.plusDays(3));
+        assertThat(ocorrencias.get(0).endDate()).isEqualTo(SEGUNDA.plusDays(3));
+    }
+
+    @Test
+    void mascaraIdaEVolta() {
+        var dias = EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.SUNDAY);
+
+        assertThat(HorarioRota.diasDe(HorarioRota.mascaraDe(dias))).isEqualTo(dias);
+        assertThat(HorarioRota.mascaraDe(null)).isEqualTo(HorarioRota.TODOS_OS_DIAS);
+    }
+}
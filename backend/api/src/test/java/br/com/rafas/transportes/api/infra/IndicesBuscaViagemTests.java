@@ -0,0 +1,75 @@
+package br.com.rafas.transportes.api.infra;
+
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Índices de trigramas e a consulta de busca que depende deles, no PostgreSQL; sem Docker os testes são ignorados.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class IndicesBuscaViagemTests {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static IndicesBuscaViagem indices;
+
+    @BeforeAll
+    static void criarTabela() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword()));
+        jdbcTemplate.execute("""
+                CREATE TABLE viagens (
+                    id BIGSERIAL PRIMARY KEY, title VARCHAR(255), client_name VARCHAR(255), telefone VARCHAR(255),
+                    start_location VARCHAR(255), end_location VARCHAR(255), start_date DATE)
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO viagens (title, client_name, telefone, start_location, end_location, start_date) VALUES
+                ('Excursão', 'Transportadora Andrade', '(31) 3333-0000', 'Belo Horizonte', 'Ouro Preto', DATE '2030-01-02'),
+                ('Casamento', 'Maria Andrada', '(31) 98888-7777', 'Contagem', 'Betim', DATE '2030-01-03'),
+                ('Congresso', 'Hotel Central', '(11) 2222-1111', 'Confins', 'Savassi', DATE '2030-01-04')
+                """);
+        indices = new IndicesBuscaViagem();
+        ReflectionTestUtils.setField(indices, "jdbcTemplate", jdbcTemplate);
+        indices.run();
+    }
+
+    @Test
+    void criaUmIndiceGinPorColunaPesquisada() {
+        assertThat(indices.isDisponivel()).isTrue();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'viagens' AND indexdef LIKE '%gin_trgm_ops%'", String.class))
+                .containsExactlyInAnyOrder("idx_viagens_title_trgm", "idx_viagens_client_name_trgm",
+                        "idx_viagens_telefone_trgm", "idx_viagens_start_location_trgm", "idx_viagens_end_location_trgm");
+    }
+
+    @Test
+    void consultaDoRepositorioAchaTrechoEPalavraParecida() throws Exception {
+        String sql = ViagemRepository.class.getMethod("buscarIdsPorTrigramas", String.class, String.class, Pageable.class)
+                .getAnnotation(Query.class).value();
+        var consulta = new NamedParameterJdbcTemplate(jdbcTemplate);
+
+        List<String> clientes = consulta.queryForList(sql, Map.of("termo", "andrade", "padrao", "%andrade%"), Long.class).stream()
+                .map(id -> jdbcTemplate.queryForObject("SELECT client_name FROM viagens WHERE id = ?", String.class, id))
+                .toList();
+
+        assertThat(clientes).containsExactly("Transportadora Andrade", "Maria Andrada");
+        assertThat(consulta.queryForList(sql, Map.of("termo", "9888", "padrao", "%9888%"), Long.class)).hasSize(1);
+    }
+}
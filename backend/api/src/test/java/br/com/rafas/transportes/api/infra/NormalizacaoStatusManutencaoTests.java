@@ -0,0 +1,39 @@
+package br.com.rafas.transportes.api.infra;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Linhas gravadas antes do enum, numa tabela {@code manutencoes} de texto livre como a que existe em produção
+ * (no banco dos testes de integração a coluna já nasce como enum).
+ */
+class NormalizacaoStatusManutencaoTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private NormalizacaoStatusManutencao normalizacao;
+
+    @BeforeEach
+    void criarTabela() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:normalizacao;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS manutencoes");
+        jdbcTemplate.execute("CREATE TABLE manutencoes (id BIGINT PRIMARY KEY, status VARCHAR(255) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO manutencoes VALUES (1, 'Agendada'), (2, ' realizada '), (3, 'CANCELADA')");
+        normalizacao = new NormalizacaoStatusManutencao();
+        ReflectionTestUtils.setField(normalizacao, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void converteDescricoesParaONomeDoEnumUmaVezSo() {
+        normalizacao.run();
+
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM manutencoes ORDER BY id", String.class))
+                .containsExactly("AGENDADA", "REALIZADA", "CANCELADA");
+        assertThat(jdbcTemplate.update("UPDATE manutencoes SET status = UPPER(TRIM(status)) WHERE status <> UPPER(TRIM(status))"))
+                .isZero();
+    }
+}
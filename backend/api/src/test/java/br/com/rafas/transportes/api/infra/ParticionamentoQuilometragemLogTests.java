@@ -0,0 +1,140 @@
+package br.com.rafas.transportes.api.infra;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Conversão de {@code quilometragem_log} na tabela particionada, sobre a estrutura que o Hibernate cria.
+ * Só existe no PostgreSQL; sem Docker os testes são ignorados.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ParticionamentoQuilometragemLogTests {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final YearMonth MES_ATUAL = YearMonth.now();
+    private static final YearMonth PRIMEIRO_MES = MES_ATUAL.minusMonths(4);
+
+    private JdbcTemplate jdbcTemplate;
+    private ParticionamentoQuilometragemLog particionamento;
+
+    @BeforeEach
+    void criarTabelas() {
+        var dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS quilometragem_log, quilometragem_log_legado, veiculos CASCADE");
+        jdbcTemplate.execute("CREATE TABLE veiculos (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY)");
+        jdbcTemplate.execute("""
+                CREATE TABLE quilometragem_log (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY, veiculo_id BIGINT NOT NULL,
+                    data_hora_registro TIMESTAMP(6) NOT NULL, quilometragem_anterior INTEGER NOT NULL,
+                    quilometragem_atual INTEGER NOT NULL, origem_alteracao VARCHAR(255) NOT NULL,
+                    id_referencia_origem BIGINT, data_hora_original TIMESTAMP(6), PRIMARY KEY (id))
+                """);
+        jdbcTemplate.execute("CREATE INDEX idx_quilometragem_log_veiculo_data ON quilometragem_log (veiculo_id, data_hora_registro)");
+        jdbcTemplate.execute("ALTER TABLE quilometragem_log ADD CONSTRAINT fk_quilometragem_log_veiculo"
+                + " FOREIGN KEY (veiculo_id) REFERENCES veiculos");
+        jdbcTemplate.update("INSERT INTO veiculos DEFAULT VALUES");
+        for (int i = 0; i < 20; i++) {
+            inserir(PRIMEIRO_MES.atDay(1).atTime(8, 0).plusDays(i * 7L), i * 100);
+        }
+
+        particionamento = new ParticionamentoQuilometragemLog();
+        ReflectionTestUtils.setField(particionamento, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(particionamento, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(particionamento, "mesesAdiante", 2);
+    }
+
+    @Test
+    void converteTabelaComumEmParticionadaSemPerderRegistros() {
+        long maiorId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM quilometragem_log", Long.class);
+
+        particionamento.run();
+
+        assertThat(particionamento.isParticionada()).isTrue();
+        assertThat(tipo("quilometragem_log")).isEqualTo("p");
+        assertThat(tipo("quilometragem_log_legado")).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log", Integer.class)).isEqualTo(20);
+        List<String> particoes = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = CAST('quilometragem_log' AS regclass) ORDER BY c.relname
+                """, String.class);
+        assertThat(particoes).contains("quilometragem_log_padrao", particao(PRIMEIRO_MES), particao(MES_ATUAL),
+                particao(MES_ATUAL.plusMonths(2)));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log_padrao", Integer.class)).isZero();
+        assertThat(restricao("p")).isEqualTo("PRIMARY KEY (id, data_hora_registro)");
+        assertThat(restricao("f")).contains("FOREIGN KEY (veiculo_id) REFERENCES veiculos(id)");
+        assertThat(jdbcTemplate.queryForObject("SELECT indexdef FROM pg_indexes WHERE indexname = ?", String.class,
+                "idx_quilometragem_log_veiculo_data")).contains("(veiculo_id, data_hora_registro)");
+
+        // a identidade continua depois do maior id copiado
+        inserir(LocalDateTime.now(), 5_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT MAX(id) FROM quilometragem_log", Long.class)).isEqualTo(maiorId + 1);
+
+        // leitura atrasada de um mês sem partição própria cai na padrão; a segunda subida não mexe em nada
+        YearMonth antigo = PRIMEIRO_MES.minusYears(3);
+        inserir(antigo.atDay(10).atStartOfDay(), 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log_padrao", Integer.class)).isOne();
+
+        particionamento.run();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log", Integer.class)).isEqualTo(22);
+        assertThat(particionamento.removerParticao(PRIMEIRO_MES)).isTrue();
+        assertThat(tipo(particao(PRIMEIRO_MES))).isNull();
+        assertThat(particionamento.removerParticao(antigo)).isFalse();
+    }
+
+    @Test
+    void falhaNaConversaoInterrompeAInicializacaoEDeixaATabelaComoEstava() {
+        jdbcTemplate.execute("CREATE TABLE quilometragem_log_legado (id BIGINT)");
+
+        assertThatThrownBy(() -> particionamento.run())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("quilometragem_log");
+
+        assertThat(particionamento.isParticionada()).isFalse();
+        assertThat(tipo("quilometragem_log")).isEqualTo("r");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log", Integer.class)).isEqualTo(20);
+        assertThat(restricao("p")).isEqualTo("PRIMARY KEY (id)");
+    }
+
+    private void inserir(LocalDateTime quando, int km) {
+        jdbcTemplate.update("""
+                INSERT INTO quilometragem_log (veiculo_id, data_hora_registro, quilometragem_anterior,
+                                               quilometragem_atual, origem_alteracao)
+                VALUES (1, ?, ?, ?, 'TELEMETRIA')
+                """, Timestamp.valueOf(quando), km, km + 100);
+    }
+
+    private String tipo(String tabela) {
+        return jdbcTemplate.queryForList("SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass(?)",
+                String.class, tabela).stream().findFirst().orElse(null);
+    }
+
+    private String restricao(String tipo) {
+        return jdbcTemplate.queryForObject("""
+                SELECT pg_get_constraintdef(oid) FROM pg_constraint
+                WHERE conrelid = CAST('quilometragem_log' AS regclass) AND CAST(contype AS text) = ?
+                """, String.class, tipo);
+    }
+
+    private static String particao(YearMonth mes) {
+        return "quilometragem_log_p" + mes.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+}
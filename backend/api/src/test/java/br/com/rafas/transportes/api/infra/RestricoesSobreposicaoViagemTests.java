@@ -0,0 +1,101 @@
+package br.com.rafas.transportes.api.infra;
+
+import br.com.rafas.transportes.api.domain.Viagem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * As restrições de exclusão só existem no PostgreSQL; sem Docker os testes são ignorados.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RestricoesSobreposicaoViagemTests {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+    private RestricoesSobreposicaoViagem restricoes;
+
+    @BeforeEach
+    void criarTabela() {
+        var dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS viagens");
+        jdbcTemplate.execute("""
+                CREATE TABLE viagens (
+                    id BIGSERIAL PRIMARY KEY, vehicle_id BIGINT, driver_id BIGINT,
+                    start_date DATE, start_time TIME, end_date DATE, end_time TIME,
+                    start_at TIMESTAMP, end_at TIMESTAMP, status VARCHAR(20) NOT NULL)
+                """);
+        restricoes = new RestricoesSobreposicaoViagem();
+        ReflectionTestUtils.setField(restricoes, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(restricoes, "transactionManager", new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void viagemCanceladaNaoOcupaRecurso() {
+        restricoes.run();
+        inserir(1, 1, "2030-01-01 08:00", "2030-01-01 12:00", "AGENDADA");
+        inserir(1, 2, "2030-01-01 10:00", "2030-01-01 11:00", "CANCELADA");
+
+        assertThatThrownBy(() -> inserir(1, 3, "2030-01-01 12:00", "2030-01-01 13:00", "AGENDADA"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Viagem.RESTRICAO_SOBREPOSICAO_VEICULO);
+        assertThatThrownBy(() -> jdbcTemplate.update("UPDATE viagens SET status = 'AGENDADA' WHERE status = 'CANCELADA'"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void restricaoAntigaEhRecriadaSemAsCanceladas() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        jdbcTemplate.execute("ALTER TABLE viagens ADD CONSTRAINT " + Viagem.RESTRICAO_SOBREPOSICAO_VEICULO
+                + " EXCLUDE USING gist (vehicle_id WITH =, tsrange(start_at, end_at, '[]') WITH &&)"
+                + " WHERE (vehicle_id IS NOT NULL AND start_at IS NOT NULL AND end_at IS NOT NULL)");
+
+        restricoes.run();
+        inserir(1, 1, "2030-01-01 08:00", "2030-01-01 12:00", "AGENDADA");
+        inserir(1, 2, "2030-01-01 10:00", "2030-01-01 11:00", "CANCELADA");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ?",
+                String.class, Viagem.RESTRICAO_SOBREPOSICAO_VEICULO)).contains("CANCELADA");
+    }
+
+    @Test
+    void sobreposicaoJaGravadaNaoImpedeAInicializacao() {
+        inserir(1, 1, "2030-01-01 08:00", "2030-01-01 12:00", "AGENDADA");
+        inserir(1, 2, "2030-01-01 10:00", "2030-01-01 14:00", "EM_CURSO");
+
+        restricoes.run();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint WHERE conname = ?",
+                Integer.class, Viagem.RESTRICAO_SOBREPOSICAO_VEICULO)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint WHERE conname = ?",
+                Integer.class, Viagem.RESTRICAO_SOBREPOSICAO_MOTORISTA)).isOne();
+        assertThat(restricoes.aplicarRestricoes()).first().satisfies(r -> {
+            assertThat(r.ativa()).isFalse();
+            assertThat(r.paresSobrepostos()).isOne();
+            assertThat(r.viagensSobrepostas()).containsExactly(1L, 2L);
+        });
+
+        // corrigidas as viagens, o passo explícito cria a restrição que faltava
+        jdbcTemplate.update("UPDATE viagens SET status = 'CANCELADA' WHERE id = 2");
+        assertThat(restricoes.aplicarRestricoes()).allSatisfy(r -> assertThat(r.ativa()).isTrue());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint WHERE conname = ?",
+                Integer.class, Viagem.RESTRICAO_SOBREPOSICAO_VEICULO)).isOne();
+    }
+
+    private void inserir(long veiculoId, long motoristaId, String inicio, String fim, String status) {
+        jdbcTemplate.update("INSERT INTO viagens (vehicle_id, driver_id, start_at, end_at, status)"
+                + " VALUES (?, ?, CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), ?)", veiculoId, motoristaId, inicio, fim, status);
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosArquivoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class ArquivoQuilometragemServiceTests {
+
+    private static final LocalDate MES = LocalDate.of(2015, 3, 1);
+
+    @Autowired
+    private ArquivoQuilometragemService arquivoService;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mesArquivadoSegueNoHistoricoAteALimpezaDoVeiculo() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long outro = CenarioTestes.veiculo(veiculoService).getId();
+        List<Long> gravados = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            gravados.add(registrar(veiculo, MES.plusDays(i * 3L).atTime(9, 0), i * 50).id());
+            registrar(outro, MES.plusDays(i * 3L).atTime(9, 0), i * 50);
+        }
+
+        List<DadosArquivoQuilometragemLog> arquivados = arquivoService.arquivar();
+
+        assertThat(arquivados).extracting(DadosArquivoQuilometragemLog::mes).contains(YearMonth.from(MES));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quilometragem_log WHERE veiculo_id IN (?, ?)",
+                Integer.class, veiculo, outro)).isEqualTo(2);
+        assertThat(historicoDoMes(veiculo)).extracting(DadosDetalhamentoQuilometragemLog::id).isEqualTo(gravados);
+
+        quilometragemLogService.excluirLogsPorVeiculo(veiculo);
+        assertThat(historicoDoMes(veiculo)).isEmpty();
+        assertThat(historicoDoMes(outro)).hasSize(10);
+
+        // depois da limpeza, o que o veículo registrar e for arquivado volta a aparecer
+        LocalDateTime depois = MES.plusMonths(1).atTime(9, 0);
+        Long novo = registrar(veiculo, depois, 1_000).id();
+        arquivoService.arquivar();
+        assertThat(quilometragemLogService.listarLogsPorVeiculo(veiculo, MES, depois.toLocalDate(), null, null, null).logs())
+                .extracting(DadosDetalhamentoQuilometragemLog::id).containsExactly(novo);
+    }
+
+    private List<DadosDetalhamentoQuilometragemLog> historicoDoMes(Long veiculo) {
+        return quilometragemLogService.listarLogsPorVeiculo(veiculo, MES, MES.plusMonths(1).minusDays(1), null, null, 100).logs();
+    }
+
+    private DadosDetalhamentoQuilometragemLog registrar(Long veiculo, LocalDateTime quando, int km) {
+        return quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, quando, km, km + 50, "MANUAL", null));
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosAtribuicaoViagem;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosPedidoAtribuicao;
+import br.com.rafas.transportes.api.dto.DadosResultadoAtribuicao;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Atribuição de uma semana sintética de 500 viagens com 40 veículos e 45 motoristas. As propostas são
+ * gravadas pelo lote no fim, que precisa aceitar todas. Roda com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class AtribuicaoViagemBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(AtribuicaoViagemBenchmark.class);
+    private static final LocalDate SEGUNDA = LocalDate.of(2056, 3, 6);
+    private static final int VIAGENS = 500;
+    private static final int RODADAS = 20;
+
+    private static final LocalDate CNH_VALIDA = LocalDate.of(2099, 12, 31);
+
+    @Autowired
+    private AtribuicaoViagemService atribuicao;
+
+    @Autowired
+    private ViagemLoteService loteService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void semanaDeQuinhentasViagens() {
+        for (int i = 0; i < 45; i++) {
+            if (i < 40) {
+                CenarioTestes.veiculo(veiculoService);
+            }
+            CenarioTestes.motorista(motoristaService, CNH_VALIDA);
+        }
+        var aleatorio = new Random(3);
+        List<DadosCadastroViagem> viagens = new ArrayList<>();
+        for (int i = 0; i < VIAGENS; i++) {
+            LocalDateTime inicio = SEGUNDA.plusDays(aleatorio.nextInt(7)).atTime(5, 0).plusMinutes(15L * aleatorio.nextInt(60));
+            LocalDateTime fim = inicio.plusMinutes(60 + 30L * aleatorio.nextInt(aleatorio.nextInt(20) == 0 ? 80 : 12));
+            viagens.add(CenarioTestes.viagem(null, null, inicio, fim));
+        }
+        var pedido = new DadosPedidoAtribuicao(SEGUNDA, SEGUNDA.plusDays(9), viagens);
+
+        for (int i = 0; i < 5; i++) {
+            atribuicao.simular(pedido);
+        }
+        long[] micros = new long[RODADAS];
+        DadosResultadoAtribuicao resultado = null;
+        for (int i = 0; i < RODADAS; i++) {
+            long t0 = System.nanoTime();
+            resultado = atribuicao.simular(pedido);
+            micros[i] = (System.nanoTime() - t0) / 1_000;
+        }
+        Arrays.sort(micros);
+        log.info("{} viagens: {} atribuídas, {} ms de mediana, {} ms no pior caso", VIAGENS, resultado.atribuidas(),
+                micros[RODADAS / 2] / 1_000.0, micros[RODADAS - 1] / 1_000.0);
+
+        List<DadosCadastroViagem> propostas = new ArrayList<>();
+        for (DadosAtribuicaoViagem a : resultado.atribuicoes()) {
+            if (a.motivo() == null) {
+                DadosCadastroViagem v = viagens.get(a.indice());
+                propostas.add(new DadosCadastroViagem(v.title(), v.clientName(), v.telefone(), v.valor(), v.startLocation(),
+                        v.endLocation(), a.veiculoId(), a.motoristaId(), v.startDate(), v.startTime(), v.endDate(), v.endTime(),
+                        v.status(), v.tipoViagem(), v.itensRota()));
+            }
+        }
+        assertThat(loteService.cadastrarEmLote(propostas).erros()).isEmpty();
+    }
+}
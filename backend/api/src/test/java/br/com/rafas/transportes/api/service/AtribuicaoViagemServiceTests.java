@@ -0,0 +1,114 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusMotorista;
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
+import br.com.rafas.transportes.api.dto.DadosAtribuicaoViagem;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoVeiculo;
+import br.com.rafas.transportes.api.dto.DadosCadastroFerias;
+import br.com.rafas.transportes.api.dto.DadosCadastroMotorista;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosPedidoAtribuicao;
+import br.com.rafas.transportes.api.dto.DadosResultadoAtribuicao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class AtribuicaoViagemServiceTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2038, 8, 2, 8, 0);
+
+    private static final LocalDate CNH_VALIDA = LocalDate.of(2099, 12, 31);
+
+    @Autowired
+    private AtribuicaoViagemService atribuicao;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private ViagemLoteService loteService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private FeriasService feriasService;
+
+    @Test
+    void recursoInformadoSoEConferido() {
+        Long veiculoOcupado = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoInativo = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoLivre = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService, CNH_VALIDA).getId();
+        // outro motorista livre e com CNH válida, para a última viagem ter a quem receber
+        CenarioTestes.motorista(motoristaService, CNH_VALIDA);
+        Long motoristaDeFerias = CenarioTestes.motorista(motoristaService, CNH_VALIDA).getId();
+        Long motoristaComCnhVencida = motoristaService.cadastrar(new DadosCadastroMotorista("Motorista CNH " + CenarioTestes.telefone(),
+                BASE.toLocalDate().minusDays(1), CenarioTestes.telefone(), StatusMotorista.ATIVO)).getId();
+        viagemService.cadastrar(CenarioTestes.viagem(veiculoOcupado, motorista, BASE.minusHours(2), BASE.plusHours(1)));
+        veiculoService.atualizar(veiculoInativo, new DadosAtualizacaoVeiculo(null, null, StatusVeiculo.INATIVO, null));
+        feriasService.cadastrar(new DadosCadastroFerias(motoristaDeFerias, BASE.toLocalDate(), BASE.toLocalDate().plusDays(10)));
+        LocalDateTime inicio = BASE.plusMinutes(30);
+
+        var resultado = atribuicao.simular(new DadosPedidoAtribuicao(null, null, List.of(
+                CenarioTestes.viagem(veiculoOcupado, null, inicio, inicio.plusHours(2)),
+                CenarioTestes.viagem(veiculoInativo, null, inicio, inicio.plusHours(2)),
+                CenarioTestes.viagem(veiculoLivre, motoristaDeFerias, inicio, inicio.plusHours(2)),
+                CenarioTestes.viagem(veiculoLivre, motoristaComCnhVencida, inicio, inicio.plusHours(2)),
+                CenarioTestes.viagem(veiculoLivre, null, inicio, inicio.plusHours(2)))));
+
+        assertThat(resultado.recebidas()).isEqualTo(5);
+        assertThat(resultado.atribuicoes()).extracting(DadosAtribuicaoViagem::motivo)
+                .containsExactly(
+                        "O veículo informado não está ativo ou livre neste período.",
+                        "O veículo informado não está ativo ou livre neste período.",
+                        "O motorista informado não está livre, está de férias ou com a CNH vencida neste período.",
+                        "O motorista informado não está livre, está de férias ou com a CNH vencida neste período.",
+                        null);
+        assertThat(resultado.atribuicoes().get(4).veiculoId()).isEqualTo(veiculoLivre);
+        assertThat(resultado.atribuicoes().get(4).motoristaId()).isNotNull()
+                .isNotIn(motorista, motoristaDeFerias, motoristaComCnhVencida);
+    }
+
+    @Test
+    void propostasSemRecursoFixoSaoAceitasPeloLote() {
+        for (int i = 0; i < 6; i++) {
+            CenarioTestes.veiculo(veiculoService);
+            CenarioTestes.motorista(motoristaService, CNH_VALIDA);
+        }
+        LocalDate dia = BASE.toLocalDate().plusMonths(1);
+        List<DadosCadastroViagem> viagens = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            // três viagens por faixa de horário, faixas encostadas e uma viagem que atravessa a noite
+            LocalDateTime inicio = dia.atTime(6, 0).plusHours(2L * (i / 3));
+            LocalDateTime fim = i == 23 ? inicio.plusHours(14) : inicio.plusHours(2);
+            viagens.add(CenarioTestes.viagem(null, null, inicio, fim));
+        }
+
+        DadosResultadoAtribuicao resultado = atribuicao.simular(new DadosPedidoAtribuicao(dia, dia.plusDays(1), viagens));
+
+        assertThat(resultado.atribuidas()).isEqualTo(24);
+        List<DadosCadastroViagem> propostas = new ArrayList<>();
+        for (DadosAtribuicaoViagem a : resultado.atribuicoes()) {
+            DadosCadastroViagem v = viagens.get(a.indice());
+            propostas.add(new DadosCadastroViagem(v.title(), v.clientName(), v.telefone(), v.valor(), v.startLocation(),
+                    v.endLocation(), a.veiculoId(), a.motoristaId(), v.startDate(), v.startTime(), v.endDate(), v.endTime(),
+                    v.status(), v.tipoViagem(), v.itensRota()));
+        }
+        var lote = loteService.cadastrarEmLote(propostas);
+        assertThat(lote.erros()).isEmpty();
+        assertThat(lote.cadastradas()).isEqualTo(24);
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoViagem;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Busca pelo caminho do H2 ({@code LIKE}); no PostgreSQL com {@code pg_trgm} a consulta é outra.
+ */
+@TesteIntegracao
+class BuscaViagemTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2044, 4, 4, 8, 0);
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    private String marca;
+    private int viagens;
+
+    @BeforeEach
+    void criarMarca() {
+        marca = "busca" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void quemComecaComOTermoVemPrimeiro() {
+        Long contem = cadastrar("Transportes " + marca, "Belo Horizonte");
+        Long comeca = cadastrar(marca + " Ltda", "Belo Horizonte");
+        Long local = cadastrar("Cliente qualquer", "Rodoviária " + marca.toUpperCase());
+
+        var resultado = viagemService.buscar("  " + marca + " ", null, null);
+
+        assertThat(resultado.viagens()).extracting(DadosDetalhamentoViagem::id).containsExactly(comeca, local, contem);
+    }
+
+    @Test
+    void curingasDoLikeValemComoTexto() {
+        Long literal = cadastrar(marca + " 50%_off", "Belo Horizonte");
+        cadastrar(marca + " 50ab off", "Belo Horizonte");
+
+        assertThat(viagemService.buscar(marca + " 50%_", null, null).viagens())
+                .extracting(DadosDetalhamentoViagem::id).containsExactly(literal);
+    }
+
+    @Test
+    void paginaCustaDuasConsultasEmQualquerPosicao() {
+        for (int i = 0; i < 5; i++) {
+            cadastrar("Cliente " + marca, "Belo Horizonte");
+        }
+
+        var primeira = ContadorConsultas.contar(() -> viagemService.buscar(marca, 0, 2));
+        var ultima = ContadorConsultas.contar(() -> viagemService.buscar(marca, 2, 2));
+
+        assertThat(primeira.resultado().viagens()).hasSize(2);
+        assertThat(primeira.resultado().temProxima()).isTrue();
+        assertThat(ultima.resultado().viagens()).hasSize(1);
+        assertThat(ultima.resultado().temProxima()).isFalse();
+        assertThat(primeira.comandos()).isEqualTo(2);
+        assertThat(ultima.comandos()).isEqualTo(2);
+    }
+
+    @Test
+    void termoCurtoEhRecusado() {
+        assertThatThrownBy(() -> viagemService.buscar(" ab ", null, null))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("3 caracteres");
+    }
+
+    private Long cadastrar(String cliente, String origem) {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime inicio = BASE.plusDays(viagens++);
+        var base = CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(2));
+        return viagemService.cadastrar(new DadosCadastroViagem(base.title(), cliente, base.telefone(), base.valor(),
+                origem, base.endLocation(), veiculo, motorista, base.startDate(), base.startTime(), base.endDate(),
+                base.endTime(), base.status(), base.tipoViagem(), null)).id();
+    }
+}
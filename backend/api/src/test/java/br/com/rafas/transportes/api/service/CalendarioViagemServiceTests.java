@@ -0,0 +1,112 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosCalendarioDia;
+import br.com.rafas.transportes.api.dto.DadosCalendarioMes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class CalendarioViagemServiceTests {
+
+    @Autowired
+    private CalendarioViagemService calendario;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void viagemDeVariosDiasOcupaCadaDiaEOValorEntraNoPrimeiro() {
+        YearMonth mes = YearMonth.of(2037, 2);
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long outroVeiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long outroMotorista = CenarioTestes.motorista(motoristaService).getId();
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, mes.atDay(10).atTime(8, 0), mes.atDay(12).atTime(18, 0)));
+        viagemService.cadastrar(CenarioTestes.viagem(outroVeiculo, outroMotorista, mes.atDay(11).atTime(9, 0), mes.atDay(11).atTime(12, 0)));
+
+        var contagem = ContadorConsultas.contar(() -> calendario.consultar(mes));
+
+        DadosCalendarioMes resumo = contagem.resultado();
+        assertThat(resumo.dias()).hasSize(28);
+        assertThat(dia(resumo, 9).viagens()).isZero();
+        assertThat(dia(resumo, 10).viagens()).isEqualTo(1);
+        assertThat(dia(resumo, 10).valorTotal()).isEqualByComparingTo("100.00");
+        assertThat(dia(resumo, 11).viagensPorStatus()).isEqualTo(Map.of(StatusViagem.AGENDADA, 2));
+        assertThat(dia(resumo, 11).veiculoIds()).containsExactlyInAnyOrder(veiculo, outroVeiculo);
+        assertThat(dia(resumo, 11).valorTotal()).isEqualByComparingTo("100.00");
+        assertThat(dia(resumo, 12).veiculosEmUso()).isEqualTo(1);
+        assertThat(dia(resumo, 12).valorTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(dia(resumo, 13).viagens()).isZero();
+        assertThat(contagem.comandos()).isEqualTo(2);
+    }
+
+    @Test
+    void atualizacaoEExclusaoMovemOsContadores() {
+        YearMonth mes = YearMonth.of(2037, 3);
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long id = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista,
+                mes.atDay(5).atTime(8, 0), mes.atDay(6).atTime(18, 0))).id();
+
+        viagemService.atualizar(id, new DadosAtualizacaoViagem(null, null, null, new BigDecimal("250.00"), null, null,
+                null, null, mes.atDay(6), LocalTime.of(8, 0), mes.atDay(7), LocalTime.of(18, 0), StatusViagem.EM_CURSO, null, null));
+
+        DadosCalendarioMes resumo = calendario.consultar(mes);
+        assertThat(dia(resumo, 5).viagens()).isZero();
+        assertThat(dia(resumo, 6).viagensPorStatus()).isEqualTo(Map.of(StatusViagem.EM_CURSO, 1));
+        assertThat(dia(resumo, 6).valorTotal()).isEqualByComparingTo("250.00");
+        assertThat(dia(resumo, 7).veiculoIds()).containsExactly(veiculo);
+
+        viagemService.excluir(id);
+
+        resumo = calendario.consultar(mes);
+        assertThat(resumo.dias()).allSatisfy(d -> {
+            assertThat(d.viagens()).isZero();
+            assertThat(d.veiculosEmUso()).isZero();
+            assertThat(d.valorTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+        });
+    }
+
+    @Test
+    void rotaOcupaSoOsDiasComTurnoEReconstruirDaOMesmoResultado() {
+        YearMonth mes = YearMonth.of(2037, 4);
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        viagemService.cadastrar(CenarioTestes.rota(veiculo, motorista, mes.atDay(20), mes.atDay(22),
+                LocalTime.of(22, 0), LocalTime.of(6, 0)));
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, mes.atDay(2).atTime(8, 0), mes.atDay(2).atTime(9, 0)));
+        DadosCalendarioMes incremental = calendario.consultar(mes);
+
+        calendario.reconstruir();
+
+        assertThat(calendario.consultar(mes)).isEqualTo(incremental);
+        assertThat(dia(incremental, 19).viagens()).isZero();
+        assertThat(incremental.dias().subList(19, 23)).allSatisfy(d -> assertThat(d.veiculoIds()).containsExactly(veiculo));
+        assertThat(dia(incremental, 24).viagens()).isZero();
+    }
+
+    private static DadosCalendarioDia dia(DadosCalendarioMes mes, int dia) {
+        DadosCalendarioDia resumo = mes.dias().get(dia - 1);
+        assertThat(resumo.dia()).isEqualTo(LocalDate.of(mes.mes().getYear(), mes.mes().getMonth(), dia));
+        return resumo;
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.repository.ItemRotaRepository;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Viagem cancelada não ocupa veículo nem motorista — no índice, nas consultas e nas restrições do banco.
+ */
+@TesteIntegracao
+class CancelamentoViagemTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2039, 3, 7, 8, 0);
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ItemRotaRepository itemRotaRepository;
+
+    @Autowired
+    private IndiceConflitosViagem indice;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void viagemCanceladaLiberaOHorarioEVoltarExigeOHorarioLivre() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long outroMotorista = CenarioTestes.motorista(motoristaService).getId();
+        Long cancelada = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, BASE, BASE.plusHours(4))).id();
+
+        alterarStatus(cancelada, StatusViagem.CANCELADA);
+
+        assertThat(indice.existeConflitoVeiculo(veiculo, BASE.toLocalDate(), LocalTime.of(9, 0),
+                BASE.toLocalDate(), LocalTime.of(10, 0), 0L)).isFalse();
+        assertThat(viagemRepository.findVeiculoConflitosByTime(veiculo, BASE, BASE.plusHours(4), 0L)).isEmpty();
+        assertThat(viagemRepository.findMotoristaConflitosByTime(motorista, BASE, BASE.plusHours(4), 0L)).isEmpty();
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, outroMotorista, BASE.plusHours(1), BASE.plusHours(2)));
+
+        assertThatThrownBy(() -> alterarStatus(cancelada, StatusViagem.AGENDADA))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(ViagemService.CONFLITO_VEICULO_ATUALIZACAO);
+        assertThat(viagemRepository.findById(cancelada).orElseThrow().getStatus()).isEqualTo(StatusViagem.CANCELADA);
+    }
+
+    @Test
+    void rotaCanceladaLiberaOsRecursosEVoltarConfereOPeriodo() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long outroMotorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDate inicio = BASE.toLocalDate().plusMonths(1);
+        Long rota = viagemService.cadastrar(CenarioTestes.rota(veiculo, motorista, inicio, inicio.plusDays(20),
+                LocalTime.of(6, 0), LocalTime.of(8, 0))).id();
+
+        alterarStatus(rota, StatusViagem.CANCELADA);
+
+        assertThat(itemRotaRepository.listarRegrasAtivasPorVeiculoNoPeriodo(veiculo, inicio, inicio.plusDays(20))).isEmpty();
+        assertThat(itemRotaRepository.listarRegrasPorMotoristaNoPeriodo(motorista, inicio, inicio.plusDays(20))).hasSize(1);
+        LocalDateTime ocupado = inicio.plusDays(10).atTime(6, 30);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, outroMotorista, ocupado, ocupado.plusHours(1)));
+
+        assertThatThrownBy(() -> alterarStatus(rota, StatusViagem.AGENDADA))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("veículo " + veiculo);
+        assertThat(indice.existeConflitoMotorista(motorista, ocupado.toLocalDate(), LocalTime.of(7, 0),
+                ocupado.toLocalDate(), LocalTime.of(7, 30), 0L)).isFalse();
+    }
+
+    private void alterarStatus(Long id, StatusViagem status) {
+        viagemService.atualizar(id, new DadosAtualizacaoViagem(null, null, null, null, null, null, null, null,
+                null, null, null, null, status, null, null));
+    }
+}
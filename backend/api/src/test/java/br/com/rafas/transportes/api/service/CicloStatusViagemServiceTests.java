@@ -0,0 +1,122 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.receita.DimensaoReceita;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosCalendarioMes;
+import br.com.rafas.transportes.api.dto.DadosReceita;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class CicloStatusViagemServiceTests {
+
+    @Autowired
+    private CicloStatusViagemService ciclo;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private CalendarioViagemService calendario;
+
+    @Autowired
+    private ReceitaViagemService receita;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void avancaPeloRelogioEMantemCalendarioEReceita() {
+        LocalDateTime agora = LocalDateTime.now();
+        Long iniciada = cadastrar(agora.minusHours(1), agora.plusHours(1), StatusViagem.AGENDADA);
+        Long jaTerminada = cadastrar(agora.minusDays(3), agora.minusDays(2), StatusViagem.AGENDADA);
+        Long emCurso = cadastrar(agora.minusHours(5), agora.minusHours(1), StatusViagem.EM_CURSO);
+        Long futura = cadastrar(agora.plusDays(1), agora.plusDays(1).plusHours(3), StatusViagem.AGENDADA);
+        Long cancelada = cadastrar(agora.minusDays(2), agora.minusDays(2).plusHours(3), StatusViagem.CANCELADA);
+
+        var contagem = ContadorConsultas.contar(() -> ciclo.atualizarStatusViagens());
+
+        assertThat(status(iniciada)).isEqualTo(StatusViagem.EM_CURSO);
+        assertThat(status(jaTerminada)).isEqualTo(StatusViagem.FINALIZADA);
+        assertThat(status(emCurso)).isEqualTo(StatusViagem.FINALIZADA);
+        assertThat(status(futura)).isEqualTo(StatusViagem.AGENDADA);
+        assertThat(status(cancelada)).isEqualTo(StatusViagem.CANCELADA);
+        assertThat(contagem.resultado().iniciadas()).isGreaterThanOrEqualTo(2);
+        assertThat(contagem.resultado().finalizadas()).isGreaterThanOrEqualTo(2);
+        // um UPDATE e uma leitura por transição, mais os lotes do calendário e da receita
+        assertThat(contagem.comandos()).isLessThanOrEqualTo(16);
+
+        assertThat(ciclo.atualizarStatusViagens().iniciadas()).isZero();
+
+        YearMonth de = YearMonth.from(agora.minusDays(3));
+        YearMonth ate = YearMonth.from(agora.plusDays(1));
+        List<DadosCalendarioMes> calendarioIncremental = List.of(calendario.consultar(de), calendario.consultar(ate));
+        DadosReceita receitaIncremental = consultarReceita(de, ate);
+        calendario.reconstruir();
+        receita.reconstruir();
+        assertThat(List.of(calendario.consultar(de), calendario.consultar(ate))).isEqualTo(calendarioIncremental);
+        assertThat(consultarReceita(de, ate)).isEqualTo(receitaIncremental);
+    }
+
+    @Test
+    void atrasoMaiorQueUmLoteAndaEmVariosLotes() {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Long> atrasadas = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            atrasadas.add(cadastrar(agora.minusDays(10).plusHours(i), agora.minusDays(10).plusHours(i + 1), StatusViagem.AGENDADA));
+        }
+        ReflectionTestUtils.setField(ciclo, "tamanhoLote", 2);
+        try {
+            var contagem = ContadorConsultas.contar(() -> ciclo.atualizarStatusViagens());
+
+            assertThat(atrasadas).allSatisfy(id -> assertThat(status(id)).isEqualTo(StatusViagem.FINALIZADA));
+            assertThat(contagem.resultado().iniciadas()).isGreaterThanOrEqualTo(atrasadas.size());
+            assertThat(contagem.resultado().finalizadas()).isGreaterThanOrEqualTo(atrasadas.size());
+            // ao menos quatro lotes de dois por transição, cada um com seu UPDATE
+            assertThat(contagem.comandos()).isGreaterThanOrEqualTo(16);
+        } finally {
+            ReflectionTestUtils.setField(ciclo, "tamanhoLote", 500);
+        }
+        assertThat(ciclo.atualizarStatusViagens().finalizadas()).isZero();
+    }
+
+    private Long cadastrar(LocalDateTime inicio, LocalDateTime fim, StatusViagem status) {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long id = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, fim)).id();
+        if (status != StatusViagem.AGENDADA) {
+            viagemService.atualizar(id, new DadosAtualizacaoViagem(null, null, null, null, null, null, null, null,
+                    null, null, null, null, status, null, null));
+        }
+        return id;
+    }
+
+    private StatusViagem status(Long id) {
+        return viagemRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    private DadosReceita consultarReceita(YearMonth de, YearMonth ate) {
+        return receita.consultar(de, ate, List.of(DimensaoReceita.MES, DimensaoReceita.VEICULO, DimensaoReceita.STATUS),
+                EnumSet.allOf(StatusViagem.class), null, null, null);
+    }
+}
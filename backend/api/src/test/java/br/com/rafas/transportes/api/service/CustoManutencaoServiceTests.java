@@ -0,0 +1,126 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
+import br.com.rafas.transportes.api.domain.custo.DimensaoCustoManutencao;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoManutencao;
+import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
+import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosCustoManutencao;
+import br.com.rafas.transportes.api.dto.DadosLinhaCustoManutencao;
+import br.com.rafas.transportes.api.dto.DadosRankingCustoKm;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@TesteIntegracao
+class CustoManutencaoServiceTests {
+
+    private static final YearMonth MES = YearMonth.now().minusMonths(3);
+    private static final int KM_VEICULO = 100_000;
+
+    @Autowired
+    private CustoManutencaoService custoService;
+
+    @Autowired
+    private ManutencaoService manutencaoService;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Test
+    void custoPorKmSaiDosResumosEAcompanhaAsGravacoes() {
+        Long caro = CenarioTestes.veiculo(veiculoService, KM_VEICULO).getId();
+        Long barato = CenarioTestes.veiculo(veiculoService, KM_VEICULO).getId();
+        Long semCusto = CenarioTestes.veiculo(veiculoService, KM_VEICULO).getId();
+        rodar(caro, 500);
+        rodar(barato, 1_000);
+        rodar(semCusto, 2_000);
+        realizar(caro, "Preventiva", "400.00", MES);
+        realizar(barato, "Preventiva", "300.00", MES);
+        Long corretiva = realizar(barato, "Corretiva", "200.00", MES);
+
+        var contagem = ContadorConsultas.contar(() -> custoService.consultar(MES, MES,
+                List.of(DimensaoCustoManutencao.VEICULO, DimensaoCustoManutencao.TIPO), barato, null));
+
+        // resumo de custos e resumo de km, sem ler manutenções nem registros de quilometragem
+        assertThat(contagem.comandos()).isEqualTo(2);
+        assertThat(contagem.resultado().linhas())
+                .extracting(DadosLinhaCustoManutencao::type, DadosLinhaCustoManutencao::custoTotal,
+                        DadosLinhaCustoManutencao::kmRodados, DadosLinhaCustoManutencao::custoPorKm)
+                .containsExactly(
+                        tuple("Corretiva", new BigDecimal("200.00"), 1_000L, new BigDecimal("0.2000")),
+                        tuple("Preventiva", new BigDecimal("300.00"), 1_000L, new BigDecimal("0.3000")));
+        assertThat(contagem.resultado().custoPorKm()).isEqualByComparingTo("0.5");
+
+        assertThat(ranking(caro, barato, semCusto))
+                .extracting(DadosRankingCustoKm::veiculoId, DadosRankingCustoKm::custoPorKm)
+                .containsExactly(
+                        tuple(caro, new BigDecimal("0.8000")),
+                        tuple(barato, new BigDecimal("0.5000")),
+                        tuple(semCusto, new BigDecimal("0.0000")));
+
+        // a corretiva muda de mês e de valor: sai de um balde e entra no outro
+        manutencaoService.atualizar(corretiva, new DadosAtualizacaoManutencao(null, null, null, MES.minusMonths(1).atDay(10),
+                new BigDecimal("260.00"), null, null, null));
+        DadosCustoManutencao doisMeses = custoService.consultar(MES.minusMonths(1), MES,
+                List.of(DimensaoCustoManutencao.MES), barato, null);
+        assertThat(doisMeses.linhas())
+                .extracting(DadosLinhaCustoManutencao::mes, DadosLinhaCustoManutencao::custoTotal,
+                        DadosLinhaCustoManutencao::kmRodados, DadosLinhaCustoManutencao::custoPorKm)
+                .containsExactly(
+                        tuple(MES.minusMonths(1), new BigDecimal("260.00"), 0L, null),
+                        tuple(MES, new BigDecimal("300.00"), 1_000L, new BigDecimal("0.3000")));
+
+        custoService.reconstruir();
+        assertThat(custoService.consultar(MES.minusMonths(1), MES, List.of(DimensaoCustoManutencao.MES), barato, null))
+                .isEqualTo(doisMeses);
+    }
+
+    @Test
+    void periodoInvalidoEhRecusado() {
+        assertThatThrownBy(() -> custoService.consultar(MES, MES.minusMonths(1), null, null, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> custoService.ranking(MES.minusYears(10), MES, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> custoService.ranking(MES, MES, 0))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private List<DadosRankingCustoKm> ranking(Long... veiculos) {
+        List<Long> nossos = List.of(veiculos);
+        return custoService.ranking(MES, MES, null).stream().filter(r -> nossos.contains(r.veiculoId())).toList();
+    }
+
+    /**
+     * Dois registros no mês somando {@code km}.
+     */
+    private void rodar(Long veiculo, int km) {
+        int meio = KM_VEICULO + km / 2;
+        quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, MES.atDay(5).atTime(8, 0),
+                KM_VEICULO, meio, "MANUAL", null));
+        quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, MES.atDay(20).atTime(8, 0),
+                meio, KM_VEICULO + km, "MANUAL", null));
+    }
+
+    /**
+     * Realizada com km abaixo do hodômetro, para não gerar registro de quilometragem fora do mês.
+     */
+    private Long realizar(Long veiculo, String tipo, String custo, YearMonth mes) {
+        return manutencaoService.cadastrar(new DadosCadastroManutencao(veiculo, tipo + " " + mes, tipo, mes.atDay(10),
+                new BigDecimal(custo), StatusManutencao.REALIZADA.getDescricao(), KM_VEICULO / 2, null)).id();
+    }
+}
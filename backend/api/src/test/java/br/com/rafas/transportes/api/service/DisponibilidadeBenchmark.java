@@ -0,0 +1,78 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tempo de {@code GET /disponibilidade} com 300 veículos, 300 motoristas e meio milhão de viagens.
+ * Roda com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class DisponibilidadeBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(DisponibilidadeBenchmark.class);
+    private static final LocalDateTime BASE = LocalDateTime.of(2051, 1, 1, 0, 0);
+    private static final int MINUTOS_NO_PERIODO = 5 * 365 * 24 * 60;
+    private static final int RECURSOS = 300;
+    private static final int VIAGENS = 500_000;
+    private static final int CONSULTAS = 200;
+
+    @Autowired
+    private DisponibilidadeService service;
+
+    @Autowired
+    private IndiceConflitosViagem indice;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void consultaComHistoricoGrande() {
+        var aleatorio = new Random(11);
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < RECURSOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        CenarioTestes.inserirViagens(jdbcTemplate, VIAGENS, veiculos, motoristas, BASE, MINUTOS_NO_PERIODO, aleatorio);
+        indice.carregar();
+
+        for (int i = 0; i < 20; i++) {
+            consultarAleatoria(aleatorio);
+        }
+        long[] micros = new long[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            long t0 = System.nanoTime();
+            consultarAleatoria(aleatorio);
+            micros[i] = (System.nanoTime() - t0) / 1_000;
+        }
+        Arrays.sort(micros);
+        log.info("{} viagens: disponibilidade em {} ms de mediana, {} ms no p95, {} ms no pior caso", VIAGENS,
+                micros[CONSULTAS / 2] / 1_000.0, micros[CONSULTAS * 95 / 100] / 1_000.0, micros[CONSULTAS - 1] / 1_000.0);
+    }
+
+    private void consultarAleatoria(Random aleatorio) {
+        LocalDateTime inicio = BASE.plusMinutes(aleatorio.nextInt(MINUTOS_NO_PERIODO));
+        service.consultar(inicio, inicio.plusHours(4));
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusVeiculo;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoVeiculo;
+import br.com.rafas.transportes.api.dto.DadosCadastroFerias;
+import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoMotorista;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoVeiculo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class DisponibilidadeServiceTests {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2034, 6, 12, 10, 0);
+    private static final LocalDateTime FIM = INICIO.plusHours(2);
+
+    @Autowired
+    private DisponibilidadeService service;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private ManutencaoService manutencaoService;
+
+    @Autowired
+    private FeriasService feriasService;
+
+    @Test
+    void descontaViagensManutencoesFeriasRotasEInativos() {
+        Long veiculoLivre = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoEmViagem = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoEmManutencao = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoEmRota = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoInativo = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoComViagemEncostada = CenarioTestes.veiculo(veiculoService).getId();
+        Long motoristaLivre = CenarioTestes.motorista(motoristaService).getId();
+        Long motoristaEmViagem = CenarioTestes.motorista(motoristaService).getId();
+        Long motoristaDeFerias = CenarioTestes.motorista(motoristaService).getId();
+        Long motoristaEmRota = CenarioTestes.motorista(motoristaService).getId();
+        Long motoristaComViagemEncostada = CenarioTestes.motorista(motoristaService).getId();
+
+        // começou dias antes da janela: a busca no banco precisa recuar pela maior duração conhecida
+        viagemService.cadastrar(CenarioTestes.viagem(veiculoEmViagem, motoristaEmViagem, INICIO.minusDays(10), INICIO.plusMinutes(30)));
+        viagemService.cadastrar(CenarioTestes.viagem(veiculoComViagemEncostada, motoristaComViagemEncostada,
+                FIM.plusMinutes(1), FIM.plusHours(3)));
+        viagemService.cadastrar(CenarioTestes.rota(veiculoEmRota, motoristaEmRota, INICIO.toLocalDate().minusDays(7),
+                INICIO.toLocalDate().plusDays(7), LocalTime.of(11, 30), LocalTime.of(12, 30)));
+        manutencaoService.cadastrar(new DadosCadastroManutencao(veiculoEmManutencao, "Revisão", "Preventiva",
+                INICIO.toLocalDate(), BigDecimal.TEN, "Agendada", 10_000, null));
+        feriasService.cadastrar(new DadosCadastroFerias(motoristaDeFerias, LocalDate.of(2034, 6, 1), LocalDate.of(2034, 6, 30)));
+        veiculoService.atualizar(veiculoInativo, new DadosAtualizacaoVeiculo(null, null, StatusVeiculo.INATIVO, null));
+
+        var contagem = ContadorConsultas.contar(() -> service.consultar(INICIO, FIM));
+
+        var veiculos = contagem.resultado().veiculos().stream().map(DadosDetalhamentoVeiculo::id).toList();
+        var motoristas = contagem.resultado().motoristas().stream().map(DadosDetalhamentoMotorista::id).toList();
+        assertThat(veiculos).contains(veiculoLivre, veiculoComViagemEncostada)
+                .doesNotContain(veiculoEmViagem, veiculoEmManutencao, veiculoEmRota, veiculoInativo);
+        assertThat(motoristas).contains(motoristaLivre, motoristaComViagemEncostada)
+                .doesNotContain(motoristaEmViagem, motoristaDeFerias, motoristaEmRota);
+        assertThat(contagem.comandos()).isLessThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exporta 1 milhão de viagens medindo o heap ocupado depois de cada coleta feita durante a escrita. O arquivo é
+ * descartado à medida que sai, como numa resposta HTTP. O H2 roda no mesmo processo, então o heap medido inclui
+ * o resultado da consulta que ele monta ao abrir o cursor; o que importa é que não cresce com as linhas escritas.
+ * Roda com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class ExportacaoBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacaoBenchmark.class);
+    private static final LocalDateTime BASE = LocalDateTime.of(2058, 1, 1, 0, 0);
+    private static final int VIAGENS = 1_000_000;
+    private static final int RECURSOS = 100;
+    private static final long BYTES_ENTRE_MEDICOES = 16L * 1024 * 1024;
+    private static final long CRESCIMENTO_MAXIMO = 128L * 1024 * 1024;
+
+    @Autowired
+    private ExportacaoService service;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void milhaoDeViagensComHeapConstante() throws Exception {
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < RECURSOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        CenarioTestes.inserirViagens(jdbcTemplate, VIAGENS, veiculos, motoristas, BASE, 365 * 24 * 60, new Random(9));
+        LocalDate de = BASE.toLocalDate();
+        LocalDate ate = de.plusYears(1);
+
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        memoria.gc();
+        long antes = memoria.getHeapMemoryUsage().getUsed();
+        var saida = new MedidorSaida(memoria);
+        long t0 = System.nanoTime();
+        service.exportar("viagens", de, ate, false).writeTo(saida);
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+
+        log.info("{} viagens exportadas em {} ms: {} MB escritos, heap após coleta {} MB antes e no máximo {} MB durante "
+                        + "({} medições)", saida.linhas - 1, millis, saida.bytes / (1024 * 1024), antes / (1024 * 1024),
+                saida.maiorHeap / (1024 * 1024), saida.medicoes);
+        log.info("heap em MB a cada 16 MB escritos: {}", saida.heapPorMedicao);
+        assertThat(saida.linhas - 1).isGreaterThanOrEqualTo(VIAGENS);
+        assertThat(saida.medicoes).isGreaterThan(3);
+        assertThat(saida.maiorHeap - antes).isLessThan(CRESCIMENTO_MAXIMO);
+        // do primeiro ao último trecho escrito o heap não cresce
+        assertThat(saida.heapPorMedicao.get(saida.medicoes - 1)).isLessThanOrEqualTo(saida.heapPorMedicao.get(0) + 16);
+    }
+
+    /**
+     * Conta bytes e linhas e, a cada {@link #BYTES_ENTRE_MEDICOES}, força uma coleta e anota o heap ocupado.
+     */
+    private static class MedidorSaida extends OutputStream {
+
+        private final MemoryMXBean memoria;
+        private long bytes;
+        private long linhas;
+        private long proximaMedicao = BYTES_ENTRE_MEDICOES;
+        private long maiorHeap;
+        private int medicoes;
+        private final List<Long> heapPorMedicao = new ArrayList<>();
+
+        MedidorSaida(MemoryMXBean memoria) {
+            this.memoria = memoria;
+        }
+
+        @Override
+        public void write(int b) {
+            contar(b);
+            bytes++;
+            medirSePreciso();
+        }
+
+        @Override
+        public void write(byte[] b, int inicio, int tamanho) {
+            for (int i = inicio; i < inicio + tamanho; i++) {
+                contar(b[i]);
+            }
+            bytes += tamanho;
+            medirSePreciso();
+        }
+
+        private void contar(int b) {
+            if (b == '\n') {
+                linhas++;
+            }
+        }
+
+        private void medirSePreciso() {
+            if (bytes >= proximaMedicao) {
+                proximaMedicao += BYTES_ENTRE_MEDICOES;
+                memoria.gc();
+                long usado = memoria.getHeapMemoryUsage().getUsed();
+                heapPorMedicao.add(usado / (1024 * 1024));
+                maiorHeap = Math.max(maiorHeap, usado);
+                medicoes++;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class ExportacaoServiceTests {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2048, 3, 3, 8, 0);
+
+    @Autowired
+    private ExportacaoService service;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void csvNoFormatoDoExcelComFiltroEGzip() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        var base = CenarioTestes.viagem(veiculo, motorista, INICIO, INICIO.plusHours(3));
+        Long id = viagemService.cadastrar(new DadosCadastroViagem(base.title(), "Silva; \"Filhos\"", base.telefone(),
+                new BigDecimal("1234.50"), base.startLocation(), base.endLocation(), veiculo, motorista, base.startDate(),
+                base.startTime(), base.endDate(), base.endTime(), base.status(), base.tipoViagem(), null)).id();
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, INICIO.plusDays(1), INICIO.plusDays(1).plusHours(3)));
+        LocalDate dia = INICIO.toLocalDate();
+
+        String csv = exportar(dia, dia, false);
+        String[] linhas = csv.split("\r\n");
+
+        assertThat(csv).startsWith("\uFEFFid;titulo;cliente;");
+        assertThat(linhas).hasSize(2);
+        assertThat(linhas[1]).startsWith(id + ";" + base.title() + ";\"Silva; \"\"Filhos\"\"\";")
+                .contains(";1234,50;")
+                .contains(";2048-03-03;08:00;2048-03-03;11:00;AGENDADA;IDA_E_VOLTA_MG");
+        assertThat(exportar(dia, dia, true)).isEqualTo(csv);
+        assertThat(exportar(dia, dia.plusDays(1), false).split("\r\n")).hasSize(3);
+    }
+
+    @Test
+    void textoQueComecaComoFormulaSaiComoTexto() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime inicio = INICIO.plusDays(10);
+        var base = CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(3));
+        viagemService.cadastrar(new DadosCadastroViagem("=HYPERLINK(\"http://x\";\"abrir\")", "@SUM(A1)", "+55 31 9999-0000",
+                new BigDecimal("10.00"), "-Centro", base.endLocation(), veiculo, motorista, base.startDate(),
+                base.startTime(), base.endDate(), base.endTime(), base.status(), base.tipoViagem(), null));
+        LocalDate dia = inicio.toLocalDate();
+
+        String linha = exportar(dia, dia, false).split("\r\n")[1];
+
+        assertThat(linha).contains(";\"'=HYPERLINK(\"\"http://x\"\";\"\"abrir\"\")\";\"'@SUM(A1)\";\"'+55 31 9999-0000\";10,00;\"'-Centro\";");
+    }
+
+    @Test
+    void pedidoInvalidoFalhaAntesDeAbrirOCursor() {
+        assertThatThrownBy(() -> service.exportar("clientes", null, null, false))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.exportar("viagens", INICIO.toLocalDate(), INICIO.toLocalDate().minusDays(1), false))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private String exportar(LocalDate de, LocalDate ate, boolean gzip) throws Exception {
+        var saida = new ByteArrayOutputStream();
+        service.exportar("viagens", de, ate, gzip).writeTo(saida);
+        byte[] bytes = saida.toByteArray();
+        if (gzip) {
+            try (var entrada = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                bytes = entrada.readAllBytes();
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoVeiculo;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class HodometroServiceTests {
+
+    private static final int VEICULOS = 3;
+    private static final int THREADS = 8;
+    private static final int AVANCOS_POR_THREAD = 40;
+    private static final int KM_INICIAL = 1_000;
+
+    @Autowired
+    private HodometroService hodometroService;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void avancosConcorrentesNaoSePerdemNemSaemForaDeOrdem() throws Exception {
+        List<Long> veiculos = new ArrayList<>();
+        for (int i = 0; i < VEICULOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService, KM_INICIAL).getId());
+        }
+        Map<Long, Integer> maiores = Collections.synchronizedMap(new HashMap<>());
+        List<HodometroService.Avanco> avancos = Collections.synchronizedList(new ArrayList<>());
+        var largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                var aleatorio = new Random(23 + t);
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 1; i <= AVANCOS_POR_THREAD; i++) {
+                        // alvos crescentes em cada thread e entrelaçados entre elas: parte dos avanços chega atrasada
+                        List<HodometroService.Leitura> leituras = new ArrayList<>();
+                        for (Long veiculo : veiculos) {
+                            int km = KM_INICIAL + i * 100 + aleatorio.nextInt(100);
+                            maiores.merge(veiculo, km, Math::max);
+                            leituras.add(new HodometroService.Leitura(veiculo, km, null));
+                        }
+                        avancos.addAll(new TransactionTemplate(transactionManager).execute(status ->
+                                hodometroService.avancar(leituras, "CONCORRENCIA", null)));
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Long veiculo : veiculos) {
+            assertThat(jdbcTemplate.queryForObject("SELECT current_km FROM veiculos WHERE id = ?", Integer.class, veiculo))
+                    .isEqualTo(maiores.get(veiculo));
+            List<int[]> cadeia = jdbcTemplate.query("""
+                    SELECT quilometragem_anterior, quilometragem_atual FROM quilometragem_log
+                    WHERE veiculo_id = ? AND origem_alteracao = 'CONCORRENCIA' ORDER BY data_hora_registro, id
+                    """, (rs, n) -> new int[]{rs.getInt(1), rs.getInt(2)}, veiculo);
+            // cada registro parte de onde o anterior parou, sempre para a frente, até o maior km pedido
+            int km = KM_INICIAL;
+            for (int[] registro : cadeia) {
+                assertThat(registro[0]).isEqualTo(km);
+                assertThat(registro[1]).isGreaterThan(registro[0]);
+                km = registro[1];
+            }
+            assertThat(km).isEqualTo(maiores.get(veiculo));
+            assertThat(cadeia).hasSize((int) avancos.stream().filter(a -> a.veiculoId() == veiculo).count());
+        }
+    }
+
+    @Test
+    void leituraAtrasadaGuardaADataOriginal() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 2_000).getId();
+        LocalDateTime cadastro = ultimoRegistro(veiculo).dataHoraRegistro();
+        LocalDateTime lida = cadastro.minusHours(1);
+
+        var avanco = new TransactionTemplate(transactionManager).execute(status -> hodometroService.avancar(
+                List.of(new HodometroService.Leitura(veiculo, 2_100, lida)), "TELEMETRIA", null));
+
+        assertThat(avanco).singleElement().satisfies(a -> {
+            assertThat(a.dataHora()).isEqualTo(cadastro);
+            assertThat(a.dataHoraOriginal()).isEqualTo(lida);
+        });
+        DadosDetalhamentoQuilometragemLog atrasado = ultimoRegistro(veiculo);
+        assertThat(atrasado.quilometragemAtual()).isEqualTo(2_100);
+        assertThat(atrasado.dataHoraRegistro()).isEqualTo(cadastro);
+        assertThat(atrasado.dataHoraOriginal()).isEqualTo(lida);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                hodometroService.avancar(veiculo, 2_200, "MANUAL", null));
+        DadosDetalhamentoQuilometragemLog emDia = ultimoRegistro(veiculo);
+        assertThat(emDia.quilometragemAtual()).isEqualTo(2_200);
+        assertThat(emDia.dataHoraOriginal()).isNull();
+    }
+
+    @Test
+    void atualizacaoDoVeiculoNaoVoltaOHodometro() {
+        var veiculo = CenarioTestes.veiculo(veiculoService, 3_000);
+
+        assertThatThrownBy(() -> veiculoService.atualizar(veiculo.getId(),
+                new DadosAtualizacaoVeiculo(null, null, null, 2_999)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("menor que a atual");
+
+        assertThat(veiculoService.atualizar(veiculo.getId(),
+                new DadosAtualizacaoVeiculo(null, null, null, 3_000)).getCurrentKm())
+                .isEqualTo(3_000);
+        assertThat(ultimoRegistro(veiculo.getId()).origemAlteracao()).isEqualTo("CADASTRO_INICIAL");
+    }
+
+    private DadosDetalhamentoQuilometragemLog ultimoRegistro(Long veiculo) {
+        List<DadosDetalhamentoQuilometragemLog> logs = quilometragemLogService.listarLogsPorVeiculo(
+                veiculo, null, null, null, null, 100).logs();
+        return logs.get(logs.size() - 1);
+    }
+}
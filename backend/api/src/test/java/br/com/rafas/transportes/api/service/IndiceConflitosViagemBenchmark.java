@@ -0,0 +1,91 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a verificação de conflito pelo índice em memória com as consultas do banco com 10 mil,
+ * 100 mil e 1 milhão de viagens. Roda com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class IndiceConflitosViagemBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceConflitosViagemBenchmark.class);
+    private static final LocalDateTime BASE = LocalDateTime.of(2040, 1, 1, 0, 0);
+    private static final int MINUTOS_NO_PERIODO = 10 * 365 * 24 * 60;
+    private static final int RECURSOS = 200;
+    private static final int CONSULTAS = 2_000;
+
+    @Autowired
+    private IndiceConflitosViagem indice;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indiceContraConsultasDoBanco() {
+        var aleatorio = new Random(7);
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < RECURSOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        int inseridas = 0;
+        for (int total : new int[]{10_000, 100_000, 1_000_000}) {
+            CenarioTestes.inserirViagens(jdbcTemplate, total - inseridas, veiculos, motoristas, BASE, MINUTOS_NO_PERIODO, aleatorio);
+            inseridas = total;
+            indice.carregar();
+
+            long nanosIndice = 0;
+            long nanosBanco = 0;
+            for (int i = 0; i < CONSULTAS; i++) {
+                LocalDateTime inicio = BASE.plusMinutes(aleatorio.nextInt(MINUTOS_NO_PERIODO));
+                LocalDateTime fim = inicio.plusMinutes(60 + aleatorio.nextInt(24 * 60));
+                Long veiculoId = veiculos.get(aleatorio.nextInt(RECURSOS));
+                Long motoristaId = motoristas.get(aleatorio.nextInt(RECURSOS));
+
+                long t0 = System.nanoTime();
+                boolean indiceVeiculo = indice.existeConflitoVeiculo(veiculoId, inicio.toLocalDate(), inicio.toLocalTime(),
+                        fim.toLocalDate(), fim.toLocalTime(), 0L);
+                boolean indiceMotorista = indice.existeConflitoMotorista(motoristaId, inicio.toLocalDate(), inicio.toLocalTime(),
+                        fim.toLocalDate(), fim.toLocalTime(), 0L);
+                long t1 = System.nanoTime();
+                boolean bancoVeiculo = !viagemRepository.findVeiculoConflitosByTime(veiculoId, inicio, fim, 0L).isEmpty();
+                boolean bancoMotorista = !viagemRepository.findMotoristaConflitosByTime(motoristaId, inicio, fim, 0L).isEmpty();
+                long t2 = System.nanoTime();
+
+                nanosIndice += t1 - t0;
+                nanosBanco += t2 - t1;
+                assertThat(indiceVeiculo).isEqualTo(bancoVeiculo);
+                assertThat(indiceMotorista).isEqualTo(bancoMotorista);
+            }
+            log.info("{} viagens: índice {} µs por verificação, banco {} µs por verificação", total,
+                    nanosIndice / CONSULTAS / 1_000, nanosBanco / CONSULTAS / 1_000);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.Motorista;
+import br.com.rafas.transportes.api.domain.Viagem;
+import br.com.rafas.transportes.api.domain.veiculo.Veiculo;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O índice em memória precisa responder exatamente como as consultas de conflito do banco.
+ */
+@TesteIntegracao
+class IndiceConflitosViagemConsistenciaTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2031, 1, 1, 0, 0);
+
+    @Autowired
+    private IndiceConflitosViagem indice;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void indiceRespondeComoAsConsultasDoBanco() {
+        var aleatorio = new Random(42);
+        List<Veiculo> veiculos = new ArrayList<>();
+        List<Motorista> motoristas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService));
+            motoristas.add(CenarioTestes.motorista(motoristaService));
+        }
+        List<Viagem> viagens = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            LocalDateTime inicio = instanteAleatorio(aleatorio);
+            LocalDateTime fim = inicio.plusMinutes(30 + aleatorio.nextInt(aleatorio.nextInt(10) == 0 ? 7 * 24 * 60 : 12 * 60));
+            viagens.add(new Viagem(CenarioTestes.viagem(null, null, inicio, fim),
+                    veiculos.get(aleatorio.nextInt(veiculos.size())), motoristas.get(aleatorio.nextInt(motoristas.size()))));
+        }
+        viagemRepository.saveAll(viagens);
+        // algumas viagens são excluídas depois de entrar no índice, para exercitar a remoção
+        indice.carregar();
+        for (int i = 0; i < 40; i++) {
+            viagemService.excluir(viagens.remove(aleatorio.nextInt(viagens.size())).getId());
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            LocalDateTime inicio = instanteAleatorio(aleatorio);
+            LocalDateTime fim = inicio.plusMinutes(aleatorio.nextInt(3 * 24 * 60));
+            Long excluida = aleatorio.nextBoolean() ? viagens.get(aleatorio.nextInt(viagens.size())).getId() : 0L;
+            Long veiculoId = veiculos.get(aleatorio.nextInt(veiculos.size())).getId();
+            Long motoristaId = motoristas.get(aleatorio.nextInt(motoristas.size())).getId();
+
+            boolean noBancoVeiculo = !viagemRepository.findVeiculoConflitosByTime(veiculoId, inicio, fim, excluida).isEmpty();
+            boolean noBancoMotorista = !viagemRepository.findMotoristaConflitosByTime(motoristaId, inicio, fim, excluida).isEmpty();
+
+            assertThat(indice.existeConflitoVeiculo(veiculoId, inicio.toLocalDate(), inicio.toLocalTime(),
+                    fim.toLocalDate(), fim.toLocalTime(), excluida))
+                    .as("veículo %d em [%s, %s] sem a viagem %d", veiculoId, inicio, fim, excluida)
+                    .isEqualTo(noBancoVeiculo);
+            assertThat(indice.existeConflitoMotorista(motoristaId, inicio.toLocalDate(), inicio.toLocalTime(),
+                    fim.toLocalDate(), fim.toLocalTime(), excluida))
+                    .as("motorista %d em [%s, %s] sem a viagem %d", motoristaId, inicio, fim, excluida)
+                    .isEqualTo(noBancoMotorista);
+        }
+    }
+
+    private static LocalDateTime instanteAleatorio(Random aleatorio) {
+        return BASE.plusMinutes(aleatorio.nextInt(120 * 24 * 60));
+    }
+}
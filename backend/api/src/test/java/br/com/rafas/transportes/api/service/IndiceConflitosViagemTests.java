@@ -0,0 +1,95 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceConflitosViagemTests {
+
+    private static final LocalDate DIA = LocalDate.of(2030, 3, 10);
+
+    private final IndiceConflitosViagem indice = new IndiceConflitosViagem();
+
+    @AfterEach
+    void limparSincronizacao() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void intervalosQueSoEncostamConflitam() {
+        indice.registrar(intervalo(1L, 10L, DIA, 8, DIA, 12));
+
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(12, 0), DIA, LocalTime.of(14, 0), 0L)).isTrue();
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(12, 1), DIA, LocalTime.of(14, 0), 0L)).isFalse();
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 1L)).isFalse();
+        assertThat(indice.existeConflitoMotorista(20L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isTrue();
+    }
+
+    @Test
+    void viagemLongaQueComecouAntesDaJanelaConflita() {
+        indice.registrar(intervalo(1L, 10L, DIA.minusDays(20), 8, DIA.plusDays(2), 12));
+
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isTrue();
+    }
+
+    @Test
+    void removerViagemLongaEncolheAJanelaDeBusca() {
+        indice.registrar(intervalo(1L, 10L, DIA.minusDays(30), 8, DIA, 12));
+        indice.registrar(intervalo(2L, 10L, DIA, 14, DIA.plusDays(2), 12));
+        assertThat(indice.maiorDuracaoDiasVeiculo(10L)).isEqualTo(30);
+        assertThat(indice.maiorDuracaoDias()).isEqualTo(30);
+
+        indice.remover(1L);
+        assertThat(indice.maiorDuracaoDiasVeiculo(10L)).isEqualTo(2);
+        assertThat(indice.maiorDuracaoDias()).isEqualTo(2);
+
+        indice.registrar(intervalo(2L, 10L, DIA, 14, DIA, 18));
+        assertThat(indice.maiorDuracaoDiasVeiculo(10L)).isZero();
+        assertThat(indice.maiorDuracaoDias()).isZero();
+    }
+
+    @Test
+    void registroNaTransacaoEntraAntesDoCommitESaiNoRollback() {
+        indice.registrar(intervalo(1L, 10L, DIA, 8, DIA, 12));
+        TransactionSynchronizationManager.initSynchronization();
+
+        indice.registrarNaTransacao(List.of(intervalo(1L, 11L, DIA, 8, DIA, 12)));
+        assertThat(indice.existeConflitoVeiculo(11L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isFalse();
+
+        List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        sincronizacoes.forEach(s -> s.beforeCommit(false));
+        assertThat(indice.existeConflitoVeiculo(11L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isTrue();
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isFalse();
+
+        sincronizacoes.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(indice.existeConflitoVeiculo(11L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isFalse();
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isTrue();
+    }
+
+    @Test
+    void rollbackAntesDoCommitNaoMexeNoIndice() {
+        indice.registrar(intervalo(1L, 10L, DIA, 8, DIA, 12));
+        TransactionSynchronizationManager.initSynchronization();
+
+        indice.registrarNaTransacao(List.of(intervalo(2L, 10L, DIA, 14, DIA, 16)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(9, 0), DIA, LocalTime.of(10, 0), 0L)).isTrue();
+        assertThat(indice.existeConflitoVeiculo(10L, DIA, LocalTime.of(15, 0), DIA, LocalTime.of(15, 30), 0L)).isFalse();
+    }
+
+    static DadosIntervaloViagem intervalo(Long id, Long veiculoId, LocalDate inicio, int horaInicio, LocalDate fim, int horaFim) {
+        return new DadosIntervaloViagem(id, veiculoId, 20L, inicio, LocalTime.of(horaInicio, 0), fim, LocalTime.of(horaFim, 0));
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosCadastroFerias;
+import br.com.rafas.transportes.api.dto.DadosDependenciaExclusao;
+import br.com.rafas.transportes.api.dto.DadosImpactoExclusao;
+import br.com.rafas.transportes.api.repository.VeiculoRepository;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@TesteIntegracao
+class InspetorDependenciasTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2059, 1, 1, 0, 0);
+
+    @Autowired
+    private InspetorDependencias inspetor;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private VeiculoRepository veiculoRepository;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private FeriasService feriasService;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void historicoGrandeCustaUmaConsultaPorTabela() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        CenarioTestes.inserirViagens(jdbcTemplate, 2_000, List.of(veiculo), List.of(motorista), BASE, 365 * 24 * 60, new Random(17));
+
+        Runnable validar = () -> inspetor.validarExclusao(InspetorDependencias.Recurso.VEICULO, veiculo);
+        assertThatThrownBy(validar::run)
+                .isInstanceOf(ValidationException.class)
+                .hasMessageStartingWith("Este veículo não pode ser excluído, pois possui pendências: Viagem '")
+                .hasMessageNotContaining("Manutenção");
+        int comandos = ContadorConsultas.contar(() -> {
+            try {
+                validar.run();
+            } catch (ValidationException e) {
+                // esperado: só o número de consultas interessa aqui
+            }
+        });
+        assertThat(comandos).isEqualTo(4);
+
+        DadosImpactoExclusao impacto = inspetor.impacto(InspetorDependencias.Recurso.VEICULO, veiculo);
+        assertThat(impacto.podeExcluir()).isFalse();
+        assertThat(impacto.dependencias())
+                .extracting(DadosDependenciaExclusao::tabela, DadosDependenciaExclusao::quantidade)
+                .containsExactly(tuple("manutencoes", 0L), tuple("viagens", 2_000L),
+                        tuple("itens_rota", 0L), tuple("quilometragem_log", 1L));
+        assertThat(impacto.dependencias().get(1).exemplo()).startsWith("Viagem '");
+    }
+
+    @Test
+    void motoristaComFeriasNaoPodeSerExcluido() {
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDate inicio = LocalDate.now().plusDays(30);
+        feriasService.cadastrar(new DadosCadastroFerias(motorista, inicio, inicio.plusDays(9)));
+
+        assertThatThrownBy(() -> motoristaService.excluir(motorista))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining(" Férias de ");
+        assertThat(inspetor.impacto(InspetorDependencias.Recurso.MOTORISTA, motorista).dependencias())
+                .extracting(DadosDependenciaExclusao::quantidade)
+                .containsExactly(0L, 0L, 1L);
+    }
+
+    @Test
+    void veiculoSemPendenciasEExcluido() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        assertThatThrownBy(() -> veiculoService.excluir(veiculo))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageEndingWith(" Histórico de quilometragem registrado; limpe o histórico antes de excluir.");
+
+        quilometragemLogService.excluirLogsPorVeiculo(veiculo);
+        assertThat(inspetor.impacto(InspetorDependencias.Recurso.VEICULO, veiculo).podeExcluir()).isTrue();
+        veiculoService.excluir(veiculo);
+
+        assertThat(veiculoRepository.existsById(veiculo)).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Relatório de jornada de um ano com 100 motoristas e 80 mil viagens. Roda com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class JornadaMotoristaBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(JornadaMotoristaBenchmark.class);
+    private static final LocalDate INICIO = LocalDate.of(2057, 1, 1);
+    private static final int MOTORISTAS = 100;
+    private static final int VIAGENS = 80_000;
+    private static final int RODADAS = 10;
+
+    @Autowired
+    private JornadaMotoristaService service;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void anoDeCemMotoristas() {
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < MOTORISTAS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        CenarioTestes.inserirViagens(jdbcTemplate, VIAGENS, veiculos, motoristas, INICIO.atStartOfDay(),
+                365 * 24 * 60, new Random(5));
+        LocalDate fim = INICIO.plusDays(364);
+
+        service.gerar(INICIO, fim);
+        long[] millis = new long[RODADAS];
+        for (int i = 0; i < RODADAS; i++) {
+            long t0 = System.nanoTime();
+            service.gerar(INICIO, fim);
+            millis[i] = (System.nanoTime() - t0) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        log.info("{} viagens de {} motoristas em um ano: relatório em {} ms de mediana, {} ms no pior caso",
+                VIAGENS, MOTORISTAS, millis[RODADAS / 2], millis[RODADAS - 1]);
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosJornadaMotorista;
+import br.com.rafas.transportes.api.dto.DadosRelatorioJornada;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class JornadaMotoristaServiceTests {
+
+    private static final LocalDate DIA = LocalDate.of(2046, 2, 10);
+
+    @Autowired
+    private JornadaMotoristaService service;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void viagemQueViraODiaEhCortadaNaMeiaNoite() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, DIA.atTime(20, 0), DIA.plusDays(1).atTime(6, 0)));
+
+        var jornada = jornada(service.gerar(DIA, DIA.plusDays(1)), motorista);
+
+        assertThat(jornada.viagens()).isEqualTo(1);
+        assertThat(jornada.minutosTrabalhados()).isEqualTo(600);
+        assertThat(jornada.diasTrabalhados()).isEqualTo(2);
+        assertThat(jornada.minutosHoraExtra()).isZero();
+        // só o trecho dentro do período entra
+        assertThat(jornada(service.gerar(DIA.plusDays(1), DIA.plusDays(1)), motorista).minutosTrabalhados()).isEqualTo(360);
+    }
+
+    @Test
+    void horaExtraEMaiorJornadaContinua() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDate dia = DIA.plusDays(5);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, dia.atTime(6, 0), dia.atTime(12, 0)));
+        // pausa de 15 minutos não interrompe a jornada; a de 2 horas sim
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, dia.atTime(12, 15), dia.atTime(17, 0)));
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, dia.atTime(19, 0), dia.atTime(20, 0)));
+        Long cancelada = viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista,
+                dia.plusDays(1).atTime(8, 0), dia.plusDays(1).atTime(18, 0))).id();
+        viagemService.atualizar(cancelada, new DadosAtualizacaoViagem(null, null, null, null, null, null, null, null,
+                null, null, null, null, StatusViagem.CANCELADA, null, null));
+
+        var jornada = jornada(service.gerar(dia, dia.plusDays(1)), motorista);
+
+        assertThat(jornada.viagens()).isEqualTo(3);
+        assertThat(jornada.minutosTrabalhados()).isEqualTo(360 + 285 + 60);
+        assertThat(jornada.minutosHoraExtra()).isEqualTo(360 + 285 + 60 - 480);
+        assertThat(jornada.diasComHoraExtra()).containsExactly(dia);
+        assertThat(jornada.maiorJornadaContinuaMinutos()).isEqualTo(11 * 60);
+        assertThat(jornada.inicioMaiorJornada()).isEqualTo(dia.atTime(6, 0));
+    }
+
+    @Test
+    void ocorrenciasDeRotaContamComoViagens() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDate inicio = DIA.plusDays(10);
+        viagemService.cadastrar(CenarioTestes.rota(veiculo, motorista, inicio, inicio.plusDays(6),
+                LocalTime.of(6, 0), LocalTime.of(7, 30)));
+
+        var jornada = jornada(service.gerar(inicio, inicio.plusDays(6)), motorista);
+
+        assertThat(jornada.viagens()).isEqualTo(7);
+        assertThat(jornada.minutosTrabalhados()).isEqualTo(7 * 90);
+        assertThat(jornada.diasTrabalhados()).isEqualTo(7);
+    }
+
+    @Test
+    void motoristaSemViagemApareceZerado() {
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+
+        var jornada = jornada(service.gerar(DIA, DIA.plusDays(30)), motorista);
+
+        assertThat(jornada.viagens()).isZero();
+        assertThat(jornada.minutosTrabalhados()).isZero();
+        assertThat(jornada.inicioMaiorJornada()).isNull();
+    }
+
+    @Test
+    void periodoAcimaDeUmAnoEhRecusado() {
+        assertThatThrownBy(() -> service.gerar(DIA, DIA.plusDays(366)))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.gerar(DIA, DIA.minusDays(1)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static DadosJornadaMotorista jornada(DadosRelatorioJornada relatorio, Long motoristaId) {
+        return relatorio.motoristas().stream()
+                .filter(j -> j.motoristaId().equals(motoristaId))
+                .findFirst()
+                .orElseThrow();
+    }
+}
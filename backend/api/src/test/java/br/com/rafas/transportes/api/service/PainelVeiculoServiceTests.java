@@ -0,0 +1,84 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
+import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
+import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosPainelFrota;
+import br.com.rafas.transportes.api.dto.DadosPainelVeiculo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class PainelVeiculoServiceTests {
+
+    @Autowired
+    private PainelVeiculoService painelService;
+
+    @Autowired
+    private ManutencaoService manutencaoService;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void cartaoTrazManutencaoViagemEUltimoRegistro() {
+        Long veiculo = cadastrarComDados(10_000, 0);
+
+        DadosPainelVeiculo cartao = cartao(painelService.gerar(), veiculo);
+
+        assertThat(cartao.currentKm()).isEqualTo(10_000);
+        assertThat(cartao.proximaManutencao().kmPrevisto()).isEqualTo(12_000);
+        assertThat(cartao.proximaManutencao().kmRestantes()).isEqualTo(2_000);
+        assertThat(cartao.proximaViagem().inicio()).isEqualTo(LocalDate.now().plusDays(3).atTime(8, 0));
+        assertThat(cartao.ultimoLog().quilometragemAtual()).isEqualTo(10_000);
+    }
+
+    @Test
+    void numeroDeConsultasNaoCresceComAFrota() {
+        cadastrarComDados(20_000, 1);
+        var antes = ContadorConsultas.contar(() -> painelService.gerar());
+
+        for (int i = 0; i < 20; i++) {
+            cadastrarComDados(20_000 + i, 2 + i);
+        }
+        var depois = ContadorConsultas.contar(() -> painelService.gerar());
+
+        assertThat(depois.resultado().veiculos()).hasSizeGreaterThanOrEqualTo(antes.resultado().veiculos().size() + 20);
+        // veículos, manutenções, viagens, registros de km e, com rotas ativas, rotas e motoristas
+        assertThat(depois.comandos()).isLessThanOrEqualTo(6).isEqualTo(antes.comandos());
+    }
+
+    private Long cadastrarComDados(int km, int dia) {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, km).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        manutencaoService.cadastrar(new DadosCadastroManutencao(veiculo, "Troca de óleo", "Preventiva", null,
+                new BigDecimal("350.00"), StatusManutencao.AGENDADA.getDescricao(), km + 2_000, null));
+        LocalDateTime inicio = LocalDate.now().plusDays(3 + dia).atTime(8, 0);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(4)));
+        quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, LocalDateTime.now().minusDays(1),
+                km - 500, km, "MANUAL", null));
+        return veiculo;
+    }
+
+    private static DadosPainelVeiculo cartao(DadosPainelFrota painel, Long veiculo) {
+        return painel.veiculos().stream().filter(v -> v.id().equals(veiculo)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
+import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
+import br.com.rafas.transportes.api.dto.DadosManutencaoPendente;
+import br.com.rafas.transportes.api.dto.DadosManutencoesPendentes;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class PendenciaManutencaoServiceTests {
+
+    @Autowired
+    private PendenciaManutencaoService pendenciaService;
+
+    @Autowired
+    private ManutencaoService manutencaoService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void separaAtrasadasVencidasEProximasNumaConsulta() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 10_000).getId();
+        Long atrasada = agendar(veiculo, 9_000, null);
+        Long vencidaPeloKm = agendar(veiculo, 9_800, null);
+        Long vencidaPelaData = agendar(veiculo, 30_000, LocalDate.now());
+        Long proximaPeloKm = agendar(veiculo, 10_600, null);
+        Long proximaPelaData = agendar(veiculo, 30_000, LocalDate.now().plusDays(3));
+        Long distante = agendar(veiculo, 20_000, null);
+
+        var contagem = ContadorConsultas.contar(() -> pendenciaService.listar(null, null));
+
+        assertThat(contagem.comandos()).isEqualTo(1);
+        DadosManutencoesPendentes pendentes = contagem.resultado();
+        assertThat(ids(pendentes.atrasadas(), veiculo)).containsExactly(atrasada);
+        assertThat(ids(pendentes.vencidas(), veiculo)).containsExactly(vencidaPeloKm, vencidaPelaData);
+        assertThat(ids(pendentes.proximas(), veiculo)).containsExactly(proximaPeloKm, proximaPelaData);
+        assertThat(pendentes.vencidas()).filteredOn(p -> p.id().equals(vencidaPeloKm)).singleElement()
+                .satisfies(p -> {
+                    assertThat(p.kmVeiculo()).isEqualTo(10_000);
+                    assertThat(p.kmRestantes()).isEqualTo(-200);
+                });
+        assertThat(ids(pendentes.proximas(), veiculo)).doesNotContain(distante);
+
+        // antecedência pedida na chamada substitui a padrão
+        DadosManutencoesPendentes curtas = pendenciaService.listar(100, 0);
+        assertThat(ids(curtas.proximas(), veiculo)).isEmpty();
+        assertThat(ids(curtas.vencidas(), veiculo)).containsExactly(vencidaPeloKm, vencidaPelaData);
+
+        assertThatThrownBy(() -> pendenciaService.listar(-1, null)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void statusDesconhecidoEhRecusado() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 10_000).getId();
+
+        assertThatThrownBy(() -> manutencaoService.cadastrar(new DadosCadastroManutencao(veiculo, "Revisão", "Preventiva",
+                null, BigDecimal.ZERO, "Pendente", 12_000, null)))
+                .isInstanceOf(ValidationException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM manutencoes WHERE veiculo_id = ?", Integer.class,
+                veiculo)).isZero();
+    }
+
+    private Long agendar(Long veiculo, int km, LocalDate data) {
+        return manutencaoService.cadastrar(new DadosCadastroManutencao(veiculo, "Revisão " + km, "Preventiva", data,
+                BigDecimal.ZERO, StatusManutencao.AGENDADA.getDescricao(), km, null)).id();
+    }
+
+    private static List<Long> ids(List<DadosManutencaoPendente> pendentes, Long veiculo) {
+        return pendentes.stream().filter(p -> p.veiculoId().equals(veiculo)).map(DadosManutencaoPendente::id).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusManutencao;
+import br.com.rafas.transportes.api.domain.veiculo.log.QuilometragemRitmo;
+import br.com.rafas.transportes.api.dto.DadosCadastroManutencao;
+import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosPrevisaoManutencao;
+import br.com.rafas.transportes.api.repository.QuilometragemRitmoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@TesteIntegracao
+class PrevisaoManutencaoServiceTests {
+
+    private static final LocalDate INICIO = LocalDate.of(2061, 1, 1);
+    private static final int DIAS = 120;
+    private static final LocalDate ULTIMO_DIA = INICIO.plusDays(DIAS - 1);
+
+    @Autowired
+    private PrevisaoManutencaoService previsaoService;
+
+    @Autowired
+    private RitmoQuilometragemService ritmoService;
+
+    @Autowired
+    private QuilometragemRitmoRepository ritmoRepository;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private ManutencaoService manutencaoService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void prevePeloRitmoEOrdenaPorUrgencia() {
+        Long lento = CenarioTestes.veiculo(veiculoService, 10_000).getId();
+        Long rapido = CenarioTestes.veiculo(veiculoService, 10_000).getId();
+        Long parado = CenarioTestes.veiculo(veiculoService, 5_000).getId();
+        rodar(lento, 10_000, 100);
+        rodar(rapido, 10_000, 300);
+        Long revisaoLento = agendar(lento, 10_950);
+        Long revisaoRapido = agendar(rapido, 10_950);
+        Long semRitmo = agendar(parado, 6_000);
+        Long vencida = agendar(parado, 4_000);
+
+        var contagem = ContadorConsultas.contar(() -> previsaoService.prever());
+
+        // agendadas e ritmos, sem ler o histórico
+        assertThat(contagem.comandos()).isEqualTo(2);
+        List<DadosPrevisaoManutencao> nossas = contagem.resultado().stream()
+                .filter(p -> List.of(lento, rapido, parado).contains(p.veiculoId()))
+                .toList();
+        assertThat(nossas).extracting(DadosPrevisaoManutencao::id)
+                .containsExactly(vencida, revisaoRapido, revisaoLento, semRitmo);
+
+        assertThat(nossas.get(0).dataPrevista()).isEqualTo(LocalDate.now());
+        assertThat(nossas.get(1).kmPorDia()).isCloseTo(300.0, within(0.1));
+        assertThat(nossas.get(1).dataPrevista()).isEqualTo(ULTIMO_DIA.plusDays(4));
+        assertThat(nossas.get(2).kmPorDia()).isCloseTo(100.0, within(0.1));
+        assertThat(nossas.get(2).dataPrevista()).isEqualTo(ULTIMO_DIA.plusDays(10));
+        assertThat(nossas.get(2).dataLimite()).isEqualTo(nossas.get(2).dataPrevista());
+        assertThat(nossas.get(3).kmPorDia()).isZero();
+        assertThat(nossas.get(3).dataPrevista()).isNull();
+    }
+
+    @Test
+    void ritmoIncrementalBateComORecalculoPeloHistorico() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 20_000).getId();
+        var aleatorio = new Random(22);
+        int km = 20_000;
+        for (int i = 0; i < 60; i++) {
+            int rodados = aleatorio.nextInt(400);
+            // intervalos irregulares, como lançamentos manuais misturados à telemetria
+            LocalDateTime quando = INICIO.atStartOfDay().plusHours(i * 9L + aleatorio.nextInt(9));
+            quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, quando, km, km + rodados,
+                    "TELEMETRIA", null));
+            km += rodados;
+        }
+        QuilometragemRitmo incremental = ritmoRepository.findById(veiculo).orElseThrow();
+
+        jdbcTemplate.update("DELETE FROM quilometragem_ritmo");
+        ritmoService.preencherSeVazio();
+        QuilometragemRitmo recalculado = ritmoRepository.findById(veiculo).orElseThrow();
+
+        assertThat(recalculado.getRegistros()).isEqualTo(incremental.getRegistros()).isEqualTo(61);
+        assertThat(recalculado.getUltimoKm()).isEqualTo(incremental.getUltimoKm()).isEqualTo(km);
+        assertThat(recalculado.getUltimoRegistro()).isEqualTo(incremental.getUltimoRegistro());
+        assertThat(recalculado.kmPorDia()).isCloseTo(incremental.kmPorDia(), within(1e-6));
+    }
+
+    /**
+     * Um registro por dia rodando {@code kmPorDia}, longo o bastante para a média esquecer o ponto de partida.
+     */
+    private void rodar(Long veiculo, int kmInicial, int kmPorDia) {
+        int km = kmInicial;
+        for (int i = 0; i < DIAS; i++) {
+            int proximo = i == 0 ? km : km + kmPorDia;
+            quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo,
+                    INICIO.plusDays(i).atTime(18, 0), km, proximo, "MANUAL", null));
+            km = proximo;
+        }
+    }
+
+    private Long agendar(Long veiculo, int km) {
+        return manutencaoService.cadastrar(new DadosCadastroManutencao(veiculo, "Revisão " + km, "Preventiva", null,
+                BigDecimal.ZERO, StatusManutencao.AGENDADA.getDescricao(), km, null)).id();
+    }
+}
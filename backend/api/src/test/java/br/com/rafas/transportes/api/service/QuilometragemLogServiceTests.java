@@ -0,0 +1,85 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosPaginaQuilometragemLog;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class QuilometragemLogServiceTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2059, 3, 1, 7, 0);
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Test
+    void paginasSaoPorCursorComNumeroFixoDeConsultas() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long outro = CenarioTestes.veiculo(veiculoService).getId();
+        List<Long> esperados = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // dois registros no mesmo instante: o id desempata a ordem
+            LocalDateTime quando = BASE.plusHours(i / 2 * 12L);
+            esperados.add(registrar(veiculo, quando, i * 100).id());
+            registrar(outro, quando, i * 100);
+        }
+        quilometragemLogService.listarLogsPorVeiculo(veiculo, null, null, null, null, 1);
+
+        List<Long> lidos = new ArrayList<>();
+        List<Integer> comandos = new ArrayList<>();
+        DadosPaginaQuilometragemLog pagina = null;
+        do {
+            LocalDateTime aposDataHora = pagina != null ? pagina.proximaAposDataHora() : null;
+            Long aposId = pagina != null ? pagina.proximoAposId() : null;
+            var contagem = ContadorConsultas.contar(() -> quilometragemLogService.listarLogsPorVeiculo(
+                    veiculo, BASE.toLocalDate(), null, aposDataHora, aposId, 10));
+            pagina = contagem.resultado();
+            comandos.add(contagem.comandos());
+            pagina.logs().forEach(log -> lidos.add(log.id()));
+        } while (pagina.proximoAposId() != null);
+
+        assertThat(lidos).isEqualTo(esperados);
+        // existência do veículo e a página, qualquer que seja o cursor
+        assertThat(comandos).hasSize(3).containsOnly(2);
+    }
+
+    @Test
+    void periodoLimitaOsRegistros() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        for (int i = 0; i < 10; i++) {
+            registrar(veiculo, BASE.plusDays(i), i * 100);
+        }
+
+        LocalDate de = BASE.toLocalDate().plusDays(2);
+        List<DadosDetalhamentoQuilometragemLog> logs = quilometragemLogService.listarLogsPorVeiculo(
+                veiculo, de, de.plusDays(3), null, null, null).logs();
+
+        assertThat(logs).extracting(log -> log.dataHoraRegistro().toLocalDate())
+                .containsExactly(de, de.plusDays(1), de.plusDays(2), de.plusDays(3));
+        assertThatThrownBy(() -> quilometragemLogService.listarLogsPorVeiculo(veiculo, de, de.minusDays(1), null, null, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> quilometragemLogService.listarLogsPorVeiculo(veiculo, null, null, BASE, null, null))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private DadosDetalhamentoQuilometragemLog registrar(Long veiculo, LocalDateTime quando, int km) {
+        return quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, quando, km, km + 100, "MANUAL", null));
+    }
+}
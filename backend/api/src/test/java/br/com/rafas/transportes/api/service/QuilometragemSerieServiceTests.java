@@ -0,0 +1,83 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.veiculo.log.GranularidadeQuilometragem;
+import br.com.rafas.transportes.api.dto.DadosCadastroQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosPontoQuilometragem;
+import br.com.rafas.transportes.api.dto.DadosSerieQuilometragem;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class QuilometragemSerieServiceTests {
+
+    private static final LocalDate INICIO = LocalDate.of(2059, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2060, 12, 31);
+
+    @Autowired
+    private QuilometragemSerieService serieService;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Test
+    void escolheResolucaoPeloPeriodoEBateComAReconstrucao() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        int km = 0;
+        // um registro de 10 km a cada dois dias por dois anos
+        for (LocalDate dia = INICIO; !dia.isAfter(FIM); dia = dia.plusDays(2)) {
+            quilometragemLogService.registrarLog(new DadosCadastroQuilometragemLog(veiculo, dia.atTime(18, 0),
+                    km, km + 10, "MANUAL", null));
+            km += 10;
+        }
+
+        DadosSerieQuilometragem trimestre = serieService.serie(veiculo, null, INICIO, INICIO.plusDays(89));
+        assertThat(trimestre.granularidade()).isEqualTo(GranularidadeQuilometragem.DIA);
+        assertThat(trimestre.pontos()).hasSize(45);
+        assertThat(soma(trimestre)).isEqualTo(450);
+
+        DadosSerieQuilometragem doisAnos = serieService.serie(veiculo, null, INICIO, FIM);
+        assertThat(doisAnos.granularidade()).isEqualTo(GranularidadeQuilometragem.SEMANA);
+        assertThat(doisAnos.pontos()).hasSizeLessThanOrEqualTo(QuilometragemSerieService.MAXIMO_PONTOS);
+        assertThat(soma(doisAnos)).isEqualTo(km);
+        assertThat(doisAnos.pontos().get(doisAnos.pontos().size() - 1).kmFinal()).isEqualTo(km);
+
+        DadosSerieQuilometragem decada = serieService.serie(veiculo, null, INICIO, INICIO.plusYears(10));
+        assertThat(decada.granularidade()).isEqualTo(GranularidadeQuilometragem.MES);
+        assertThat(decada.pontos()).hasSize(24);
+        assertThat(soma(decada)).isEqualTo(km);
+
+        assertThatThrownBy(() -> serieService.serie(veiculo, GranularidadeQuilometragem.DIA, INICIO, FIM))
+                .isInstanceOf(ValidationException.class);
+
+        serieService.reconstruir();
+        assertThat(serieService.serie(veiculo, null, INICIO, FIM)).isEqualTo(doisAnos);
+        assertThat(serieService.serie(veiculo, null, INICIO, INICIO.plusYears(10))).isEqualTo(decada);
+    }
+
+    @Test
+    void cadastroDoVeiculoSoMarcaOKmFinal() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 80_000).getId();
+
+        DadosSerieQuilometragem serie = serieService.serie(veiculo, null, LocalDate.now(), LocalDate.now());
+
+        assertThat(serie.pontos()).singleElement().satisfies(ponto -> {
+            assertThat(ponto.kmRodados()).isZero();
+            assertThat(ponto.kmFinal()).isEqualTo(80_000);
+        });
+    }
+
+    private static long soma(DadosSerieQuilometragem serie) {
+        return serie.pontos().stream().mapToLong(DadosPontoQuilometragem::kmRodados).sum();
+    }
+}
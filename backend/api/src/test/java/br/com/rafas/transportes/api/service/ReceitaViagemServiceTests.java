@@ -0,0 +1,108 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.domain.StatusViagem;
+import br.com.rafas.transportes.api.domain.TipoViagem;
+import br.com.rafas.transportes.api.domain.receita.DimensaoReceita;
+import br.com.rafas.transportes.api.dto.DadosAtualizacaoViagem;
+import br.com.rafas.transportes.api.dto.DadosLinhaReceita;
+import br.com.rafas.transportes.api.dto.DadosReceita;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class ReceitaViagemServiceTests {
+
+    private static final YearMonth JANEIRO = YearMonth.of(2047, 1);
+    private static final YearMonth FEVEREIRO = YearMonth.of(2047, 2);
+
+    @Autowired
+    private ReceitaViagemService receita;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void resumoAcompanhaCadastroAlteracaoCancelamentoEExclusao() {
+        Long veiculoA = CenarioTestes.veiculo(veiculoService).getId();
+        Long veiculoB = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime janeiro = JANEIRO.atDay(10).atTime(8, 0);
+        LocalDateTime fevereiro = FEVEREIRO.atDay(10).atTime(8, 0);
+        Long primeira = viagemService.cadastrar(CenarioTestes.viagem(veiculoA, motorista, janeiro, janeiro.plusHours(2))).id();
+        Long segunda = viagemService.cadastrar(CenarioTestes.viagem(veiculoA, motorista, fevereiro, fevereiro.plusHours(2))).id();
+        Long excluida = viagemService.cadastrar(CenarioTestes.viagem(veiculoA, motorista, janeiro.plusDays(1),
+                janeiro.plusDays(1).plusHours(2))).id();
+
+        atualizar(primeira, new BigDecimal("300.00"), veiculoB, null);
+        atualizar(segunda, null, null, StatusViagem.CANCELADA);
+        viagemService.excluir(excluida);
+
+        assertThat(linhasPorVeiculo(veiculoA, null)).isEmpty();
+        assertThat(linhasPorVeiculo(veiculoB, null)).containsExactly(
+                new DadosLinhaReceita(JANEIRO, veiculoB, null, null, StatusViagem.AGENDADA, 1, new BigDecimal("300.00")));
+        assertThat(linhasPorVeiculo(veiculoA, Set.of(StatusViagem.CANCELADA))).containsExactly(
+                new DadosLinhaReceita(FEVEREIRO, veiculoA, null, null, StatusViagem.CANCELADA, 1, new BigDecimal("100.00")));
+
+        DadosReceita incremental = receita.consultar(JANEIRO, FEVEREIRO, List.of(DimensaoReceita.values()),
+                Set.of(StatusViagem.values()), null, null, null);
+        receita.reconstruir();
+        assertThat(receita.consultar(JANEIRO, FEVEREIRO, List.of(DimensaoReceita.values()),
+                Set.of(StatusViagem.values()), null, null, null)).isEqualTo(incremental);
+    }
+
+    @Test
+    void consultaLeSoOResumoQualquerQueSejaOPeriodo() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDateTime inicio = FEVEREIRO.atDay(20).atTime(8, 0);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, inicio.plusHours(2)));
+
+        var mes = ContadorConsultas.contar(() -> receita.consultar(FEVEREIRO, FEVEREIRO,
+                List.of(DimensaoReceita.TIPO_VIAGEM), null, veiculo, null, null));
+        var decada = ContadorConsultas.contar(() -> receita.consultar(JANEIRO.minusYears(5), JANEIRO.plusYears(5).minusMonths(1),
+                List.of(DimensaoReceita.TIPO_VIAGEM), null, veiculo, null, TipoViagem.IDA_E_VOLTA_MG));
+
+        assertThat(mes.comandos()).isEqualTo(1);
+        assertThat(decada.comandos()).isEqualTo(1);
+        assertThat(decada.resultado().linhas()).containsExactly(
+                new DadosLinhaReceita(null, null, null, TipoViagem.IDA_E_VOLTA_MG, null, 1, new BigDecimal("100.00")));
+        assertThat(mes.resultado().valorTotal()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void periodoInvalidoEhRecusado() {
+        assertThatThrownBy(() -> receita.consultar(FEVEREIRO, JANEIRO, null, null, null, null, null))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> receita.consultar(JANEIRO, JANEIRO.plusMonths(120), null, null, null, null, null))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private List<DadosLinhaReceita> linhasPorVeiculo(Long veiculoId, Set<StatusViagem> status) {
+        return receita.consultar(JANEIRO, FEVEREIRO, List.of(DimensaoReceita.MES, DimensaoReceita.VEICULO, DimensaoReceita.STATUS),
+                status, veiculoId, null, null).linhas();
+    }
+
+    private void atualizar(Long id, BigDecimal valor, Long veiculoId, StatusViagem status) {
+        viagemService.atualizar(id, new DadosAtualizacaoViagem(null, null, null, valor, null, null, veiculoId, null,
+                null, null, null, null, status, null, null));
+    }
+}
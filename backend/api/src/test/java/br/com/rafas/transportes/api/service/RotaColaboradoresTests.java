@@ -0,0 +1,108 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosHorarioItemRota;
+import br.com.rafas.transportes.api.dto.DadosIntervaloViagem;
+import br.com.rafas.transportes.api.dto.DadosItemRota;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class RotaColaboradoresTests {
+
+    // 2036-01-07 é uma segunda-feira
+    private static final LocalDate SEGUNDA = LocalDate.of(2036, 1, 7);
+    private static final EnumSet<DayOfWeek> DIAS_UTEIS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void contratoDeUmAnoViraUmaViagemComRegrasEConsultasEmLote() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        var rota = CenarioTestes.rota(List.of(new DadosItemRota(null, veiculo, motorista, List.of(
+                new DadosHorarioItemRota(SEGUNDA, LocalTime.of(6, 0), SEGUNDA.plusYears(1), LocalTime.of(8, 0), DIAS_UTEIS),
+                new DadosHorarioItemRota(SEGUNDA, LocalTime.of(17, 0), SEGUNDA.plusYears(1), LocalTime.of(19, 0), DIAS_UTEIS)))));
+
+        var contagem = ContadorConsultas.contar(() -> viagemService.cadastrar(rota));
+
+        Long id = contagem.resultado().id();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM viagens WHERE title = ?", Integer.class, rota.title()))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM itens_rota_horarios h JOIN itens_rota i ON i.id = h.item_rota_id WHERE i.viagem_id = ?",
+                Integer.class, id)).isEqualTo(2);
+        // nada cresce com os ~520 turnos do contrato: hoje são 17 comandos
+        assertThat(contagem.comandos()).isLessThanOrEqualTo(20);
+
+        List<DadosIntervaloViagem> semana = viagemService.listarOcorrencias(id, SEGUNDA.plusWeeks(20), SEGUNDA.plusWeeks(20).plusDays(6));
+        assertThat(semana).hasSize(10);
+        assertThat(semana.get(0).startTime()).isEqualTo(LocalTime.of(6, 0));
+        assertThat(semana.get(1).startTime()).isEqualTo(LocalTime.of(17, 0));
+    }
+
+    @Test
+    void viagemComumConflitaSoComAsOcorrenciasDaRota() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long outroMotorista = CenarioTestes.motorista(motoristaService).getId();
+        viagemService.cadastrar(CenarioTestes.rota(List.of(new DadosItemRota(null, veiculo, motorista, List.of(
+                new DadosHorarioItemRota(SEGUNDA, LocalTime.of(6, 0), SEGUNDA.plusMonths(6), LocalTime.of(8, 0), DIAS_UTEIS))))));
+
+        LocalDate quarta = SEGUNDA.plusWeeks(8).plusDays(2);
+        assertThatThrownBy(() -> viagemService.cadastrar(CenarioTestes.viagem(veiculo, outroMotorista,
+                quarta.atTime(7, 30), quarta.atTime(10, 0))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(ViagemService.CONFLITO_VEICULO);
+
+        LocalDate sabado = SEGUNDA.plusWeeks(8).plusDays(5);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, outroMotorista, sabado.atTime(7, 0), sabado.atTime(10, 0)));
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, outroMotorista, quarta.atTime(8, 1), quarta.atTime(10, 0)));
+    }
+
+    @Test
+    void rotaNovaConflitaComViagemExistenteEEntreOsProprioItens() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long outroVeiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long outroMotorista = CenarioTestes.motorista(motoristaService).getId();
+        LocalDate dia = SEGUNDA.plusMonths(9).plusDays(1);
+        viagemService.cadastrar(CenarioTestes.viagem(veiculo, outroMotorista, dia.atTime(5, 0), dia.atTime(6, 30)));
+
+        assertThatThrownBy(() -> viagemService.cadastrar(CenarioTestes.rota(veiculo, motorista,
+                SEGUNDA.plusMonths(9), SEGUNDA.plusMonths(10), LocalTime.of(6, 0), LocalTime.of(8, 0))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("veículo " + veiculo + " já está em outra viagem em " + dia);
+
+        var turno = new DadosHorarioItemRota(SEGUNDA.plusMonths(11), LocalTime.of(22, 0), SEGUNDA.plusMonths(12), LocalTime.of(2, 0), null);
+        var madrugada = new DadosHorarioItemRota(SEGUNDA.plusMonths(11), LocalTime.of(1, 0), SEGUNDA.plusMonths(12), LocalTime.of(3, 0), null);
+        assertThatThrownBy(() -> viagemService.cadastrar(CenarioTestes.rota(List.of(
+                new DadosItemRota(null, veiculo, motorista, List.of(turno)),
+                new DadosItemRota(null, outroVeiculo, motorista, List.of(madrugada))))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("motorista " + motorista + " está em dois itens da rota");
+    }
+}
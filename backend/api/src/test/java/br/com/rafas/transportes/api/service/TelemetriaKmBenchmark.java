@@ -0,0 +1,101 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosLeituraKm;
+import br.com.rafas.transportes.api.dto.DadosMetricasTelemetria;
+import br.com.rafas.transportes.api.dto.DadosResultadoTelemetria;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga de 1.000 leituras por segundo durante 30 segundos, em pedidos de 100 leituras a cada 100 ms, para
+ * 1.000 veículos. Mede a latência de {@code receber} (o que o rastreador espera) com as gravações acontecendo
+ * ao fundo e confere que o hodômetro de cada veículo termina na maior leitura enviada. Roda com
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class TelemetriaKmBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetriaKmBenchmark.class);
+    private static final int VEICULOS = 1_000;
+    private static final int LEITURAS_POR_PEDIDO = 100;
+    private static final long INTERVALO_MS = 100;
+    private static final int PEDIDOS = 300;
+
+    @Autowired
+    private TelemetriaKmService telemetria;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void milLeiturasPorSegundo() throws InterruptedException {
+        List<Long> veiculos = new ArrayList<>();
+        for (int i = 0; i < VEICULOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+        }
+        var aleatorio = new Random(19);
+        Map<Long, Integer> maiores = new HashMap<>();
+        DadosMetricasTelemetria antes = telemetria.metricas();
+        long[] latencias = new long[PEDIDOS];
+        int recusadas = 0;
+
+        long inicio = System.nanoTime();
+        for (int p = 0; p < PEDIDOS; p++) {
+            long espera = inicio / 1_000_000 + p * INTERVALO_MS - System.nanoTime() / 1_000_000;
+            if (espera > 0) {
+                Thread.sleep(espera);
+            }
+            List<DadosLeituraKm> leituras = new ArrayList<>(LEITURAS_POR_PEDIDO);
+            for (int i = 0; i < LEITURAS_POR_PEDIDO; i++) {
+                Long veiculo = veiculos.get(aleatorio.nextInt(VEICULOS));
+                int km = maiores.merge(veiculo, 1 + aleatorio.nextInt(5), Integer::sum);
+                leituras.add(new DadosLeituraKm(veiculo, km, null));
+            }
+            long t0 = System.nanoTime();
+            DadosResultadoTelemetria resultado = telemetria.receber(leituras);
+            latencias[p] = System.nanoTime() - t0;
+            recusadas += resultado.rejeitadasBufferCheio();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        telemetria.gravarPendentes();
+        long limite = System.currentTimeMillis() + 30_000;
+        while (telemetria.metricas().pendentes() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+            telemetria.gravarPendentes();
+        }
+
+        Arrays.sort(latencias);
+        DadosMetricasTelemetria depois = telemetria.metricas();
+        double taxa = PEDIDOS * LEITURAS_POR_PEDIDO / segundos;
+        log.info("{} leituras/s; receber: mediana {} µs, p99 {} µs, máximo {} µs; {} gravações, maior pendência {}, {} recusadas",
+                Math.round(taxa), latencias[PEDIDOS / 2] / 1_000, latencias[PEDIDOS * 99 / 100] / 1_000,
+                latencias[PEDIDOS - 1] / 1_000, depois.gravacoes() - antes.gravacoes(), depois.maiorPendencia(), recusadas);
+
+        assertThat(taxa).isGreaterThan(950);
+        assertThat(recusadas).isZero();
+        assertThat(depois.falhas()).isEqualTo(antes.falhas());
+        // o pedido só mexe no buffer: nenhuma gravação no caminho do rastreador
+        assertThat(latencias[PEDIDOS * 99 / 100]).isLessThan(20_000_000L);
+        maiores.forEach((veiculo, km) -> assertThat(jdbcTemplate.queryForObject(
+                "SELECT current_km FROM veiculos WHERE id = ?", Integer.class, veiculo)).isEqualTo(km));
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosDetalhamentoQuilometragemLog;
+import br.com.rafas.transportes.api.dto.DadosLeituraKm;
+import br.com.rafas.transportes.api.dto.DadosResultadoTelemetria;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class TelemetriaKmServiceTests {
+
+    @Autowired
+    private TelemetriaKmService telemetria;
+
+    @Autowired
+    private QuilometragemLogService quilometragemLogService;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void coalesceLeiturasERecusaDataAlemDaTolerancia() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 1_000).getId();
+        LocalDateTime agora = LocalDateTime.now();
+
+        DadosResultadoTelemetria resultado = telemetria.receber(List.of(
+                new DadosLeituraKm(veiculo, 1_100, agora.minusMinutes(10)),
+                new DadosLeituraKm(veiculo, 1_050, agora.minusMinutes(5)),
+                new DadosLeituraKm(veiculo, 9_999, agora.plusHours(2)),
+                new DadosLeituraKm(veiculo, 1_200, agora.plusMinutes(1)),
+                new DadosLeituraKm(null, 1_300, agora)));
+
+        assertThat(resultado.aceitas()).isEqualTo(2);
+        assertThat(resultado.descartadasRegressao()).isEqualTo(1);
+        assertThat(resultado.invalidas()).isEqualTo(2);
+        gravarTudo();
+
+        assertThat(km(veiculo)).isEqualTo(1_200);
+        DadosDetalhamentoQuilometragemLog ultimo = ultimoRegistro(veiculo);
+        assertThat(ultimo.quilometragemAnterior()).isEqualTo(1_000);
+        assertThat(ultimo.quilometragemAtual()).isEqualTo(1_200);
+        // dentro da tolerância do relógio a leitura vale como recebida agora, nunca no futuro
+        assertThat(ultimo.dataHoraRegistro()).isBetween(agora, LocalDateTime.now());
+    }
+
+    @Test
+    void loteCheioEGravadoForaDaThreadDoPedido() {
+        int loteOriginal = (int) ReflectionTestUtils.getField(telemetria, "lote");
+        ReflectionTestUtils.setField(telemetria, "lote", 5);
+        try {
+            List<Long> veiculos = new ArrayList<>();
+            List<DadosLeituraKm> leituras = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                veiculos.add(CenarioTestes.veiculo(veiculoService, 100).getId());
+                leituras.add(new DadosLeituraKm(veiculos.get(i), 500 + i, null));
+            }
+
+            var contagem = ContadorConsultas.contar(() -> telemetria.receber(leituras));
+
+            assertThat(contagem.resultado().aceitas()).isEqualTo(5);
+            assertThat(contagem.comandos()).isZero();
+            aguardar(() -> veiculos.stream().allMatch(id -> km(id) >= 500));
+            for (int i = 0; i < 5; i++) {
+                assertThat(km(veiculos.get(i))).isEqualTo(500 + i);
+            }
+        } finally {
+            ReflectionTestUtils.setField(telemetria, "lote", loteOriginal);
+        }
+    }
+
+    private void gravarTudo() {
+        aguardar(() -> {
+            telemetria.gravarPendentes();
+            return telemetria.metricas().pendentes() == 0;
+        });
+    }
+
+    private static void aguardar(BooleanSupplier condicao) {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!condicao.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("tempo de espera esgotado").isLessThan(limite);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private int km(Long veiculo) {
+        return jdbcTemplate.queryForObject("SELECT current_km FROM veiculos WHERE id = ?", Integer.class, veiculo);
+    }
+
+    private DadosDetalhamentoQuilometragemLog ultimoRegistro(Long veiculo) {
+        List<DadosDetalhamentoQuilometragemLog> logs = quilometragemLogService.listarLogsPorVeiculo(
+                veiculo, null, null, null, null, 100).logs();
+        return logs.get(logs.size() - 1);
+    }
+}
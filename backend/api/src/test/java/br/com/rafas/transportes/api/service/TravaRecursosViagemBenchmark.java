@@ -0,0 +1,119 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vazão de reservas sem disputa feitas por várias threads: travas por veículo e motorista contra todas as
+ * gravações passando por uma trava global em transação {@code SERIALIZABLE}. Roda com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TesteIntegracao
+class TravaRecursosViagemBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(TravaRecursosViagemBenchmark.class);
+    private static final int THREADS = 16;
+    private static final int RECURSOS = 64;
+    private static final int RESERVAS = 4_000;
+    private static final Long TRAVA_GLOBAL = 0L;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private TravaRecursosViagem travaRecursos;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void travasPorRecursoContraTransacaoSerializavelGlobal() throws Exception {
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < RECURSOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        var serializavel = new TransactionTemplate(transactionManager);
+        serializavel.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+
+        // aquecimento, fora da medição
+        reservar(veiculos, motoristas, LocalDateTime.of(2042, 1, 1, 0, 0), RESERVAS / 4, dados -> viagemService.cadastrar(dados));
+
+        double porRecurso = reservar(veiculos, motoristas, LocalDateTime.of(2043, 1, 1, 0, 0), RESERVAS,
+                dados -> viagemService.cadastrar(dados));
+        var repeticoes = new AtomicInteger();
+        double global = reservar(veiculos, motoristas, LocalDateTime.of(2045, 1, 1, 0, 0), RESERVAS, dados -> {
+            // falha de serialização é o esperado nesse nível de isolamento: a transação é refeita
+            while (true) {
+                try {
+                    serializavel.executeWithoutResult(status -> {
+                        travaRecursos.travar(Set.of(TRAVA_GLOBAL), Set.of());
+                        viagemService.cadastrar(dados);
+                    });
+                    return;
+                } catch (ConcurrencyFailureException e) {
+                    repeticoes.incrementAndGet();
+                }
+            }
+        });
+
+        log.info("{} reservas em {} threads: travas por recurso {} reservas/s, serializável global {} reservas/s "
+                        + "({} transações refeitas): {}x",
+                RESERVAS, THREADS, Math.round(porRecurso), Math.round(global), repeticoes.get(),
+                String.format("%.1f", porRecurso / global));
+    }
+
+    private double reservar(List<Long> veiculos, List<Long> motoristas, LocalDateTime base, int reservas,
+                            Consumer<DadosCadastroViagem> cadastro)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> pedidos = new ArrayList<>();
+            long inicio = System.nanoTime();
+            for (int i = 0; i < reservas; i++) {
+                int recurso = i % RECURSOS;
+                LocalDateTime partida = base.plusHours(4L * (i / RECURSOS));
+                var dados = CenarioTestes.viagem(veiculos.get(recurso), motoristas.get(recurso), partida, partida.plusHours(2));
+                pedidos.add(executor.submit(() -> cadastro.accept(dados)));
+            }
+            for (Future<?> pedido : pedidos) {
+                pedido.get(5, TimeUnit.MINUTES);
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            assertThat(pedidos).allMatch(Future::isDone);
+            return reservas / segundos;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
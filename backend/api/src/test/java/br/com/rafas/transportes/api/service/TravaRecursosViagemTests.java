@@ -0,0 +1,130 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TesteIntegracao
+class TravaRecursosViagemTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2041, 6, 2, 8, 0);
+    private static final int VEICULOS = 10;
+    private static final int PEDIDOS_POR_VEICULO = 8;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private TravaRecursosViagem travaRecursos;
+
+    @Autowired
+    private HodometroService hodometroService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void pedidosConcorrentesPeloMesmoHorarioReservamUmaVezSo() throws Exception {
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < VEICULOS; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+        }
+        for (int i = 0; i < VEICULOS * PEDIDOS_POR_VEICULO; i++) {
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        var aceitas = new AtomicInteger();
+        var recusadas = new AtomicInteger();
+        var largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> pedidos = new ArrayList<>();
+            for (int i = 0; i < VEICULOS * PEDIDOS_POR_VEICULO; i++) {
+                Long veiculo = veiculos.get(i % VEICULOS);
+                Long motorista = motoristas.get(i);
+                // horários diferentes, todos sobrepostos ao primeiro
+                LocalDateTime inicio = BASE.plusMinutes(10L * (i / VEICULOS));
+                pedidos.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        viagemService.cadastrar(CenarioTestes.viagem(veiculo, motorista, inicio, BASE.plusHours(3)));
+                        aceitas.incrementAndGet();
+                    } catch (ValidationException e) {
+                        recusadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> pedido : pedidos) {
+                pedido.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(aceitas.get()).isEqualTo(VEICULOS);
+        assertThat(recusadas.get()).isEqualTo(VEICULOS * (PEDIDOS_POR_VEICULO - 1));
+        for (Long veiculo : veiculos) {
+            assertThat(viagemRepository.findVeiculoConflitosByTime(veiculo, BASE, BASE.plusHours(3), 0L)).hasSize(1);
+        }
+    }
+
+    @Test
+    void hodometroNaoEsperaPelaTravaDaViagem() throws Exception {
+        Long veiculo = CenarioTestes.veiculo(veiculoService, 1_000).getId();
+        var travado = new CountDownLatch(1);
+        var liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> gravacao = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                travaRecursos.travar(Set.of(veiculo), Set.of());
+                travado.countDown();
+                try {
+                    liberar.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(travado.await(30, TimeUnit.SECONDS)).isTrue();
+
+            Optional<HodometroService.Avanco> avanco = new TransactionTemplate(transactionManager).execute(status ->
+                    hodometroService.avancar(veiculo, 1_200, "TESTE", null));
+            assertThat(avanco).isPresent();
+
+            liberar.countDown();
+            gravacao.get(30, TimeUnit.SECONDS);
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.rafas.transportes.api.service;
+
+import br.com.rafas.transportes.api.CenarioTestes;
+import br.com.rafas.transportes.api.ContadorConsultas;
+import br.com.rafas.transportes.api.TesteIntegracao;
+import br.com.rafas.transportes.api.dto.DadosCadastroViagem;
+import br.com.rafas.transportes.api.dto.DadosErroLoteViagem;
+import br.com.rafas.transportes.api.dto.DadosResultadoLoteViagem;
+import br.com.rafas.transportes.api.repository.ViagemRepository;
+import jakarta.validation.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TesteIntegracao
+class ViagemLoteServiceTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2032, 5, 3, 8, 0);
+
+    @Autowired
+    private ViagemLoteService loteService;
+
+    @Autowired
+    private ViagemService viagemService;
+
+    @Autowired
+    private ViagemRepository viagemRepository;
+
+    @Autowired
+    private VeiculoService veiculoService;
+
+    @Autowired
+    private MotoristaService motoristaService;
+
+    @Test
+    void reportaErrosPorItemEGravaOsValidos() {
+        Long veiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long outroVeiculo = CenarioTestes.veiculo(veiculoService).getId();
+        Long motorista = CenarioTestes.motorista(motoristaService).getId();
+        Long outroMotorista = CenarioTestes.motorista(motoristaService).getId();
+        viagemService.cadastrar(CenarioTestes.viagem(outroVeiculo, outroMotorista, BASE.plusDays(1), BASE.plusDays(1).plusHours(4)));
+
+        var semMotorista = CenarioTestes.viagem(veiculo, null, BASE.plusDays(3), BASE.plusDays(3).plusHours(2));
+        DadosResultadoLoteViagem resultado = loteService.cadastrarEmLote(List.of(
+                CenarioTestes.viagem(veiculo, motorista, BASE, BASE.plusHours(4)),
+                CenarioTestes.viagem(veiculo, motorista, BASE.plusHours(2), BASE.plusHours(6)),
+                CenarioTestes.viagem(outroVeiculo, motorista, BASE.plusDays(1).plusHours(1), BASE.plusDays(1).plusHours(2)),
+                semMotorista,
+                CenarioTestes.viagem(veiculo, motorista, BASE.plusDays(2), BASE.plusDays(2).plusHours(4))
+        ));
+
+        assertThat(resultado.recebidas()).isEqualTo(5);
+        assertThat(resultado.cadastradas()).isEqualTo(2);
+        assertThat(resultado.erros()).extracting(DadosErroLoteViagem::indice).containsExactly(1, 2, 3);
+        assertThat(resultado.erros().get(0).mensagem()).contains("item 0 do lote");
+        assertThat(resultado.erros().get(1).mensagem()).isEqualTo(ViagemService.CONFLITO_VEICULO);
+        resultado.viagens().forEach(v -> assertThat(viagemRepository.existsById(v.id())).isTrue());
+
+        // o lote já está no índice quando a próxima gravação chega
+        assertThatThrownBy(() -> viagemService.cadastrar(
+                CenarioTestes.viagem(veiculo, outroMotorista, BASE.plusHours(3), BASE.plusHours(5))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(ViagemService.CONFLITO_VEICULO);
+    }
+
+    @Test
+    void loteGrandeCustaPoucasIdasAoBanco() {
+        List<Long> veiculos = new ArrayList<>();
+        List<Long> motoristas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            veiculos.add(CenarioTestes.veiculo(veiculoService).getId());
+            motoristas.add(CenarioTestes.motorista(motoristaService).getId());
+        }
+        List<DadosCadastroViagem> itens = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime inicio = BASE.plusMonths(1).plusDays(i / 10);
+            itens.add(CenarioTestes.viagem(veiculos.get(i % 10), motoristas.get(i % 10), inicio, inicio.plusHours(6)));
+        }
+
+        var contagem = ContadorConsultas.contar(() -> loteService.cadastrarEmLote(itens));
+
+        assertThat(contagem.resultado().cadastradas()).isEqualTo(300);
+        assertThat(contagem.comandos()).isLessThanOrEqualTo(20);
+    }
+}
@@ -1,5 +1,7 @@
 import React, { useEffect, useState } from "react";
 import quilometragemLogService, {
+  type CursorQuilometragemLog,
+  type PaginaQuilometragemLog,
   type QuilometragemLog,
 } from "@/services/quilometragemLogService";
 import { Button } from "@/components/ui/Button";
@@ -12,6 +14,13 @@ import {
 import { format } from "date-fns";
 import axios from "axios";
 
+const proximoCursor = (
+  pagina: PaginaQuilometragemLog
+): CursorQuilometragemLog | null =>
+  pagina.proximaAposDataHora && pagina.proximoAposId
+    ? { aposDataHora: pagina.proximaAposDataHora, aposId: pagina.proximoAposId }
+    : null;
+
 interface HistoricoQuilometragemModalProps {
   veiculoId: number;
   onClose: () => void;
@@ -21,6 +30,8 @@ export const HistoricoQuilometragemModal: React.FC<
   HistoricoQuilometragemModalProps
 > = ({ veiculoId, onClose }) => {
   const [logs, setLogs] = useState<QuilometragemLog[]>([]);
+  const [cursor, setCursor] = useState<CursorQuilometragemLog | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
 
@@ -60,10 +71,11 @@ export const HistoricoQuilometragemModal: React.FC<
     setLoading(true);
     setError(null);
     try {
-      const fetchedLogs = await quilometragemLogService.buscarLogsPorVeiculo(
+      const pagina = await quilometragemLogService.buscarLogsPorVeiculo(
         veiculoId
       );
-      setLogs(fetchedLogs);
+      setLogs(pagina.logs);
+      setCursor(proximoCursor(pagina));
     } catch (err) {
       console.error("Erro ao buscar histórico de quilometragem:", err);
       setError(
@@ -74,6 +86,26 @@ export const HistoricoQuilometragemModal: React.FC<
     }
   };
 
+  const fetchMoreLogs = async () => {
+    if (!cursor) return;
+    setLoadingMore(true);
+    try {
+      const pagina = await quilometragemLogService.buscarLogsPorVeiculo(
+        veiculoId,
+        cursor
+      );
+      setLogs((atuais) => [...atuais, ...pagina.logs]);
+      setCursor(proximoCursor(pagina));
+    } catch (err) {
+      console.error("Erro ao buscar histórico de quilometragem:", err);
+      setError(
+        "Não foi possível carregar o histórico de quilometragem. Tente novamente mais tarde."
+      );
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     fetchLogs();
     // eslint-disable-next-line react-hooks/exhaustive-deps
@@ -152,6 +184,15 @@ export const HistoricoQuilometragemModal: React.FC<
               ))}
             </tbody>
           </table>
+          {cursor && (
+            <Button
+              variant="secondary"
+              onClick={fetchMoreLogs}
+              disabled={loadingMore}
+            >
+              {loadingMore ? "Carregando..." : "Carregar mais"}
+            </Button>
+          )}
         </div>
       )}
       <div
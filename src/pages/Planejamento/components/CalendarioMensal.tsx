@@ -1,3 +1,4 @@
+import { useEffect, useState } from "react";
 import styled from "styled-components";
 import { Link } from "react-router-dom";
 import {
@@ -10,11 +11,10 @@ import {
   isSameMonth,
   isSameDay,
 } from "date-fns";
-import type { Viagem } from "../../../services/viagemService";
+import { viagemService, type Viagem } from "../../../services/viagemService";
 
 interface CalendarioMensalProps {
   mesExibido: Date;
-  viagens: Viagem[];
 }
 
 const CalendarGrid = styled.div`
@@ -72,10 +72,7 @@ const TripInCalendar = styled(Link)`
   }
 `;
 
-export function CalendarioMensal({
-  mesExibido,
-  viagens,
-}: CalendarioMensalProps) {
+export function CalendarioMensal({ mesExibido }: CalendarioMensalProps) {
   const hoje = new Date();
   hoje.setHours(0, 0, 0, 0);
 
@@ -85,6 +82,27 @@ export function CalendarioMensal({
   const inicioDaGrade = startOfWeek(primeiroDiaDoMes);
   const fimDaGrade = endOfWeek(ultimoDiaDoMes);
 
+  const de = format(inicioDaGrade, "yyyy-MM-dd");
+  const ate = format(fimDaGrade, "yyyy-MM-dd");
+  const [viagens, setViagens] = useState<Viagem[]>([]);
+
+  // só as viagens das semanas exibidas, em vez do histórico inteiro
+  useEffect(() => {
+    let ativo = true;
+    viagemService
+      .listarJanela(de, ate)
+      .then((data) => {
+        if (ativo) setViagens(data);
+      })
+      .catch((err) => {
+        console.error("Erro ao buscar viagens do calendário:", err);
+        if (ativo) setViagens([]);
+      });
+    return () => {
+      ativo = false;
+    };
+  }, [de, ate]);
+
   const dias = eachDayOfInterval({ start: inicioDaGrade, end: fimDaGrade });
   const diasDaSemana = ["Dom", "Seg", "Ter", "Qua", "Qui", "Sex", "Sáb"];
 
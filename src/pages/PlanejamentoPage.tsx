@@ -282,7 +282,7 @@ export function PlanejamentoPage() {
         ) : viewMode === "lista" ? (
           <ListaDeViagens viagens={viagensFiltradas} />
         ) : (
-          <CalendarioMensal mesExibido={displayedMonth} viagens={viagens} />
+          <CalendarioMensal mesExibido={displayedMonth} />
         )}
       </ViewContainer>
 
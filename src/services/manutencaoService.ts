@@ -30,6 +30,77 @@ export type UpdateMaintenanceData = Partial<
   Omit<Maintenance, "id" | "veiculoId" | "veiculoDescricao">
 >;
 
+export interface PrevisaoManutencao {
+  id: number;
+  veiculoId: number;
+  title: string;
+  type: string;
+  date: string | null;
+  kmPrevisto: number | null;
+  kmRestantes: number | null;
+  kmPorDia: number | null;
+  ritmoAtualizadoEm: string | null;
+  dataPrevista: string | null;
+  dataLimite: string | null;
+}
+
+export interface ManutencaoPendente {
+  id: number;
+  veiculoId: number;
+  veiculoDescricao: string;
+  title: string;
+  type: string;
+  date: string | null;
+  kmPrevisto: number | null;
+  kmVeiculo: number | null;
+  kmRestantes: number | null;
+  situacao: "ATRASADA" | "VENCIDA" | "PROXIMA";
+}
+
+export interface ManutencoesPendentes {
+  referencia: string;
+  antecedenciaKm: number;
+  antecedenciaDias: number;
+  toleranciaKm: number;
+  toleranciaDias: number;
+  atrasadas: ManutencaoPendente[];
+  vencidas: ManutencaoPendente[];
+  proximas: ManutencaoPendente[];
+}
+
+export type DimensaoCustoManutencao = "MES" | "VEICULO" | "TIPO";
+
+export interface LinhaCustoManutencao {
+  mes: string | null;
+  veiculoId: number | null;
+  type: string | null;
+  manutencoes: number;
+  custoTotal: number;
+  kmRodados: number;
+  custoPorKm: number | null;
+}
+
+export interface CustoManutencao {
+  de: string;
+  ate: string;
+  agrupamento: DimensaoCustoManutencao[];
+  linhas: LinhaCustoManutencao[];
+  manutencoes: number;
+  custoTotal: number;
+  kmRodados: number;
+  custoPorKm: number | null;
+}
+
+export interface RankingCustoKm {
+  posicao: number;
+  veiculoId: number;
+  veiculoDescricao: string | null;
+  manutencoes: number;
+  custoTotal: number;
+  kmRodados: number;
+  custoPorKm: number | null;
+}
+
 const ROTA = "/manutencoes";
 
 export const manutencaoService = {
@@ -38,6 +109,43 @@ export const manutencaoService = {
     return res.data;
   },
 
+  async previsao(): Promise<PrevisaoManutencao[]> {
+    const res = await api.get<PrevisaoManutencao[]>(`${ROTA}/previsao`);
+    return res.data;
+  },
+
+  async pendentes(params?: {
+    antecedenciaKm?: number;
+    antecedenciaDias?: number;
+  }): Promise<ManutencoesPendentes> {
+    const res = await api.get<ManutencoesPendentes>(`${ROTA}/pendentes`, {
+      params,
+    });
+    return res.data;
+  },
+
+  async custos(
+    de: string,
+    ate: string,
+    agrupar: DimensaoCustoManutencao[] = ["MES"]
+  ): Promise<CustoManutencao> {
+    const res = await api.get<CustoManutencao>(`${ROTA}/custos`, {
+      params: { de, ate, agrupar: agrupar.join(",") },
+    });
+    return res.data;
+  },
+
+  async rankingCustoPorKm(
+    de: string,
+    ate: string,
+    limite?: number
+  ): Promise<RankingCustoKm[]> {
+    const res = await api.get<RankingCustoKm[]>(`${ROTA}/custos/ranking`, {
+      params: { de, ate, limite },
+    });
+    return res.data;
+  },
+
   async adicionar(dados: CreateMaintenanceData): Promise<Maintenance> {
     const res = await api.post<Maintenance>(ROTA, dados);
     return res.data;
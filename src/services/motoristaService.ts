@@ -1,4 +1,5 @@
 import api from "./api";
+import type { ImpactoExclusao } from "./veiculoService";
 
 export interface Driver {
   id: number;
@@ -29,6 +30,11 @@ export const motoristaService = {
     return res.data;
   },
 
+  async impacto(id: number): Promise<ImpactoExclusao> {
+    const res = await api.get<ImpactoExclusao>(`${ROTA}/${id}/impacto`);
+    return res.data;
+  },
+
   async excluir(id: number): Promise<void> {
     await api.delete(`${ROTA}/${id}`);
   },
@@ -11,16 +11,54 @@ export interface QuilometragemLog {
   quilometragemAtual: number;
   origemAlteracao: string;
   idReferenciaOrigem?: number | null;
+  dataHoraOriginal?: string | null;
+}
+
+export interface PaginaQuilometragemLog {
+  logs: QuilometragemLog[];
+  proximaAposDataHora: string | null;
+  proximoAposId: number | null;
+}
+
+export interface CursorQuilometragemLog {
+  aposDataHora: string;
+  aposId: number;
+}
+
+export type GranularidadeQuilometragem = "DIA" | "SEMANA" | "MES";
+
+export interface PontoQuilometragem {
+  inicio: string;
+  kmRodados: number;
+  kmFinal: number;
+  registros: number;
+}
+
+export interface SerieQuilometragem {
+  veiculoId: number;
+  granularidade: GranularidadeQuilometragem;
+  de: string;
+  ate: string;
+  pontos: PontoQuilometragem[];
+}
+
+export interface FiltroSerieQuilometragem {
+  granularidade?: GranularidadeQuilometragem;
+  de?: string;
+  ate?: string;
 }
 
 const ROTA = "/quilometragem-log";
 
 export const quilometragemLogService = {
-  async buscarLogsPorVeiculo(veiculoId: number): Promise<QuilometragemLog[]> {
+  async buscarLogsPorVeiculo(
+    veiculoId: number,
+    cursor?: CursorQuilometragemLog
+  ): Promise<PaginaQuilometragemLog> {
     try {
-      const response = await api.get<QuilometragemLog[]>(
-        `${ROTA}?veiculoId=${veiculoId}`
-      );
+      const response = await api.get<PaginaQuilometragemLog>(ROTA, {
+        params: { veiculoId, ...cursor },
+      });
       return response.data;
     } catch (error) {
       console.error("Erro ao buscar logs de quilometragem:", error);
@@ -28,6 +66,21 @@ export const quilometragemLogService = {
     }
   },
 
+  async buscarSerie(
+    veiculoId: number,
+    filtro?: FiltroSerieQuilometragem
+  ): Promise<SerieQuilometragem> {
+    try {
+      const response = await api.get<SerieQuilometragem>(`${ROTA}/serie`, {
+        params: { veiculoId, ...filtro },
+      });
+      return response.data;
+    } catch (error) {
+      console.error("Erro ao buscar série de quilometragem:", error);
+      throw error as AxiosError<BackendErrorResponse>;
+    }
+  },
+
   async limparLogs(veiculoId: number): Promise<void> {
     try {
       await api.delete(`${ROTA}/${veiculoId}`);
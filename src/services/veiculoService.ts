@@ -1,5 +1,6 @@
 import api from "./api";
 import { AxiosError } from "axios";
+import type { QuilometragemLog } from "./quilometragemLogService";
 
 export interface BackendErrorResponse {
   timestamp: string;
@@ -17,6 +18,51 @@ export interface Vehicle {
   currentKm: number;
 }
 
+export interface PainelManutencao {
+  id: number;
+  veiculoId: number;
+  title: string;
+  type: string;
+  date: string | null;
+  kmPrevisto: number | null;
+  kmRestantes: number | null;
+}
+
+export interface PainelViagem {
+  veiculoId: number;
+  id: number;
+  title: string;
+  inicio: string;
+  fim: string | null;
+  clientName: string | null;
+  motoristaId: number | null;
+  motoristaNome: string | null;
+}
+
+export interface PainelVeiculo extends Vehicle {
+  proximaManutencao: PainelManutencao | null;
+  proximaViagem: PainelViagem | null;
+  ultimoLog: QuilometragemLog | null;
+}
+
+export interface PainelFrota {
+  veiculos: PainelVeiculo[];
+  duracaoMs: number;
+}
+
+export interface DependenciaExclusao {
+  tabela: string;
+  quantidade: number;
+  exemplo: string | null;
+}
+
+export interface ImpactoExclusao {
+  recurso: string;
+  id: number;
+  podeExcluir: boolean;
+  dependencias: DependenciaExclusao[];
+}
+
 export type CadastroVehicleData = Omit<Vehicle, "id">;
 
 export type UpdateVehicleData = Partial<Omit<Vehicle, "id" | "plate">>;
@@ -29,6 +75,16 @@ export const veiculoService = {
     return res.data;
   },
 
+  async painel(): Promise<PainelFrota> {
+    const res = await api.get<PainelFrota>(`${ROTA}/painel`);
+    return res.data;
+  },
+
+  async impacto(id: number): Promise<ImpactoExclusao> {
+    const res = await api.get<ImpactoExclusao>(`${ROTA}/${id}/impacto`);
+    return res.data;
+  },
+
   async adicionar(dados: CadastroVehicleData): Promise<void> {
     try {
       await api.post<Vehicle>(ROTA, dados);
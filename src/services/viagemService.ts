@@ -15,6 +15,7 @@ export interface HorarioItemRota {
   inicio: string;
   dataFim: string;
   fim: string;
+  diasSemana?: string[];
 }
 
 export interface ItemRota {
@@ -94,11 +95,108 @@ export interface UpdateViagemData {
   itensRota?: ItemRotaParaEnvio[];
 }
 
+export interface ResumoDiaCalendario {
+  dia: string;
+  viagens: number;
+  viagensPorStatus: Partial<Record<Viagem["status"], number>>;
+  veiculosEmUso: number;
+  veiculoIds: number[];
+  valorTotal: number;
+}
+
+export interface CalendarioMes {
+  mes: string;
+  dias: ResumoDiaCalendario[];
+}
+
+export interface FiltroPeriodoViagem {
+  de: string;
+  ate: string;
+  status?: Viagem["status"];
+  veiculoId?: number;
+  motoristaId?: number;
+  aposData?: string;
+  aposId?: number;
+  tamanho?: number;
+}
+
+export interface PaginaViagem {
+  viagens: Viagem[];
+  proximaAposData: string | null;
+  proximoAposId: number | null;
+}
+
+export interface ResultadoBuscaViagem {
+  termo: string;
+  viagens: Viagem[];
+  pagina: number;
+  tamanho: number;
+  temProxima: boolean;
+}
+
+export type DimensaoReceita = "MES" | "VEICULO" | "MOTORISTA" | "TIPO_VIAGEM" | "STATUS";
+
+export interface LinhaReceita {
+  mes: string | null;
+  veiculoId: number | null;
+  motoristaId: number | null;
+  tipoViagem: TipoViagemEnum | null;
+  status: Viagem["status"] | null;
+  viagens: number;
+  valorTotal: number;
+}
+
+export interface Receita {
+  de: string;
+  ate: string;
+  agrupamento: DimensaoReceita[];
+  status: Viagem["status"][];
+  linhas: LinhaReceita[];
+  viagens: number;
+  valorTotal: number;
+}
+
 const ROTA = "/viagens";
 
 export const viagemService = {
   async listar(): Promise<Viagem[]> {
-    const res = await api.get<Viagem[]>(ROTA);
+    const res = await api.get<Viagem[]>(ROTA, { params: { todas: true } });
+    return res.data;
+  },
+
+  async listarPorPeriodo(filtro: FiltroPeriodoViagem): Promise<PaginaViagem> {
+    const res = await api.get<PaginaViagem>(ROTA, { params: filtro });
+    return res.data;
+  },
+
+  /** Todas as páginas da janela [de, ate], seguindo o cursor (startDate, id) devolvido por cada uma. */
+  async listarJanela(de: string, ate: string): Promise<Viagem[]> {
+    const viagens: Viagem[] = [];
+    let filtro: FiltroPeriodoViagem = { de, ate, tamanho: 200 };
+    for (;;) {
+      const pagina = await viagemService.listarPorPeriodo(filtro);
+      viagens.push(...pagina.viagens);
+      if (pagina.proximaAposData === null || pagina.proximoAposId === null) {
+        return viagens;
+      }
+      filtro = { ...filtro, aposData: pagina.proximaAposData, aposId: pagina.proximoAposId };
+    }
+  },
+
+  async buscar(q: string, pagina = 0, tamanho = 20): Promise<ResultadoBuscaViagem> {
+    const res = await api.get<ResultadoBuscaViagem>(`${ROTA}/busca`, { params: { q, pagina, tamanho } });
+    return res.data;
+  },
+
+  async calendario(mes: string): Promise<CalendarioMes> {
+    const res = await api.get<CalendarioMes>(`${ROTA}/calendario`, { params: { mes } });
+    return res.data;
+  },
+
+  async receita(de: string, ate: string, agrupar: DimensaoReceita[] = ["MES"]): Promise<Receita> {
+    const res = await api.get<Receita>(`${ROTA}/receita`, {
+      params: { de, ate, agrupar: agrupar.join(",") },
+    });
     return res.data;
   },
 